@@ -1,14 +1,27 @@
 package com.rca.demo_course.domain;
 
 import com.rca.demo_course.service.CalculatorService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import com.rca.demo_course.service.impl.CalculatorServiceImpl;
 
-@Component
+/**
+ * Calculator facade delegating to a {@link CalculatorService}.
+ * Plain constructors only, so it can be used from CLI tools without a Spring context.
+ */
 public class CalculatorModel {
 
-    @Autowired
-    private CalculatorService calculatorService;
+    private final CalculatorService calculatorService;
+
+    // Default constructor backed by the standard implementation
+    public CalculatorModel() {
+        this(new CalculatorServiceImpl());
+    }
+
+    public CalculatorModel(CalculatorService calculatorService) {
+        if (calculatorService == null) {
+            throw new IllegalArgumentException("Calculator service cannot be null");
+        }
+        this.calculatorService = calculatorService;
+    }
 
     public double add(double a, double b) {
         return calculatorService.add(a, b);
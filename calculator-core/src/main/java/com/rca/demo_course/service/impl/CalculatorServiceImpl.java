@@ -1,13 +1,12 @@
 package com.rca.demo_course.service.impl;
 
 import com.rca.demo_course.service.CalculatorService;
-import org.springframework.stereotype.Service;
 
 /**
  * Implementation of CalculatorService.
  * Provides basic arithmetic and mathematical operations.
+ * Has no framework dependencies; the web module registers it as a bean.
  */
-@Service
 public class CalculatorServiceImpl implements CalculatorService {
 
     @Override
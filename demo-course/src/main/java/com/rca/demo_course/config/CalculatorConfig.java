@@ -0,0 +1,24 @@
+package com.rca.demo_course.config;
+
+import com.rca.demo_course.domain.CalculatorModel;
+import com.rca.demo_course.service.CalculatorService;
+import com.rca.demo_course.service.impl.CalculatorServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the framework-free calculator-core classes as Spring beans.
+ */
+@Configuration
+public class CalculatorConfig {
+
+    @Bean
+    public CalculatorService calculatorService() {
+        return new CalculatorServiceImpl();
+    }
+
+    @Bean
+    public CalculatorModel calculatorModel(CalculatorService calculatorService) {
+        return new CalculatorModel(calculatorService);
+    }
+}
@@ -0,0 +1,361 @@
+package com.rca.demo_course.controller;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseInUseException;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryNotEnabledException;
+import com.rca.demo_course.service.ReplicationMember;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * REST controller for course operations.
+ * Provides HTTP endpoints for course reads and versioned updates, catalog history, enrollment,
+ * enrollment lookups, reports, enrollment event streams and replication status.
+ */
+@RestController
+@RequestMapping("/api/courses")
+@CrossOrigin(origins = "*")
+public class CourseController {
+
+    @Autowired
+    private CourseService courseService;
+
+    // The replication leader or follower this instance is, if any
+    @Autowired(required = false)
+    private ReplicationMember replicationMember;
+
+    /**
+     * Gets a course by ID. The response carries the course version, which updates send back.
+     *
+     * @param id the course ID
+     * @return the course, or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Course> getCourse(@PathVariable Long id) {
+        return courseService.getCourseById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the catalog as it was at a past instant, with each course's enrollment at that time.
+     *
+     * @param asOf the instant, e.g. 2025-09-01T00:00:00Z
+     * @return the courses; 400 if the instant is older than the retained history, 501 if catalog
+     *         history is not enabled
+     */
+    @GetMapping("/history")
+    public ResponseEntity<?> getCatalogAsOf(@RequestParam Instant asOf) {
+        try {
+            return ResponseEntity.ok(courseService.getAllCoursesAsOf(asOf));
+        } catch (HistoryNotEnabledException e) {
+            return notImplemented(e);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Gets a course as it was at a past instant.
+     *
+     * @param id the course ID
+     * @param asOf the instant
+     * @return the course, 404 if it did not exist then, 400 if the instant is older than the
+     *         retained history, or 501 if catalog history is not enabled
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getCourseAsOf(@PathVariable Long id, @RequestParam Instant asOf) {
+        try {
+            return courseService.getCourseByIdAsOf(id, asOf)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (HistoryNotEnabledException e) {
+            return notImplemented(e);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Lists the courses a student was enrolled in at a past instant.
+     *
+     * @param studentId the student ID
+     * @param asOf the instant
+     * @return the student's courses then; 400 if the instant is older than the retained history,
+     *         501 if catalog history is not enabled
+     */
+    @GetMapping("/students/{studentId}/history")
+    public ResponseEntity<?> getCoursesForStudentAsOf(@PathVariable Long studentId, @RequestParam Instant asOf) {
+        try {
+            return ResponseEntity.ok(courseService.getCoursesForStudentAsOf(studentId, asOf));
+        } catch (HistoryNotEnabledException e) {
+            return notImplemented(e);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Updates a course. If the body carries the version it was based on and the course has
+     * changed since, nothing is updated and 409 is returned with the current course, so the
+     * client can re-apply its change and retry. Enrolled students in the body are ignored, and a
+     * body without {@code active} keeps the course's current status.
+     *
+     * @param id the course ID
+     * @param course the updated course data
+     * @return the updated course; 400 if invalid, 404 if not found, 409 on a version conflict,
+     *         501 on a read-only follower
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateCourse(@PathVariable Long id, @RequestBody CourseUpdateRequest course) {
+        // Enrollment changes go through the enrollment endpoints; a list echoed from an earlier read is stale
+        course.setEnrolledStudents(null);
+        try {
+            if (!course.isActiveGiven()) {
+                // A versioned update fails with 409 if the status changed after this read
+                courseService.getCourseById(id).ifPresent(current -> course.setActive(current.isActive()));
+            }
+            return ResponseEntity.ok(courseService.updateCourse(id, course));
+        } catch (ConcurrentModificationException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            courseService.getCourseById(id).ifPresent(current -> response.put("current", current));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (UnsupportedOperationException e) {
+            return notImplemented(e);
+        }
+    }
+
+    /**
+     * Deletes a course. A course other courses list as a prerequisite is kept until they no
+     * longer require it.
+     *
+     * @param id the course ID
+     * @return 204 if deleted; 404 if not found, 409 if it is a prerequisite of another course,
+     *         501 on a read-only follower
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteCourse(@PathVariable Long id) {
+        try {
+            return courseService.deleteCourse(id)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (CourseInUseException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (UnsupportedOperationException e) {
+            return notImplemented(e);
+        }
+    }
+
+    /**
+     * Enrolls a cohort of students in a set of courses, all or nothing.
+     *
+     * @param request the course and student IDs
+     * @return the per-pair outcomes; 200 if applied, 409 if nothing was enrolled, 501 on a
+     *         read-only follower
+     */
+    @PostMapping("/enrollments/bulk")
+    public ResponseEntity<?> enrollStudents(@RequestBody BulkEnrollmentRequest request) {
+        try {
+            BulkEnrollmentResult result = courseService.enrollStudents(request.getCourseIds(), request.getStudentIds());
+            if (result.isApplied()) {
+                return ResponseEntity.ok(result);
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (UnsupportedOperationException e) {
+            return notImplemented(e);
+        }
+    }
+
+    /**
+     * Lists the courses a student is enrolled in.
+     *
+     * @param studentId the student ID
+     * @return the student's courses, empty if none
+     */
+    @GetMapping("/students/{studentId}")
+    public ResponseEntity<List<Course>> getCoursesForStudent(@PathVariable Long studentId) {
+        return ResponseEntity.ok(courseService.getCoursesForStudent(studentId));
+    }
+
+    /**
+     * Reports enrollment totals per department.
+     *
+     * @return courses, enrolled students, capacity, credit hours and fill rate per department
+     */
+    @GetMapping("/reports/departments")
+    public ResponseEntity<List<EnrollmentReport>> getDepartmentReport() {
+        return ResponseEntity.ok(courseService.getDepartmentReport());
+    }
+
+    /**
+     * Reports enrollment totals per instructor.
+     *
+     * @return courses, enrolled students, capacity, credit hours and fill rate per instructor
+     */
+    @GetMapping("/reports/instructors")
+    public ResponseEntity<List<EnrollmentReport>> getInstructorReport() {
+        return ResponseEntity.ok(courseService.getInstructorReport());
+    }
+
+    /**
+     * Checks the maintained report totals against totals rebuilt from all courses.
+     *
+     * @return whether they agree and any mismatches
+     */
+    @GetMapping("/reports/consistency")
+    public ResponseEntity<Map<String, Object>> verifyReports() {
+        List<String> mismatches = courseService.verifyEnrollmentAggregates();
+        Map<String, Object> response = new HashMap<>();
+        response.put("consistent", mismatches.isEmpty());
+        response.put("mismatches", mismatches);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reports this instance's replication role and lag: a follower's distance from the leader,
+     * or each connected follower's as acknowledged to the leader.
+     *
+     * @return the status; 501 if this instance does not replicate
+     */
+    @GetMapping("/replication")
+    public ResponseEntity<?> getReplicationStatus() {
+        if (replicationMember == null) {
+            return notImplemented(new UnsupportedOperationException("Replication is not enabled"));
+        }
+        return ResponseEntity.ok(replicationMember.getReplicationStatus());
+    }
+
+    /**
+     * Streams enrollment, unenrollment and capacity changes as Server-Sent Events, replacing
+     * enrollment count polling. Each event carries a JSON array with the latest state of every
+     * course that changed within the coalescing window. The stream ends if the client falls
+     * too far behind.
+     *
+     * @param courseIds courses to receive events for
+     * @param departments departments to receive events for; all courses if neither is given
+     * @param windowMs the coalescing window in milliseconds
+     * @return the event stream
+     */
+    @GetMapping(value = "/enrollments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEnrollments(
+            @RequestParam(name = "courseId", required = false) List<Long> courseIds,
+            @RequestParam(name = "department", required = false) List<String> departments,
+            @RequestParam(defaultValue = "250") long windowMs) {
+        if (windowMs <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        // No server-side timeout; the stream lives until the client disconnects or is dropped
+        SseEmitter emitter = new SseEmitter(0L);
+        EnrollmentSubscription subscription = courseService.subscribeToEnrollments(
+                new EnrollmentEventFilter(courseIds, departments), Duration.ofMillis(windowMs),
+                new EnrollmentEventListener() {
+                    @Override
+                    public void onEvents(List<EnrollmentEvent> events) {
+                        try {
+                            emitter.send(SseEmitter.event().name("enrollment").data(events));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void onDropped() {
+                        emitter.complete();
+                    }
+                });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static ResponseEntity<?> notImplemented(RuntimeException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(response);
+    }
+
+    /**
+     * Request body of a course update, telling whether it set the status. A course read without
+     * {@code active} would otherwise come out inactive.
+     */
+    public static class CourseUpdateRequest extends Course {
+
+        private boolean activeGiven;
+
+        @Override
+        public void setActive(boolean active) {
+            super.setActive(active);
+            activeGiven = true;
+        }
+
+        public boolean isActiveGiven() {
+            return activeGiven;
+        }
+    }
+
+    /**
+     * Request body of a bulk enrollment.
+     */
+    public static class BulkEnrollmentRequest {
+
+        private List<Long> courseIds;
+        private List<Long> studentIds;
+
+        public List<Long> getCourseIds() {
+            return courseIds;
+        }
+
+        public void setCourseIds(List<Long> courseIds) {
+            this.courseIds = courseIds;
+        }
+
+        public List<Long> getStudentIds() {
+            return studentIds;
+        }
+
+        public void setStudentIds(List<Long> studentIds) {
+            this.studentIds = studentIds;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.rca.demo_course.domain;
+
+import com.rca.demo_course.util.LongHashSet;
+import com.rca.demo_course.util.LongSet;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Domain model representing a Course entity.
+ * Contains course information and academic data.
+ */
+public class Course {
+
+    private Long id;
+    private String courseCode;
+    private String courseName;
+    private String description;
+    private String instructor;
+    private int credits;
+    private String department;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int maxStudents;
+    // Primitive set of enrolled student IDs, on-heap unless moved elsewhere; null until an enrollment list is assigned
+    private LongSet enrolledStudents;
+    // IDs of the courses a student must have completed first; null until assigned
+    private List<Long> prerequisites;
+    private boolean active;
+    // Version of the course definition, raised by every update; 0 until the course is stored
+    private long version;
+
+    // Default constructor
+    public Course() {
+    }
+
+    // Constructor with basic fields
+    public Course(String courseCode, String courseName, String instructor, int credits) {
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.instructor = instructor;
+        this.credits = credits;
+        this.active = true;
+    }
+
+    // Constructor with all fields
+    public Course(Long id, String courseCode, String courseName, String description,
+                  String instructor, int credits, String department, LocalDate startDate,
+                  LocalDate endDate, int maxStudents, List<Long> enrolledStudents, boolean active) {
+        this.id = id;
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.description = description;
+        this.instructor = instructor;
+        this.credits = credits;
+        this.department = department;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.maxStudents = maxStudents;
+        setEnrolledStudents(enrolledStudents);
+        this.active = active;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    public void setInstructor(String instructor) {
+        this.instructor = instructor;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public void setCredits(int credits) {
+        this.credits = credits;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public int getMaxStudents() {
+        return maxStudents;
+    }
+
+    public void setMaxStudents(int maxStudents) {
+        this.maxStudents = maxStudents;
+    }
+
+    /**
+     * Returns a live list view of the enrolled student IDs, or null if none assigned.
+     * Adding to or removing from the view updates the enrollment set.
+     */
+    public List<Long> getEnrolledStudents() {
+        return enrolledStudents != null ? new EnrolledStudentsView(enrolledStudents) : null;
+    }
+
+    public void setEnrolledStudents(List<Long> enrolledStudents) {
+        if (enrolledStudents == null) {
+            this.enrolledStudents = null;
+            return;
+        }
+        LongHashSet students = new LongHashSet(enrolledStudents.size());
+        for (Long studentId : enrolledStudents) {
+            if (studentId != null) {
+                students.add(studentId);
+            }
+        }
+        this.enrolledStudents = students;
+    }
+
+    /**
+     * Returns the set backing the enrolled students. Not a bean property, so it is not serialized.
+     *
+     * @return the set, or null if none assigned
+     */
+    public LongSet enrollmentStorage() {
+        return enrolledStudents;
+    }
+
+    /**
+     * Backs the enrolled students with the given set as is, e.g. an off-heap set, or the set
+     * of another version of this course so both follow the same enrollment.
+     *
+     * @param students the set, or null for none
+     */
+    public void useEnrollmentStorage(LongSet students) {
+        this.enrolledStudents = students;
+    }
+
+    /**
+     * Returns the IDs of the courses a student must have completed before enrolling. Their own
+     * prerequisites are required too.
+     *
+     * @return the direct prerequisite IDs, or null if none assigned
+     */
+    public List<Long> getPrerequisites() {
+        return prerequisites;
+    }
+
+    public void setPrerequisites(List<Long> prerequisites) {
+        this.prerequisites = prerequisites;
+    }
+
+    /**
+     * Returns the version of the course definition. Enrollments do not change it.
+     *
+     * @return the version, or 0 if not yet stored
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version an update expects to replace; 0 replaces any version.
+     *
+     * @param version the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    // Utility methods
+    public String getFullCourseInfo() {
+        return courseCode + " - " + courseName + " (" + credits + " credits)";
+    }
+
+    public void enrollStudent(Long studentId) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+        if (enrolledStudents != null && !enrolledStudents.contains(studentId)) {
+            if (enrolledStudents.size() < maxStudents) {
+                enrolledStudents.add(studentId);
+            } else {
+                throw new IllegalStateException("Course is full. Cannot enroll more students.");
+            }
+        }
+    }
+
+    public void unenrollStudent(Long studentId) {
+        if (enrolledStudents != null && studentId != null) {
+            enrolledStudents.remove(studentId);
+        }
+    }
+
+    public int getCurrentEnrollment() {
+        return enrolledStudents != null ? enrolledStudents.size() : 0;
+    }
+
+    public boolean isFull() {
+        return getCurrentEnrollment() >= maxStudents;
+    }
+
+    public boolean isEnrolled(Long studentId) {
+        return enrolledStudents != null && studentId != null && enrolledStudents.contains(studentId);
+    }
+
+    @Override
+    public String toString() {
+        return "Course{" +
+                "id=" + id +
+                ", courseCode='" + courseCode + '\'' +
+                ", courseName='" + courseName + '\'' +
+                ", instructor='" + instructor + '\'' +
+                ", credits=" + credits +
+                ", department='" + department + '\'' +
+                ", maxStudents=" + maxStudents +
+                ", active=" + active +
+                ", version=" + version +
+                '}';
+    }
+
+    /**
+     * List view over the enrollment set, kept for callers written against {@code List<Long>}.
+     * Positional order is the backing set's: insertion order for the default on-heap set until
+     * a removal moves the last ID into the gap, ascending for off-heap sets.
+     */
+    private static final class EnrolledStudentsView extends AbstractList<Long> implements RandomAccess {
+
+        private final LongSet students;
+
+        private EnrolledStudentsView(LongSet students) {
+            this.students = students;
+        }
+
+        @Override
+        public Long get(int index) {
+            return students.get(index);
+        }
+
+        @Override
+        public int size() {
+            return students.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Long && students.contains((Long) o);
+        }
+
+        @Override
+        public boolean add(Long studentId) {
+            if (studentId == null) {
+                throw new IllegalArgumentException("Student ID cannot be null");
+            }
+            if (students.add(studentId)) {
+                modCount++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void add(int index, Long studentId) {
+            if (index != students.size()) {
+                throw new UnsupportedOperationException("Enrolled students can only be appended");
+            }
+            if (studentId == null) {
+                throw new IllegalArgumentException("Student ID cannot be null");
+            }
+            students.add(studentId);
+            modCount++;
+        }
+
+        @Override
+        public Long remove(int index) {
+            Long removed = students.removeAt(index);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (o instanceof Long && students.remove((Long) o)) {
+                modCount++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            students.clear();
+            modCount++;
+        }
+    }
+}
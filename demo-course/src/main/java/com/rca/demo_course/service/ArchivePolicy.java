@@ -0,0 +1,50 @@
+package com.rca.demo_course.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Where and how often the indexed store archives ended courses.
+ * Courses that are inactive and whose end date has passed are moved out of memory into
+ * compressed segment files every interval. Archived courses are still found by ID but are left
+ * out of scans, unless a query asks for them with {@link CourseCriteria#setIncludeArchived}.
+ */
+public class ArchivePolicy {
+
+    private final Path directory;
+    private final Duration interval;
+
+    /**
+     * Creates an archive policy.
+     *
+     * @param directory directory to keep segment files in, each store in a new subdirectory
+     * @param interval period between archiving runs
+     * @throws IllegalArgumentException if the directory is null or the interval is not positive
+     */
+    public ArchivePolicy(Path directory, Duration interval) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Archive directory cannot be null");
+        }
+        if (interval == null || interval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Archive interval must be at least one millisecond");
+        }
+        this.directory = directory;
+        this.interval = interval;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivePolicy{" +
+                "directory=" + directory +
+                ", interval=" + interval +
+                '}';
+    }
+}
@@ -0,0 +1,112 @@
+package com.rca.demo_course.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an all-or-nothing bulk enrollment.
+ * Lists every (course, student) pair with what happened to it: either all enrollable pairs
+ * were enrolled, or none were and the failing pairs say why.
+ */
+public class BulkEnrollmentResult {
+
+    /**
+     * Outcome of a single (course, student) pair.
+     */
+    public enum Status {
+        /** The student was enrolled. */
+        ENROLLED,
+        /** The student was already enrolled; the pair needs no seat and does not fail the request. */
+        ALREADY_ENROLLED,
+        /** The pair was valid but was not applied because another pair failed. */
+        NOT_APPLIED,
+        /** The course has too few seats left for all students of the request. */
+        COURSE_FULL,
+        /** The course does not exist. */
+        COURSE_NOT_FOUND,
+        /** The student has not completed the course's prerequisites. */
+        PREREQUISITES_NOT_MET;
+
+        public boolean isFailure() {
+            return this == COURSE_FULL || this == COURSE_NOT_FOUND || this == PREREQUISITES_NOT_MET;
+        }
+    }
+
+    /**
+     * A (course, student) pair and its status.
+     */
+    public static class Outcome {
+
+        private final Long courseId;
+        private final Long studentId;
+        private final Status status;
+
+        public Outcome(Long courseId, Long studentId, Status status) {
+            this.courseId = courseId;
+            this.studentId = studentId;
+            this.status = status;
+        }
+
+        public Long getCourseId() {
+            return courseId;
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+    }
+
+    private final boolean applied;
+    private final List<Outcome> outcomes;
+
+    public BulkEnrollmentResult(boolean applied, List<Outcome> outcomes) {
+        this.applied = applied;
+        this.outcomes = Collections.unmodifiableList(outcomes);
+    }
+
+    /**
+     * Tells whether the request was applied.
+     *
+     * @return true if every enrollable pair was enrolled, false if nothing changed
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    /**
+     * Returns the outcome of every pair, course by course in request order.
+     *
+     * @return the per-pair outcomes
+     */
+    public List<Outcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public int getEnrolledCount() {
+        return count(Status.ENROLLED);
+    }
+
+    public int getFailureCount() {
+        int failures = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.status.isFailure()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private int count(Status status) {
+        int count = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.status == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
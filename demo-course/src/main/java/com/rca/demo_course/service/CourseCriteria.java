@@ -0,0 +1,183 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+
+import java.time.LocalDate;
+
+/**
+ * Combined filter for course catalog queries.
+ * Every criterion is optional; unset criteria match all courses.
+ * Department and instructor use the same case-insensitive substring match as
+ * {@link CourseService#findCoursesByDepartment} and {@link CourseService#findCoursesByInstructor}.
+ * The date range selects courses whose schedule overlaps [dateFrom, dateTo].
+ * Archived courses are left out unless includeArchived is set, which reads the whole archive.
+ */
+public class CourseCriteria {
+
+    private String department;
+    private String instructor;
+    private Integer minCredits;
+    private Integer maxCredits;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+    private Boolean active;
+    private boolean availableSpotsOnly;
+    private boolean includeArchived;
+
+    // Lowercased copies of the substring criteria, computed once per criteria object
+    private String departmentLower;
+    private String instructorLower;
+
+    // Default constructor
+    public CourseCriteria() {
+    }
+
+    // Getters and Setters
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+        this.departmentLower = department != null ? department.toLowerCase() : null;
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    public void setInstructor(String instructor) {
+        this.instructor = instructor;
+        this.instructorLower = instructor != null ? instructor.toLowerCase() : null;
+    }
+
+    public Integer getMinCredits() {
+        return minCredits;
+    }
+
+    public void setMinCredits(Integer minCredits) {
+        this.minCredits = minCredits;
+    }
+
+    public Integer getMaxCredits() {
+        return maxCredits;
+    }
+
+    public void setMaxCredits(Integer maxCredits) {
+        this.maxCredits = maxCredits;
+    }
+
+    public LocalDate getDateFrom() {
+        return dateFrom;
+    }
+
+    public void setDateFrom(LocalDate dateFrom) {
+        this.dateFrom = dateFrom;
+    }
+
+    public LocalDate getDateTo() {
+        return dateTo;
+    }
+
+    public void setDateTo(LocalDate dateTo) {
+        this.dateTo = dateTo;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public boolean isAvailableSpotsOnly() {
+        return availableSpotsOnly;
+    }
+
+    public void setAvailableSpotsOnly(boolean availableSpotsOnly) {
+        this.availableSpotsOnly = availableSpotsOnly;
+    }
+
+    public boolean isIncludeArchived() {
+        return includeArchived;
+    }
+
+    public void setIncludeArchived(boolean includeArchived) {
+        this.includeArchived = includeArchived;
+    }
+
+    // Utility methods
+    public boolean hasCreditRange() {
+        return minCredits != null || maxCredits != null;
+    }
+
+    /**
+     * Checks that the criteria are consistent.
+     *
+     * @throws IllegalArgumentException if a range is inverted or a text criterion is blank
+     */
+    public void validate() {
+        if (department != null && department.trim().isEmpty()) {
+            throw new IllegalArgumentException("Department cannot be empty");
+        }
+        if (instructor != null && instructor.trim().isEmpty()) {
+            throw new IllegalArgumentException("Instructor name cannot be empty");
+        }
+        if ((minCredits != null && minCredits < 0) || (maxCredits != null && maxCredits < 0)
+                || (minCredits != null && maxCredits != null && minCredits > maxCredits)) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+        if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+    }
+
+    /**
+     * Checks whether a course satisfies every criterion.
+     *
+     * @param course the course to check
+     * @return true if the course matches
+     */
+    public boolean matches(Course course) {
+        if (active != null && course.isActive() != active) {
+            return false;
+        }
+        if (availableSpotsOnly && course.isFull()) {
+            return false;
+        }
+        if (minCredits != null && course.getCredits() < minCredits) {
+            return false;
+        }
+        if (maxCredits != null && course.getCredits() > maxCredits) {
+            return false;
+        }
+        if (dateFrom != null && (course.getEndDate() == null || course.getEndDate().isBefore(dateFrom))) {
+            return false;
+        }
+        if (dateTo != null && (course.getStartDate() == null || course.getStartDate().isAfter(dateTo))) {
+            return false;
+        }
+        if (departmentLower != null && (course.getDepartment() == null
+                || !course.getDepartment().toLowerCase().contains(departmentLower))) {
+            return false;
+        }
+        return instructorLower == null || (course.getInstructor() != null
+                && course.getInstructor().toLowerCase().contains(instructorLower));
+    }
+
+    @Override
+    public String toString() {
+        return "CourseCriteria{" +
+                "department='" + department + '\'' +
+                ", instructor='" + instructor + '\'' +
+                ", minCredits=" + minCredits +
+                ", maxCredits=" + maxCredits +
+                ", dateFrom=" + dateFrom +
+                ", dateTo=" + dateTo +
+                ", active=" + active +
+                ", availableSpotsOnly=" + availableSpotsOnly +
+                ", includeArchived=" + includeArchived +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.rca.demo_course.service;
+
+/**
+ * Thrown when deleting a course that other courses still list as a prerequisite.
+ * The course is left in place; it can be deleted once no course requires it.
+ */
+public class CourseInUseException extends IllegalStateException {
+
+    public CourseInUseException(Long courseId) {
+        super("Course with ID " + courseId + " is a prerequisite of other courses");
+    }
+}
@@ -0,0 +1,402 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Service interface for course operations.
+ * Provides CRUD operations and business logic for course management.
+ */
+public interface CourseService {
+
+    /**
+     * Creates a new course.
+     *
+     * @param course the course to create
+     * @return the created course
+     * @throws IllegalArgumentException if course data is invalid or a prerequisite does not exist
+     */
+    Course createCourse(Course course);
+
+    /**
+     * Retrieves a course by ID.
+     *
+     * @param id the course ID
+     * @return an Optional containing the course if found
+     */
+    Optional<Course> getCourseById(Long id);
+
+    /**
+     * Retrieves all courses as a point-in-time view of the catalog. Later creates, updates and
+     * deletes do not change a view already returned, and each update appears in it either
+     * completely or not at all. Enrollment counts are read live from the courses.
+     *
+     * @return an unmodifiable list of all courses in ascending ID order
+     */
+    List<Course> getAllCourses();
+
+    /**
+     * Retrieves a course as it was at a past instant, from the catalog history. The history
+     * is kept per period of its retention policy, so the answer is the course as it stood at
+     * the end of the period containing the instant.
+     *
+     * @param id the course ID
+     * @param asOf the instant
+     * @return a detached copy of the course with its enrollment at that time, if it existed
+     * @throws IllegalArgumentException if an argument is null or the instant is older than the retained history
+     * @throws HistoryNotEnabledException if catalog history is not enabled
+     */
+    Optional<Course> getCourseByIdAsOf(Long id, Instant asOf);
+
+    /**
+     * Retrieves all courses as they were at a past instant, with the precision of
+     * {@link #getCourseByIdAsOf(Long, Instant)}.
+     *
+     * @param asOf the instant
+     * @return detached copies of the courses in ascending ID order
+     * @throws IllegalArgumentException if asOf is null or older than the retained history
+     * @throws HistoryNotEnabledException if catalog history is not enabled
+     */
+    List<Course> getAllCoursesAsOf(Instant asOf);
+
+    /**
+     * Finds the courses that matched all given criteria at a past instant, with the precision
+     * of {@link #getCourseByIdAsOf(Long, Instant)}. Scans the catalog of that time.
+     *
+     * @param criteria the combined criteria
+     * @param asOf the instant
+     * @return detached copies of the matching courses in ascending ID order
+     * @throws IllegalArgumentException if an argument is null, the criteria are inconsistent or the
+     *         instant is older than the retained history
+     * @throws HistoryNotEnabledException if catalog history is not enabled
+     */
+    List<Course> findCoursesAsOf(CourseCriteria criteria, Instant asOf);
+
+    /**
+     * Finds the courses a student was enrolled in at a past instant, with the precision of
+     * {@link #getCourseByIdAsOf(Long, Instant)}. Scans the catalog of that time.
+     *
+     * @param studentId the student ID
+     * @param asOf the instant
+     * @return detached copies of the student's courses in ascending ID order
+     * @throws IllegalArgumentException if an argument is null or the instant is older than the retained history
+     * @throws HistoryNotEnabledException if catalog history is not enabled
+     */
+    List<Course> getCoursesForStudentAsOf(Long studentId, Instant asOf);
+
+    /**
+     * Updates an existing course.
+     * If the course data carries a version, the update only applies to that version of the
+     * course, so a writer working from a stale read fails instead of overwriting a newer
+     * update; it should re-read and retry. A version of 0 replaces any version.
+     * Enrollment and prerequisites are kept if the course data carries none.
+     *
+     * @param id the course ID
+     * @param course the updated course data
+     * @return the updated course, with its new version
+     * @throws IllegalArgumentException if course data is invalid, a prerequisite does not exist,
+     *         or the prerequisites would form a cycle
+     * @throws NoSuchElementException if course is not found
+     * @throws java.util.ConcurrentModificationException if the course's version differs from the given one
+     */
+    Course updateCourse(Long id, Course course);
+
+    /**
+     * Deletes a course by ID.
+     *
+     * @param id the course ID
+     * @return true if the course was deleted, false otherwise
+     * @throws CourseInUseException if the course is a prerequisite of another course, which is then kept
+     */
+    boolean deleteCourse(Long id);
+
+    /**
+     * Finds courses by course code.
+     *
+     * @param courseCode the course code to search for
+     * @return a list of courses matching the course code
+     */
+    List<Course> findCoursesByCode(String courseCode);
+
+    /**
+     * Finds courses by instructor.
+     *
+     * @param instructor the instructor name to search for
+     * @return a list of courses taught by the instructor
+     */
+    List<Course> findCoursesByInstructor(String instructor);
+
+    /**
+     * Finds courses by department.
+     *
+     * @param department the department to search for
+     * @return a list of courses in the department
+     */
+    List<Course> findCoursesByDepartment(String department);
+
+    /**
+     * Searches course descriptions and ranks matches by relevance (BM25).
+     *
+     * @param query free-text query
+     * @param limit maximum number of courses to return
+     * @return matching courses, most relevant first
+     * @throws IllegalArgumentException if the query is empty or limit is not positive
+     */
+    List<Course> searchCourses(String query, int limit);
+
+    /**
+     * Completes a course code or name prefix, ignoring case.
+     * Courses are ranked by current enrollment; rankings of popular prefixes are
+     * served from a short-lived cache and may briefly lag enrollment changes.
+     *
+     * @param prefix the typed prefix
+     * @param limit the maximum number of suggestions
+     * @return matching courses, most enrolled first
+     * @throws IllegalArgumentException if prefix is null or empty, or limit is not positive
+     */
+    List<Course> autocompleteCourses(String prefix, int limit);
+
+    /**
+     * Finds the courses a student is enrolled in, using an index maintained on every
+     * enrollment change rather than scanning all courses.
+     *
+     * @param studentId the student ID
+     * @return the student's courses in ascending ID order
+     * @throws IllegalArgumentException if student ID is null
+     */
+    List<Course> getCoursesForStudent(Long studentId);
+
+    /**
+     * Enrolls a student in a course.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return true if enrollment was successful
+     * @throws IllegalStateException if course is full, student already enrolled, or student has not
+     *         completed the course's prerequisites
+     */
+    boolean enrollStudent(Long courseId, Long studentId);
+
+    /**
+     * Enrolls every student in every course, or none of them.
+     * All course locks are taken once, in a fixed order, and capacity is checked for the whole
+     * request before anything is applied. Students who are already enrolled need no seat and
+     * do not fail the request.
+     *
+     * @param courseIds the course IDs; duplicates are ignored
+     * @param studentIds the student IDs; duplicates are ignored
+     * @return the per-pair outcomes and whether the request was applied
+     * @throws IllegalArgumentException if either collection is null, empty or contains null
+     */
+    BulkEnrollmentResult enrollStudents(Collection<Long> courseIds, Collection<Long> studentIds);
+
+    /**
+     * Subscribes to enrollment, unenrollment and capacity changes. Changes to a course within
+     * the coalescing window are delivered as one event with the course's latest state. A
+     * listener that falls too far behind is dropped.
+     *
+     * @param filter the courses or departments to receive events for
+     * @param coalesceWindow how long changes are collected before delivery
+     * @param listener receives the events
+     * @return the subscription
+     * @throws IllegalArgumentException if an argument is null or the window is not positive
+     */
+    EnrollmentSubscription subscribeToEnrollments(EnrollmentEventFilter filter, Duration coalesceWindow,
+                                                  EnrollmentEventListener listener);
+
+    /**
+     * Enrolls a student in a course without blocking on the course lock.
+     * In surge mode the request is queued and applied in a batch by the writer thread
+     * owning the course; otherwise it is applied immediately on the calling thread.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return a future completing with true once enrolled, or exceptionally with the
+     *         exception {@link #enrollStudent(Long, Long)} would throw
+     * @throws IllegalArgumentException if course or student ID is null
+     */
+    CompletableFuture<Boolean> enrollStudentAsync(Long courseId, Long studentId);
+
+    /**
+     * Switches surge mode for asynchronous enrollments, used while registration opens.
+     * Requests queued before surge mode is switched off are still applied.
+     *
+     * @param enabled true to queue asynchronous enrollments for batched single-writer application
+     */
+    void setSurgeMode(boolean enabled);
+
+    /**
+     * Tells whether asynchronous enrollments are currently queued.
+     *
+     * @return true if surge mode is on
+     */
+    boolean isSurgeMode();
+
+    /**
+     * Switches hot mode for a course expecting far more enrollment attempts than seats.
+     * In hot mode, seats are claimed without taking the course lock and applied to the
+     * course shortly after; capacity is never exceeded. Updating or deleting the course
+     * ends hot mode.
+     *
+     * @param courseId the course ID
+     * @param hot true to claim seats lock-free, false to return to locked enrollment
+     * @throws IllegalArgumentException if course ID is null
+     * @throws NoSuchElementException if course is not found
+     */
+    void setHotCourse(Long courseId, boolean hot);
+
+    /**
+     * Tells whether a course is in hot mode.
+     *
+     * @param courseId the course ID
+     * @return true if seats of the course are claimed lock-free
+     */
+    boolean isHotCourse(Long courseId);
+
+    /**
+     * Unenrolls a student from a course.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return true if unenrollment was successful
+     */
+    boolean unenrollStudent(Long courseId, Long studentId);
+
+    /**
+     * Records that a student has completed a course, which counts towards the prerequisites
+     * of other courses.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @throws IllegalArgumentException if an ID is null
+     * @throws NoSuchElementException if the course does not exist
+     */
+    void recordCompletion(Long courseId, Long studentId);
+
+    /**
+     * Tells whether a student has completed every course required before a course: its
+     * prerequisites, theirs, and so on.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return true if the student meets the course's prerequisites
+     * @throws IllegalArgumentException if an ID is null
+     */
+    boolean isEligible(Long courseId, Long studentId);
+
+    /**
+     * Gets every course required before a course, directly or through other prerequisites.
+     *
+     * @param courseId the course ID
+     * @return the required courses in ascending ID order
+     * @throws IllegalArgumentException if course ID is null
+     * @throws NoSuchElementException if the course does not exist
+     */
+    List<Course> getAllPrerequisites(Long courseId);
+
+    /**
+     * Gets the enrollment count for a course.
+     *
+     * @param courseId the course ID
+     * @return the number of enrolled students
+     */
+    int getEnrollmentCount(Long courseId);
+
+    /**
+     * Reports enrollment totals, fill rate and credit hours per department from counters
+     * maintained on every change, without scanning courses.
+     *
+     * @return one report per department with courses, ordered by department
+     */
+    List<EnrollmentReport> getDepartmentReport();
+
+    /**
+     * Reports enrollment totals, fill rate and credit hours per instructor from counters
+     * maintained on every change, without scanning courses.
+     *
+     * @return one report per instructor with courses, ordered by instructor
+     */
+    List<EnrollmentReport> getInstructorReport();
+
+    /**
+     * Rebuilds the department and instructor totals from all courses and compares them with
+     * the maintained ones. Course and enrollment changes wait while the check runs.
+     *
+     * @return a description of each mismatch, empty if consistent
+     */
+    List<String> verifyEnrollmentAggregates();
+
+    /**
+     * Validates course data.
+     *
+     * @param course the course to validate
+     * @return true if the course data is valid
+     */
+    boolean validateCourse(Course course);
+
+    /**
+     * Gets all active courses.
+     *
+     * @return a list of active courses
+     */
+    List<Course> getActiveCourses();
+
+    /**
+     * Gets courses with available spots.
+     *
+     * @return a list of courses that are not full
+     */
+    List<Course> getCoursesWithAvailableSpots();
+
+    /**
+     * Streams courses with available spots lazily, so callers can stop early,
+     * e.g. {@code streamCoursesWithAvailableSpots().limit(20)}.
+     *
+     * @return a stream of active courses that are not full
+     */
+    Stream<Course> streamCoursesWithAvailableSpots();
+
+    /**
+     * Gets courses by credit range.
+     *
+     * @param minCredits minimum credits
+     * @param maxCredits maximum credits
+     * @return a list of courses within the credit range
+     */
+    List<Course> getCoursesByCreditRange(int minCredits, int maxCredits);
+
+    /**
+     * Gets active courses by credit range.
+     *
+     * @param minCredits minimum credits
+     * @param maxCredits maximum credits
+     * @return a list of active courses within the credit range
+     */
+    List<Course> getActiveCoursesByCreditRange(int minCredits, int maxCredits);
+
+    /**
+     * Finds courses matching all given criteria.
+     * The query is driven by the most selective index and the remaining criteria are verified.
+     * Archived courses follow the courses in memory when the criteria include them.
+     *
+     * @param criteria the combined criteria
+     * @return a list of matching courses
+     * @throws IllegalArgumentException if criteria are null or inconsistent
+     */
+    List<Course> findCourses(CourseCriteria criteria);
+
+    /**
+     * Explains how {@link #findCourses(CourseCriteria)} would execute the criteria.
+     *
+     * @param criteria the combined criteria
+     * @return the chosen plan with per-index estimates
+     * @throws IllegalArgumentException if criteria are null or inconsistent
+     */
+    QueryPlan explainQuery(CourseCriteria criteria);
+}
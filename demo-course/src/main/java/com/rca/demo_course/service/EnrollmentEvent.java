@@ -0,0 +1,95 @@
+package com.rca.demo_course.service;
+
+/**
+ * A change to a course's enrollment or capacity, carrying the course's state after the change.
+ * Rapid changes to one course may be coalesced into the latest event, which then counts how
+ * many changes it stands for.
+ */
+public class EnrollmentEvent {
+
+    public enum Type { ENROLLED, UNENROLLED, CAPACITY_CHANGED }
+
+    private final Type type;
+    private final Long courseId;
+    private final Long studentId;
+    private final String department;
+    private final int enrollment;
+    private final int maxStudents;
+    private final long timestamp;
+    private final int changes;
+
+    public EnrollmentEvent(Type type, Long courseId, Long studentId, String department,
+                           int enrollment, int maxStudents, long timestamp) {
+        this(type, courseId, studentId, department, enrollment, maxStudents, timestamp, 1);
+    }
+
+    private EnrollmentEvent(Type type, Long courseId, Long studentId, String department,
+                            int enrollment, int maxStudents, long timestamp, int changes) {
+        this.type = type;
+        this.courseId = courseId;
+        this.studentId = studentId;
+        this.department = department;
+        this.enrollment = enrollment;
+        this.maxStudents = maxStudents;
+        this.timestamp = timestamp;
+        this.changes = changes;
+    }
+
+    /**
+     * Folds an earlier event of the same course into this one.
+     *
+     * @param earlier the event this one supersedes
+     * @return this event's state, counting the earlier event's changes too
+     */
+    public EnrollmentEvent coalesce(EnrollmentEvent earlier) {
+        return new EnrollmentEvent(type, courseId, studentId, department, enrollment, maxStudents, timestamp,
+                changes + earlier.changes);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * Returns the student of the latest change.
+     *
+     * @return the student ID, or null for capacity changes
+     */
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public int getEnrollment() {
+        return enrollment;
+    }
+
+    public int getMaxStudents() {
+        return maxStudents;
+    }
+
+    /**
+     * Returns when the latest change happened.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns how many changes this event stands for.
+     *
+     * @return 1, or more if rapid changes were coalesced
+     */
+    public int getChanges() {
+        return changes;
+    }
+}
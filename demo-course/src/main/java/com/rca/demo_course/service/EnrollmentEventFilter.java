@@ -0,0 +1,53 @@
+package com.rca.demo_course.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Selects the enrollment events a subscriber receives: events of the listed courses or
+ * of courses in the listed departments, or all events if neither is given.
+ */
+public class EnrollmentEventFilter {
+
+    private final Set<Long> courseIds = new HashSet<>();
+    private final Set<String> departments = new HashSet<>();
+
+    /**
+     * Creates a filter.
+     *
+     * @param courseIds course IDs to receive events for; null or empty for none
+     * @param departments departments to receive events for, ignoring case; null or empty for none
+     */
+    public EnrollmentEventFilter(Collection<Long> courseIds, Collection<String> departments) {
+        if (courseIds != null) {
+            this.courseIds.addAll(courseIds);
+        }
+        if (departments != null) {
+            for (String department : departments) {
+                if (department != null) {
+                    this.departments.add(department.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a filter passing every event.
+     *
+     * @return a filter without restrictions
+     */
+    public static EnrollmentEventFilter all() {
+        return new EnrollmentEventFilter(null, null);
+    }
+
+    public boolean matches(EnrollmentEvent event) {
+        if (courseIds.isEmpty() && departments.isEmpty()) {
+            return true;
+        }
+        return courseIds.contains(event.getCourseId())
+                || (event.getDepartment() != null
+                    && departments.contains(event.getDepartment().toLowerCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,23 @@
+package com.rca.demo_course.service;
+
+import java.util.List;
+
+/**
+ * Receives coalesced enrollment events of a subscription.
+ */
+public interface EnrollmentEventListener {
+
+    /**
+     * Receives the events of one coalescing window, at most one per course, in order of each
+     * course's first change. Calls never overlap. Throwing cancels the subscription.
+     *
+     * @param events the events
+     */
+    void onEvents(List<EnrollmentEvent> events);
+
+    /**
+     * Called once if the subscription is dropped because the listener fell too far behind.
+     */
+    default void onDropped() {
+    }
+}
@@ -0,0 +1,94 @@
+package com.rca.demo_course.service;
+
+/**
+ * Enrollment totals of a group of courses, such as a department or an instructor.
+ */
+public class EnrollmentReport {
+
+    private final String group;
+    private final long courses;
+    private final long enrolled;
+    private final long capacity;
+    private final long creditHours;
+
+    public EnrollmentReport(String group, long courses, long enrolled, long capacity, long creditHours) {
+        this.group = group;
+        this.courses = courses;
+        this.enrolled = enrolled;
+        this.capacity = capacity;
+        this.creditHours = creditHours;
+    }
+
+    /**
+     * Returns the department or instructor these totals belong to.
+     *
+     * @return the group name
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public long getCourses() {
+        return courses;
+    }
+
+    public long getEnrolled() {
+        return enrolled;
+    }
+
+    /**
+     * Returns the seats of all courses in the group.
+     *
+     * @return the sum of maxStudents
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the credit hours taken in the group.
+     *
+     * @return the sum of credits times enrolled students
+     */
+    public long getCreditHours() {
+        return creditHours;
+    }
+
+    /**
+     * Returns the share of seats taken.
+     *
+     * @return enrolled divided by capacity, or 0 without capacity
+     */
+    public double getFillRate() {
+        return capacity > 0 ? (double) enrolled / capacity : 0.0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EnrollmentReport)) {
+            return false;
+        }
+        EnrollmentReport other = (EnrollmentReport) o;
+        return group.equals(other.group) && courses == other.courses && enrolled == other.enrolled
+                && capacity == other.capacity && creditHours == other.creditHours;
+    }
+
+    @Override
+    public int hashCode() {
+        return group.hashCode() * 31 + Long.hashCode(enrolled);
+    }
+
+    @Override
+    public String toString() {
+        return "EnrollmentReport{" +
+                "group='" + group + '\'' +
+                ", courses=" + courses +
+                ", enrolled=" + enrolled +
+                ", capacity=" + capacity +
+                ", creditHours=" + creditHours +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.rca.demo_course.service;
+
+/**
+ * Handle of an enrollment event subscription.
+ */
+public interface EnrollmentSubscription {
+
+    /**
+     * Stops delivery. Events still pending are discarded.
+     */
+    void cancel();
+
+    /**
+     * Tells whether events are still delivered.
+     *
+     * @return false once cancelled or dropped
+     */
+    boolean isActive();
+}
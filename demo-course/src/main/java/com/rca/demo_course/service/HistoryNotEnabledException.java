@@ -0,0 +1,13 @@
+package com.rca.demo_course.service;
+
+/**
+ * Thrown by an as-of query when the course service keeps no catalog history.
+ * A state exception for callers that predate it, but distinct from the state exceptions of
+ * enrollments and other changes, so it can be told apart from a query that failed.
+ */
+public class HistoryNotEnabledException extends IllegalStateException {
+
+    public HistoryNotEnabledException() {
+        super("Catalog history is not enabled");
+    }
+}
@@ -0,0 +1,94 @@
+package com.rca.demo_course.service;
+
+import java.time.Duration;
+
+/**
+ * How finely the catalog history is kept for as-of queries.
+ * Changes are kept as one version per granularity period, holding the catalog as it stood at
+ * the end of that period. Once older than the compaction delay, the versions of each compacted
+ * period are merged into its last one, so memory grows with the number of compacted periods
+ * rather than the number of changes. Periods are aligned to the epoch. With a retention period,
+ * versions older than it are dropped as well, which bounds the history; instants before it can
+ * no longer be queried.
+ */
+public class HistoryRetention {
+
+    private final Duration granularity;
+    private final Duration compactAfter;
+    private final Duration compactedGranularity;
+    private final Duration retainFor;
+
+    /**
+     * Creates a retention policy that keeps every compacted period.
+     *
+     * @param granularity period of recent versions
+     * @param compactAfter age after which versions are compacted; at least the granularity
+     * @param compactedGranularity period of compacted versions; a multiple of the granularity
+     * @throws IllegalArgumentException if a duration is null or the durations are inconsistent
+     */
+    public HistoryRetention(Duration granularity, Duration compactAfter, Duration compactedGranularity) {
+        this(granularity, compactAfter, compactedGranularity, null);
+    }
+
+    /**
+     * Creates a retention policy that drops versions older than a retention period.
+     *
+     * @param granularity period of recent versions
+     * @param compactAfter age after which versions are compacted; at least the granularity
+     * @param compactedGranularity period of compacted versions; a multiple of the granularity
+     * @param retainFor age after which versions are dropped, at least the compaction delay, or null to keep them
+     * @throws IllegalArgumentException if a duration other than the retention period is null or
+     *         the durations are inconsistent
+     */
+    public HistoryRetention(Duration granularity, Duration compactAfter, Duration compactedGranularity,
+                            Duration retainFor) {
+        if (granularity == null || granularity.toMillis() <= 0) {
+            throw new IllegalArgumentException("Granularity must be at least one millisecond");
+        }
+        if (compactAfter == null || compactAfter.compareTo(granularity) < 0) {
+            throw new IllegalArgumentException("Compaction delay must be at least the granularity");
+        }
+        if (compactedGranularity == null || compactedGranularity.toMillis() % granularity.toMillis() != 0
+                || compactedGranularity.compareTo(granularity) < 0) {
+            throw new IllegalArgumentException("Compacted granularity must be a multiple of the granularity");
+        }
+        if (retainFor != null && retainFor.compareTo(compactAfter) < 0) {
+            throw new IllegalArgumentException("Retention period must be at least the compaction delay");
+        }
+        this.granularity = granularity;
+        this.compactAfter = compactAfter;
+        this.compactedGranularity = compactedGranularity;
+        this.retainFor = retainFor;
+    }
+
+    public Duration getGranularity() {
+        return granularity;
+    }
+
+    public Duration getCompactAfter() {
+        return compactAfter;
+    }
+
+    public Duration getCompactedGranularity() {
+        return compactedGranularity;
+    }
+
+    /**
+     * Returns the age after which versions are dropped.
+     *
+     * @return the retention period, or null if versions are kept
+     */
+    public Duration getRetainFor() {
+        return retainFor;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryRetention{" +
+                "granularity=" + granularity +
+                ", compactAfter=" + compactAfter +
+                ", compactedGranularity=" + compactedGranularity +
+                ", retainFor=" + retainFor +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.rca.demo_course.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Execution plan chosen for a {@link CourseCriteria} query.
+ * Lists the estimated row count of every applicable access path and the one driving
+ * the query; the remaining criteria are verified on each candidate course.
+ */
+public class QueryPlan {
+
+    public static final String FULL_SCAN = "full scan";
+
+    private final String driver;
+    private final int estimatedRows;
+    private final int totalCourses;
+    private final Map<String, Integer> estimates;
+
+    public QueryPlan(String driver, int estimatedRows, int totalCourses, Map<String, Integer> estimates) {
+        this.driver = driver;
+        this.estimatedRows = estimatedRows;
+        this.totalCourses = totalCourses;
+        this.estimates = Collections.unmodifiableMap(new LinkedHashMap<>(estimates));
+    }
+
+    public String getDriver() {
+        return driver;
+    }
+
+    public int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public int getTotalCourses() {
+        return totalCourses;
+    }
+
+    public Map<String, Integer> getEstimates() {
+        return estimates;
+    }
+
+    public boolean isFullScan() {
+        return FULL_SCAN.equals(driver);
+    }
+
+    /**
+     * Renders the plan as human-readable text.
+     *
+     * @return the explain output
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Drive: ").append(driver)
+                .append(" (est. ").append(estimatedRows).append(" of ").append(totalCourses).append(" courses)\n");
+        for (Map.Entry<String, Integer> entry : estimates.entrySet()) {
+            sb.append("  candidate ").append(entry.getKey()).append(": est. ").append(entry.getValue()).append('\n');
+        }
+        sb.append("Verify: all criteria on each candidate");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
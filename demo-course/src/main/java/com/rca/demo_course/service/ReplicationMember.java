@@ -0,0 +1,14 @@
+package com.rca.demo_course.service;
+
+/**
+ * An instance taking part in leader-follower replication of the course store.
+ */
+public interface ReplicationMember {
+
+    /**
+     * Reports this instance's role and how far behind the leader it or its followers are.
+     *
+     * @return the current status
+     */
+    ReplicationStatus getReplicationStatus();
+}
@@ -0,0 +1,116 @@
+package com.rca.demo_course.service;
+
+import java.util.List;
+
+/**
+ * Replication state of one instance. Changes are numbered in the order the leader logged them;
+ * a follower is behind by the changes it has not applied yet, and by the time since the oldest
+ * of them was logged. Times come from the leader's clock and the follower's, so on separate
+ * hosts the lag is only as accurate as their clocks agree.
+ */
+public class ReplicationStatus {
+
+    public enum Role { LEADER, FOLLOWER }
+
+    private final Role role;
+    private final boolean connected;
+    private final long leaderSequence;
+    private final long appliedSequence;
+    private final long lagMillis;
+    private final List<FollowerLag> followers;
+
+    public ReplicationStatus(Role role, boolean connected, long leaderSequence, long appliedSequence, long lagMillis,
+                             List<FollowerLag> followers) {
+        this.role = role;
+        this.connected = connected;
+        this.leaderSequence = leaderSequence;
+        this.appliedSequence = appliedSequence;
+        this.lagMillis = lagMillis;
+        this.followers = List.copyOf(followers);
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * Tells whether a follower is streaming from its leader; always true for a leader.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns the sequence number of the leader's last logged change, as last heard by a follower.
+     */
+    public long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getRecordsBehind() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * Returns how long ago the oldest change not applied yet was logged, or 0 if up to date.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * Returns the lag of each connected follower, as acknowledged to a leader; empty for a follower.
+     */
+    public List<FollowerLag> getFollowers() {
+        return followers;
+    }
+
+    @Override
+    public String toString() {
+        return role + " at " + appliedSequence + " of " + leaderSequence + ", " + lagMillis + " ms behind"
+                + (connected ? "" : ", disconnected") + (followers.isEmpty() ? "" : ", followers " + followers);
+    }
+
+    /**
+     * A follower as seen by its leader.
+     */
+    public static class FollowerLag {
+
+        private final String address;
+        private final long acknowledgedSequence;
+        private final long recordsBehind;
+        private final long lagMillis;
+
+        public FollowerLag(String address, long acknowledgedSequence, long recordsBehind, long lagMillis) {
+            this.address = address;
+            this.acknowledgedSequence = acknowledgedSequence;
+            this.recordsBehind = recordsBehind;
+            this.lagMillis = lagMillis;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public long getAcknowledgedSequence() {
+            return acknowledgedSequence;
+        }
+
+        public long getRecordsBehind() {
+            return recordsBehind;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        @Override
+        public String toString() {
+            return address + " at " + acknowledgedSequence + " (" + recordsBehind + " behind, " + lagMillis + " ms)";
+        }
+    }
+}
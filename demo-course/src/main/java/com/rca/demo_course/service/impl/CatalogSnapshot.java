@@ -0,0 +1,58 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.util.PersistentLongMap;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Point-in-time view of the course catalog in ascending ID order.
+ *
+ * <p>Writers derive a new snapshot from the current one, sharing all unchanged trie nodes, and
+ * publish it after the change is complete. A reader therefore holds a view that no later
+ * create, update, delete or status change can alter, and returning it copies nothing. The
+ * courses in it are read-only {@link StoredCourse} versions, so only their enrolled students
+ * follow later enrollments. The list is unmodifiable; positional access walks the trie, so it
+ * is not marked random access.
+ */
+final class CatalogSnapshot extends AbstractList<Course> {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(PersistentLongMap.empty());
+
+    private final PersistentLongMap<Course> courses;
+
+    private CatalogSnapshot(PersistentLongMap<Course> courses) {
+        this.courses = courses;
+    }
+
+    CatalogSnapshot with(Course course) {
+        return new CatalogSnapshot(courses.put(course.getId(), course));
+    }
+
+    CatalogSnapshot without(long courseId) {
+        PersistentLongMap<Course> updated = courses.remove(courseId);
+        return updated == courses ? this : new CatalogSnapshot(updated);
+    }
+
+    @Override
+    public Course get(int index) {
+        return courses.valueAt(index);
+    }
+
+    @Override
+    public int size() {
+        return courses.size();
+    }
+
+    @Override
+    public Iterator<Course> iterator() {
+        return courses.valueIterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Course> action) {
+        courses.forEachValue(action);
+    }
+}
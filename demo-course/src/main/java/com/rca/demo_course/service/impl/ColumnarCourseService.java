@@ -0,0 +1,1224 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryNotEnabledException;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.index.FullTextIndex;
+import com.rca.demo_course.util.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * CourseService backed by a {@link ColumnarCourseStore}, for catalogs with millions of mostly
+ * historical sections where the heap is dominated by per-course objects and duplicate strings.
+ * Selected with {@code course.store=columnar}.
+ *
+ * <p>Courses are returned as detached copies built from the columns on demand; changing a
+ * returned course does not change the store, and it does not follow later changes. Apart from
+ * the description index behind {@link #searchCourses(String, int)}, which is the one kept by
+ * {@link CourseServiceImpl}, there are no secondary indexes: lookups and reports scan the
+ * primitive columns, and department and instructor filters are resolved against the
+ * dictionaries once per query.
+ *
+ * <p>Changes that add, replace or remove rows take the write lock. Enrollment and status
+ * changes take only the course's stripe lock, as in {@link CourseServiceImpl}, under the read
+ * lock that queries share; queries read a row's enrolled students under its stripe lock. Surge
+ * mode and hot courses work as in {@link CourseServiceImpl}.
+ *
+ * <p>Prerequisites are checked against a {@link PrerequisiteGraph}, as in
+ * {@link CourseServiceImpl}, with each course's direct prerequisites kept in a column. Catalog
+ * history, when enabled, is the {@link CourseHistory} kept by {@link CourseServiceImpl}, recorded
+ * under the same locks as the changes.
+ */
+@Service
+@ConditionalOnProperty(name = "course.store", havingValue = "columnar")
+public class ColumnarCourseService implements CourseService, AutoCloseable {
+
+    private final ColumnarCourseStore store = new ColumnarCourseStore();
+    // Write lock: changes to rows and dictionaries; read lock: queries and row-local changes
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Enrollment and status changes of a course, taken under the read lock
+    private final ReentrantLock[] enrollmentLocks = new ReentrantLock[CourseServiceImpl.LOCK_STRIPES];
+    // Guarded by the write lock
+    private long nextId = 1L;
+    private final FullTextIndex descriptionIndex = new FullTextIndex();
+    private final PrerequisiteGraph prerequisiteGraph = new PrerequisiteGraph();
+    // Seat counters of courses in hot mode, started and ended under the course's stripe lock
+    private final Map<Long, HotCourseSeats> hotCourses = new ConcurrentHashMap<>();
+    // Per-shard single-writer queues routing asynchronous enrollments while surge mode is on, null when off
+    private volatile EnrollmentSurgeQueue surgeQueue;
+    // Enrollment and capacity changes for streaming subscribers, published under the course's stripe lock
+    private final EnrollmentEventBus enrollmentEvents = new EnrollmentEventBus();
+    // Null unless catalog history is enabled
+    private final CourseHistory history;
+
+    public ColumnarCourseService() {
+        this(null, Clock.systemUTC());
+    }
+
+    @Autowired
+    public ColumnarCourseService(@Value("${course.history.enabled:false}") boolean historyEnabled,
+                                 @Value("${course.history.granularity:PT1M}") Duration historyGranularity,
+                                 @Value("${course.history.compact-after:P7D}") Duration historyCompactAfter,
+                                 @Value("${course.history.compacted-granularity:P1D}") Duration historyCompactedGranularity,
+                                 @Value("${course.history.retain-for:P365D}") Duration historyRetainFor) {
+        this(historyEnabled ? new HistoryRetention(historyGranularity, historyCompactAfter, historyCompactedGranularity, historyRetainFor) : null,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Creates the service, optionally keeping a history of the catalog for as-of queries.
+     *
+     * @param historyRetention how finely to keep the history, or null to keep none
+     * @param clock the clock timestamping history versions
+     */
+    public ColumnarCourseService(HistoryRetention historyRetention, Clock clock) {
+        this.history = historyRetention != null ? new CourseHistory(historyRetention, clock) : null;
+        for (int i = 0; i < enrollmentLocks.length; i++) {
+            enrollmentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Course createCourse(Course course) {
+        if (!validateCourse(course)) {
+            throw new IllegalArgumentException("Course data cannot be null or invalid");
+        }
+        long[] prerequisiteIds = CourseServiceImpl.prerequisiteIds(course);
+
+        lock.writeLock().lock();
+        try {
+            prerequisiteGraph.addCourse(nextId, prerequisiteIds);
+            course.setId(nextId++);
+            course.setActive(true);
+            course.setVersion(1L);
+            int row = store.append(course);
+            descriptionIndex.put(course.getId(), course.getDescription());
+            Course created = store.materialize(row);
+            if (history != null) {
+                history.courseChanged(created, true);
+            }
+            return created;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Course> getCourseById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            int row = store.rowOf(id);
+            return row >= 0 ? Optional.of(materialize(row)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return Collections.unmodifiableList(scan(row -> true));
+    }
+
+    @Override
+    public Optional<Course> getCourseByIdAsOf(Long id, Instant asOf) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().course(id, asOf.toEpochMilli());
+    }
+
+    @Override
+    public List<Course> getAllCoursesAsOf(Instant asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().courses(asOf.toEpochMilli(), course -> true);
+    }
+
+    @Override
+    public List<Course> findCoursesAsOf(CourseCriteria criteria, Instant asOf) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+        criteria.validate();
+
+        return history().courses(asOf.toEpochMilli(), criteria::matches);
+    }
+
+    @Override
+    public List<Course> getCoursesForStudentAsOf(Long studentId, Instant asOf) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().coursesOf(studentId, asOf.toEpochMilli());
+    }
+
+    @Override
+    public Course updateCourse(Long id, Course course) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (!validateCourse(course)) {
+            throw new IllegalArgumentException("Course data cannot be null or invalid");
+        }
+        long[] prerequisiteIds = course.getPrerequisites() != null ? CourseServiceImpl.prerequisiteIds(course) : null;
+
+        lock.writeLock().lock();
+        try {
+            int row = store.rowOf(id);
+            if (row < 0) {
+                throw new NoSuchElementException("Course with ID " + id + " not found");
+            }
+            CourseServiceImpl.requireVersion(id, course.getVersion(), store.version(row));
+            // Prerequisites are kept by the store if not provided
+            if (prerequisiteIds != null) {
+                prerequisiteGraph.setPrerequisites(id, prerequisiteIds);
+            }
+
+            // Capacity may change, so seats are reconciled and the course returns to locked enrollment
+            endHotMode(id, row);
+
+            int previousMaxStudents = store.maxStudents(row);
+            course.setId(id);
+            course.setVersion(store.version(row) + 1);
+            // Enrollment data is preserved by the store if not provided
+            store.replace(row, course);
+            descriptionIndex.put(id, course.getDescription());
+            if (store.maxStudents(row) != previousMaxStudents) {
+                publish(EnrollmentEvent.Type.CAPACITY_CHANGED, row, null);
+            }
+            Course updated = store.materialize(row);
+            if (history != null) {
+                history.courseChanged(updated, course.getEnrolledStudents() != null);
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (store.rowOf(id) < 0) {
+                return false;
+            }
+            prerequisiteGraph.removeCourse(id);
+            HotCourseSeats seats = hotCourses.remove(id);
+            if (seats != null) {
+                // Claims not yet applied are void with the course
+                seats.seal();
+            }
+            store.remove(id);
+            descriptionIndex.remove(id);
+            if (history != null) {
+                history.courseRemoved(id);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Course> findCoursesByCode(String courseCode) {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course code cannot be null or empty");
+        }
+
+        return scan(row -> containsIgnoreCase(store.code(row), courseCode));
+    }
+
+    @Override
+    public List<Course> findCoursesByInstructor(String instructor) {
+        if (instructor == null || instructor.trim().isEmpty()) {
+            throw new IllegalArgumentException("Instructor name cannot be null or empty");
+        }
+
+        return scanLocked(() -> {
+            boolean[] matching = matchingCodes(store.instructorDictionary(), instructor);
+            return row -> matches(matching, store.instructorCode(row));
+        });
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartment(String department) {
+        if (department == null || department.trim().isEmpty()) {
+            throw new IllegalArgumentException("Department cannot be null or empty");
+        }
+
+        return scanLocked(() -> {
+            boolean[] matching = matchingCodes(store.departmentDictionary(), department);
+            return row -> matches(matching, store.departmentCode(row));
+        });
+    }
+
+    @Override
+    public List<Course> searchCourses(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        long[] ids = descriptionIndex.search(query, limit);
+        lock.readLock().lock();
+        try {
+            List<Course> result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                int row = store.rowOf(id);
+                // Skip courses deleted since the search
+                if (row >= 0) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Course> autocompleteCourses(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Integer> rows = new ArrayList<>();
+            for (int row = 0; row < store.rowLimit(); row++) {
+                if (store.isLive(row) && (startsWithIgnoreCase(store.code(row), prefix)
+                        || startsWithIgnoreCase(store.name(row), prefix))) {
+                    rows.add(row);
+                }
+            }
+            // Most enrolled first; rows are in ID order, so ties keep ascending IDs
+            rows.sort(Comparator.comparingInt((Integer row) -> store.enrollment(row)).reversed());
+            List<Course> result = new ArrayList<>(Math.min(limit, rows.size()));
+            for (int i = 0; i < rows.size() && i < limit; i++) {
+                result.add(materialize(rows.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Course> getCoursesForStudent(Long studentId) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        return scan(row -> isEnrolled(row, studentId));
+    }
+
+    @Override
+    public boolean enrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        ReentrantLock stripe = lockFor(courseId);
+        while (true) {
+            HotCourseSeats seats = hotCourses.get(courseId);
+            if (seats != null) {
+                requirePrerequisites(courseId, studentId);
+                HotCourseSeats.Claim claim = seats.claim(studentId);
+                if (claim != HotCourseSeats.Claim.SEALED) {
+                    return claimed(courseId, seats, claim);
+                }
+                // Hot mode is ending; the locked path below waits until its seats are reconciled
+            }
+
+            lock.readLock().lock();
+            stripe.lock();
+            try {
+                // Hot mode starts under this lock, so a course seen here without seats has none
+                if (!hotCourses.containsKey(courseId)) {
+                    enroll(courseId, studentId);
+                    return true;
+                }
+            } finally {
+                stripe.unlock();
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public BulkEnrollmentResult enrollStudents(Collection<Long> courseIds, Collection<Long> studentIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            throw new IllegalArgumentException("Course IDs cannot be null or empty");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new IllegalArgumentException("Student IDs cannot be null or empty");
+        }
+        Set<Long> distinctCourses = new LinkedHashSet<>();
+        for (Long courseId : courseIds) {
+            if (courseId == null) {
+                throw new IllegalArgumentException("Course ID cannot be null");
+            }
+            distinctCourses.add(courseId);
+        }
+        Set<Long> distinctStudents = new LinkedHashSet<>();
+        for (Long studentId : studentIds) {
+            if (studentId == null) {
+                throw new IllegalArgumentException("Student ID cannot be null");
+            }
+            distinctStudents.add(studentId);
+        }
+
+        int[] stripes = distinctCourses.stream().mapToInt(CourseServiceImpl::stripeOf).distinct().sorted().toArray();
+        lock.readLock().lock();
+        try {
+            lockStripes(stripes);
+            try {
+                return enrollLocked(distinctCourses, distinctStudents.toArray(new Long[0]));
+            } finally {
+                unlockStripes(stripes);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Validates every pair, then enrolls all or none. Hot courses involved leave hot mode until
+     * the enrollment is complete. Callers hold the read lock and the stripe locks of all courses.
+     */
+    private BulkEnrollmentResult enrollLocked(Set<Long> courseIds, Long[] students) {
+        Map<Long, boolean[]> enrolledByCourse = new LinkedHashMap<>();
+        Map<Long, boolean[]> ineligibleByCourse = new HashMap<>();
+        Set<Long> fullCourses = new HashSet<>();
+        List<Long> hot = new ArrayList<>();
+        boolean failed = false;
+        for (Long courseId : courseIds) {
+            int row = store.rowOf(courseId);
+            if (row < 0) {
+                enrolledByCourse.put(courseId, null);
+                continue;
+            }
+            if (hotCourses.containsKey(courseId)) {
+                // Settle seats claimed outside the lock before checking capacity
+                endHotMode(courseId, row);
+                hot.add(courseId);
+            }
+            boolean[] enrolled = new boolean[students.length];
+            boolean[] ineligible = new boolean[students.length];
+            int needed = 0;
+            for (int i = 0; i < students.length; i++) {
+                enrolled[i] = store.isEnrolled(row, students[i]);
+                needed += enrolled[i] ? 0 : 1;
+                if (!enrolled[i] && !prerequisiteGraph.isEligible(courseId, students[i])) {
+                    ineligible[i] = true;
+                    failed = true;
+                }
+            }
+            enrolledByCourse.put(courseId, enrolled);
+            ineligibleByCourse.put(courseId, ineligible);
+            if (store.enrollment(row) + needed > store.maxStudents(row)) {
+                fullCourses.add(courseId);
+            }
+        }
+        failed = failed || !fullCourses.isEmpty() || enrolledByCourse.containsValue(null);
+
+        List<BulkEnrollmentResult.Outcome> outcomes = new ArrayList<>(courseIds.size() * students.length);
+        for (Map.Entry<Long, boolean[]> entry : enrolledByCourse.entrySet()) {
+            Long courseId = entry.getKey();
+            boolean[] enrolled = entry.getValue();
+            int row = enrolled != null ? store.rowOf(courseId) : -1;
+            boolean[] ineligible = ineligibleByCourse.get(courseId);
+            boolean full = fullCourses.contains(courseId);
+            for (int i = 0; i < students.length; i++) {
+                BulkEnrollmentResult.Status status;
+                if (row < 0) {
+                    status = BulkEnrollmentResult.Status.COURSE_NOT_FOUND;
+                } else if (enrolled[i]) {
+                    status = BulkEnrollmentResult.Status.ALREADY_ENROLLED;
+                } else if (ineligible[i]) {
+                    status = BulkEnrollmentResult.Status.PREREQUISITES_NOT_MET;
+                } else if (full) {
+                    status = BulkEnrollmentResult.Status.COURSE_FULL;
+                } else if (failed) {
+                    status = BulkEnrollmentResult.Status.NOT_APPLIED;
+                } else {
+                    store.enroll(row, students[i]);
+                    publish(EnrollmentEvent.Type.ENROLLED, row, students[i]);
+                    if (history != null) {
+                        history.enrollmentChanged(courseId, students[i], true);
+                    }
+                    status = BulkEnrollmentResult.Status.ENROLLED;
+                }
+                outcomes.add(new BulkEnrollmentResult.Outcome(courseId, students[i], status));
+            }
+        }
+
+        for (Long courseId : hot) {
+            startHotMode(courseId, store.rowOf(courseId));
+        }
+        return new BulkEnrollmentResult(!failed, outcomes);
+    }
+
+    @Override
+    public EnrollmentSubscription subscribeToEnrollments(EnrollmentEventFilter filter, Duration coalesceWindow,
+                                                         EnrollmentEventListener listener) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (coalesceWindow == null || coalesceWindow.isNegative() || coalesceWindow.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        return enrollmentEvents.subscribe(filter, coalesceWindow, listener);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enrollStudentAsync(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        EnrollmentSurgeQueue queue = surgeQueue;
+        if (queue != null) {
+            CompletableFuture<Boolean> queued = queue.submit(courseId, studentId);
+            // Null once surge mode has been switched off meanwhile
+            if (queued != null) {
+                return queued;
+            }
+        }
+        try {
+            return CompletableFuture.completedFuture(enrollStudent(courseId, studentId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public synchronized void setSurgeMode(boolean enabled) {
+        if (enabled && surgeQueue == null) {
+            // Shards own whole lock stripes, so writers of different shards never share a lock
+            surgeQueue = new EnrollmentSurgeQueue(CourseServiceImpl.SURGE_SHARDS,
+                    courseId -> CourseServiceImpl.stripeOf(courseId) & (CourseServiceImpl.SURGE_SHARDS - 1),
+                    this::applyEnrollments);
+        } else if (!enabled && surgeQueue != null) {
+            // Its writers apply the requests already queued, then exit
+            surgeQueue.shutdown();
+            surgeQueue = null;
+        }
+    }
+
+    @Override
+    public boolean isSurgeMode() {
+        return surgeQueue != null;
+    }
+
+    @Override
+    public void setHotCourse(Long courseId, boolean hot) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        ReentrantLock stripe = lockFor(courseId);
+        lock.readLock().lock();
+        stripe.lock();
+        try {
+            int row = store.rowOf(courseId);
+            if (row < 0) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+
+            if (!hot) {
+                endHotMode(courseId, row);
+            } else if (!hotCourses.containsKey(courseId)) {
+                startHotMode(courseId, row);
+            }
+        } finally {
+            stripe.unlock();
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isHotCourse(Long courseId) {
+        return courseId != null && hotCourses.containsKey(courseId);
+    }
+
+    @Override
+    public boolean unenrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        ReentrantLock stripe = lockFor(courseId);
+        lock.readLock().lock();
+        stripe.lock();
+        try {
+            int row = store.rowOf(courseId);
+            if (row < 0) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+
+            HotCourseSeats seats = hotCourses.get(courseId);
+            if (seats != null) {
+                applyClaims(row, seats);
+            }
+
+            if (!store.unenroll(row, studentId)) {
+                throw new IllegalStateException("Student is not enrolled in this course");
+            }
+            publish(EnrollmentEvent.Type.UNENROLLED, row, studentId);
+            if (history != null) {
+                history.enrollmentChanged(courseId, studentId, false);
+            }
+            if (seats != null) {
+                seats.release(studentId);
+            }
+            return true;
+        } finally {
+            stripe.unlock();
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordCompletion(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            if (store.rowOf(courseId) < 0) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+            prerequisiteGraph.recordCompletion(studentId, courseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEligible(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        return prerequisiteGraph.isEligible(courseId, studentId);
+    }
+
+    @Override
+    public List<Course> getAllPrerequisites(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        lock.readLock().lock();
+        try {
+            if (store.rowOf(courseId) < 0) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+            long[] ids = prerequisiteGraph.transitivePrerequisites(courseId);
+            Arrays.sort(ids);
+            List<Course> prerequisites = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                prerequisites.add(materialize(store.rowOf(id)));
+            }
+            return prerequisites;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getEnrollmentCount(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            int row = store.rowOf(courseId);
+            if (row < 0) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+            return store.enrollment(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports totals per department by one scan of the department, credits, capacity and
+     * enrollment columns, grouping on dictionary codes.
+     */
+    @Override
+    public List<EnrollmentReport> getDepartmentReport() {
+        lock.readLock().lock();
+        try {
+            return report(store.departmentDictionary(), store::departmentCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports totals per instructor by one scan of the columns, grouping on dictionary codes.
+     */
+    @Override
+    public List<EnrollmentReport> getInstructorReport() {
+        lock.readLock().lock();
+        try {
+            return report(store.instructorDictionary(), store::instructorCode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports are computed from the columns themselves, so there are no separate totals
+     * that could drift.
+     *
+     * @return an empty list
+     */
+    @Override
+    public List<String> verifyEnrollmentAggregates() {
+        return List.of();
+    }
+
+    @Override
+    public boolean validateCourse(Course course) {
+        return CourseServiceImpl.isValid(course);
+    }
+
+    @Override
+    public List<Course> getActiveCourses() {
+        return scan(store::isActive);
+    }
+
+    @Override
+    public List<Course> getCoursesWithAvailableSpots() {
+        return scan(this::isOpen);
+    }
+
+    @Override
+    public Stream<Course> streamCoursesWithAvailableSpots() {
+        return getCoursesWithAvailableSpots().stream();
+    }
+
+    @Override
+    public List<Course> getCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+
+        return scan(row -> store.credits(row) >= minCredits && store.credits(row) <= maxCredits);
+    }
+
+    @Override
+    public List<Course> getActiveCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+
+        return scan(row -> store.isActive(row)
+                && store.credits(row) >= minCredits && store.credits(row) <= maxCredits);
+    }
+
+    @Override
+    public List<Course> findCourses(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        return scanLocked(() -> matcher(criteria));
+    }
+
+    @Override
+    public QueryPlan explainQuery(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        lock.readLock().lock();
+        try {
+            return new QueryPlan(QueryPlan.FULL_SCAN, store.size(), store.size(), Map.of());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTotalCourseCount() {
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ends surge mode once the queued enrollments are applied.
+     */
+    @Override
+    public void close() {
+        EnrollmentSurgeQueue queue = surgeQueue;
+        setSurgeMode(false);
+        if (queue != null) {
+            try {
+                queue.awaitTermination(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void deactivateCourse(Long id) {
+        setActive(id, false);
+    }
+
+    public void activateCourse(Long id) {
+        setActive(id, true);
+    }
+
+    private void setActive(Long id, boolean active) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        ReentrantLock stripe = lockFor(id);
+        lock.readLock().lock();
+        stripe.lock();
+        try {
+            int row = store.rowOf(id);
+            if (row >= 0) {
+                store.setActive(row, active);
+                if (history != null) {
+                    history.courseChanged(store.materialize(row), false);
+                }
+            }
+        } finally {
+            stripe.unlock();
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Validates and applies one enrollment. Callers hold the read lock and the course's stripe lock.
+     *
+     * @throws NoSuchElementException if the course does not exist
+     * @throws IllegalStateException if the student is already enrolled, lacks prerequisites or the course is full
+     */
+    private void enroll(Long courseId, Long studentId) {
+        int row = store.rowOf(courseId);
+        if (row < 0) {
+            throw new NoSuchElementException("Course with ID " + courseId + " not found");
+        }
+        if (store.isEnrolled(row, studentId)) {
+            throw new IllegalStateException("Student is already enrolled in this course");
+        }
+        requirePrerequisites(courseId, studentId);
+        if (store.enrollment(row) >= store.maxStudents(row)) {
+            throw new IllegalStateException("Course is full. Cannot enroll more students");
+        }
+        store.enroll(row, studentId);
+        publish(EnrollmentEvent.Type.ENROLLED, row, studentId);
+        if (history != null) {
+            history.enrollmentChanged(courseId, studentId, true);
+        }
+    }
+
+    /**
+     * Applies a surge batch for one course under a single acquisition of its stripe lock.
+     * Futures are completed after the lock is released, since dependent callbacks run inline.
+     */
+    private void applyEnrollments(Long courseId, List<EnrollmentSurgeQueue.Request> requests) {
+        RuntimeException[] failures = new RuntimeException[requests.size()];
+        ReentrantLock stripe = lockFor(courseId);
+        boolean hot;
+        lock.readLock().lock();
+        stripe.lock();
+        try {
+            hot = hotCourses.containsKey(courseId);
+            if (!hot) {
+                for (int i = 0; i < failures.length; i++) {
+                    try {
+                        enroll(courseId, requests.get(i).studentId);
+                    } catch (RuntimeException e) {
+                        failures[i] = e;
+                    }
+                }
+            }
+        } finally {
+            stripe.unlock();
+            lock.readLock().unlock();
+        }
+
+        if (hot) {
+            // Seats of hot courses are only handed out against capacity tokens
+            for (int i = 0; i < failures.length; i++) {
+                try {
+                    enrollStudent(courseId, requests.get(i).studentId);
+                } catch (RuntimeException e) {
+                    failures[i] = e;
+                }
+            }
+        }
+
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == null) {
+                requests.get(i).result.complete(true);
+            } else {
+                requests.get(i).result.completeExceptionally(failures[i]);
+            }
+        }
+    }
+
+    /**
+     * Maps the outcome of a hot-course seat claim to the locked path's result and exceptions,
+     * and applies queued claims to the course before returning.
+     */
+    private boolean claimed(Long courseId, HotCourseSeats seats, HotCourseSeats.Claim claim) {
+        switch (claim) {
+            case ALREADY_ENROLLED -> throw new IllegalStateException("Student is already enrolled in this course");
+            case FULL -> throw new IllegalStateException("Course is full. Cannot enroll more students");
+            default -> {
+                // Taken even with no claims queued, since the holder that polled ours may not have applied it yet
+                ReentrantLock stripe = lockFor(courseId);
+                lock.readLock().lock();
+                stripe.lock();
+                try {
+                    int row = store.rowOf(courseId);
+                    if (row >= 0) {
+                        applyClaims(row, seats);
+                    }
+                } finally {
+                    stripe.unlock();
+                    lock.readLock().unlock();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Applies queued seat claims of a hot course. Callers hold the course's stripe lock or the
+     * write lock.
+     */
+    private void applyClaims(int row, HotCourseSeats seats) {
+        Long studentId;
+        while ((studentId = seats.pollClaimed()) != null) {
+            store.enroll(row, studentId);
+            publish(EnrollmentEvent.Type.ENROLLED, row, studentId);
+            if (history != null) {
+                history.enrollmentChanged(store.id(row), studentId, true);
+            }
+        }
+    }
+
+    /**
+     * Starts hot mode for a course with its remaining capacity. Callers hold the course's stripe lock.
+     */
+    private void startHotMode(Long courseId, int row) {
+        int remaining = Math.max(0, store.maxStudents(row) - store.enrollment(row));
+        hotCourses.put(courseId, new HotCourseSeats(CourseServiceImpl.HOT_COURSE_STRIPES, remaining,
+                store.enrolledStudents(row)));
+    }
+
+    /**
+     * Ends hot mode for a course, if on, and applies every claim made before it ended.
+     * Callers hold the course's stripe lock or the write lock.
+     */
+    private void endHotMode(Long courseId, int row) {
+        HotCourseSeats seats = hotCourses.remove(courseId);
+        if (seats != null) {
+            seats.seal();
+            applyClaims(row, seats);
+        }
+    }
+
+    /**
+     * Locks stripes in ascending order, so callers locking overlapping stripes cannot deadlock.
+     *
+     * @param stripes distinct stripe indexes in ascending order
+     */
+    private void lockStripes(int[] stripes) {
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                enrollmentLocks[stripe].lock();
+                locked++;
+            }
+        } catch (RuntimeException | Error e) {
+            unlockStripes(Arrays.copyOf(stripes, locked));
+            throw e;
+        }
+    }
+
+    private void unlockStripes(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            enrollmentLocks[stripes[i]].unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(Long courseId) {
+        return enrollmentLocks[CourseServiceImpl.stripeOf(courseId)];
+    }
+
+    private CourseHistory history() {
+        if (history == null) {
+            throw new HistoryNotEnabledException();
+        }
+        return history;
+    }
+
+    /**
+     * Builds a course from a row under its stripe lock, so its status and students are consistent.
+     * Callers hold the read lock.
+     */
+    private Course materialize(int row) {
+        ReentrantLock stripe = lockFor(store.id(row));
+        stripe.lock();
+        try {
+            return store.materialize(row);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Checks an enrollment under the course's stripe lock, as the set may be changing. Callers
+     * hold the read lock.
+     */
+    private boolean isEnrolled(int row, long studentId) {
+        ReentrantLock stripe = lockFor(store.id(row));
+        stripe.lock();
+        try {
+            return store.isEnrolled(row, studentId);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void requirePrerequisites(Long courseId, Long studentId) {
+        if (!prerequisiteGraph.isEligible(courseId, studentId)) {
+            throw new IllegalStateException("Student has not completed the prerequisites of this course");
+        }
+    }
+
+    private boolean isOpen(int row) {
+        return store.isActive(row) && store.enrollment(row) < store.maxStudents(row);
+    }
+
+    /**
+     * Builds a row filter evaluating the criteria on the columns, so only matches are materialized.
+     * Callers hold the read lock, since dictionary matches are resolved here.
+     */
+    private IntPredicate matcher(CourseCriteria criteria) {
+        boolean[] departments = criteria.getDepartment() != null
+                ? matchingCodes(store.departmentDictionary(), criteria.getDepartment()) : null;
+        boolean[] instructors = criteria.getInstructor() != null
+                ? matchingCodes(store.instructorDictionary(), criteria.getInstructor()) : null;
+        int fromDay = criteria.getDateFrom() != null
+                ? ColumnarCourseStore.toEpochDay(criteria.getDateFrom()) : ColumnarCourseStore.NO_DATE;
+        int toDay = criteria.getDateTo() != null
+                ? ColumnarCourseStore.toEpochDay(criteria.getDateTo()) : ColumnarCourseStore.NO_DATE;
+        return row -> {
+            if (criteria.getActive() != null && store.isActive(row) != criteria.getActive()) {
+                return false;
+            }
+            if (criteria.isAvailableSpotsOnly() && store.enrollment(row) >= store.maxStudents(row)) {
+                return false;
+            }
+            if (criteria.getMinCredits() != null && store.credits(row) < criteria.getMinCredits()) {
+                return false;
+            }
+            if (criteria.getMaxCredits() != null && store.credits(row) > criteria.getMaxCredits()) {
+                return false;
+            }
+            if (fromDay != ColumnarCourseStore.NO_DATE
+                    && (store.endDay(row) == ColumnarCourseStore.NO_DATE || store.endDay(row) < fromDay)) {
+                return false;
+            }
+            if (toDay != ColumnarCourseStore.NO_DATE
+                    && (store.startDay(row) == ColumnarCourseStore.NO_DATE || store.startDay(row) > toDay)) {
+                return false;
+            }
+            if (departments != null && !matches(departments, store.departmentCode(row))) {
+                return false;
+            }
+            return instructors == null || matches(instructors, store.instructorCode(row));
+        };
+    }
+
+    private List<Course> scan(IntPredicate filter) {
+        return scanLocked(() -> filter);
+    }
+
+    /**
+     * Materializes the live rows accepted by a filter in ID order. The filter is built under
+     * the read lock, so it may resolve dictionary codes.
+     */
+    private List<Course> scanLocked(Supplier<IntPredicate> filterFactory) {
+        lock.readLock().lock();
+        try {
+            IntPredicate filter = filterFactory.get();
+            List<Course> result = new ArrayList<>();
+            for (int row = 0; row < store.rowLimit(); row++) {
+                if (store.isLive(row) && filter.test(row)) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<EnrollmentReport> report(StringDictionary dictionary, IntUnaryOperator groupOf) {
+        // Per code: courses, enrolled, capacity, credit hours
+        long[][] totals = new long[dictionary.size()][];
+        for (int row = 0; row < store.rowLimit(); row++) {
+            if (!store.isLive(row)) {
+                continue;
+            }
+            int code = groupOf.applyAsInt(row);
+            if (code == StringDictionary.NULL_CODE) {
+                continue;
+            }
+            long[] group = totals[code];
+            if (group == null) {
+                group = new long[4];
+                totals[code] = group;
+            }
+            int enrolled = store.enrollment(row);
+            group[0]++;
+            group[1] += enrolled;
+            group[2] += store.maxStudents(row);
+            group[3] += (long) enrolled * store.credits(row);
+        }
+        List<EnrollmentReport> reports = new ArrayList<>();
+        for (int code = 0; code < totals.length; code++) {
+            long[] group = totals[code];
+            if (group != null) {
+                reports.add(new EnrollmentReport(dictionary.decode(code), group[0], group[1], group[2], group[3]));
+            }
+        }
+        reports.sort(Comparator.comparing(EnrollmentReport::getGroup));
+        return reports;
+    }
+
+    /**
+     * Publishes a change of a course to streaming subscribers. Callers hold the course's stripe
+     * lock or the write lock, so events of one course are published in order.
+     */
+    private void publish(EnrollmentEvent.Type type, int row, Long studentId) {
+        if (enrollmentEvents.hasSubscribers()) {
+            enrollmentEvents.publish(new EnrollmentEvent(type, store.id(row), studentId,
+                    store.departmentDictionary().decode(store.departmentCode(row)), store.enrollment(row),
+                    store.maxStudents(row), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Marks the dictionary codes whose value contains a query, ignoring case, so a scan tests
+     * each row with one array lookup instead of a string comparison.
+     */
+    private static boolean[] matchingCodes(StringDictionary dictionary, String query) {
+        boolean[] matching = new boolean[dictionary.size()];
+        for (int code = 0; code < matching.length; code++) {
+            matching[code] = containsIgnoreCase(dictionary.decode(code), query);
+        }
+        return matching;
+    }
+
+    private static boolean matches(boolean[] matching, int code) {
+        return code != StringDictionary.NULL_CODE && matching[code];
+    }
+
+    private static boolean containsIgnoreCase(String value, String query) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i + query.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWithIgnoreCase(String value, String prefix) {
+        return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
@@ -0,0 +1,394 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.util.LongHashSet;
+import com.rca.demo_course.util.LongIntHashMap;
+import com.rca.demo_course.util.StringDictionary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Course storage as struct-of-arrays columns, one row per course.
+ *
+ * <p>Department and instructor are dictionary-encoded, so each row stores two int codes and
+ * each distinct name is held once. Dates are epoch-day ints and the remaining scalars are
+ * primitive arrays; only code, name and description keep a String per row, and direct
+ * prerequisites are a sorted {@code long[]} only for courses that have any. Courses exist as
+ * {@link Course} objects only when {@link #materialize(int)} builds one, and such a copy is
+ * detached from the store.
+ *
+ * <p>Rows are appended in ascending ID order. A deleted row is blanked and skipped by scans
+ * until deleted rows outnumber live ones, when the columns are compacted in one pass, so row
+ * order always follows ID order. Not thread-safe; callers guard access. Enrollment and status
+ * changes touch only their own row's elements, so callers may run those for different rows
+ * concurrently, as long as nothing appends, replaces or removes rows meanwhile.
+ */
+class ColumnarCourseStore {
+
+    // Epoch day of a missing date
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+    // Deleted rows tolerated before compaction is considered
+    private static final int MIN_COMPACTION = 1024;
+    private static final long DELETED = -1L;
+
+    private final StringDictionary instructorDictionary = new StringDictionary();
+    private final StringDictionary departmentDictionary = new StringDictionary();
+    private final LongIntHashMap rowById = new LongIntHashMap(-1);
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] codes = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private int[] instructors = new int[INITIAL_CAPACITY];
+    private int[] departments = new int[INITIAL_CAPACITY];
+    private byte[] credits = new byte[INITIAL_CAPACITY];
+    private int[] maxStudents = new int[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private int[] startDays = new int[INITIAL_CAPACITY];
+    private int[] endDays = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    // Null for a course nobody is enrolled in
+    private LongHashSet[] students = new LongHashSet[INITIAL_CAPACITY];
+    // Direct prerequisite IDs in ascending order; null for a course without any
+    private long[][] prerequisites = new long[INITIAL_CAPACITY][];
+
+    private int rows;
+    private int deleted;
+
+    /**
+     * Returns the number of courses.
+     *
+     * @return the number of live rows
+     */
+    int size() {
+        return rows - deleted;
+    }
+
+    /**
+     * Returns the exclusive upper bound of row numbers, including deleted rows.
+     *
+     * @return the number of rows to scan
+     */
+    int rowLimit() {
+        return rows;
+    }
+
+    boolean isLive(int row) {
+        return ids[row] != DELETED;
+    }
+
+    /**
+     * Finds the row of a course.
+     *
+     * @param id the course ID
+     * @return the row, or -1 if there is no such course
+     */
+    int rowOf(long id) {
+        return rowById.get(id);
+    }
+
+    /**
+     * Appends a course, including its enrolled students and prerequisites.
+     *
+     * @param course the course; its ID must be greater than every ID appended before
+     * @return the new row
+     * @throws IllegalArgumentException if the ID is not ascending
+     */
+    int append(Course course) {
+        long id = course.getId();
+        if (rows > 0 && id <= ids[rows - 1]) {
+            throw new IllegalArgumentException("Course IDs must be appended in ascending order");
+        }
+        if (rows == ids.length) {
+            grow(rows * 2);
+        }
+        int row = rows++;
+        ids[row] = id;
+        write(row, course);
+        students[row] = null;
+        writeStudents(row, course.getEnrolledStudents());
+        writePrerequisites(row, course.getPrerequisites());
+        rowById.put(id, row);
+        return row;
+    }
+
+    /**
+     * Replaces the definition of a course in place.
+     *
+     * @param row the course's row
+     * @param course the new definition; if its enrolled students or prerequisites are null, the
+     *               row keeps its own
+     */
+    void replace(int row, Course course) {
+        write(row, course);
+        if (course.getEnrolledStudents() != null) {
+            students[row] = null;
+            writeStudents(row, course.getEnrolledStudents());
+        }
+        if (course.getPrerequisites() != null) {
+            writePrerequisites(row, course.getPrerequisites());
+        }
+    }
+
+    /**
+     * Deletes a course.
+     *
+     * @param id the course ID
+     * @return true if the course existed
+     */
+    boolean remove(long id) {
+        int row = rowById.remove(id);
+        if (row < 0) {
+            return false;
+        }
+        ids[row] = DELETED;
+        // Drop references so deleted rows hold no strings or enrollment sets
+        codes[row] = null;
+        names[row] = null;
+        descriptions[row] = null;
+        students[row] = null;
+        prerequisites[row] = null;
+        deleted++;
+        if (deleted >= MIN_COMPACTION && deleted > rows - deleted) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Builds a detached {@link Course} from a row.
+     *
+     * @param row a live row
+     * @return a new course object with the row's values
+     */
+    Course materialize(int row) {
+        Course course = new Course(ids[row], codes[row], names[row], descriptions[row],
+                instructorDictionary.decode(instructors[row]), credits[row],
+                departmentDictionary.decode(departments[row]), toDate(startDays[row]), toDate(endDays[row]),
+                maxStudents[row], enrolledStudents(row), active[row]);
+        course.setVersion(versions[row]);
+        course.setPrerequisites(prerequisiteList(row));
+        return course;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    String code(int row) {
+        return codes[row];
+    }
+
+    String name(int row) {
+        return names[row];
+    }
+
+    int instructorCode(int row) {
+        return instructors[row];
+    }
+
+    int departmentCode(int row) {
+        return departments[row];
+    }
+
+    StringDictionary instructorDictionary() {
+        return instructorDictionary;
+    }
+
+    StringDictionary departmentDictionary() {
+        return departmentDictionary;
+    }
+
+    int credits(int row) {
+        return credits[row];
+    }
+
+    int maxStudents(int row) {
+        return maxStudents[row];
+    }
+
+    boolean isActive(int row) {
+        return active[row];
+    }
+
+    /**
+     * Changes the status of a row, as a new version of its course.
+     */
+    void setActive(int row, boolean isActive) {
+        active[row] = isActive;
+        versions[row]++;
+    }
+
+    int startDay(int row) {
+        return startDays[row];
+    }
+
+    int endDay(int row) {
+        return endDays[row];
+    }
+
+    long version(int row) {
+        return versions[row];
+    }
+
+    int enrollment(int row) {
+        // Read once, since an unenrollment on another thread may drop an emptied set
+        LongHashSet set = students[row];
+        return set != null ? set.size() : 0;
+    }
+
+    boolean isEnrolled(int row, long studentId) {
+        LongHashSet set = students[row];
+        return set != null && set.contains(studentId);
+    }
+
+    /**
+     * Adds a student to a course, without checking capacity.
+     *
+     * @return true if the student was not enrolled before
+     */
+    boolean enroll(int row, long studentId) {
+        if (students[row] == null) {
+            students[row] = new LongHashSet();
+        }
+        return students[row].add(studentId);
+    }
+
+    /**
+     * Removes a student from a course.
+     *
+     * @return true if the student was enrolled
+     */
+    boolean unenroll(int row, long studentId) {
+        if (students[row] == null || !students[row].remove(studentId)) {
+            return false;
+        }
+        if (students[row].isEmpty()) {
+            students[row] = null;
+        }
+        return true;
+    }
+
+    static int toEpochDay(LocalDate date) {
+        return date != null ? Math.toIntExact(date.toEpochDay()) : NO_DATE;
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    private void write(int row, Course course) {
+        codes[row] = course.getCourseCode();
+        names[row] = course.getCourseName();
+        descriptions[row] = course.getDescription();
+        instructors[row] = instructorDictionary.encode(course.getInstructor());
+        departments[row] = departmentDictionary.encode(course.getDepartment());
+        credits[row] = (byte) course.getCredits();
+        maxStudents[row] = course.getMaxStudents();
+        active[row] = course.isActive();
+        startDays[row] = toEpochDay(course.getStartDate());
+        endDays[row] = toEpochDay(course.getEndDate());
+        versions[row] = course.getVersion();
+    }
+
+    private void writeStudents(int row, List<Long> enrolled) {
+        if (enrolled == null) {
+            return;
+        }
+        for (Long studentId : enrolled) {
+            enroll(row, studentId);
+        }
+    }
+
+    /**
+     * Copies the enrolled students of a course.
+     *
+     * @param row a live row
+     * @return a new list of student IDs
+     */
+    List<Long> enrolledStudents(int row) {
+        LongHashSet set = students[row];
+        List<Long> list = new ArrayList<>(set != null ? set.size() : 0);
+        if (set != null) {
+            for (int i = 0; i < set.size(); i++) {
+                list.add(set.get(i));
+            }
+        }
+        return list;
+    }
+
+    private void writePrerequisites(int row, List<Long> ids) {
+        prerequisites[row] = ids == null || ids.isEmpty() ? null
+                : ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private List<Long> prerequisiteList(int row) {
+        long[] ids = prerequisites[row];
+        List<Long> list = new ArrayList<>(ids != null ? ids.length : 0);
+        if (ids != null) {
+            for (long id : ids) {
+                list.add(id);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Moves live rows down over deleted ones, keeping their order, and re-points the ID map.
+     */
+    private void compact() {
+        int target = 0;
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] == DELETED) {
+                continue;
+            }
+            if (target != row) {
+                ids[target] = ids[row];
+                codes[target] = codes[row];
+                names[target] = names[row];
+                descriptions[target] = descriptions[row];
+                instructors[target] = instructors[row];
+                departments[target] = departments[row];
+                credits[target] = credits[row];
+                maxStudents[target] = maxStudents[row];
+                active[target] = active[row];
+                startDays[target] = startDays[row];
+                endDays[target] = endDays[row];
+                versions[target] = versions[row];
+                students[target] = students[row];
+                prerequisites[target] = prerequisites[row];
+                rowById.put(ids[target], target);
+            }
+            target++;
+        }
+        Arrays.fill(codes, target, rows, null);
+        Arrays.fill(names, target, rows, null);
+        Arrays.fill(descriptions, target, rows, null);
+        Arrays.fill(students, target, rows, null);
+        Arrays.fill(prerequisites, target, rows, null);
+        rows = target;
+        deleted = 0;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        instructors = Arrays.copyOf(instructors, capacity);
+        departments = Arrays.copyOf(departments, capacity);
+        credits = Arrays.copyOf(credits, capacity);
+        maxStudents = Arrays.copyOf(maxStudents, capacity);
+        active = Arrays.copyOf(active, capacity);
+        startDays = Arrays.copyOf(startDays, capacity);
+        endDays = Arrays.copyOf(endDays, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        students = Arrays.copyOf(students, capacity);
+        prerequisites = Arrays.copyOf(prerequisites, capacity);
+    }
+}
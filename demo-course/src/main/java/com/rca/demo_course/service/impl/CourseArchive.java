@@ -0,0 +1,323 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.util.LongIntHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold tier of the indexed store: courses moved out of memory into compressed, append-only
+ * segment files. Courses are written in blocks of up to {@link #BLOCK_COURSES}, each encoded
+ * with {@link ReplicationProtocol#writeCourse} and deflated on its own, so reading one course
+ * inflates one block. On the heap the archive keeps only a map from course ID to block and the
+ * position of every block, some 20 bytes per course.
+ *
+ * <p>Segments are never rewritten. A course taken back into memory is only unmapped, and one
+ * archived again is mapped to its new block; earlier copies stay behind until the archive is
+ * closed. The segments live in a directory created for this archive and deleted on close, since
+ * course IDs mean nothing outside the store that assigned them.
+ *
+ * <p>Appends and key changes are serialized on the archive. Reads look a course up under the
+ * same lock and read its block without it, as blocks never change once written.
+ */
+final class CourseArchive implements AutoCloseable {
+
+    // Courses per block: 64 compress some 15% better than 16, but reading one course inflates its whole block
+    static final int BLOCK_COURSES = 16;
+    // A new segment file is started once the current one would grow past this size
+    private static final long SEGMENT_BYTES = 64L << 20;
+    // Block positions hold the segment number above the offset in the segment
+    private static final int OFFSET_BITS = 40;
+    // Each block starts with its uncompressed length
+    private static final int HEADER_BYTES = 4;
+    // Creating an inflater costs more than inflating a block, so each reading thread keeps one
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final Path directory;
+    // Guarded by this
+    private final List<FileChannel> segments = new ArrayList<>();
+    private long segmentSize;
+    private final LongIntHashMap blockOf = new LongIntHashMap(-1);
+    private long[] blockPositions = new long[256];
+    private int[] blockLengths = new int[256];
+    private int blockCount;
+    private long bytesWritten;
+    private boolean closed;
+
+    /**
+     * Creates an empty archive in a new subdirectory.
+     *
+     * @param parent the directory to create the archive's directory in, created if missing
+     * @throws IOException if the directory cannot be created
+     */
+    CourseArchive(Path parent) throws IOException {
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "course-archive-");
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Writes courses as one block and maps their IDs to it, replacing earlier copies.
+     *
+     * @param courses at most {@link #BLOCK_COURSES} courses, with their students
+     * @throws IOException if the block cannot be written, in which case no course is archived
+     * @throws IllegalStateException if the archive is closed
+     */
+    synchronized void append(List<? extends Course> courses) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Course archive is closed");
+        }
+        byte[] block = compress(encode(courses));
+        FileChannel segment = segmentFor(block.length);
+        long offset = segmentSize;
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        while (buffer.hasRemaining()) {
+            segment.write(buffer, offset + buffer.position());
+        }
+        segmentSize += block.length;
+        bytesWritten += block.length;
+        if (blockCount == blockPositions.length) {
+            blockPositions = Arrays.copyOf(blockPositions, blockCount * 2);
+            blockLengths = Arrays.copyOf(blockLengths, blockCount * 2);
+        }
+        blockPositions[blockCount] = ((long) (segments.size() - 1) << OFFSET_BITS) | offset;
+        blockLengths[blockCount] = block.length;
+        for (Course course : courses) {
+            blockOf.put(course.getId(), blockCount);
+        }
+        blockCount++;
+    }
+
+    /**
+     * Reads an archived course.
+     *
+     * @param courseId the course ID
+     * @return a new copy of the course, or null if it is not archived
+     * @throws IOException if its block cannot be read
+     */
+    Course read(long courseId) throws IOException {
+        FileChannel segment;
+        long position;
+        int length;
+        synchronized (this) {
+            int block = blockOf.get(courseId);
+            if (block < 0) {
+                return null;
+            }
+            position = blockPositions[block];
+            segment = segments.get((int) (position >>> OFFSET_BITS));
+            length = blockLengths[block];
+        }
+        byte[] raw = readBlock(segment, position & ((1L << OFFSET_BITS) - 1), length);
+        int count = ByteBuffer.wrap(raw).getInt(0);
+        for (int i = 0; i < count; i++) {
+            if (idAt(raw, i) == courseId) {
+                return courseAt(raw, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads every archived course matching a filter, block by block in the order written.
+     * A course archived or taken back while the scan runs may be left out.
+     *
+     * @param filter the condition to check on each course
+     * @return the matching courses, as new copies
+     * @throws IOException if a block cannot be read
+     */
+    List<Course> scan(Predicate<Course> filter) throws IOException {
+        int blocks;
+        long[] positions;
+        int[] lengths;
+        List<FileChannel> channels;
+        synchronized (this) {
+            // Entries below the block count never change, even once the arrays are grown
+            blocks = blockCount;
+            positions = blockPositions;
+            lengths = blockLengths;
+            channels = List.copyOf(segments);
+        }
+        List<Course> result = new ArrayList<>();
+        for (int block = 0; block < blocks; block++) {
+            byte[] raw = readBlock(channels.get((int) (positions[block] >>> OFFSET_BITS)),
+                    positions[block] & ((1L << OFFSET_BITS) - 1), lengths[block]);
+            int count = ByteBuffer.wrap(raw).getInt(0);
+            boolean[] current = new boolean[count];
+            synchronized (this) {
+                // Copies taken back or archived again since belong to other blocks
+                for (int i = 0; i < count; i++) {
+                    current[i] = blockOf.get(idAt(raw, i)) == block;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if (current[i]) {
+                    Course course = courseAt(raw, i);
+                    if (filter.test(course)) {
+                        result.add(course);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    synchronized boolean contains(long courseId) {
+        return blockOf.containsKey(courseId);
+    }
+
+    /**
+     * Unmaps a course taken back into memory or deleted.
+     *
+     * @param courseId the course ID
+     * @return true if the course was archived
+     */
+    synchronized boolean remove(long courseId) {
+        return blockOf.remove(courseId) >= 0;
+    }
+
+    synchronized int size() {
+        return blockOf.size();
+    }
+
+    /**
+     * Returns the bytes written to segments, including copies no longer current.
+     */
+    synchronized long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Closes and deletes the segment files. Archived courses cannot be read afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (FileChannel segment : segments) {
+                segment.close();
+            }
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // Leaving whatever could not be deleted
+        }
+    }
+
+    private FileChannel segmentFor(int length) throws IOException {
+        if (segments.isEmpty() || (segmentSize > 0 && segmentSize + length > SEGMENT_BYTES)) {
+            Path file = directory.resolve(String.format("segment-%06d.dat", segments.size()));
+            segments.add(FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE));
+            segmentSize = 0;
+        }
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Encodes courses as their count, an ID and body offset per course, then the bodies.
+     */
+    private static byte[] encode(List<? extends Course> courses) throws IOException {
+        ByteArrayOutputStream bodies = new ByteArrayOutputStream(courses.size() * 256);
+        DataOutputStream out = new DataOutputStream(bodies);
+        int[] offsets = new int[courses.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = out.size();
+            ReplicationProtocol.writeCourse(out, courses.get(i), true);
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(4 + offsets.length * 12 + bodies.size());
+        DataOutputStream table = new DataOutputStream(raw);
+        table.writeInt(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            table.writeLong(courses.get(i).getId());
+            table.writeInt(offsets[i]);
+        }
+        bodies.writeTo(raw);
+        return raw.toByteArray();
+    }
+
+    private static long idAt(byte[] raw, int index) {
+        return ByteBuffer.wrap(raw).getLong(4 + index * 12);
+    }
+
+    private static Course courseAt(byte[] raw, int index) throws IOException {
+        ByteBuffer table = ByteBuffer.wrap(raw);
+        int start = 4 + table.getInt(0) * 12 + table.getInt(4 + index * 12 + 8);
+        return ReplicationProtocol.readCourse(new DataInputStream(
+                new ByteArrayInputStream(raw, start, raw.length - start)));
+    }
+
+    private static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_BYTES + raw.length / 2);
+            out.write(raw.length >>> 24);
+            out.write(raw.length >>> 16);
+            out.write(raw.length >>> 8);
+            out.write(raw.length);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] readBlock(FileChannel segment, long offset, int length) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        while (block.hasRemaining()) {
+            if (segment.read(block, offset + block.position()) < 0) {
+                throw new EOFException("Archive block at " + offset + " is truncated");
+            }
+        }
+        byte[] raw = new byte[block.getInt(0)];
+        Inflater inflater = INFLATERS.get();
+        try {
+            inflater.setInput(block.array(), HEADER_BYTES, length - HEADER_BYTES);
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("Archive block at " + offset + " is truncated");
+                }
+                inflated += n;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive block at " + offset + " is corrupt", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.util.PersistentLongMap;
+import com.rca.demo_course.util.PersistentLongSet;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Versioned copy of the catalog and its enrollments for as-of queries.
+ *
+ * <p>Each version is a persistent trie from course ID to an immutable course state, whose
+ * enrolled students are a persistent set in turn. A change copies the few nodes on its path and
+ * shares the rest with the previous version, so an enrollment costs a couple of short path copies
+ * however large the catalog or the course. Writers of different courses publish versions with
+ * compare-and-set, as for {@link CatalogSnapshot}.
+ *
+ * <p>Versions are kept per period of the {@link HistoryRetention}: the version under a period's
+ * start holds the catalog at the end of that period, and intermediate versions become garbage.
+ * Writers compact periods older than the compaction delay into one version per compacted period,
+ * at most once per granularity period. If the retention policy has a retention period, the same
+ * pass drops the versions before it but the last, which still answers for the start of the
+ * retained history, and queries for earlier instants are rejected.
+ */
+class CourseHistory {
+
+    private final long granularity;
+    private final long compactAfter;
+    private final long compactedGranularity;
+    // Age of the oldest instant that can be queried; Long.MAX_VALUE to keep every version
+    private final long retainFor;
+    private final Clock clock;
+
+    private final AtomicReference<Version> head =
+            new AtomicReference<>(new Version(0, Long.MIN_VALUE, PersistentLongMap.empty()));
+    // Versions by the start of their period; a query takes the last period starting at or before its instant
+    private final ConcurrentSkipListMap<Long, Version> versions = new ConcurrentSkipListMap<>();
+    private final ReentrantLock compaction = new ReentrantLock();
+    private volatile long nextCompaction = Long.MIN_VALUE;
+
+    CourseHistory(HistoryRetention retention, Clock clock) {
+        this.granularity = retention.getGranularity().toMillis();
+        this.compactAfter = retention.getCompactAfter().toMillis();
+        this.compactedGranularity = retention.getCompactedGranularity().toMillis();
+        this.retainFor = retention.getRetainFor() != null ? retention.getRetainFor().toMillis() : Long.MAX_VALUE;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a new or updated course definition. Callers hold the course's lock.
+     *
+     * @param course the course as stored
+     * @param enrollmentReplaced true to record the course's enrollment too, false to keep the recorded one
+     */
+    void courseChanged(Course course, boolean enrollmentReplaced) {
+        Course definition = copyOf(course);
+        long id = course.getId();
+        PersistentLongSet students = enrollmentReplaced ? studentsOf(course) : null;
+        apply(courses -> {
+            CourseState previous = courses.get(id);
+            PersistentLongSet kept = previous != null ? previous.students : studentsOf(course);
+            return courses.put(id, new CourseState(definition, students != null ? students : kept));
+        });
+    }
+
+    /**
+     * Records a student joining or leaving a course. Callers hold the course's lock.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @param enrolled true for an enrollment, false for an unenrollment
+     */
+    void enrollmentChanged(long courseId, long studentId, boolean enrolled) {
+        apply(courses -> {
+            CourseState state = courses.get(courseId);
+            if (state == null) {
+                return courses;
+            }
+            PersistentLongSet students = enrolled ? state.students.with(studentId) : state.students.without(studentId);
+            return students == state.students ? courses
+                    : courses.put(courseId, new CourseState(state.definition, students));
+        });
+    }
+
+    void courseRemoved(long courseId) {
+        apply(courses -> courses.remove(courseId));
+    }
+
+    /**
+     * Looks up a course as of an instant.
+     *
+     * @param courseId the course ID
+     * @param millis the instant in epoch milliseconds
+     * @return a detached copy of the course, if it existed then
+     */
+    Optional<Course> course(long courseId, long millis) {
+        CourseState state = catalogAt(millis).get(courseId);
+        return state != null ? Optional.of(state.materialize()) : Optional.empty();
+    }
+
+    /**
+     * Lists the courses as of an instant that match a filter.
+     *
+     * @param millis the instant in epoch milliseconds
+     * @param filter the filter, applied to detached copies
+     * @return the matching courses in ascending ID order
+     */
+    List<Course> courses(long millis, Predicate<Course> filter) {
+        List<Course> result = new ArrayList<>();
+        catalogAt(millis).forEachValue(state -> {
+            Course course = state.materialize();
+            if (filter.test(course)) {
+                result.add(course);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Lists the courses a student was enrolled in as of an instant.
+     *
+     * @param studentId the student ID
+     * @param millis the instant in epoch milliseconds
+     * @return the student's courses in ascending ID order
+     */
+    List<Course> coursesOf(long studentId, long millis) {
+        List<Course> result = new ArrayList<>();
+        catalogAt(millis).forEachValue(state -> {
+            if (state.students.contains(studentId)) {
+                result.add(state.materialize());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the catalog as of an instant.
+     *
+     * @throws IllegalArgumentException if the instant is older than the retained history
+     */
+    private PersistentLongMap<CourseState> catalogAt(long millis) {
+        if (retainFor != Long.MAX_VALUE && millis < clock.millis() - retainFor) {
+            throw new IllegalArgumentException("Instant is older than the retained catalog history");
+        }
+        Map.Entry<Long, Version> entry = versions.floorEntry(millis);
+        return entry != null ? entry.getValue().courses : PersistentLongMap.empty();
+    }
+
+    private void apply(UnaryOperator<PersistentLongMap<CourseState>> change) {
+        Version version = head.updateAndGet(
+                current -> new Version(current.sequence + 1, clock.millis(), change.apply(current.courses)));
+        // Concurrent writers may merge out of order; the later version always wins its period
+        versions.merge(periodStart(version.timestamp, granularity), version, CourseHistory::newer);
+        if (version.timestamp >= nextCompaction && compaction.tryLock()) {
+            try {
+                compact(version.timestamp);
+                nextCompaction = version.timestamp + granularity;
+            } finally {
+                compaction.unlock();
+            }
+        }
+    }
+
+    /**
+     * Merges the versions of periods older than the compaction delay into the last version of
+     * each compacted period, kept under the compacted period's start, and drops versions past
+     * the retention period. Writers are past these periods, since the delay is at least one
+     * granularity period.
+     */
+    private void compact(long now) {
+        long lastPeriod = now - compactAfter - granularity;
+        long group = Long.MIN_VALUE;
+        List<Long> keys = new ArrayList<>();
+        Version newest = null;
+        for (Map.Entry<Long, Version> entry : versions.headMap(lastPeriod, true).entrySet()) {
+            long start = periodStart(entry.getKey(), compactedGranularity);
+            if (start != group) {
+                mergePeriod(group, keys, newest);
+                group = start;
+                keys.clear();
+                newest = null;
+            }
+            keys.add(entry.getKey());
+            newest = newest == null ? entry.getValue() : newer(newest, entry.getValue());
+        }
+        mergePeriod(group, keys, newest);
+
+        if (retainFor != Long.MAX_VALUE) {
+            // The last version at or before the horizon holds the catalog there, so it is kept
+            Long oldest = versions.floorKey(now - retainFor);
+            if (oldest != null) {
+                versions.headMap(oldest, false).clear();
+            }
+        }
+    }
+
+    private void mergePeriod(long start, List<Long> keys, Version newest) {
+        if (keys.isEmpty() || keys.size() == 1 && keys.get(0) == start) {
+            return;
+        }
+        // Put before removing, so a concurrent query never falls back to an earlier period
+        versions.put(start, newest);
+        for (long key : keys) {
+            if (key != start) {
+                versions.remove(key);
+            }
+        }
+    }
+
+    private static Version newer(Version a, Version b) {
+        return a.sequence >= b.sequence ? a : b;
+    }
+
+    private static long periodStart(long millis, long period) {
+        return Math.floorDiv(millis, period) * period;
+    }
+
+    private static PersistentLongSet studentsOf(Course course) {
+        List<Long> students = course.getEnrolledStudents();
+        if (students == null) {
+            return PersistentLongSet.empty();
+        }
+        long[] ids = new long[students.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = students.get(i);
+        }
+        return PersistentLongSet.of(ids);
+    }
+
+    private static Course copyOf(Course course) {
+        Course copy = new Course(course.getId(), course.getCourseCode(), course.getCourseName(), course.getDescription(),
+                course.getInstructor(), course.getCredits(), course.getDepartment(), course.getStartDate(),
+                course.getEndDate(), course.getMaxStudents(), null, course.isActive());
+        copy.setVersion(course.getVersion());
+        copy.setPrerequisites(course.getPrerequisites());
+        return copy;
+    }
+
+    /**
+     * A course definition, never modified once recorded, and its enrolled students.
+     */
+    private static final class CourseState {
+
+        final Course definition;
+        final PersistentLongSet students;
+
+        CourseState(Course definition, PersistentLongSet students) {
+            this.definition = definition;
+            this.students = students;
+        }
+
+        Course materialize() {
+            Course course = copyOf(definition);
+            long[] ids = students.toArray();
+            List<Long> enrolled = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                enrolled.add(id);
+            }
+            course.setEnrolledStudents(enrolled);
+            return course;
+        }
+    }
+
+    private static final class Version {
+
+        final long sequence;
+        final long timestamp;
+        final PersistentLongMap<CourseState> courses;
+
+        Version(long sequence, long timestamp, PersistentLongMap<CourseState> courses) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.courses = courses;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.index.CreditIndex;
+import com.rca.demo_course.service.index.DateIndex;
+import com.rca.demo_course.service.index.TrigramIndex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cost-based planner for {@link CourseCriteria} queries over the indexes kept by CourseServiceImpl.
+ * Each applicable index reports a row estimate; the query is driven from the smallest one and
+ * every criterion is verified on the resulting candidates. When no index is selective enough,
+ * a full scan is cheaper than resolving candidate IDs one by one and is chosen instead.
+ */
+class CourseQueryPlanner {
+
+    // Above this fraction of the catalog, a sequential scan beats index lookups
+    private static final double SCAN_THRESHOLD = 0.3;
+
+    private final Map<Long, ? extends Course> courses;
+    private final TrigramIndex instructorIndex;
+    private final TrigramIndex departmentIndex;
+    private final CreditIndex creditIndex;
+    private final DateIndex dateIndex;
+    private final Set<Long> openCourseIds;
+
+    CourseQueryPlanner(Map<Long, ? extends Course> courses, TrigramIndex instructorIndex, TrigramIndex departmentIndex,
+                       CreditIndex creditIndex, DateIndex dateIndex, Set<Long> openCourseIds) {
+        this.courses = courses;
+        this.instructorIndex = instructorIndex;
+        this.departmentIndex = departmentIndex;
+        this.creditIndex = creditIndex;
+        this.dateIndex = dateIndex;
+        this.openCourseIds = openCourseIds;
+    }
+
+    QueryPlan plan(CourseCriteria criteria) {
+        return choose(criteria).plan;
+    }
+
+    List<Course> execute(CourseCriteria criteria) {
+        Choice choice = choose(criteria);
+        List<Course> result = new ArrayList<>();
+        if (choice.fetch == null) {
+            for (Course course : courses.values()) {
+                if (criteria.matches(course)) {
+                    result.add(course);
+                }
+            }
+            return result;
+        }
+        for (long id : choice.fetch.get()) {
+            Course course = courses.get(id);
+            if (course != null && criteria.matches(course)) {
+                result.add(course);
+            }
+        }
+        return result;
+    }
+
+    private Choice choose(CourseCriteria criteria) {
+        int total = courses.size();
+        boolean activeOnly = Boolean.TRUE.equals(criteria.getActive());
+        Map<String, Integer> estimates = new LinkedHashMap<>();
+        Map<String, Supplier<long[]>> fetchers = new LinkedHashMap<>();
+
+        if (criteria.getDepartment() != null) {
+            String department = criteria.getDepartment();
+            estimates.put("department index", departmentIndex.estimate(department));
+            fetchers.put("department index", () -> departmentIndex.search(department));
+        }
+        if (criteria.getInstructor() != null) {
+            String instructor = criteria.getInstructor();
+            estimates.put("instructor index", instructorIndex.estimate(instructor));
+            fetchers.put("instructor index", () -> instructorIndex.search(instructor));
+        }
+        if (criteria.hasCreditRange() || activeOnly) {
+            int min = criteria.getMinCredits() != null ? criteria.getMinCredits() : CreditIndex.MIN_CREDITS;
+            int max = criteria.getMaxCredits() != null ? criteria.getMaxCredits() : CreditIndex.MAX_CREDITS;
+            String name = activeOnly ? "active credit index" : "credit index";
+            estimates.put(name, creditIndex.count(min, max, activeOnly));
+            fetchers.put(name, () -> creditIndex.range(min, max, activeOnly));
+        }
+        if (criteria.isAvailableSpotsOnly() && activeOnly) {
+            estimates.put("availability set", openCourseIds.size());
+            fetchers.put("availability set", () -> openCourseIds.stream().mapToLong(Long::longValue).toArray());
+        }
+        if (criteria.getDateFrom() != null && criteria.getDateTo() != null) {
+            int cap = estimates.values().stream().min(Integer::compare).orElse(total);
+            estimates.put("date index", dateIndex.estimateOverlapping(criteria.getDateFrom(), criteria.getDateTo(), cap));
+            fetchers.put("date index", () -> dateIndex.overlapping(criteria.getDateFrom(), criteria.getDateTo()));
+        }
+
+        String driver = QueryPlan.FULL_SCAN;
+        int best = total;
+        for (Map.Entry<String, Integer> entry : estimates.entrySet()) {
+            if (entry.getValue() < best) {
+                best = entry.getValue();
+                driver = entry.getKey();
+            }
+        }
+        if (best > total * SCAN_THRESHOLD) {
+            driver = QueryPlan.FULL_SCAN;
+            best = total;
+        }
+        return new Choice(new QueryPlan(driver, best, total, estimates), fetchers.get(driver));
+    }
+
+    private static final class Choice {
+        private final QueryPlan plan;
+        // Null for a full scan
+        private final Supplier<long[]> fetch;
+
+        private Choice(QueryPlan plan, Supplier<long[]> fetch) {
+            this.plan = plan;
+            this.fetch = fetch;
+        }
+    }
+}
@@ -0,0 +1,1792 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.ArchivePolicy;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryNotEnabledException;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.index.CreditIndex;
+import com.rca.demo_course.service.index.DateIndex;
+import com.rca.demo_course.service.index.FullTextIndex;
+import com.rca.demo_course.service.index.PrefixIndex;
+import com.rca.demo_course.service.index.StudentEnrollmentIndex;
+import com.rca.demo_course.service.index.TrigramIndex;
+import com.rca.demo_course.util.LongHashSet;
+import com.rca.demo_course.util.LongSet;
+import com.rca.demo_course.util.OffHeapLongSet;
+import com.rca.demo_course.util.OffHeapLongSetArena;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of CourseService interface.
+ * Provides business logic for course management operations.
+ * The default store; {@code course.store=columnar} selects {@link ColumnarCourseService} instead,
+ * and {@code course.store=partitioned} splits the catalog over several of these in a
+ * {@link PartitionedCourseService}.
+ *
+ * <p>With {@code course.archive.enabled=true}, courses that are inactive and have ended are
+ * moved out of memory into a {@link CourseArchive} every {@code course.archive.interval}. They
+ * are still found by ID, and taken back into memory by any change, but scans, indexes and
+ * reports cover the courses in memory only.
+ */
+@Service
+@ConditionalOnProperty(name = "course.store", havingValue = "indexed", matchIfMissing = true)
+public class CourseServiceImpl implements CourseService, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CourseServiceImpl.class);
+
+    // Number of enrollment lock stripes; must be a power of two
+    static final int LOCK_STRIPES = 64;
+    // Number of surge-mode writer threads; must be a power of two no larger than LOCK_STRIPES
+    static final int SURGE_SHARDS = 4;
+    // Capacity token stripes per hot course: a power of two of at least the core count, between 4 and 64
+    static final int HOT_COURSE_STRIPES =
+            Math.min(64, Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    // In-memory storage for demo purposes (in real application, this would be a database)
+    private final Map<Long, StoredCourse> courses = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    // Persistent view of the catalog for full reads, republished under the course lock on every create/update/delete
+    private final AtomicReference<CatalogSnapshot> catalog = new AtomicReference<>(CatalogSnapshot.EMPTY);
+
+    // Enrollment changes for a course are serialized on its stripe; different courses mostly proceed in parallel
+    private final ReentrantLock[] enrollmentLocks = new ReentrantLock[LOCK_STRIPES];
+
+    // Substring search indexes, maintained on create/update/delete
+    private final TrigramIndex codeIndex = new TrigramIndex();
+    private final TrigramIndex instructorIndex = new TrigramIndex();
+    private final TrigramIndex departmentIndex = new TrigramIndex();
+    // Credit buckets (all and active-only), maintained on create/update/delete/activate/deactivate
+    private final CreditIndex creditIndex = new CreditIndex();
+    // Start/end date maps and interval tree, maintained on create/update/delete
+    private final DateIndex dateIndex = new DateIndex();
+    // BM25 index over descriptions, maintained on create/update/delete
+    private final FullTextIndex descriptionIndex = new FullTextIndex();
+    // Code and name completions ranked by current enrollment
+    private final PrefixIndex completionIndex = new PrefixIndex(this::enrollmentOf);
+    // Courses of each student, maintained wherever an enrollment is added or removed
+    private final StudentEnrollmentIndex studentIndex = new StudentEnrollmentIndex();
+    // IDs of active courses that are not full, updated whenever capacity or status changes
+    private final Set<Long> openCourseIds = ConcurrentHashMap.newKeySet();
+
+    // Per-shard single-writer queues routing asynchronous enrollments while surge mode is on, null when off
+    private volatile EnrollmentSurgeQueue surgeQueue;
+    // Department and instructor totals, maintained wherever courses or enrollments change
+    private final EnrollmentAggregates aggregates = new EnrollmentAggregates();
+    // Enrollment and capacity changes for streaming subscribers, published under the course lock
+    private final EnrollmentEventBus enrollmentEvents = new EnrollmentEventBus();
+    // Lock-free seat claiming for courses in hot mode; entries are added and removed under the course lock
+    private final Map<Long, HotCourseSeats> hotCourses = new ConcurrentHashMap<>();
+    // Direct memory for enrolled student sets; null when they stay on the heap
+    private final OffHeapLongSetArena offHeapEnrollments;
+    // Prerequisite edges, transitive prerequisites and completed courses as bitsets, checked on every enrollment
+    private final PrerequisiteGraph prerequisiteGraph;
+    // Versioned catalog for as-of queries, recorded wherever courses or enrollments change; null when disabled
+    private final CourseHistory history;
+    // Ordered changes streamed to followers, appended wherever courses, enrollments or completions change; null until started
+    private volatile ReplicationLog replicationLog;
+    // Ended courses moved out of memory, and the thread moving them every interval; null when disabled
+    private final CourseArchive archive;
+    private final ScheduledExecutorService archiver;
+    private final AtomicLong archiveFailures = new AtomicLong();
+    private final Clock clock;
+
+    private final CourseQueryPlanner queryPlanner =
+            new CourseQueryPlanner(courses, instructorIndex, departmentIndex, creditIndex, dateIndex, openCourseIds);
+
+    public CourseServiceImpl() {
+        this(false);
+    }
+
+    /**
+     * Creates the service, optionally keeping enrolled student sets off the Java heap.
+     * Off-heap sets are freed when their course is deleted or replaced with its own enrollment,
+     * after which earlier copies of that course read as having no students.
+     *
+     * @param offHeapEnrollments true to store each course's students as a sorted array in
+     *                           direct memory, for catalogs with tens of millions of enrollments
+     */
+    public CourseServiceImpl(boolean offHeapEnrollments) {
+        this(offHeapEnrollments, null, Clock.systemUTC());
+    }
+
+    @Autowired
+    public CourseServiceImpl(@Value("${course.enrollments.off-heap:false}") boolean offHeapEnrollments,
+                             @Value("${course.history.enabled:false}") boolean historyEnabled,
+                             @Value("${course.history.granularity:PT1M}") Duration historyGranularity,
+                             @Value("${course.history.compact-after:P7D}") Duration historyCompactAfter,
+                             @Value("${course.history.compacted-granularity:P1D}") Duration historyCompactedGranularity,
+                             @Value("${course.history.retain-for:P365D}") Duration historyRetainFor,
+                             @Value("${course.archive.enabled:false}") boolean archiveEnabled,
+                             @Value("${course.archive.directory:${java.io.tmpdir}}") String archiveDirectory,
+                             @Value("${course.archive.interval:PT1H}") Duration archiveInterval) {
+        this(offHeapEnrollments,
+                historyEnabled ? new HistoryRetention(historyGranularity, historyCompactAfter, historyCompactedGranularity, historyRetainFor) : null,
+                Clock.systemUTC(),
+                archiveEnabled ? new ArchivePolicy(Path.of(archiveDirectory), archiveInterval) : null);
+    }
+
+    /**
+     * Creates the service, optionally keeping a history of the catalog for as-of queries.
+     *
+     * @param offHeapEnrollments true to store enrolled students in direct memory
+     * @param historyRetention how finely to keep the history, or null to keep none
+     * @param clock the clock timestamping history versions
+     */
+    public CourseServiceImpl(boolean offHeapEnrollments, HistoryRetention historyRetention, Clock clock) {
+        this(offHeapEnrollments, historyRetention, clock, (ArchivePolicy) null);
+    }
+
+    /**
+     * Creates the service, optionally archiving ended courses to disk.
+     *
+     * @param offHeapEnrollments true to store enrolled students in direct memory
+     * @param historyRetention how finely to keep the history, or null to keep none
+     * @param clock the clock timestamping history versions and telling which courses have ended
+     * @param archivePolicy where and how often to archive ended courses, or null to keep all in memory
+     * @throws UncheckedIOException if the archive directory cannot be created
+     */
+    public CourseServiceImpl(boolean offHeapEnrollments, HistoryRetention historyRetention, Clock clock,
+                             ArchivePolicy archivePolicy) {
+        this(offHeapEnrollments, historyRetention, clock, archivePolicy, new PrerequisiteGraph());
+    }
+
+    /**
+     * Creates one partition of a {@link PartitionedCourseService}, checking prerequisites against
+     * the graph shared by all partitions. Courses are added with IDs chosen by the caller.
+     */
+    CourseServiceImpl(boolean offHeapEnrollments, HistoryRetention historyRetention, Clock clock,
+                      PrerequisiteGraph prerequisiteGraph) {
+        this(offHeapEnrollments, historyRetention, clock, null, prerequisiteGraph);
+    }
+
+    private CourseServiceImpl(boolean offHeapEnrollments, HistoryRetention historyRetention, Clock clock,
+                              ArchivePolicy archivePolicy, PrerequisiteGraph prerequisiteGraph) {
+        this.prerequisiteGraph = prerequisiteGraph;
+        this.offHeapEnrollments = offHeapEnrollments ? new OffHeapLongSetArena() : null;
+        this.history = historyRetention != null ? new CourseHistory(historyRetention, clock) : null;
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            enrollmentLocks[i] = new ReentrantLock();
+        }
+        if (archivePolicy == null) {
+            this.archive = null;
+            this.archiver = null;
+            return;
+        }
+        try {
+            this.archive = new CourseArchive(archivePolicy.getDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create a course archive in " + archivePolicy.getDirectory(), e);
+        }
+        long interval = archivePolicy.getInterval().toMillis();
+        this.archiver = Executors.newSingleThreadScheduledExecutor(daemon("course-archiver"));
+        archiver.scheduleWithFixedDelay(this::archivePeriodically, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Course createCourse(Course course) {
+        if (!validateCourse(course)) {
+            throw new IllegalArgumentException("Course data cannot be null or invalid");
+        }
+        return createCourse(course, nextId.getAndIncrement());
+    }
+
+    /**
+     * Adds a course under a given ID. Callers have validated the course and own the ID.
+     *
+     * @param course the valid course to create
+     * @param id the new course's ID
+     * @return the created course
+     * @throws IllegalArgumentException if a prerequisite does not exist
+     */
+    Course createCourse(Course course, long id) {
+        // Set course as active by default
+        return addCourse(course, id, 1L, true);
+    }
+
+    /**
+     * Adds a copy of a course, so the caller's object never becomes part of the store.
+     *
+     * @return the stored course
+     * @throws IllegalArgumentException if a prerequisite does not exist
+     */
+    private StoredCourse addCourse(Course course, long id, long version, boolean active) {
+        long[] prerequisiteIds = prerequisiteIds(course);
+
+        // Registered before the course is published, so a concurrent delete of a prerequisite fails or is seen here
+        prerequisiteGraph.addCourse(id, prerequisiteIds);
+        StoredCourse stored = new StoredCourse(course, id, version, active, idList(prerequisiteIds),
+                newEnrollments(course), enrollmentReadLock(id));
+        // Published under its lock, so a check holding every lock sees the course in all structures or none
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            publishCourse(stored);
+            if (history != null) {
+                history.courseChanged(stored, true);
+            }
+            logCourse(ReplicationProtocol.COURSE_CREATED, stored, true);
+        } finally {
+            lock.unlock();
+        }
+        return stored;
+    }
+
+    @Override
+    public Optional<Course> getCourseById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        Course course = courses.get(id);
+        if (course == null && archive != null) {
+            course = readArchived(id);
+        }
+        return Optional.ofNullable(course);
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return catalog.get();
+    }
+
+    @Override
+    public Optional<Course> getCourseByIdAsOf(Long id, Instant asOf) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().course(id, asOf.toEpochMilli());
+    }
+
+    @Override
+    public List<Course> getAllCoursesAsOf(Instant asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().courses(asOf.toEpochMilli(), course -> true);
+    }
+
+    @Override
+    public List<Course> findCoursesAsOf(CourseCriteria criteria, Instant asOf) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+        criteria.validate();
+
+        return history().courses(asOf.toEpochMilli(), criteria::matches);
+    }
+
+    @Override
+    public List<Course> getCoursesForStudentAsOf(Long studentId, Instant asOf) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+
+        return history().coursesOf(studentId, asOf.toEpochMilli());
+    }
+
+    @Override
+    public Course updateCourse(Long id, Course course) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (!validateCourse(course)) {
+            throw new IllegalArgumentException("Course data cannot be null or invalid");
+        }
+        long[] prerequisiteIds = course.getPrerequisites() != null ? prerequisiteIds(course) : null;
+
+        // A stale version fails without waiting for the lock
+        Course current = courses.get(id);
+        if (current != null) {
+            requireVersion(id, course.getVersion(), current.getVersion());
+        }
+
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            StoredCourse existingCourse = courseForChange(id);
+            if (existingCourse == null) {
+                throw new NoSuchElementException("Course with ID " + id + " not found");
+            }
+            requireVersion(id, course.getVersion(), existingCourse.getVersion());
+            List<Long> prerequisites = existingCourse.getPrerequisites();
+            if (prerequisiteIds != null) {
+                prerequisiteGraph.setPrerequisites(id, prerequisiteIds);
+                prerequisites = idList(prerequisiteIds);
+            }
+            // Capacity may change, so seats are reconciled and the course returns to locked enrollment
+            endHotMode(id, existingCourse);
+
+            // Preserve existing enrollment data if not provided; the set is shared rather than copied
+            boolean enrollmentReplaced = course.getEnrolledStudents() != null;
+            StoredCourse updated = new StoredCourse(course, id, existingCourse.getVersion() + 1, course.isActive(),
+                    prerequisites, enrollmentReplaced ? newEnrollments(course) : existingCourse.students(),
+                    enrollmentReadLock(id));
+            // Readers never lock; they see either version until this publishes the new one.
+            // Every writer of the course holds its stripe lock, so nothing can have replaced it meanwhile
+            courses.put(id, updated);
+            catalog.updateAndGet(snapshot -> snapshot.with(updated));
+            indexCourse(updated);
+            reindexStudents(id, existingCourse, updated);
+            aggregates.removeCourse(existingCourse);
+            aggregates.addCourse(updated);
+            if (updated.getMaxStudents() != existingCourse.getMaxStudents()) {
+                publish(EnrollmentEvent.Type.CAPACITY_CHANGED, updated, null);
+            }
+            if (history != null) {
+                history.courseChanged(updated, enrollmentReplaced);
+            }
+            logCourse(ReplicationProtocol.COURSE_UPDATED, updated, enrollmentReplaced);
+            if (enrollmentReplaced) {
+                releaseEnrollments(existingCourse);
+            }
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            StoredCourse removed = courseForChange(id);
+            if (removed == null) {
+                return false;
+            }
+            prerequisiteGraph.removeCourse(id);
+            endHotMode(id, removed);
+            unpublishCourse(removed);
+            releaseEnrollments(removed);
+            if (history != null) {
+                history.courseRemoved(id);
+            }
+            logCourseId(ReplicationProtocol.COURSE_DELETED, id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Course> findCoursesByCode(String courseCode) {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course code cannot be null or empty");
+        }
+
+        return coursesFor(codeIndex.search(courseCode));
+    }
+
+    @Override
+    public List<Course> findCoursesByInstructor(String instructor) {
+        if (instructor == null || instructor.trim().isEmpty()) {
+            throw new IllegalArgumentException("Instructor name cannot be null or empty");
+        }
+
+        return coursesFor(instructorIndex.search(instructor));
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartment(String department) {
+        if (department == null || department.trim().isEmpty()) {
+            throw new IllegalArgumentException("Department cannot be null or empty");
+        }
+
+        return coursesFor(departmentIndex.search(department));
+    }
+
+    @Override
+    public List<Course> searchCourses(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        return coursesFor(descriptionIndex.search(query, limit));
+    }
+
+    /**
+     * Searches course descriptions like {@link #searchCourses(String, int)}, keeping the scores
+     * so that the results of several partitions can be merged.
+     *
+     * @param query free-text query, already validated
+     * @param limit maximum number of courses to return, already validated
+     * @return the IDs and scores of the best matches, best first
+     */
+    FullTextIndex.Hits searchScored(String query, int limit) {
+        return descriptionIndex.searchScored(query, limit);
+    }
+
+    @Override
+    public List<Course> autocompleteCourses(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        return coursesFor(completionIndex.complete(prefix, limit));
+    }
+
+    @Override
+    public List<Course> getCoursesForStudent(Long studentId) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        return coursesFor(studentIndex.coursesOf(studentId));
+    }
+
+    @Override
+    public boolean enrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        ReentrantLock lock = lockFor(courseId);
+        while (true) {
+            HotCourseSeats seats = hotCourses.get(courseId);
+            if (seats != null) {
+                requirePrerequisites(courseId, studentId);
+                HotCourseSeats.Claim claim = seats.claim(studentId);
+                if (claim != HotCourseSeats.Claim.SEALED) {
+                    return claimed(courseId, seats, claim);
+                }
+                // Hot mode is ending; the locked path below waits until its seats are reconciled
+            }
+
+            lock.lock();
+            try {
+                // Hot mode starts under this lock, so a course seen here without seats has none
+                if (!hotCourses.containsKey(courseId)) {
+                    StoredCourse course = courseForChange(courseId);
+                    enroll(course, courseId, studentId);
+                    enrollmentChanged(course);
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public BulkEnrollmentResult enrollStudents(Collection<Long> courseIds, Collection<Long> studentIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            throw new IllegalArgumentException("Course IDs cannot be null or empty");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new IllegalArgumentException("Student IDs cannot be null or empty");
+        }
+        Set<Long> distinctCourses = new LinkedHashSet<>();
+        for (Long courseId : courseIds) {
+            if (courseId == null) {
+                throw new IllegalArgumentException("Course ID cannot be null");
+            }
+            distinctCourses.add(courseId);
+        }
+        Set<Long> distinctStudents = new LinkedHashSet<>();
+        for (Long studentId : studentIds) {
+            if (studentId == null) {
+                throw new IllegalArgumentException("Student ID cannot be null");
+            }
+            distinctStudents.add(studentId);
+        }
+
+        int[] stripes = lockCourses(distinctCourses);
+        try {
+            BulkEnrollment bulk = checkEnrollments(distinctCourses, distinctStudents.toArray(new Long[0]));
+            return new BulkEnrollmentResult(!bulk.failed, completeEnrollments(bulk, !bulk.failed));
+        } finally {
+            unlockCourses(stripes);
+        }
+    }
+
+    /**
+     * Locks the stripes of the given courses in ascending order, for a bulk change.
+     *
+     * @param courseIds the course IDs
+     * @return the locked stripes, to pass to {@link #unlockCourses(int[])}
+     */
+    int[] lockCourses(Collection<Long> courseIds) {
+        int[] stripes = courseIds.stream().mapToInt(CourseServiceImpl::stripeOf).distinct().sorted().toArray();
+        lockStripes(stripes);
+        return stripes;
+    }
+
+    void unlockCourses(int[] stripes) {
+        unlockStripes(stripes);
+    }
+
+    /**
+     * Checks every pair of a bulk enrollment without applying any, ending hot mode of the courses
+     * involved until the enrollment is completed. Callers hold the stripe locks of all courses.
+     *
+     * @param courseIds the distinct course IDs
+     * @param students the distinct student IDs
+     * @return the checked enrollment, to pass to {@link #completeEnrollments(BulkEnrollment, boolean)}
+     */
+    BulkEnrollment checkEnrollments(Set<Long> courseIds, Long[] students) {
+        BulkEnrollment bulk = new BulkEnrollment(students);
+        Map<Long, boolean[]> enrolledByCourse = bulk.enrolledByCourse;
+        Map<Long, boolean[]> ineligibleByCourse = bulk.ineligibleByCourse;
+        Set<Long> fullCourses = bulk.fullCourses;
+        boolean failed = false;
+        for (Long courseId : courseIds) {
+            StoredCourse course = courseForChange(courseId);
+            if (course == null) {
+                enrolledByCourse.put(courseId, null);
+                continue;
+            }
+            if (hotCourses.containsKey(courseId)) {
+                // Settle seats claimed outside the lock before checking capacity
+                endHotMode(courseId, course);
+                bulk.hot.add(courseId);
+            }
+            boolean[] enrolled = new boolean[students.length];
+            boolean[] ineligible = new boolean[students.length];
+            int needed = 0;
+            for (int i = 0; i < students.length; i++) {
+                enrolled[i] = course.isEnrolled(students[i]);
+                needed += enrolled[i] ? 0 : 1;
+                if (!enrolled[i] && !prerequisiteGraph.isEligible(courseId, students[i])) {
+                    ineligible[i] = true;
+                    failed = true;
+                }
+            }
+            enrolledByCourse.put(courseId, enrolled);
+            ineligibleByCourse.put(courseId, ineligible);
+            if (course.getCurrentEnrollment() + needed > course.getMaxStudents()) {
+                fullCourses.add(courseId);
+            }
+        }
+        bulk.failed = failed || !fullCourses.isEmpty() || enrolledByCourse.containsValue(null);
+        return bulk;
+    }
+
+    /**
+     * Enrolls every checked pair, or none of them, and resumes hot mode. Callers still hold the
+     * stripe locks taken for {@link #checkEnrollments(Set, Long[])}.
+     *
+     * @param bulk the checked enrollment
+     * @param apply true to enroll, false to only report the outcomes; must be false if the check failed
+     * @return the per-pair outcomes, grouped by course in the order checked
+     */
+    List<BulkEnrollmentResult.Outcome> completeEnrollments(BulkEnrollment bulk, boolean apply) {
+        Long[] students = bulk.students;
+        List<BulkEnrollmentResult.Outcome> outcomes = new ArrayList<>(bulk.enrolledByCourse.size() * students.length);
+        for (Map.Entry<Long, boolean[]> entry : bulk.enrolledByCourse.entrySet()) {
+            Long courseId = entry.getKey();
+            boolean[] enrolled = entry.getValue();
+            StoredCourse course = enrolled != null ? courses.get(courseId) : null;
+            boolean[] ineligible = bulk.ineligibleByCourse.get(courseId);
+            boolean full = bulk.fullCourses.contains(courseId);
+            for (int i = 0; i < students.length; i++) {
+                BulkEnrollmentResult.Status status;
+                if (course == null) {
+                    status = BulkEnrollmentResult.Status.COURSE_NOT_FOUND;
+                } else if (enrolled[i]) {
+                    status = BulkEnrollmentResult.Status.ALREADY_ENROLLED;
+                } else if (ineligible[i]) {
+                    status = BulkEnrollmentResult.Status.PREREQUISITES_NOT_MET;
+                } else if (full) {
+                    status = BulkEnrollmentResult.Status.COURSE_FULL;
+                } else if (!apply) {
+                    status = BulkEnrollmentResult.Status.NOT_APPLIED;
+                } else {
+                    addEnrollment(course, students[i]);
+                    status = BulkEnrollmentResult.Status.ENROLLED;
+                }
+                outcomes.add(new BulkEnrollmentResult.Outcome(courseId, students[i], status));
+            }
+            if (course != null && apply) {
+                enrollmentChanged(course);
+            }
+        }
+
+        for (Long courseId : bulk.hot) {
+            startHotMode(courseId, courses.get(courseId));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public EnrollmentSubscription subscribeToEnrollments(EnrollmentEventFilter filter, Duration coalesceWindow,
+                                                         EnrollmentEventListener listener) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (coalesceWindow == null || coalesceWindow.isNegative() || coalesceWindow.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        return enrollmentEvents.subscribe(filter, coalesceWindow, listener);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enrollStudentAsync(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        EnrollmentSurgeQueue queue = surgeQueue;
+        if (queue != null) {
+            CompletableFuture<Boolean> queued = queue.submit(courseId, studentId);
+            // Null once surge mode has been switched off meanwhile
+            if (queued != null) {
+                return queued;
+            }
+        }
+        try {
+            return CompletableFuture.completedFuture(enrollStudent(courseId, studentId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public synchronized void setSurgeMode(boolean enabled) {
+        if (enabled && surgeQueue == null) {
+            // Shards own whole lock stripes, so writers of different shards never share a lock
+            surgeQueue = new EnrollmentSurgeQueue(SURGE_SHARDS,
+                    courseId -> stripeOf(courseId) & (SURGE_SHARDS - 1), this::applyEnrollments);
+        } else if (!enabled && surgeQueue != null) {
+            // Its writers apply the requests already queued, then exit
+            surgeQueue.shutdown();
+            surgeQueue = null;
+        }
+    }
+
+    @Override
+    public boolean isSurgeMode() {
+        return surgeQueue != null;
+    }
+
+    @Override
+    public void setHotCourse(Long courseId, boolean hot) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        ReentrantLock lock = lockFor(courseId);
+        lock.lock();
+        try {
+            StoredCourse course = courseForChange(courseId);
+            if (course == null) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+
+            if (!hot) {
+                endHotMode(courseId, course);
+            } else if (!hotCourses.containsKey(courseId)) {
+                startHotMode(courseId, course);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isHotCourse(Long courseId) {
+        return courseId != null && hotCourses.containsKey(courseId);
+    }
+
+    @Override
+    public boolean unenrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        ReentrantLock lock = lockFor(courseId);
+        lock.lock();
+        try {
+            StoredCourse course = courseForChange(courseId);
+            if (course == null) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+
+            HotCourseSeats seats = hotCourses.get(courseId);
+            if (seats != null) {
+                applyClaims(course, seats);
+            }
+
+            if (!course.isEnrolled(studentId)) {
+                throw new IllegalStateException("Student is not enrolled in this course");
+            }
+
+            course.students().remove(studentId);
+            studentIndex.remove(studentId, courseId);
+            aggregates.enrollmentChanged(course, -1);
+            if (history != null) {
+                history.enrollmentChanged(courseId, studentId, false);
+            }
+            logEnrollment(ReplicationProtocol.UNENROLLED, courseId, studentId);
+            publish(EnrollmentEvent.Type.UNENROLLED, course, studentId);
+            if (seats != null) {
+                seats.release(studentId);
+            }
+            enrollmentChanged(course);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void recordCompletion(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        ReentrantLock lock = lockFor(courseId);
+        lock.lock();
+        try {
+            // Archived courses keep their place in the prerequisite graph, so stay where they are
+            if (!courses.containsKey(courseId) && !isArchived(courseId)) {
+                throw new NoSuchElementException("Course with ID " + courseId + " not found");
+            }
+            // Logged first, so an enrollment that sees the completion is logged after it
+            logEnrollment(ReplicationProtocol.COMPLETED, courseId, studentId);
+            prerequisiteGraph.recordCompletion(studentId, courseId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEligible(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+
+        return prerequisiteGraph.isEligible(courseId, studentId);
+    }
+
+    @Override
+    public List<Course> getAllPrerequisites(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (!courses.containsKey(courseId) && !isArchived(courseId)) {
+            throw new NoSuchElementException("Course with ID " + courseId + " not found");
+        }
+
+        long[] ids = prerequisiteGraph.transitivePrerequisites(courseId);
+        Arrays.sort(ids);
+        if (archive == null) {
+            return coursesFor(ids);
+        }
+        List<Course> prerequisites = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            getCourseById(id).ifPresent(prerequisites::add);
+        }
+        return prerequisites;
+    }
+
+    @Override
+    public List<EnrollmentReport> getDepartmentReport() {
+        return aggregates.departments();
+    }
+
+    @Override
+    public List<EnrollmentReport> getInstructorReport() {
+        return aggregates.instructors();
+    }
+
+    @Override
+    public List<String> verifyEnrollmentAggregates() {
+        int[] stripes = allStripes();
+        lockStripes(stripes);
+        try {
+            return aggregates.verify(courses.values());
+        } finally {
+            unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Starts logging every change for followers, if not already started. Changes made before
+     * reach followers through snapshots only.
+     *
+     * @param capacity how many recent changes to keep for followers to stream
+     * @return the log
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    ReplicationLog startReplicationLog(int capacity) {
+        if (archive != null) {
+            // Followers would keep courses the leader no longer has in memory, nor snapshots
+            throw new IllegalStateException("Replication cannot be combined with archiving");
+        }
+        int[] stripes = allStripes();
+        lockStripes(stripes);
+        try {
+            if (replicationLog == null) {
+                replicationLog = new ReplicationLog(capacity);
+            }
+            return replicationLog;
+        } finally {
+            unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Encodes the whole store for a joining follower, with the sequence number of the last
+     * logged change it includes. Writes wait while the courses are copied.
+     *
+     * @return a {@link ReplicationProtocol#SNAPSHOT} message
+     * @throws IllegalStateException if replication has not been started
+     */
+    byte[] replicationSnapshot() {
+        ReplicationLog log = replicationLog;
+        if (log == null) {
+            throw new IllegalStateException("Replication is not started");
+        }
+        int[] stripes = allStripes();
+        lockStripes(stripes);
+        try {
+            // Every change is logged under a stripe lock, so none is in flight
+            return ReplicationProtocol.snapshot(log.lastSequence(), System.currentTimeMillis(), log.id(),
+                    courses.values(), courses.size(), prerequisiteGraph.completedCourses());
+        } finally {
+            unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Fills an empty store from a snapshot written by {@link #replicationSnapshot()}, read after
+     * its type, sequence number, timestamp and log ID. Courses keep their IDs, versions and status.
+     *
+     * @param in the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    void loadReplicationSnapshot(DataInput in) throws IOException {
+        int courseCount = in.readInt();
+        Map<Long, Course> snapshot = new HashMap<>();
+        for (int i = 0; i < courseCount; i++) {
+            Course course = ReplicationProtocol.readCourse(in);
+            snapshot.put(course.getId(), course);
+        }
+        // A course may require one with a higher ID, so prerequisites are restored first
+        Deque<Course> pending = new ArrayDeque<>();
+        for (Course course : snapshot.values()) {
+            pending.push(course);
+            while (!pending.isEmpty()) {
+                Course next = pending.peek();
+                Course prerequisite = null;
+                for (Long prerequisiteId : next.getPrerequisites()) {
+                    if (!courses.containsKey(prerequisiteId) && snapshot.containsKey(prerequisiteId)) {
+                        prerequisite = snapshot.get(prerequisiteId);
+                        break;
+                    }
+                }
+                if (prerequisite != null) {
+                    pending.push(prerequisite);
+                    continue;
+                }
+                pending.pop();
+                if (!courses.containsKey(next.getId())) {
+                    restoreCourse(next);
+                }
+            }
+        }
+        int studentCount = in.readInt();
+        for (int i = 0; i < studentCount; i++) {
+            long studentId = in.readLong();
+            prerequisiteGraph.restoreCompletions(studentId, ReplicationProtocol.readLongs(in));
+        }
+        long maxId = snapshot.keySet().stream().mapToLong(Long::longValue).max().orElse(0L);
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+    }
+
+    private void restoreCourse(Course course) {
+        addCourse(course, course.getId(), course.getVersion(), course.isActive());
+    }
+
+    @Override
+    public int getEnrollmentCount(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+
+        Course course = courses.get(courseId);
+        if (course == null && archive != null) {
+            course = readArchived(courseId);
+        }
+        if (course == null) {
+            throw new NoSuchElementException("Course with ID " + courseId + " not found");
+        }
+
+        return course.getCurrentEnrollment();
+    }
+
+    @Override
+    public boolean validateCourse(Course course) {
+        return isValid(course);
+    }
+
+    /**
+     * Validates course data; shared by the course service implementations.
+     *
+     * @param course the course to validate
+     * @return true if the course data is valid
+     */
+    static boolean isValid(Course course) {
+        if (course == null) {
+            return false;
+        }
+
+        // Validate required fields
+        if (course.getCourseCode() == null || course.getCourseCode().trim().isEmpty()) {
+            return false;
+        }
+
+        if (course.getCourseName() == null || course.getCourseName().trim().isEmpty()) {
+            return false;
+        }
+
+        if (course.getInstructor() == null || course.getInstructor().trim().isEmpty()) {
+            return false;
+        }
+
+        // Validate credits
+        if (course.getCredits() <= 0 || course.getCredits() > 6) {
+            return false;
+        }
+
+        // Validate max students
+        if (course.getMaxStudents() <= 0) {
+            return false;
+        }
+
+        // Validate dates if provided
+        if (course.getStartDate() != null && course.getEndDate() != null) {
+            if (course.getStartDate().isAfter(course.getEndDate())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public List<Course> getActiveCourses() {
+        return coursesFor(creditIndex.range(CreditIndex.MIN_CREDITS, CreditIndex.MAX_CREDITS, true));
+    }
+
+    @Override
+    public List<Course> getCoursesWithAvailableSpots() {
+        return streamCoursesWithAvailableSpots().collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Course> streamCoursesWithAvailableSpots() {
+        // Re-check each course in case it filled up or closed after the set was read
+        return openCourseIds.stream()
+                .<Course>map(courses::get)
+                .filter(course -> course != null && course.isActive() && !course.isFull());
+    }
+
+    @Override
+    public List<Course> getCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+
+        return coursesFor(creditIndex.range(minCredits, maxCredits, false));
+    }
+
+    @Override
+    public List<Course> getActiveCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+
+        return coursesFor(creditIndex.range(minCredits, maxCredits, true));
+    }
+
+    @Override
+    public List<Course> findCourses(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        List<Course> result = queryPlanner.execute(criteria);
+        if (criteria.isIncludeArchived() && archive != null) {
+            try {
+                result.addAll(archive.scan(criteria::matches));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the course archive", e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public QueryPlan explainQuery(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        return queryPlanner.plan(criteria);
+    }
+
+    // Additional business logic methods
+    public List<Course> getCoursesStartingAfter(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        
+        return coursesFor(dateIndex.startingAfter(date));
+    }
+
+    public List<Course> getCoursesEndingBefore(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        
+        return coursesFor(dateIndex.endingBefore(date));
+    }
+
+    /**
+     * Gets courses in session on a date, i.e. with startDate <= date <= endDate.
+     * Courses missing either date are not considered scheduled.
+     *
+     * @param date the date
+     * @return a list of courses running on the date
+     */
+    public List<Course> getCoursesRunningOn(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+
+        return coursesFor(dateIndex.runningOn(date));
+    }
+
+    /**
+     * Gets courses whose schedule overlaps a date range, both ends inclusive.
+     * Courses missing either date are not considered scheduled.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range
+     * @return a list of courses overlapping the range
+     */
+    public List<Course> getCoursesOverlapping(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+
+        return coursesFor(dateIndex.overlapping(from, to));
+    }
+
+    /**
+     * Counts the courses in memory; archived courses are counted by {@link #getArchivedCourseCount()}.
+     */
+    public int getTotalCourseCount() {
+        return courses.size();
+    }
+
+    public int getArchivedCourseCount() {
+        return archive != null ? archive.size() : 0;
+    }
+
+    /**
+     * Counts the scheduled archive runs that failed since startup; their courses stay in memory
+     * until a later run succeeds.
+     */
+    public long getArchiveFailureCount() {
+        return archiveFailures.get();
+    }
+
+    /**
+     * Moves courses that are inactive and ended before today out of memory into the archive, in
+     * blocks written under the stripe locks of their courses. Runs every interval of the archive
+     * policy, and may be called in between.
+     *
+     * @return the number of courses archived
+     * @throws IllegalStateException if archiving is not enabled
+     * @throws UncheckedIOException if a block cannot be written; courses of earlier blocks stay archived
+     */
+    public int archiveEndedCourses() {
+        CourseArchive archive = archive();
+        LocalDate today = LocalDate.now(clock);
+        List<Long> candidates = new ArrayList<>();
+        for (long id : dateIndex.endingBefore(today)) {
+            Course course = courses.get(id);
+            if (course != null && isArchivable(course, today)) {
+                candidates.add(id);
+            }
+        }
+        int archived = 0;
+        for (int from = 0; from < candidates.size(); from += CourseArchive.BLOCK_COURSES) {
+            List<Long> ids = candidates.subList(from, Math.min(candidates.size(), from + CourseArchive.BLOCK_COURSES));
+            int[] stripes = lockCourses(ids);
+            try {
+                List<StoredCourse> block = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    // Checked again, as the course may have been changed or deleted meanwhile
+                    StoredCourse course = courses.get(id);
+                    if (course != null && isArchivable(course, today)) {
+                        endHotMode(id, course);
+                        block.add(course);
+                    }
+                }
+                if (block.isEmpty()) {
+                    continue;
+                }
+                // Written before the courses leave memory, so readers find them in one place or the other
+                archive.append(block);
+                for (StoredCourse course : block) {
+                    unpublishCourse(course);
+                    releaseEnrollments(course);
+                }
+                archived += block.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write to the course archive", e);
+            } finally {
+                unlockCourses(stripes);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Ends surge mode once the queued enrollments are applied, stops archiving and deletes the
+     * archive, after which archived courses are no longer found. Courses in memory are unaffected.
+     */
+    @Override
+    public void close() {
+        EnrollmentSurgeQueue queue = surgeQueue;
+        setSurgeMode(false);
+        if (queue != null) {
+            try {
+                queue.awaitTermination(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (archive != null) {
+            archiver.shutdownNow();
+            archive.close();
+        }
+    }
+
+    public void deactivateCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            StoredCourse course = courses.get(id);
+            if (course != null) {
+                replaceStatus(course, false);
+                logCourseId(ReplicationProtocol.COURSE_DEACTIVATED, id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void activateCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            StoredCourse course = courseForChange(id);
+            if (course != null) {
+                replaceStatus(course, true);
+                logCourseId(ReplicationProtocol.COURSE_ACTIVATED, id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the next version of a course with a new status, like an update, so snapshots
+     * keep the status they were taken with and an update based on the previous version fails.
+     * Callers hold the course's stripe lock.
+     */
+    private void replaceStatus(StoredCourse course, boolean active) {
+        StoredCourse replaced = course.withActive(active);
+        courses.put(replaced.getId(), replaced);
+        catalog.updateAndGet(snapshot -> snapshot.with(replaced));
+        creditIndex.setActive(replaced.getId(), active);
+        refreshAvailability(replaced);
+        if (history != null) {
+            history.courseChanged(replaced, false);
+        }
+    }
+
+    /**
+     * Rejects an update written against an older version of the course.
+     *
+     * @param expectedVersion the version the update was based on, or 0 for any
+     */
+    static void requireVersion(Long id, long expectedVersion, long currentVersion) {
+        if (expectedVersion != 0 && expectedVersion != currentVersion) {
+            throw new ConcurrentModificationException("Course with ID " + id
+                    + " was modified concurrently: expected version " + expectedVersion
+                    + " but was " + currentVersion);
+        }
+    }
+
+    /**
+     * Locks stripes in ascending order, so callers locking overlapping stripes cannot deadlock.
+     *
+     * @param stripes distinct stripe indexes in ascending order
+     */
+    private void lockStripes(int[] stripes) {
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                enrollmentLocks[stripe].lock();
+                locked++;
+            }
+        } catch (RuntimeException | Error e) {
+            for (int i = locked - 1; i >= 0; i--) {
+                enrollmentLocks[stripes[i]].unlock();
+            }
+            throw e;
+        }
+    }
+
+    private static int[] allStripes() {
+        int[] stripes = new int[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = i;
+        }
+        return stripes;
+    }
+
+    private void unlockStripes(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            enrollmentLocks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Returns the lock stripe guarding enrollment changes for a course.
+     *
+     * @param courseId the course ID
+     * @return the stripe lock
+     */
+    private ReentrantLock lockFor(Long courseId) {
+        return enrollmentLocks[stripeOf(courseId)];
+    }
+
+    static int stripeOf(Long courseId) {
+        long h = courseId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Validates and applies one enrollment. Callers hold the course's stripe lock.
+     *
+     * @param course the course, or null if it does not exist
+     * @param courseId the course ID
+     * @param studentId the student ID
+     */
+    private void enroll(StoredCourse course, Long courseId, Long studentId) {
+        if (course == null) {
+            throw new NoSuchElementException("Course with ID " + courseId + " not found");
+        }
+
+        if (course.isEnrolled(studentId)) {
+            throw new IllegalStateException("Student is already enrolled in this course");
+        }
+
+        requirePrerequisites(courseId, studentId);
+
+        if (course.isFull()) {
+            throw new IllegalStateException("Course is full. Cannot enroll more students");
+        }
+
+        addEnrollment(course, studentId);
+    }
+
+    private void addEnrollment(StoredCourse course, Long studentId) {
+        course.addStudent(studentId);
+        studentIndex.add(studentId, course.getId());
+        aggregates.enrollmentChanged(course, 1);
+        if (history != null) {
+            history.enrollmentChanged(course.getId(), studentId, true);
+        }
+        logEnrollment(ReplicationProtocol.ENROLLED, course.getId(), studentId);
+        publish(EnrollmentEvent.Type.ENROLLED, course, studentId);
+    }
+
+    /**
+     * Logs a created or updated course for followers. Callers hold the course's stripe lock.
+     */
+    private void logCourse(byte type, Course course, boolean withStudents) {
+        ReplicationLog log = replicationLog;
+        if (log != null) {
+            log.append(ReplicationProtocol.courseRecord(type, course, withStudents));
+        }
+    }
+
+    private void logCourseId(byte type, Long courseId) {
+        ReplicationLog log = replicationLog;
+        if (log != null) {
+            log.append(ReplicationProtocol.courseIdRecord(type, courseId));
+        }
+    }
+
+    private void logEnrollment(byte type, Long courseId, Long studentId) {
+        ReplicationLog log = replicationLog;
+        if (log != null) {
+            log.append(ReplicationProtocol.enrollmentRecord(type, courseId, studentId));
+        }
+    }
+
+    /**
+     * Publishes a change of a course to streaming subscribers. Callers hold the course's stripe
+     * lock, so events of one course are published in order.
+     */
+    private void publish(EnrollmentEvent.Type type, Course course, Long studentId) {
+        if (enrollmentEvents.hasSubscribers()) {
+            enrollmentEvents.publish(new EnrollmentEvent(type, course.getId(), studentId, course.getDepartment(),
+                    course.getCurrentEnrollment(), course.getMaxStudents(), System.currentTimeMillis()));
+        }
+    }
+
+    private void enrollmentChanged(Course course) {
+        refreshAvailability(course);
+        completionIndex.updateScore(course.getId(), course.getCurrentEnrollment());
+    }
+
+    /**
+     * Applies a surge batch for one course under a single acquisition of its stripe lock.
+     * Futures are completed after the lock is released, since dependent callbacks run inline.
+     */
+    private void applyEnrollments(Long courseId, List<EnrollmentSurgeQueue.Request> requests) {
+        RuntimeException[] failures = new RuntimeException[requests.size()];
+        ReentrantLock lock = lockFor(courseId);
+        boolean hot;
+        lock.lock();
+        try {
+            hot = hotCourses.containsKey(courseId);
+            if (!hot) {
+                StoredCourse course = courseForChange(courseId);
+                for (int i = 0; i < failures.length; i++) {
+                    try {
+                        enroll(course, courseId, requests.get(i).studentId);
+                    } catch (RuntimeException e) {
+                        failures[i] = e;
+                    }
+                }
+                if (course != null) {
+                    enrollmentChanged(course);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (hot) {
+            // Seats of hot courses are only handed out against capacity tokens
+            for (int i = 0; i < failures.length; i++) {
+                try {
+                    enrollStudent(courseId, requests.get(i).studentId);
+                } catch (RuntimeException e) {
+                    failures[i] = e;
+                }
+            }
+        }
+
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == null) {
+                requests.get(i).result.complete(true);
+            } else {
+                requests.get(i).result.completeExceptionally(failures[i]);
+            }
+        }
+    }
+
+    /**
+     * Maps the outcome of a hot-course seat claim to the locked path's result and exceptions,
+     * and applies queued claims to the course before returning.
+     */
+    private boolean claimed(Long courseId, HotCourseSeats seats, HotCourseSeats.Claim claim) {
+        switch (claim) {
+            case ALREADY_ENROLLED -> throw new IllegalStateException("Student is already enrolled in this course");
+            case FULL -> throw new IllegalStateException("Course is full. Cannot enroll more students");
+            default -> {
+                // Taken even with no claims queued, since the holder that polled ours may not have applied it yet;
+                // the stripe is shared with other courses, whose holders never apply this course's claims
+                ReentrantLock lock = lockFor(courseId);
+                lock.lock();
+                try {
+                    StoredCourse course = courses.get(courseId);
+                    if (course != null) {
+                        applyClaims(course, seats);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Applies queued seat claims of a hot course. Callers hold the course's stripe lock.
+     */
+    private void applyClaims(StoredCourse course, HotCourseSeats seats) {
+        boolean changed = false;
+        Long studentId;
+        while ((studentId = seats.pollClaimed()) != null) {
+            addEnrollment(course, studentId);
+            changed = true;
+        }
+        if (changed) {
+            enrollmentChanged(course);
+        }
+    }
+
+    /**
+     * Starts hot mode for a course with its remaining capacity. Callers hold the course's stripe lock.
+     */
+    private void startHotMode(Long courseId, Course course) {
+        int remaining = Math.max(0, course.getMaxStudents() - course.getCurrentEnrollment());
+        List<Long> enrolled = course.getEnrolledStudents() != null ? course.getEnrolledStudents() : List.of();
+        hotCourses.put(courseId, new HotCourseSeats(HOT_COURSE_STRIPES, remaining, enrolled));
+    }
+
+    /**
+     * Ends hot mode for a course, if on, and applies every claim made before it ended.
+     * Callers hold the course's stripe lock.
+     */
+    private void endHotMode(Long courseId, StoredCourse course) {
+        HotCourseSeats seats = hotCourses.remove(courseId);
+        if (seats != null) {
+            seats.seal();
+            applyClaims(course, seats);
+        }
+    }
+
+    /**
+     * Returns the lock guarding reads of a course's enrolled students: its stripe lock if they are
+     * off-heap, where a freed block may be handed to another course, and none otherwise.
+     */
+    private ReentrantLock enrollmentReadLock(long courseId) {
+        return offHeapEnrollments != null ? lockFor(courseId) : null;
+    }
+
+    /**
+     * Copies a course's enrolled students into a new set, off-heap if the service keeps them there.
+     * A set the course already carries is never adopted, since it may belong to another course.
+     */
+    private LongSet newEnrollments(Course course) {
+        List<Long> enrolled = course.getEnrolledStudents() != null ? course.getEnrolledStudents() : List.of();
+        LongSet students = offHeapEnrollments != null ? offHeapEnrollments.newSet() : new LongHashSet(enrolled.size());
+        for (Long studentId : enrolled) {
+            if (studentId != null) {
+                students.add(studentId);
+            }
+        }
+        return students;
+    }
+
+    private CourseHistory history() {
+        if (history == null) {
+            throw new HistoryNotEnabledException();
+        }
+        return history;
+    }
+
+    private CourseArchive archive() {
+        if (archive == null) {
+            throw new IllegalStateException("Course archiving is not enabled");
+        }
+        return archive;
+    }
+
+    private void archivePeriodically() {
+        try {
+            archiveEndedCourses();
+        } catch (RuntimeException e) {
+            // The courses stay in memory until the next run
+            long failures = archiveFailures.incrementAndGet();
+            LOGGER.warn("Archive run failed with {} courses in memory ({} failed runs so far)",
+                    courses.size(), failures, e);
+        }
+    }
+
+    private static boolean isArchivable(Course course, LocalDate today) {
+        return !course.isActive() && course.getEndDate() != null && course.getEndDate().isBefore(today);
+    }
+
+    private boolean isArchived(Long courseId) {
+        return archive != null && archive.contains(courseId);
+    }
+
+    private Course readArchived(Long courseId) {
+        try {
+            return archive.read(courseId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived course with ID " + courseId, e);
+        }
+    }
+
+    /**
+     * Returns a course to change, taking it back into memory if it is archived. Callers hold the
+     * course's stripe lock.
+     *
+     * @return the course, or null if it does not exist
+     */
+    private StoredCourse courseForChange(Long courseId) {
+        StoredCourse course = courses.get(courseId);
+        if (course == null && archive != null) {
+            Course archived = readArchived(courseId);
+            if (archived != null) {
+                course = new StoredCourse(archived, courseId, archived.getVersion(), archived.isActive(),
+                        List.copyOf(archived.getPrerequisites()), newEnrollments(archived),
+                        enrollmentReadLock(courseId));
+                publishCourse(course);
+                archive.remove(courseId);
+            }
+        }
+        return course;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void requirePrerequisites(Long courseId, Long studentId) {
+        if (!prerequisiteGraph.isEligible(courseId, studentId)) {
+            throw new IllegalStateException("Student has not completed the prerequisites of this course");
+        }
+    }
+
+    /**
+     * Returns a course's distinct prerequisite IDs in ascending order.
+     */
+    static long[] prerequisiteIds(Course course) {
+        List<Long> prerequisites = course.getPrerequisites();
+        if (prerequisites == null) {
+            return new long[0];
+        }
+        long[] ids = new long[prerequisites.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Long id = prerequisites.get(i);
+            if (id == null) {
+                throw new IllegalArgumentException("Prerequisite course ID cannot be null");
+            }
+            ids[i] = id;
+        }
+        return Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    private static List<Long> idList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static void releaseEnrollments(StoredCourse course) {
+        if (course.students() instanceof OffHeapLongSet students) {
+            students.release();
+        }
+    }
+
+    /**
+     * Brings the student index in line with a course's replacement, which may carry its own enrollments.
+     */
+    private void reindexStudents(long id, Course previous, Course replacement) {
+        for (Long studentId : previous.getEnrolledStudents()) {
+            if (!replacement.isEnrolled(studentId)) {
+                studentIndex.remove(studentId, id);
+            }
+        }
+        for (Long studentId : replacement.getEnrolledStudents()) {
+            studentIndex.add(studentId, id);
+        }
+    }
+
+    /**
+     * Adds a course to the map, catalog, indexes and totals. Callers hold the course's stripe lock.
+     */
+    private void publishCourse(StoredCourse course) {
+        courses.put(course.getId(), course);
+        catalog.updateAndGet(snapshot -> snapshot.with(course));
+        indexCourse(course);
+        for (Long studentId : course.getEnrolledStudents()) {
+            studentIndex.add(studentId, course.getId());
+        }
+        aggregates.addCourse(course);
+    }
+
+    /**
+     * Removes a course from everything {@link #publishCourse} added it to. Callers hold the
+     * course's stripe lock.
+     */
+    private void unpublishCourse(StoredCourse course) {
+        long id = course.getId();
+        courses.remove(id);
+        catalog.updateAndGet(snapshot -> snapshot.without(id));
+        unindexCourse(id);
+        aggregates.removeCourse(course);
+        for (Long studentId : course.getEnrolledStudents()) {
+            studentIndex.remove(studentId, id);
+        }
+    }
+
+    private void indexCourse(Course course) {
+        long id = course.getId();
+        codeIndex.put(id, course.getCourseCode());
+        instructorIndex.put(id, course.getInstructor());
+        departmentIndex.put(id, course.getDepartment());
+        creditIndex.put(id, course.getCredits(), course.isActive());
+        dateIndex.put(id, course.getStartDate(), course.getEndDate());
+        descriptionIndex.put(id, course.getDescription());
+        completionIndex.put(id, course.getCourseCode(), course.getCourseName());
+        refreshAvailability(course);
+    }
+
+    private void unindexCourse(long id) {
+        codeIndex.remove(id);
+        instructorIndex.remove(id);
+        departmentIndex.remove(id);
+        creditIndex.remove(id);
+        dateIndex.remove(id);
+        descriptionIndex.remove(id);
+        completionIndex.remove(id);
+        openCourseIds.remove(id);
+    }
+
+    private void refreshAvailability(Course course) {
+        if (course.isActive() && !course.isFull()) {
+            openCourseIds.add(course.getId());
+        } else {
+            openCourseIds.remove(course.getId());
+        }
+    }
+
+    private int enrollmentOf(long id) {
+        Course course = courses.get(id);
+        return course != null ? course.getCurrentEnrollment() : 0;
+    }
+
+    /**
+     * Resolves course IDs from an index lookup, skipping courses deleted in the meantime.
+     *
+     * @param ids the course IDs
+     * @return the matching courses
+     */
+    private List<Course> coursesFor(long[] ids) {
+        List<Course> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Course course = courses.get(id);
+            if (course != null) {
+                result.add(course);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Outcome of checking a bulk enrollment, held between the check and its completion.
+     */
+    static final class BulkEnrollment {
+
+        final Long[] students;
+        // Per course, which students are already enrolled; null for a course that does not exist
+        final Map<Long, boolean[]> enrolledByCourse = new LinkedHashMap<>();
+        final Map<Long, boolean[]> ineligibleByCourse = new HashMap<>();
+        final Set<Long> fullCourses = new HashSet<>();
+        // Courses taken out of hot mode for the enrollment
+        final List<Long> hot = new ArrayList<>();
+        // Set when a course is missing or full, or a student is not eligible
+        boolean failed;
+
+        BulkEnrollment(Long[] students) {
+            this.students = students;
+        }
+    }
+}
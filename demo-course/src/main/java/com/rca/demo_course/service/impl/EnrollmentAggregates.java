@@ -0,0 +1,154 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.EnrollmentReport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enrollment totals per department and per instructor, updated incrementally as courses
+ * and enrollments change. Courses of one department change under different lock stripes,
+ * so the counters are {@link LongAdder}s that absorb concurrent updates without contention.
+ * A report sums the counters of each group, so it costs O(groups) however many courses exist.
+ * Courses without a department only count towards their instructor.
+ */
+class EnrollmentAggregates {
+
+    private final Map<String, Totals> byDepartment = new ConcurrentHashMap<>();
+    private final Map<String, Totals> byInstructor = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a course with its current enrollment.
+     *
+     * @param course the course
+     */
+    void addCourse(Course course) {
+        apply(course, 1);
+    }
+
+    /**
+     * Removes a course with its current enrollment, which must be what was added for it.
+     *
+     * @param course the course
+     */
+    void removeCourse(Course course) {
+        apply(course, -1);
+    }
+
+    /**
+     * Records one student joining or leaving a course.
+     *
+     * @param course the course
+     * @param delta 1 for an enrollment, -1 for an unenrollment
+     */
+    void enrollmentChanged(Course course, int delta) {
+        long creditHours = (long) delta * course.getCredits();
+        if (course.getDepartment() != null) {
+            totalsOf(byDepartment, course.getDepartment()).addEnrollment(delta, creditHours);
+        }
+        if (course.getInstructor() != null) {
+            totalsOf(byInstructor, course.getInstructor()).addEnrollment(delta, creditHours);
+        }
+    }
+
+    List<EnrollmentReport> departments() {
+        return report(byDepartment);
+    }
+
+    List<EnrollmentReport> instructors() {
+        return report(byInstructor);
+    }
+
+    /**
+     * Rebuilds the totals from the courses and lists every group that differs. Callers must
+     * keep the courses from changing meanwhile.
+     *
+     * @param courses all courses
+     * @return a description of each mismatch, empty if the totals are consistent
+     */
+    List<String> verify(Collection<? extends Course> courses) {
+        EnrollmentAggregates rebuilt = new EnrollmentAggregates();
+        for (Course course : courses) {
+            rebuilt.addCourse(course);
+        }
+        List<String> mismatches = new ArrayList<>();
+        compare("department", report(byDepartment), rebuilt.departments(), mismatches);
+        compare("instructor", report(byInstructor), rebuilt.instructors(), mismatches);
+        return mismatches;
+    }
+
+    private void apply(Course course, int sign) {
+        long enrolled = course.getCurrentEnrollment();
+        long capacity = (long) sign * course.getMaxStudents();
+        if (course.getDepartment() != null) {
+            Totals totals = totalsOf(byDepartment, course.getDepartment());
+            totals.courses.add(sign);
+            totals.capacity.add(capacity);
+            totals.addEnrollment(sign * enrolled, sign * enrolled * course.getCredits());
+        }
+        if (course.getInstructor() != null) {
+            Totals totals = totalsOf(byInstructor, course.getInstructor());
+            totals.courses.add(sign);
+            totals.capacity.add(capacity);
+            totals.addEnrollment(sign * enrolled, sign * enrolled * course.getCredits());
+        }
+    }
+
+    private static Totals totalsOf(Map<String, Totals> groups, String group) {
+        // Groups exist after their first course, so the lock-free get almost always succeeds
+        Totals totals = groups.get(group);
+        return totals != null ? totals : groups.computeIfAbsent(group, key -> new Totals());
+    }
+
+    private static List<EnrollmentReport> report(Map<String, Totals> groups) {
+        List<EnrollmentReport> reports = new ArrayList<>(groups.size());
+        for (Map.Entry<String, Totals> entry : groups.entrySet()) {
+            Totals totals = entry.getValue();
+            long courses = totals.courses.sum();
+            // Groups whose last course left stay as empty counters and are not reported
+            if (courses > 0) {
+                reports.add(new EnrollmentReport(entry.getKey(), courses, totals.enrolled.sum(),
+                        totals.capacity.sum(), totals.creditHours.sum()));
+            }
+        }
+        reports.sort(Comparator.comparing(EnrollmentReport::getGroup));
+        return reports;
+    }
+
+    private static void compare(String dimension, List<EnrollmentReport> maintained, List<EnrollmentReport> rebuilt,
+                                List<String> mismatches) {
+        Map<String, EnrollmentReport> expected = new HashMap<>();
+        for (EnrollmentReport report : rebuilt) {
+            expected.put(report.getGroup(), report);
+        }
+        for (EnrollmentReport report : maintained) {
+            EnrollmentReport rebuiltReport = expected.remove(report.getGroup());
+            if (!report.equals(rebuiltReport)) {
+                mismatches.add(dimension + " " + report.getGroup() + ": maintained " + report
+                        + ", rebuilt " + rebuiltReport);
+            }
+        }
+        for (EnrollmentReport report : expected.values()) {
+            mismatches.add(dimension + " " + report.getGroup() + ": missing, rebuilt " + report);
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder courses = new LongAdder();
+        final LongAdder enrolled = new LongAdder();
+        final LongAdder capacity = new LongAdder();
+        final LongAdder creditHours = new LongAdder();
+
+        void addEnrollment(long students, long hours) {
+            enrolled.add(students);
+            creditHours.add(hours);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentSubscription;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans enrollment events out to subscribers.
+ *
+ * <p>Each subscriber keeps at most one pending event per course; a newer event of the same
+ * course replaces it. The first pending event starts the subscriber's coalescing window, and
+ * when it closes the pending events are delivered as one batch on a delivery thread. A
+ * subscriber's next window starts only after its delivery returns, so events of a slow
+ * subscriber keep coalescing meanwhile. If its pending events still exceed the bound, the
+ * subscriber is dropped, so a stalled client never holds memory or delivery threads for others.
+ */
+class EnrollmentEventBus {
+
+    // Pending courses per subscriber before it is considered too slow and dropped
+    static final int DEFAULT_MAX_PENDING = 4096;
+
+    private final int maxPending;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Started with the first subscription, before the subscriber is published to publishing threads
+    private ScheduledExecutorService timer;
+    private ExecutorService delivery;
+
+    EnrollmentEventBus() {
+        this(DEFAULT_MAX_PENDING);
+    }
+
+    EnrollmentEventBus(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Tells whether anyone listens, so publishers can skip building events.
+     *
+     * @return true if there is at least one subscriber
+     */
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Offers an event to every subscriber whose filter matches. Events of one course must be
+     * published in order, which the course lock guarantees.
+     *
+     * @param event the event
+     */
+    void publish(EnrollmentEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    EnrollmentSubscription subscribe(EnrollmentEventFilter filter, Duration window, EnrollmentEventListener listener) {
+        Subscriber subscriber = new Subscriber(filter, window.toNanos(), listener);
+        synchronized (this) {
+            if (timer == null) {
+                timer = Executors.newSingleThreadScheduledExecutor(daemon("enrollment-events-timer"));
+                delivery = Executors.newCachedThreadPool(daemon("enrollment-events-delivery"));
+            }
+        }
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber implements EnrollmentSubscription {
+
+        final EnrollmentEventFilter filter;
+        final long windowNanos;
+        final EnrollmentEventListener listener;
+        // Guarded by this
+        private final Map<Long, EnrollmentEvent> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean delivering;
+        private volatile boolean active = true;
+
+        Subscriber(EnrollmentEventFilter filter, long windowNanos, EnrollmentEventListener listener) {
+            this.filter = filter;
+            this.windowNanos = windowNanos;
+            this.listener = listener;
+        }
+
+        void offer(EnrollmentEvent event) {
+            boolean startWindow = false;
+            boolean dropped = false;
+            synchronized (this) {
+                if (!active) {
+                    return;
+                }
+                pending.merge(event.getCourseId(), event, (earlier, later) -> later.coalesce(earlier));
+                if (pending.size() <= maxPending) {
+                    startWindow = !scheduled && !delivering;
+                    scheduled |= startWindow;
+                } else {
+                    active = false;
+                    dropped = true;
+                    pending.clear();
+                }
+            }
+            if (dropped) {
+                drop();
+            } else if (startWindow) {
+                timer.schedule(() -> delivery.execute(this::deliver), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void deliver() {
+            List<EnrollmentEvent> batch;
+            synchronized (this) {
+                scheduled = false;
+                if (!active || pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                delivering = true;
+            }
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                cancel();
+                return;
+            }
+            boolean startWindow;
+            synchronized (this) {
+                delivering = false;
+                startWindow = active && !pending.isEmpty();
+                scheduled |= startWindow;
+            }
+            if (startWindow) {
+                timer.schedule(() -> delivery.execute(this::deliver), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void drop() {
+            if (subscribers.remove(this)) {
+                // Never run listener code on the publishing thread, which holds a course lock
+                delivery.execute(listener::onDropped);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                active = false;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.rca.demo_course.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+/**
+ * Enrollment requests queued per shard during registration surges.
+ * Callers append to a lock-free queue and get a future; one writer thread per shard drains
+ * its queue in batches, groups the batch by course and hands each course's requests, in
+ * arrival order, to the applier. The course lock is then taken once per course per batch
+ * instead of once per request, and only by the writer, so callers never contend on it.
+ *
+ * <p>{@link #shutdown()} stops taking requests; the writers apply what is queued and exit.
+ */
+class EnrollmentSurgeQueue {
+
+    // Upper bound on requests applied per drain, so a busy shard still completes futures steadily
+    private static final int MAX_BATCH = 1024;
+
+    /**
+     * A queued enrollment and the future completed once it has been applied.
+     */
+    static final class Request {
+
+        final Long courseId;
+        final Long studentId;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Request(Long courseId, Long studentId) {
+            this.courseId = courseId;
+            this.studentId = studentId;
+        }
+    }
+
+    /**
+     * Applies the queued requests of one course. Implementations complete every request's future.
+     */
+    interface BatchApplier {
+        void apply(Long courseId, List<Request> requests);
+    }
+
+    private final Shard[] shards;
+    private final ToIntFunction<Long> shardOf;
+    private final BatchApplier applier;
+    private volatile boolean shutdown;
+
+    /**
+     * Creates the queue and starts one daemon writer thread per shard.
+     *
+     * @param shardCount number of shards and writer threads
+     * @param shardOf maps a course ID to a shard in {@code [0, shardCount)}
+     * @param applier applies a course's batch
+     */
+    EnrollmentSurgeQueue(int shardCount, ToIntFunction<Long> shardOf, BatchApplier applier) {
+        this.shardOf = shardOf;
+        this.applier = applier;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+            Thread writer = new Thread(shards[i]::drain, "enrollment-surge-writer-" + i);
+            writer.setDaemon(true);
+            shards[i].writer = writer;
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues an enrollment for the writer of the course's shard.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return a future completed with true once enrolled, or exceptionally if the enrollment is
+     *         rejected; null if the queue is shut down, in which case nothing was queued
+     */
+    CompletableFuture<Boolean> submit(Long courseId, Long studentId) {
+        if (shutdown) {
+            return null;
+        }
+        Request request = new Request(courseId, studentId);
+        Shard shard = shards[shardOf.applyAsInt(courseId)];
+        shard.queue.offer(request);
+        // A writer checks the flag before the queue, so one that may have exited leaves the request to be taken back
+        if (shutdown && shard.queue.remove(request)) {
+            return null;
+        }
+        if (shard.parked) {
+            LockSupport.unpark(shard.writer);
+        }
+        return request.result;
+    }
+
+    /**
+     * Stops taking requests. Writers apply the requests already queued and then exit.
+     */
+    void shutdown() {
+        shutdown = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.writer);
+        }
+    }
+
+    /**
+     * Waits for the writers to exit after {@link #shutdown()}.
+     *
+     * @param timeoutMillis how long to wait for each writer
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitTermination(long timeoutMillis) throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.writer.join(timeoutMillis);
+        }
+    }
+
+    private final class Shard {
+
+        final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+        volatile boolean parked;
+        Thread writer;
+
+        void drain() {
+            List<Request> batch = new ArrayList<>();
+            while (true) {
+                boolean stopping = shutdown;
+                Request request = queue.poll();
+                if (request == null) {
+                    if (stopping) {
+                        return;
+                    }
+                    // Producers unpark after offering, so re-check before parking to avoid a lost wake-up
+                    parked = true;
+                    if (queue.isEmpty() && !shutdown) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                do {
+                    batch.add(request);
+                } while (batch.size() < MAX_BATCH && (request = queue.poll()) != null);
+
+                applyBatch(batch);
+                batch.clear();
+            }
+        }
+
+        private void applyBatch(List<Request> batch) {
+            Map<Long, List<Request>> byCourse = new LinkedHashMap<>();
+            for (Request request : batch) {
+                byCourse.computeIfAbsent(request.courseId, id -> new ArrayList<>()).add(request);
+            }
+            for (Map.Entry<Long, List<Request>> entry : byCourse.entrySet()) {
+                try {
+                    applier.apply(entry.getKey(), entry.getValue());
+                } catch (Throwable e) {
+                    // Never leave a caller waiting, and keep the writer alive for the next batch
+                    for (Request request : entry.getValue()) {
+                        request.result.completeExceptionally(e);
+                    }
+                }
+            }
+        }
+    }
+}
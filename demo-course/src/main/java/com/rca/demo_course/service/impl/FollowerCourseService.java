@@ -0,0 +1,584 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.ReplicationMember;
+import com.rca.demo_course.service.ReplicationStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Read-only copy of the catalog of a {@link ReplicationLeader}, kept up to date over TCP, so that
+ * reads scale out over several instances. Selected with {@code course.store=follower}; the leader
+ * is given by {@code course.replication.leader} as host:port, and the secret it authenticates
+ * with by {@code course.replication.secret}.
+ *
+ * <p>On joining, the follower loads a snapshot of the leader's store, then applies the leader's
+ * changes in the order they were logged, serving reads from an indexed store meanwhile. Reads
+ * trail the leader's writes by the replication lag, which {@link #getReplicationStatus()}
+ * reports; {@link #awaitSequence} waits for a given write. Writes are rejected with an
+ * {@link UnsupportedOperationException}, and so are hot and surge mode, which tune the writes.
+ *
+ * <p>If the connection breaks, the follower keeps serving what it has and reconnects, resuming
+ * where it stopped. If a change cannot be applied, which happens only when changes depending on
+ * each other race on the leader, such as a course created with a prerequisite created at the same
+ * time, the follower reloads a snapshot. A new snapshot replaces the whole store, so enrollment
+ * subscriptions are dropped and any catalog history starts over.
+ */
+@Service
+@ConditionalOnProperty(name = "course.store", havingValue = "follower")
+public class FollowerCourseService implements CourseService, ReplicationMember, AutoCloseable {
+
+    // Wait before reconnecting to a leader that is unreachable or dropped the connection
+    private static final long RECONNECT_MILLIS = 500;
+    // A leader heard from less often than this is considered gone; it sends heartbeats far more often
+    private static final int READ_TIMEOUT_MILLIS = (int) (ReplicationLeader.HEARTBEAT_MILLIS * 25);
+
+    private final String leaderHost;
+    private final int leaderPort;
+    private final String secret;
+    private final Supplier<CourseServiceImpl> storeFactory;
+    // Replaced as a whole when a snapshot is loaded; changes are applied by the replication thread only
+    private volatile CourseServiceImpl store;
+    private final List<FollowerSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Thread replicator;
+    private volatile Socket socket;
+    private volatile boolean closed;
+
+    // Written by the replication thread; progress notifies waiters of awaitSequence
+    private final Object progress = new Object();
+    private volatile boolean connected;
+    private volatile long logId;
+    private volatile long appliedSequence = ReplicationProtocol.NO_STATE;
+    private volatile long leaderSequence;
+    // Leader time of the oldest change not applied as of the last heartbeat, or -1 if there was none
+    private volatile long behindSince = -1L;
+    private volatile long lastHeardMillis;
+
+    public FollowerCourseService(String leaderHost, int leaderPort, String secret) {
+        this(leaderHost, leaderPort, secret, false, null, Clock.systemUTC());
+    }
+
+    @Autowired
+    public FollowerCourseService(@Value("${course.replication.leader:localhost:7400}") String leader,
+                                 @Value("${course.replication.secret:}") String secret,
+                                 @Value("${course.enrollments.off-heap:false}") boolean offHeapEnrollments,
+                                 @Value("${course.history.enabled:false}") boolean historyEnabled,
+                                 @Value("${course.history.granularity:PT1M}") Duration historyGranularity,
+                                 @Value("${course.history.compact-after:P7D}") Duration historyCompactAfter,
+                                 @Value("${course.history.compacted-granularity:P1D}") Duration historyCompactedGranularity,
+                                 @Value("${course.history.retain-for:P365D}") Duration historyRetainFor) {
+        this(hostOf(leader), portOf(leader), secret, offHeapEnrollments,
+                historyEnabled ? new HistoryRetention(historyGranularity, historyCompactAfter, historyCompactedGranularity, historyRetainFor) : null,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Creates the follower and starts connecting to the leader in the background. Until the
+     * first snapshot arrives the catalog reads as empty.
+     *
+     * @param leaderHost the leader's host
+     * @param leaderPort the leader's replication port
+     * @param secret the secret shared with the leader
+     * @param offHeapEnrollments true to store enrolled students in direct memory
+     * @param historyRetention how finely to keep a history of the copy, or null to keep none
+     * @param clock the clock timestamping history versions
+     * @throws IllegalArgumentException if the host or secret is empty or the port is out of range
+     */
+    public FollowerCourseService(String leaderHost, int leaderPort, String secret, boolean offHeapEnrollments,
+                                 HistoryRetention historyRetention, Clock clock) {
+        if (leaderHost == null || leaderHost.isBlank()) {
+            throw new IllegalArgumentException("Leader host cannot be null or empty");
+        }
+        if (leaderPort <= 0 || leaderPort > 0xFFFF) {
+            throw new IllegalArgumentException("Leader port must be between 1 and 65535");
+        }
+        this.leaderHost = leaderHost;
+        this.leaderPort = leaderPort;
+        this.secret = ReplicationProtocol.requireSecret(secret);
+        this.storeFactory = () -> new CourseServiceImpl(offHeapEnrollments, historyRetention, clock);
+        this.store = storeFactory.get();
+        this.replicator = new Thread(this::replicate, "replication-follower");
+        replicator.setDaemon(true);
+        replicator.start();
+    }
+
+    private static String hostOf(String leader) {
+        int colon = leader != null ? leader.lastIndexOf(':') : -1;
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Leader address must be host:port");
+        }
+        return leader.substring(0, colon);
+    }
+
+    private static int portOf(String leader) {
+        try {
+            return Integer.parseInt(leader.substring(leader.lastIndexOf(':') + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Leader address must be host:port");
+        }
+    }
+
+    @Override
+    public ReplicationStatus getReplicationStatus() {
+        long applied = Math.max(0, appliedSequence);
+        long leader = Math.max(leaderSequence, applied);
+        long now = System.currentTimeMillis();
+        long lag;
+        if (!connected) {
+            // Nothing is known about changes since; at least this much behind if there were any
+            lag = lastHeardMillis == 0 ? 0 : now - lastHeardMillis;
+        } else if (applied >= leaderSequence) {
+            // Caught up with everything the last heartbeat announced
+            lag = 0;
+        } else {
+            long since = behindSince;
+            lag = since < 0 ? 0 : Math.max(0, now - since);
+        }
+        return new ReplicationStatus(ReplicationStatus.Role.FOLLOWER, connected, leader, applied, lag, List.of());
+    }
+
+    /**
+     * Waits until the change with a sequence number of the leader has been applied, so that
+     * a client can read its own write.
+     *
+     * @param sequence the leader's sequence number, as of the write
+     * @param timeout how long to wait at most
+     * @return true if the change has been applied
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops replicating. The copy keeps serving reads as it is.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        replicator.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    private void replicate() {
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                if (closed) {
+                    return;
+                }
+                connection.connect(new InetSocketAddress(leaderHost, leaderPort), READ_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), 64 * 1024));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                byte[] challenge = new byte[ReplicationProtocol.CHALLENGE_LENGTH];
+                in.readFully(challenge);
+                out.writeInt(ReplicationProtocol.HELLO);
+                out.writeLong(logId);
+                out.writeLong(appliedSequence);
+                out.write(ReplicationProtocol.authenticate(secret, challenge));
+                out.flush();
+                connected = true;
+                follow(in, out);
+            } catch (IOException | RuntimeException e) {
+                // Leader unreachable, gone or sent a change that cannot be applied; retried below
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies snapshots and changes from the leader, acknowledging after every heartbeat.
+     */
+    private void follow(DataInputStream in, DataOutputStream out) throws IOException {
+        while (!closed) {
+            byte type = in.readByte();
+            if (type == ReplicationProtocol.HEARTBEAT) {
+                leaderSequence = in.readLong();
+                behindSince = in.readLong();
+                lastHeardMillis = System.currentTimeMillis();
+                out.writeLong(appliedSequence);
+                out.flush();
+                signalProgress();
+                continue;
+            }
+            long sequence = in.readLong();
+            in.readLong();
+            if (type == ReplicationProtocol.SNAPSHOT) {
+                long snapshotLogId = in.readLong();
+                CourseServiceImpl loaded = storeFactory.get();
+                loaded.loadReplicationSnapshot(in);
+                store = loaded;
+                logId = snapshotLogId;
+                appliedSequence = sequence;
+                dropSubscriptions();
+                signalProgress();
+                continue;
+            }
+            if (sequence != appliedSequence + 1) {
+                throw new IllegalStateException("Expected change " + (appliedSequence + 1) + " but got " + sequence);
+            }
+            try {
+                apply(type, in);
+            } catch (RuntimeException e) {
+                // Diverged from the leader; the next connection asks for a snapshot
+                appliedSequence = ReplicationProtocol.NO_STATE;
+                logId = 0L;
+                throw e;
+            }
+            appliedSequence = sequence;
+        }
+    }
+
+    private void apply(byte type, DataInputStream in) throws IOException {
+        CourseServiceImpl target = store;
+        switch (type) {
+            case ReplicationProtocol.COURSE_CREATED -> {
+                Course course = ReplicationProtocol.readCourse(in);
+                target.createCourse(course, course.getId());
+            }
+            case ReplicationProtocol.COURSE_UPDATED -> {
+                Course course = ReplicationProtocol.readCourse(in);
+                long version = course.getVersion();
+                course.setVersion(0L);
+                Course updated = target.updateCourse(course.getId(), course);
+                if (updated.getVersion() != version) {
+                    throw new IllegalStateException("Course with ID " + course.getId() + " is at version "
+                            + updated.getVersion() + " but the leader's is " + version);
+                }
+            }
+            case ReplicationProtocol.COURSE_DELETED -> {
+                long courseId = in.readLong();
+                if (!target.deleteCourse(courseId)) {
+                    throw new IllegalStateException("Course with ID " + courseId + " not found");
+                }
+            }
+            case ReplicationProtocol.COURSE_ACTIVATED -> target.activateCourse(in.readLong());
+            case ReplicationProtocol.COURSE_DEACTIVATED -> target.deactivateCourse(in.readLong());
+            case ReplicationProtocol.ENROLLED -> target.enrollStudent(in.readLong(), in.readLong());
+            case ReplicationProtocol.UNENROLLED -> target.unenrollStudent(in.readLong(), in.readLong());
+            case ReplicationProtocol.COMPLETED -> target.recordCompletion(in.readLong(), in.readLong());
+            default -> throw new IllegalStateException("Unknown replication record type " + type);
+        }
+    }
+
+    private void signalProgress() {
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private void dropSubscriptions() {
+        for (FollowerSubscription subscription : subscriptions) {
+            subscription.drop();
+        }
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Course store is a read-only follower of "
+                + leaderHost + ":" + leaderPort + "; send writes to the leader");
+    }
+
+    @Override
+    public Course createCourse(Course course) {
+        throw readOnly();
+    }
+
+    @Override
+    public Optional<Course> getCourseById(Long id) {
+        return store.getCourseById(id);
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return store.getAllCourses();
+    }
+
+    @Override
+    public Optional<Course> getCourseByIdAsOf(Long id, Instant asOf) {
+        return store.getCourseByIdAsOf(id, asOf);
+    }
+
+    @Override
+    public List<Course> getAllCoursesAsOf(Instant asOf) {
+        return store.getAllCoursesAsOf(asOf);
+    }
+
+    @Override
+    public List<Course> findCoursesAsOf(CourseCriteria criteria, Instant asOf) {
+        return store.findCoursesAsOf(criteria, asOf);
+    }
+
+    @Override
+    public List<Course> getCoursesForStudentAsOf(Long studentId, Instant asOf) {
+        return store.getCoursesForStudentAsOf(studentId, asOf);
+    }
+
+    @Override
+    public Course updateCourse(Long id, Course course) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean deleteCourse(Long id) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Course> findCoursesByCode(String courseCode) {
+        return store.findCoursesByCode(courseCode);
+    }
+
+    @Override
+    public List<Course> findCoursesByInstructor(String instructor) {
+        return store.findCoursesByInstructor(instructor);
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartment(String department) {
+        return store.findCoursesByDepartment(department);
+    }
+
+    @Override
+    public List<Course> searchCourses(String query, int limit) {
+        return store.searchCourses(query, limit);
+    }
+
+    @Override
+    public List<Course> autocompleteCourses(String prefix, int limit) {
+        return store.autocompleteCourses(prefix, limit);
+    }
+
+    @Override
+    public List<Course> getCoursesForStudent(Long studentId) {
+        return store.getCoursesForStudent(studentId);
+    }
+
+    @Override
+    public boolean enrollStudent(Long courseId, Long studentId) {
+        throw readOnly();
+    }
+
+    @Override
+    public BulkEnrollmentResult enrollStudents(Collection<Long> courseIds, Collection<Long> studentIds) {
+        throw readOnly();
+    }
+
+    /**
+     * Subscribes to the enrollment changes as they are applied here. The subscription is dropped
+     * when a snapshot replaces the store.
+     */
+    @Override
+    public EnrollmentSubscription subscribeToEnrollments(EnrollmentEventFilter filter, Duration coalesceWindow,
+                                                         EnrollmentEventListener listener) {
+        FollowerSubscription subscription = new FollowerSubscription(listener);
+        subscriptions.add(subscription);
+        try {
+            subscription.inner = store.subscribeToEnrollments(filter, coalesceWindow, listener);
+        } catch (RuntimeException e) {
+            subscriptions.remove(subscription);
+            throw e;
+        }
+        if (!subscriptions.contains(subscription)) {
+            // Dropped by a snapshot while subscribing, possibly to the store it replaced
+            subscription.inner.cancel();
+        }
+        return subscription;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enrollStudentAsync(Long courseId, Long studentId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setSurgeMode(boolean enabled) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isSurgeMode() {
+        return false;
+    }
+
+    @Override
+    public void setHotCourse(Long courseId, boolean hot) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isHotCourse(Long courseId) {
+        return false;
+    }
+
+    @Override
+    public boolean unenrollStudent(Long courseId, Long studentId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void recordCompletion(Long courseId, Long studentId) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isEligible(Long courseId, Long studentId) {
+        return store.isEligible(courseId, studentId);
+    }
+
+    @Override
+    public List<Course> getAllPrerequisites(Long courseId) {
+        return store.getAllPrerequisites(courseId);
+    }
+
+    @Override
+    public int getEnrollmentCount(Long courseId) {
+        return store.getEnrollmentCount(courseId);
+    }
+
+    @Override
+    public List<EnrollmentReport> getDepartmentReport() {
+        return store.getDepartmentReport();
+    }
+
+    @Override
+    public List<EnrollmentReport> getInstructorReport() {
+        return store.getInstructorReport();
+    }
+
+    @Override
+    public List<String> verifyEnrollmentAggregates() {
+        return store.verifyEnrollmentAggregates();
+    }
+
+    @Override
+    public boolean validateCourse(Course course) {
+        return store.validateCourse(course);
+    }
+
+    @Override
+    public List<Course> getActiveCourses() {
+        return store.getActiveCourses();
+    }
+
+    @Override
+    public List<Course> getCoursesWithAvailableSpots() {
+        return store.getCoursesWithAvailableSpots();
+    }
+
+    @Override
+    public Stream<Course> streamCoursesWithAvailableSpots() {
+        return store.streamCoursesWithAvailableSpots();
+    }
+
+    @Override
+    public List<Course> getCoursesByCreditRange(int minCredits, int maxCredits) {
+        return store.getCoursesByCreditRange(minCredits, maxCredits);
+    }
+
+    @Override
+    public List<Course> getActiveCoursesByCreditRange(int minCredits, int maxCredits) {
+        return store.getActiveCoursesByCreditRange(minCredits, maxCredits);
+    }
+
+    @Override
+    public List<Course> findCourses(CourseCriteria criteria) {
+        return store.findCourses(criteria);
+    }
+
+    @Override
+    public QueryPlan explainQuery(CourseCriteria criteria) {
+        return store.explainQuery(criteria);
+    }
+
+    public int getTotalCourseCount() {
+        return store.getTotalCourseCount();
+    }
+
+    /**
+     * Subscription on the current store, dropped when the store is replaced.
+     */
+    private final class FollowerSubscription implements EnrollmentSubscription {
+
+        private final EnrollmentEventListener listener;
+        private volatile EnrollmentSubscription inner;
+
+        FollowerSubscription(EnrollmentEventListener listener) {
+            this.listener = listener;
+        }
+
+        void drop() {
+            if (subscriptions.remove(this)) {
+                EnrollmentSubscription current = inner;
+                if (current != null) {
+                    current.cancel();
+                }
+                listener.onDropped();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            subscriptions.remove(this);
+            inner.cancel();
+        }
+
+        @Override
+        public boolean isActive() {
+            return subscriptions.contains(this) && inner.isActive();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.rca.demo_course.service.impl;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free seat claiming for one hot course.
+ *
+ * <p>The remaining capacity is split into per-stripe token counters. A caller takes a token from
+ * its thread's home stripe with CAS. When that stripe runs dry, the caller moves half of the
+ * fullest other stripe's tokens into its home stripe, so leftovers follow demand. Seats are
+ * only ever handed out against a token, so the course is never oversold, and a full course
+ * turns callers away without its lock. Claimed students are queued, and each claiming caller
+ * then takes the course lock and applies every claim queued so far, so claims made while the
+ * lock is busy are applied in one batch.
+ *
+ * <p>Each stripe word holds its tokens in the upper half and in-flight claims in the lower half,
+ * plus a sealed bit. {@link #seal()} stops claiming and waits for in-flight claims to be queued,
+ * after which the queue holds every successful claim.
+ */
+class HotCourseSeats {
+
+    enum Claim { CLAIMED, ALREADY_ENROLLED, FULL, SEALED }
+
+    // Stripe words are spaced a cache line apart to avoid false sharing between stripes
+    private static final int PADDING = 8;
+    private static final long SEALED_BIT = Long.MIN_VALUE;
+    private static final long ONE_TOKEN = 1L << 32;
+    private static final long IN_FLIGHT_MASK = 0xFFFF_FFFFL;
+    private static final int FULL = -1;
+    private static final int SEALED = -2;
+
+    private final int stripeCount;
+    private final AtomicLongArray stripes;
+    // Lower half: transfers in progress; upper half: transfers started, so a scan can detect one that came and went
+    private final AtomicLong transfers = new AtomicLong();
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+    private final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates the seats of a course.
+     *
+     * @param stripeCount number of token stripes; must be a power of two
+     * @param remaining seats left in the course
+     * @param enrolled students already enrolled, who may not claim a second seat
+     */
+    HotCourseSeats(int stripeCount, int remaining, Iterable<Long> enrolled) {
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * PADDING);
+        for (int i = 0; i < stripeCount; i++) {
+            int share = remaining / stripeCount + (i < remaining % stripeCount ? 1 : 0);
+            stripes.set(i * PADDING, share * ONE_TOKEN);
+        }
+        for (Long studentId : enrolled) {
+            claimed.add(studentId);
+        }
+    }
+
+    /**
+     * Claims a seat for a student.
+     *
+     * @param studentId the student ID
+     * @return CLAIMED if the student got a seat and was queued for the course
+     */
+    Claim claim(Long studentId) {
+        if (claimed.contains(studentId)) {
+            return Claim.ALREADY_ENROLLED;
+        }
+        // Once sold out, rejected attempts are read-only and leave the shared claim set untouched
+        int soldOut = soldOut();
+        if (soldOut != 0) {
+            return soldOut == FULL ? Claim.FULL : Claim.SEALED;
+        }
+        if (!claimed.add(studentId)) {
+            return Claim.ALREADY_ENROLLED;
+        }
+        int home = homeStripe();
+        int holder = claimFrom(home);
+        if (holder == FULL) {
+            holder = rebalanceAndClaim(home);
+        }
+        if (holder < 0) {
+            claimed.remove(studentId);
+            return holder == FULL ? Claim.FULL : Claim.SEALED;
+        }
+        pending.offer(studentId);
+        stripes.getAndDecrement(holder * PADDING);
+        return Claim.CLAIMED;
+    }
+
+    /**
+     * Returns a seat freed by an unenrollment to the stripes.
+     *
+     * @param studentId the student who left the course
+     */
+    void release(Long studentId) {
+        if (!claimed.remove(studentId)) {
+            return;
+        }
+        int index = homeStripe() * PADDING;
+        while (true) {
+            long state = stripes.get(index);
+            if ((state & SEALED_BIT) != 0 || stripes.compareAndSet(index, state, state + ONE_TOKEN)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes the next queued claim.
+     *
+     * @return a claimed student ID, or null if none is queued
+     */
+    Long pollClaimed() {
+        return pending.poll();
+    }
+
+    /**
+     * Stops claiming and waits until every successful claim has been queued.
+     */
+    void seal() {
+        for (int i = 0; i < stripeCount; i++) {
+            int index = i * PADDING;
+            long state;
+            do {
+                state = stripes.get(index);
+            } while (!stripes.compareAndSet(index, state, state | SEALED_BIT));
+        }
+        for (int i = 0; i < stripeCount; i++) {
+            while ((stripes.get(i * PADDING) & IN_FLIGHT_MASK) != 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Returns the tokens left across all stripes.
+     *
+     * @return remaining seats, ignoring claims still in flight
+     */
+    int remaining() {
+        int total = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            total += tokens(stripes.get(i * PADDING));
+        }
+        return total;
+    }
+
+    /**
+     * Scans the stripes without claiming.
+     *
+     * @return FULL if every stripe is empty and no tokens are in transit, SEALED if sealed, otherwise 0
+     */
+    private int soldOut() {
+        long transfersBefore = transfers.get();
+        for (int i = 0; i < stripeCount; i++) {
+            long state = stripes.get(i * PADDING);
+            if ((state & SEALED_BIT) != 0) {
+                return SEALED;
+            }
+            if (tokens(state) != 0) {
+                return 0;
+            }
+        }
+        return (transfersBefore & IN_FLIGHT_MASK) == 0 && transfers.get() == transfersBefore ? FULL : 0;
+    }
+
+    private int homeStripe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripeCount - 1);
+    }
+
+    private static int tokens(long state) {
+        return (int) ((state & ~SEALED_BIT) >>> 32);
+    }
+
+    /**
+     * Takes one token from a stripe and marks the claim in flight on it.
+     *
+     * @return the stripe holding the in-flight claim, or FULL or SEALED
+     */
+    private int claimFrom(int stripe) {
+        int index = stripe * PADDING;
+        while (true) {
+            long state = stripes.get(index);
+            if ((state & SEALED_BIT) != 0) {
+                return SEALED;
+            }
+            if (tokens(state) == 0) {
+                return FULL;
+            }
+            if (stripes.compareAndSet(index, state, state - ONE_TOKEN + 1)) {
+                return stripe;
+            }
+        }
+    }
+
+    /**
+     * Claims a token from the fullest stripe and moves half of its other tokens to the empty
+     * home stripe. The claim stays in flight on the stripe it came from, so {@link #seal()} waits
+     * for it. Moved tokens are in transit between the two CAS steps, so an all-empty scan only
+     * reports FULL if no transfer was in progress or started while scanning.
+     *
+     * @return the stripe holding the in-flight claim, or FULL or SEALED
+     */
+    private int rebalanceAndClaim(int home) {
+        while (true) {
+            long transfersBefore = transfers.get();
+            int fullest = -1;
+            int fullestTokens = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                long state = stripes.get(i * PADDING);
+                if ((state & SEALED_BIT) != 0) {
+                    return SEALED;
+                }
+                if (tokens(state) > fullestTokens) {
+                    fullest = i;
+                    fullestTokens = tokens(state);
+                }
+            }
+            if (fullest < 0) {
+                if ((transfersBefore & IN_FLIGHT_MASK) == 0 && transfers.get() == transfersBefore) {
+                    return FULL;
+                }
+                Thread.yield();
+                continue;
+            }
+            if (fullest == home) {
+                int holder = claimFrom(home);
+                if (holder != FULL) {
+                    return holder;
+                }
+                continue;
+            }
+
+            int victimIndex = fullest * PADDING;
+            long state = stripes.get(victimIndex);
+            if ((state & SEALED_BIT) != 0 || tokens(state) == 0) {
+                continue;
+            }
+            int moved = tokens(state) / 2;
+            transfers.addAndGet(ONE_TOKEN + 1);
+            if (!stripes.compareAndSet(victimIndex, state, state - (moved + 1) * ONE_TOKEN + 1)) {
+                transfers.decrementAndGet();
+                continue;
+            }
+            if (moved > 0) {
+                int homeIndex = home * PADDING;
+                long homeState;
+                do {
+                    homeState = stripes.get(homeIndex);
+                    // Tokens left after sealing are discarded; the course lock takes over capacity checks
+                } while ((homeState & SEALED_BIT) == 0
+                        && !stripes.compareAndSet(homeIndex, homeState, homeState + moved * ONE_TOKEN));
+            }
+            transfers.decrementAndGet();
+            return fullest;
+        }
+    }
+}
@@ -0,0 +1,767 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.EnrollmentEventListener;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.index.FullTextIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * CourseService that splits the catalog across independent {@link CourseServiceImpl}
+ * partitions, for catalogs large enough that one set of maps, indexes and snapshots becomes a
+ * point of contention on writes and a single-threaded bottleneck on scans.
+ * Selected with {@code course.store=partitioned}.
+ *
+ * <p>Courses are partitioned by a hash of their ID, so an ID names its partition without a
+ * lookup. Point operations run on the course's partition alone. List queries run on every
+ * partition in parallel and merge the results; queries documented to return ascending IDs
+ * merge in that order, the others concatenate the partitions' results.
+ *
+ * <p>Prerequisites may cross partitions: all partitions share one prerequisite graph. A bulk
+ * enrollment touching several partitions locks them in partition order, checks every
+ * partition before applying any, and so stays all or nothing. Description search merges each
+ * partition's best matches by score, where each score uses its own partition's term
+ * statistics. Full reads are point-in-time per partition: a change made while the partitions
+ * are read may appear in the result or not, but never partly.
+ */
+@Service
+@ConditionalOnProperty(name = "course.store", havingValue = "partitioned")
+public class PartitionedCourseService implements CourseService, AutoCloseable {
+
+    private final CourseServiceImpl[] partitions;
+    private final PrerequisiteGraph prerequisiteGraph = new PrerequisiteGraph();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    // Runs all but one partition of each fanned-out query, the calling thread the last; null to run all on the caller
+    private final ExecutorService queryPool;
+
+    /**
+     * Creates the store with a query thread per available processor.
+     *
+     * @param partitionCount the number of partitions
+     * @throws IllegalArgumentException if the partition count is not positive
+     */
+    public PartitionedCourseService(int partitionCount) {
+        this(partitionCount, 0, false, null, Clock.systemUTC());
+    }
+
+    @Autowired
+    public PartitionedCourseService(@Value("${course.partition.count:8}") int partitionCount,
+                                    @Value("${course.partition.query-threads:0}") int queryThreads,
+                                    @Value("${course.enrollments.off-heap:false}") boolean offHeapEnrollments,
+                                    @Value("${course.history.enabled:false}") boolean historyEnabled,
+                                    @Value("${course.history.granularity:PT1M}") Duration historyGranularity,
+                                    @Value("${course.history.compact-after:P7D}") Duration historyCompactAfter,
+                                    @Value("${course.history.compacted-granularity:P1D}") Duration historyCompactedGranularity,
+                                    @Value("${course.history.retain-for:P365D}") Duration historyRetainFor) {
+        this(partitionCount, queryThreads, offHeapEnrollments,
+                historyEnabled ? new HistoryRetention(historyGranularity, historyCompactAfter, historyCompactedGranularity, historyRetainFor) : null,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Creates the store.
+     *
+     * @param partitionCount the number of partitions
+     * @param queryThreads the number of threads querying partitions in parallel, including the
+     *                     calling thread, or 0 for one per available processor
+     * @param offHeapEnrollments true to store enrolled students in direct memory
+     * @param historyRetention how finely each partition keeps its history, or null to keep none
+     * @param clock the clock timestamping history versions
+     * @throws IllegalArgumentException if the partition count is not positive or the thread count is negative
+     */
+    public PartitionedCourseService(int partitionCount, int queryThreads, boolean offHeapEnrollments,
+                                    HistoryRetention historyRetention, Clock clock) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        if (queryThreads < 0) {
+            throw new IllegalArgumentException("Query thread count cannot be negative");
+        }
+        partitions = new CourseServiceImpl[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new CourseServiceImpl(offHeapEnrollments, historyRetention, clock, prerequisiteGraph);
+        }
+        // The calling thread is one of the query threads
+        int pooled = Math.min(partitionCount, queryThreads > 0 ? queryThreads : Runtime.getRuntime().availableProcessors()) - 1;
+        queryPool = pooled > 0 ? Executors.newFixedThreadPool(pooled, daemon("course-partition-query")) : null;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public Course createCourse(Course course) {
+        if (!validateCourse(course)) {
+            throw new IllegalArgumentException("Course data cannot be null or invalid");
+        }
+
+        long id = nextId.getAndIncrement();
+        return partitionOf(id).createCourse(course, id);
+    }
+
+    @Override
+    public Optional<Course> getCourseById(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(id).getCourseById(id);
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return Collections.unmodifiableList(mergeById(scatter(CourseServiceImpl::getAllCourses)));
+    }
+
+    @Override
+    public Optional<Course> getCourseByIdAsOf(Long id, Instant asOf) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(id).getCourseByIdAsOf(id, asOf);
+    }
+
+    @Override
+    public List<Course> getAllCoursesAsOf(Instant asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+        return mergeById(scatter(partition -> partition.getAllCoursesAsOf(asOf)));
+    }
+
+    @Override
+    public List<Course> findCoursesAsOf(CourseCriteria criteria, Instant asOf) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+        criteria.validate();
+
+        return mergeById(scatter(partition -> partition.findCoursesAsOf(criteria, asOf)));
+    }
+
+    @Override
+    public List<Course> getCoursesForStudentAsOf(Long studentId, Instant asOf) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+        if (asOf == null) {
+            throw new IllegalArgumentException("Instant cannot be null");
+        }
+        return mergeById(scatter(partition -> partition.getCoursesForStudentAsOf(studentId, asOf)));
+    }
+
+    @Override
+    public Course updateCourse(Long id, Course course) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(id).updateCourse(id, course);
+    }
+
+    @Override
+    public boolean deleteCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(id).deleteCourse(id);
+    }
+
+    @Override
+    public List<Course> findCoursesByCode(String courseCode) {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course code cannot be null or empty");
+        }
+        return mergeById(scatter(partition -> partition.findCoursesByCode(courseCode)));
+    }
+
+    @Override
+    public List<Course> findCoursesByInstructor(String instructor) {
+        if (instructor == null || instructor.trim().isEmpty()) {
+            throw new IllegalArgumentException("Instructor name cannot be null or empty");
+        }
+        return mergeById(scatter(partition -> partition.findCoursesByInstructor(instructor)));
+    }
+
+    @Override
+    public List<Course> findCoursesByDepartment(String department) {
+        if (department == null || department.trim().isEmpty()) {
+            throw new IllegalArgumentException("Department cannot be null or empty");
+        }
+        return mergeById(scatter(partition -> partition.findCoursesByDepartment(department)));
+    }
+
+    @Override
+    public List<Course> searchCourses(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        List<FullTextIndex.Hits> hits = scatter(partition -> partition.searchScored(query, limit));
+        // Each partition's hits are best first, so the next best overall is always at the head of one of them
+        int[] positions = new int[hits.size()];
+        List<Course> result = new ArrayList<>(limit);
+        while (result.size() < limit) {
+            int best = -1;
+            for (int p = 0; p < hits.size(); p++) {
+                if (positions[p] < hits.get(p).getCourseIds().length
+                        && (best < 0 || outranks(hits.get(p), positions[p], hits.get(best), positions[best]))) {
+                    best = p;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            long id = hits.get(best).getCourseIds()[positions[best]++];
+            partitionOf(id).getCourseById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Course> autocompleteCourses(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        List<Course> candidates = new ArrayList<>();
+        for (List<Course> part : scatter(partition -> partition.autocompleteCourses(prefix, limit))) {
+            candidates.addAll(part);
+        }
+        // Each partition returns its own best, so the best overall are among them
+        candidates.sort(Comparator.comparingInt(Course::getCurrentEnrollment).reversed()
+                .thenComparing(Course::getId));
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    @Override
+    public List<Course> getCoursesForStudent(Long studentId) {
+        if (studentId == null) {
+            throw new IllegalArgumentException("Student ID cannot be null");
+        }
+        return mergeById(scatter(partition -> partition.getCoursesForStudent(studentId)));
+    }
+
+    @Override
+    public boolean enrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(courseId).enrollStudent(courseId, studentId);
+    }
+
+    @Override
+    public BulkEnrollmentResult enrollStudents(Collection<Long> courseIds, Collection<Long> studentIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            throw new IllegalArgumentException("Course IDs cannot be null or empty");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new IllegalArgumentException("Student IDs cannot be null or empty");
+        }
+        // Distinct courses by partition, each in request order
+        SortedMap<Integer, Set<Long>> coursesByPartition = new TreeMap<>();
+        for (Long courseId : courseIds) {
+            if (courseId == null) {
+                throw new IllegalArgumentException("Course ID cannot be null");
+            }
+            coursesByPartition.computeIfAbsent(partitionIndexOf(courseId), p -> new LinkedHashSet<>()).add(courseId);
+        }
+        Set<Long> distinctStudents = new LinkedHashSet<>();
+        for (Long studentId : studentIds) {
+            if (studentId == null) {
+                throw new IllegalArgumentException("Student ID cannot be null");
+            }
+            distinctStudents.add(studentId);
+        }
+        if (coursesByPartition.size() == 1) {
+            return partitions[coursesByPartition.firstKey()].enrollStudents(courseIds, studentIds);
+        }
+
+        // Partitions are locked in ascending order, each of them in stripe order, so bulk requests cannot deadlock
+        Long[] students = distinctStudents.toArray(new Long[0]);
+        Map<Integer, int[]> locked = new LinkedHashMap<>();
+        try {
+            Map<Integer, CourseServiceImpl.BulkEnrollment> checked = new LinkedHashMap<>();
+            boolean failed = false;
+            for (Map.Entry<Integer, Set<Long>> entry : coursesByPartition.entrySet()) {
+                CourseServiceImpl partition = partitions[entry.getKey()];
+                locked.put(entry.getKey(), partition.lockCourses(entry.getValue()));
+                CourseServiceImpl.BulkEnrollment bulk = partition.checkEnrollments(entry.getValue(), students);
+                checked.put(entry.getKey(), bulk);
+                failed |= bulk.failed;
+            }
+
+            Map<Long, List<BulkEnrollmentResult.Outcome>> outcomesByCourse = new HashMap<>();
+            for (Map.Entry<Integer, CourseServiceImpl.BulkEnrollment> entry : checked.entrySet()) {
+                for (BulkEnrollmentResult.Outcome outcome : partitions[entry.getKey()].completeEnrollments(entry.getValue(), !failed)) {
+                    outcomesByCourse.computeIfAbsent(outcome.getCourseId(), id -> new ArrayList<>()).add(outcome);
+                }
+            }
+            List<BulkEnrollmentResult.Outcome> outcomes = new ArrayList<>();
+            for (Long courseId : new LinkedHashSet<>(courseIds)) {
+                outcomes.addAll(outcomesByCourse.get(courseId));
+            }
+            return new BulkEnrollmentResult(!failed, outcomes);
+        } finally {
+            List<Integer> lockedPartitions = new ArrayList<>(locked.keySet());
+            for (int i = lockedPartitions.size() - 1; i >= 0; i--) {
+                partitions[lockedPartitions.get(i)].unlockCourses(locked.get(lockedPartitions.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public EnrollmentSubscription subscribeToEnrollments(EnrollmentEventFilter filter, Duration coalesceWindow,
+                                                         EnrollmentEventListener listener) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (coalesceWindow == null || coalesceWindow.isNegative() || coalesceWindow.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        PartitionedSubscription subscription = new PartitionedSubscription(listener);
+        for (CourseServiceImpl partition : partitions) {
+            subscription.parts.add(partition.subscribeToEnrollments(filter, coalesceWindow, subscription));
+        }
+        return subscription;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enrollStudentAsync(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(courseId).enrollStudentAsync(courseId, studentId);
+    }
+
+    @Override
+    public synchronized void setSurgeMode(boolean enabled) {
+        for (CourseServiceImpl partition : partitions) {
+            partition.setSurgeMode(enabled);
+        }
+    }
+
+    /**
+     * Tells whether any partition still queues asynchronous enrollments, including while surge
+     * mode is being switched partition by partition.
+     */
+    @Override
+    public boolean isSurgeMode() {
+        for (CourseServiceImpl partition : partitions) {
+            if (partition.isSurgeMode()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void setHotCourse(Long courseId, boolean hot) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        partitionOf(courseId).setHotCourse(courseId, hot);
+    }
+
+    @Override
+    public boolean isHotCourse(Long courseId) {
+        return courseId != null && partitionOf(courseId).isHotCourse(courseId);
+    }
+
+    @Override
+    public boolean unenrollStudent(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(courseId).unenrollStudent(courseId, studentId);
+    }
+
+    @Override
+    public void recordCompletion(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        partitionOf(courseId).recordCompletion(courseId, studentId);
+    }
+
+    @Override
+    public boolean isEligible(Long courseId, Long studentId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(courseId).isEligible(courseId, studentId);
+    }
+
+    @Override
+    public List<Course> getAllPrerequisites(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (partitionOf(courseId).getCourseById(courseId).isEmpty()) {
+            throw new NoSuchElementException("Course with ID " + courseId + " not found");
+        }
+
+        long[] ids = prerequisiteGraph.transitivePrerequisites(courseId);
+        Arrays.sort(ids);
+        List<Course> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            partitionOf(id).getCourseById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public int getEnrollmentCount(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return partitionOf(courseId).getEnrollmentCount(courseId);
+    }
+
+    @Override
+    public List<EnrollmentReport> getDepartmentReport() {
+        return mergeReports(scatter(CourseServiceImpl::getDepartmentReport));
+    }
+
+    @Override
+    public List<EnrollmentReport> getInstructorReport() {
+        return mergeReports(scatter(CourseServiceImpl::getInstructorReport));
+    }
+
+    @Override
+    public List<String> verifyEnrollmentAggregates() {
+        List<String> mismatches = new ArrayList<>();
+        for (List<String> part : scatter(CourseServiceImpl::verifyEnrollmentAggregates)) {
+            mismatches.addAll(part);
+        }
+        return mismatches;
+    }
+
+    @Override
+    public boolean validateCourse(Course course) {
+        return CourseServiceImpl.isValid(course);
+    }
+
+    @Override
+    public List<Course> getActiveCourses() {
+        return concat(scatter(CourseServiceImpl::getActiveCourses));
+    }
+
+    @Override
+    public List<Course> getCoursesWithAvailableSpots() {
+        return concat(scatter(CourseServiceImpl::getCoursesWithAvailableSpots));
+    }
+
+    @Override
+    public Stream<Course> streamCoursesWithAvailableSpots() {
+        // Partitions are only asked once the previous one is exhausted, so stopping early skips the rest
+        return Arrays.stream(partitions).flatMap(CourseServiceImpl::streamCoursesWithAvailableSpots);
+    }
+
+    @Override
+    public List<Course> getCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+        return concat(scatter(partition -> partition.getCoursesByCreditRange(minCredits, maxCredits)));
+    }
+
+    @Override
+    public List<Course> getActiveCoursesByCreditRange(int minCredits, int maxCredits) {
+        if (minCredits < 0 || maxCredits < 0 || minCredits > maxCredits) {
+            throw new IllegalArgumentException("Invalid credit range");
+        }
+        return concat(scatter(partition -> partition.getActiveCoursesByCreditRange(minCredits, maxCredits)));
+    }
+
+    @Override
+    public List<Course> findCourses(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        return concat(scatter(partition -> partition.findCourses(criteria)));
+    }
+
+    /**
+     * Explains a query as the sum of the partitions' plans. Each partition picks its driver from
+     * its own estimates; the combined plan names the driver most partitions picked.
+     */
+    @Override
+    public QueryPlan explainQuery(CourseCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria cannot be null");
+        }
+        criteria.validate();
+
+        Map<String, Integer> votes = new LinkedHashMap<>();
+        Map<String, Integer> estimates = new LinkedHashMap<>();
+        int estimatedRows = 0;
+        int totalCourses = 0;
+        for (QueryPlan plan : scatter(partition -> partition.explainQuery(criteria))) {
+            votes.merge(plan.getDriver(), 1, Integer::sum);
+            plan.getEstimates().forEach((path, rows) -> estimates.merge(path, rows, Integer::sum));
+            estimatedRows += plan.getEstimatedRows();
+            totalCourses += plan.getTotalCourses();
+        }
+        String driver = Collections.max(votes.entrySet(), Map.Entry.comparingByValue()).getKey();
+        return new QueryPlan(driver, estimatedRows, totalCourses, estimates);
+    }
+
+    public int getTotalCourseCount() {
+        int total = 0;
+        for (CourseServiceImpl partition : partitions) {
+            total += partition.getTotalCourseCount();
+        }
+        return total;
+    }
+
+    /**
+     * Stops the query threads and closes every partition, ending surge mode once the queued
+     * enrollments are applied.
+     */
+    @Override
+    public void close() {
+        if (queryPool != null) {
+            queryPool.shutdownNow();
+        }
+        for (CourseServiceImpl partition : partitions) {
+            partition.close();
+        }
+    }
+
+    public void deactivateCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        partitionOf(id).deactivateCourse(id);
+    }
+
+    public void activateCourse(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        partitionOf(id).activateCourse(id);
+    }
+
+    private int partitionIndexOf(long courseId) {
+        // Mixed differently from the partitions' lock stripes and hash tables, which then see evenly spread IDs
+        long h = (courseId ^ (courseId >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return (int) Math.floorMod(h ^ (h >>> 33), (long) partitions.length);
+    }
+
+    private CourseServiceImpl partitionOf(long courseId) {
+        return partitions[partitionIndexOf(courseId)];
+    }
+
+    /**
+     * Runs a query on every partition, all but the last on the query pool if there is one, and
+     * waits for all of them.
+     *
+     * @param query the query to run on a partition
+     * @return the partitions' results, in partition order
+     */
+    private <T> List<T> scatter(Function<CourseServiceImpl, T> query) {
+        if (queryPool == null) {
+            List<T> results = new ArrayList<>(partitions.length);
+            for (CourseServiceImpl partition : partitions) {
+                results.add(query.apply(partition));
+            }
+            return results;
+        }
+        int last = partitions.length - 1;
+        List<CompletableFuture<T>> pending = new ArrayList<>(last);
+        for (int p = 0; p < last; p++) {
+            CourseServiceImpl partition = partitions[p];
+            pending.add(CompletableFuture.supplyAsync(() -> query.apply(partition), queryPool));
+        }
+        T lastResult = query.apply(partitions[last]);
+        List<T> results = new ArrayList<>(partitions.length);
+        for (CompletableFuture<T> future : pending) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        results.add(lastResult);
+        return results;
+    }
+
+    /**
+     * Merges lists that are each in ascending ID order into one. Each ID is read once, into an
+     * array of the lists' head IDs that is scanned for the smallest; courses are scattered over
+     * the heap, so this beats comparing courses in a heap or sort.
+     */
+    private static List<Course> mergeById(List<List<Course>> parts) {
+        int total = 0;
+        List<Iterator<Course>> iterators = new ArrayList<>(parts.size());
+        Course[] heads = new Course[parts.size()];
+        long[] headIds = new long[parts.size()];
+        for (int p = 0; p < heads.length; p++) {
+            total += parts.get(p).size();
+            iterators.add(parts.get(p).iterator());
+            advance(iterators.get(p), heads, headIds, p);
+        }
+        List<Course> merged = new ArrayList<>(total);
+        for (int n = 0; n < total; n++) {
+            int next = 0;
+            for (int p = 1; p < headIds.length; p++) {
+                if (headIds[p] < headIds[next]) {
+                    next = p;
+                }
+            }
+            merged.add(heads[next]);
+            advance(iterators.get(next), heads, headIds, next);
+        }
+        return merged;
+    }
+
+    private static void advance(Iterator<Course> iterator, Course[] heads, long[] headIds, int p) {
+        if (iterator.hasNext()) {
+            heads[p] = iterator.next();
+            headIds[p] = heads[p].getId();
+        } else {
+            heads[p] = null;
+            // Above every ID the store hands out, so an exhausted list is never picked
+            headIds[p] = Long.MAX_VALUE;
+        }
+    }
+
+    private static List<Course> concat(List<List<Course>> parts) {
+        int total = 0;
+        for (List<Course> part : parts) {
+            total += part.size();
+        }
+        List<Course> result = new ArrayList<>(total);
+        for (List<Course> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    /**
+     * Adds up the partitions' reports of each group, keeping them ordered by group.
+     */
+    private static List<EnrollmentReport> mergeReports(List<List<EnrollmentReport>> parts) {
+        Map<String, EnrollmentReport> byGroup = new TreeMap<>();
+        for (List<EnrollmentReport> part : parts) {
+            for (EnrollmentReport report : part) {
+                byGroup.merge(report.getGroup(), report, (a, b) -> new EnrollmentReport(a.getGroup(),
+                        a.getCourses() + b.getCourses(), a.getEnrolled() + b.getEnrolled(),
+                        a.getCapacity() + b.getCapacity(), a.getCreditHours() + b.getCreditHours()));
+            }
+        }
+        return new ArrayList<>(byGroup.values());
+    }
+
+    private static boolean outranks(FullTextIndex.Hits a, int i, FullTextIndex.Hits b, int j) {
+        float scoreA = a.getScores()[i];
+        float scoreB = b.getScores()[j];
+        return scoreA > scoreB || scoreA == scoreB && a.getCourseIds()[i] < b.getCourseIds()[j];
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One subscription per partition behind a single listener. Deliveries from different
+     * partitions are serialized, so calls to the listener still never overlap, and the listener
+     * throwing or being dropped by any partition ends the subscription on all of them.
+     */
+    private static final class PartitionedSubscription implements EnrollmentSubscription, EnrollmentEventListener {
+
+        // Filled while partitions may already deliver, so a listener failing early can still cancel safely
+        final List<EnrollmentSubscription> parts = new CopyOnWriteArrayList<>();
+        private final EnrollmentEventListener listener;
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        PartitionedSubscription(EnrollmentEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public synchronized void onEvents(List<EnrollmentEvent> events) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+
+        @Override
+        public void onDropped() {
+            if (dropped.compareAndSet(false, true)) {
+                cancel();
+                listener.onDropped();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            for (EnrollmentSubscription part : parts) {
+                part.cancel();
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            for (EnrollmentSubscription part : parts) {
+                if (!part.isActive()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.service.CourseInUseException;
+import com.rca.demo_course.util.LongHashSet;
+import com.rca.demo_course.util.LongIntHashMap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prerequisite edges between courses, kept acyclic, with each course's transitive prerequisites
+ * precomputed as a bitset. Every course that is a prerequisite gets a bit, and gives it back once
+ * no course requires it, so the bitsets stay as wide as the number of prerequisites in use rather
+ * than ever used. Students' completed courses are kept as bitsets over the same bits, so an
+ * eligibility check is a word-by-word containment test with no traversal.
+ *
+ * <p>Changing a course's prerequisites recomputes its closure and, if that changed, the closures
+ * of the courses depending on it, in topological order; the rest of the graph is untouched.
+ * A new edge closes a cycle exactly when the course is already in the closure of one of its new
+ * prerequisites, which is a single bit test.
+ *
+ * <p>A freed bit is in no closure, so completion records still carrying it are harmless until it
+ * is given to another course. Every assignment starts a new generation, and a completion record
+ * from an earlier generation is rebuilt from its course IDs before it is checked, so a reused bit
+ * never stands for the course that held it before.
+ *
+ * <p>Changes and completions are serialized on the graph. Closures and completion records are
+ * immutable once published, so eligibility checks read them without locking.
+ */
+class PrerequisiteGraph {
+
+    private static final long[] NO_BITS = new long[0];
+
+    // Guarded by this
+    private final LongHashSet nodes = new LongHashSet();
+    private final Map<Long, long[]> prerequisites = new HashMap<>();
+    private final Map<Long, LongHashSet> dependents = new HashMap<>();
+    private final LongIntHashMap bits = new LongIntHashMap(-1);
+    // Bits below the highest ever assigned that no course holds
+    private final BitSet freeBits = new BitSet();
+    private int bitCount;
+    // Raised on every bit assignment, before a closure using the bit is published
+    private volatile int generation;
+    // Transitive prerequisites per course; absent for courses without any
+    private final Map<Long, long[]> closures = new ConcurrentHashMap<>();
+    private final Map<Long, Completions> completions = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a course with its direct prerequisites. A new course has no dependents, so it cannot
+     * close a cycle.
+     *
+     * @param courseId the course ID
+     * @param prerequisiteIds distinct IDs of its direct prerequisites
+     * @throws IllegalArgumentException if a prerequisite does not exist
+     */
+    synchronized void addCourse(long courseId, long[] prerequisiteIds) {
+        requireExisting(prerequisiteIds);
+        nodes.add(courseId);
+        link(courseId, prerequisiteIds);
+    }
+
+    /**
+     * Replaces a course's direct prerequisites and repairs the affected closures.
+     *
+     * @param courseId the course ID
+     * @param prerequisiteIds distinct IDs of its new direct prerequisites
+     * @throws IllegalArgumentException if a prerequisite does not exist or the edges would form a cycle
+     */
+    synchronized void setPrerequisites(long courseId, long[] prerequisiteIds) {
+        requireExisting(prerequisiteIds);
+        int bit = bits.get(courseId);
+        for (long prerequisiteId : prerequisiteIds) {
+            if (prerequisiteId == courseId || bit >= 0 && hasBit(closures.get(prerequisiteId), bit)) {
+                throw new IllegalArgumentException("Prerequisites of course with ID " + courseId + " would form a cycle");
+            }
+        }
+        long[] previous = prerequisites.getOrDefault(courseId, NO_BITS);
+        if (Arrays.equals(previous, prerequisiteIds)) {
+            return;
+        }
+        for (long prerequisiteId : previous) {
+            LongHashSet users = dependents.get(prerequisiteId);
+            users.remove(courseId);
+            if (users.isEmpty()) {
+                dependents.remove(prerequisiteId);
+            }
+        }
+        link(courseId, prerequisiteIds);
+        // Freed only now, as the closures that held these bits have just been repaired
+        for (long prerequisiteId : previous) {
+            if (!dependents.containsKey(prerequisiteId)) {
+                freeBits.set(bits.remove(prerequisiteId));
+            }
+        }
+    }
+
+    /**
+     * Removes a course that no other course requires.
+     *
+     * @param courseId the course ID
+     * @throws CourseInUseException if the course is a prerequisite of another course
+     */
+    synchronized void removeCourse(long courseId) {
+        if (dependents.containsKey(courseId)) {
+            throw new CourseInUseException(courseId);
+        }
+        setPrerequisites(courseId, NO_BITS);
+        nodes.remove(courseId);
+    }
+
+    /**
+     * Records that a student completed a course.
+     *
+     * @param studentId the student ID
+     * @param courseId the course ID
+     */
+    synchronized void recordCompletion(long studentId, long courseId) {
+        Completions current = completions.get(studentId);
+        LongHashSet courseIds = new LongHashSet();
+        if (current != null) {
+            for (long completed : current.courseIds) {
+                courseIds.add(completed);
+            }
+        }
+        if (courseIds.add(courseId) || current == null || current.generation != generation) {
+            completions.put(studentId, completionsOf(courseIds.toArray()));
+        }
+    }
+
+    /**
+     * Replaces a student's completed courses, as when loading a copy of another store.
+     *
+     * @param studentId the student ID
+     * @param courseIds the completed course IDs
+     */
+    synchronized void restoreCompletions(long studentId, long[] courseIds) {
+        completions.put(studentId, completionsOf(courseIds));
+    }
+
+    /**
+     * Returns every student's completed courses.
+     *
+     * @return completed course IDs per student ID
+     */
+    Map<Long, long[]> completedCourses() {
+        Map<Long, long[]> result = new HashMap<>();
+        completions.forEach((studentId, completed) -> result.put(studentId, completed.courseIds));
+        return result;
+    }
+
+    /**
+     * Returns the IDs of a course's transitive prerequisites.
+     *
+     * @param courseId the course ID
+     * @return the IDs, in no particular order
+     */
+    synchronized long[] transitivePrerequisites(long courseId) {
+        LongHashSet result = new LongHashSet();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(courseId);
+        while (!pending.isEmpty()) {
+            for (long prerequisiteId : prerequisites.getOrDefault(pending.pop(), NO_BITS)) {
+                if (result.add(prerequisiteId)) {
+                    pending.push(prerequisiteId);
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Tells whether a student has completed every transitive prerequisite of a course.
+     *
+     * @param courseId the course ID
+     * @param studentId the student ID
+     * @return true if the student may enroll as far as prerequisites go
+     */
+    boolean isEligible(long courseId, long studentId) {
+        long[] required = closures.get(courseId);
+        if (required == null) {
+            return true;
+        }
+        Completions completed = completions.get(studentId);
+        if (completed == null) {
+            return false;
+        }
+        if (completed.generation != generation) {
+            // Courses completed before they became prerequisites have no bit in the record yet,
+            // and a reused bit may still stand for the course that held it before
+            completed = refreshCompletions(studentId);
+        }
+        long[] done = completed.bits;
+        for (int i = 0; i < required.length; i++) {
+            long have = i < done.length ? done[i] : 0L;
+            if ((required[i] & ~have) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized Completions refreshCompletions(long studentId) {
+        Completions current = completions.get(studentId);
+        if (current.generation != generation) {
+            current = completionsOf(current.courseIds);
+            completions.put(studentId, current);
+        }
+        return current;
+    }
+
+    private Completions completionsOf(long[] courseIds) {
+        long[] words = NO_BITS;
+        for (long courseId : courseIds) {
+            int bit = bits.get(courseId);
+            if (bit >= 0) {
+                words = withBit(words, bit);
+            }
+        }
+        return new Completions(courseIds, words, generation);
+    }
+
+    private void requireExisting(long[] prerequisiteIds) {
+        for (long prerequisiteId : prerequisiteIds) {
+            if (!nodes.contains(prerequisiteId)) {
+                throw new IllegalArgumentException("Prerequisite course with ID " + prerequisiteId + " not found");
+            }
+        }
+    }
+
+    private void link(long courseId, long[] prerequisiteIds) {
+        if (prerequisiteIds.length == 0) {
+            prerequisites.remove(courseId);
+        } else {
+            prerequisites.put(courseId, prerequisiteIds.clone());
+        }
+        for (long prerequisiteId : prerequisiteIds) {
+            dependents.computeIfAbsent(prerequisiteId, id -> new LongHashSet()).add(courseId);
+            if (bits.get(prerequisiteId) < 0) {
+                int bit = freeBits.nextSetBit(0);
+                if (bit >= 0) {
+                    freeBits.clear(bit);
+                } else {
+                    bit = bitCount++;
+                }
+                bits.put(prerequisiteId, bit);
+                generation++;
+            }
+        }
+        repairClosures(courseId);
+    }
+
+    /**
+     * Recomputes the closure of a course and of every course depending on it. A course is
+     * recomputed once all of its changed prerequisites are, and dependents of a course whose
+     * closure came out unchanged are only revisited if another prerequisite of theirs changed.
+     */
+    private void repairClosures(long courseId) {
+        // Count, for every course above the changed one, how many of its prerequisites lie in between
+        Map<Long, Integer> waitingOn = new HashMap<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(courseId);
+        while (!pending.isEmpty()) {
+            LongHashSet users = dependents.get(pending.pop());
+            for (int i = 0; users != null && i < users.size(); i++) {
+                long user = users.get(i);
+                if (waitingOn.merge(user, 1, Integer::sum) == 1) {
+                    pending.push(user);
+                }
+            }
+        }
+
+        LongHashSet changed = new LongHashSet();
+        Deque<Long> ready = new ArrayDeque<>();
+        ready.add(courseId);
+        while (!ready.isEmpty()) {
+            long current = ready.poll();
+            if (current == courseId || hasChangedPrerequisite(current, changed)) {
+                long[] closure = closureOf(current);
+                long[] previous = closures.getOrDefault(current, NO_BITS);
+                if (!Arrays.equals(closure, previous)) {
+                    changed.add(current);
+                    if (closure.length == 0) {
+                        closures.remove(current);
+                    } else {
+                        closures.put(current, closure);
+                    }
+                }
+            }
+            LongHashSet users = dependents.get(current);
+            for (int i = 0; users != null && i < users.size(); i++) {
+                long user = users.get(i);
+                if (waitingOn.merge(user, -1, Integer::sum) == 0) {
+                    ready.add(user);
+                }
+            }
+        }
+    }
+
+    private boolean hasChangedPrerequisite(long courseId, LongHashSet changed) {
+        for (long prerequisiteId : prerequisites.getOrDefault(courseId, NO_BITS)) {
+            if (changed.contains(prerequisiteId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] closureOf(long courseId) {
+        long[] closure = NO_BITS;
+        for (long prerequisiteId : prerequisites.getOrDefault(courseId, NO_BITS)) {
+            closure = withBit(closure, bits.get(prerequisiteId));
+            long[] inherited = closures.getOrDefault(prerequisiteId, NO_BITS);
+            if (inherited.length > closure.length) {
+                closure = Arrays.copyOf(closure, inherited.length);
+            }
+            for (int i = 0; i < inherited.length; i++) {
+                closure[i] |= inherited[i];
+            }
+        }
+        return closure;
+    }
+
+    private static long[] withBit(long[] words, int bit) {
+        int word = bit >>> 6;
+        long[] result = word < words.length ? words : Arrays.copyOf(words, word + 1);
+        result[word] |= 1L << bit;
+        return result;
+    }
+
+    private static boolean hasBit(long[] words, int bit) {
+        return words != null && (bit >>> 6) < words.length && (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * A student's completed courses, by ID and as the bits of the generation the record was built in.
+     */
+    private static final class Completions {
+
+        final long[] courseIds;
+        final long[] bits;
+        final int generation;
+
+        Completions(long[] courseIds, long[] bits, int generation) {
+            this.courseIds = courseIds;
+            this.bits = bits;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.ReplicationMember;
+import com.rca.demo_course.service.ReplicationStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes an indexed store the leader of a replicated catalog: it takes the writes, logs every
+ * change in order and streams the log over TCP to {@link FollowerCourseService} instances, which
+ * apply it and serve reads. Enabled with {@code course.replication.enabled=true}; followers
+ * connect on {@code course.replication.port} of {@code course.replication.bind-address}, which
+ * is the loopback address unless configured otherwise, and must prove they hold
+ * {@code course.replication.secret} before they receive anything. Only the indexed store can
+ * lead, so startup fails if replication is enabled with another {@code course.store}.
+ *
+ * <p>A joining follower first receives a snapshot of the store, taken with writes paused, then
+ * every change logged after it. A follower that reconnects resumes where it stopped if the log
+ * still holds the changes it missed, and otherwise receives a new snapshot; the same happens to
+ * a follower that falls further behind than the log while connected, so a slow follower costs
+ * the leader a bounded log and one blocked sending thread, never unbounded buffers.
+ */
+@Component
+@ConditionalOnProperty(name = "course.replication.enabled", havingValue = "true")
+public class ReplicationLeader implements ReplicationMember, AutoCloseable {
+
+    // Most changes sent in one batch, each batch followed by a heartbeat
+    private static final int BATCH_SIZE = 1024;
+    // Heartbeat interval while there are no changes; followers give up on a leader silent much longer
+    static final long HEARTBEAT_MILLIS = 200;
+    // Time a connecting follower has to authenticate
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5_000;
+
+    private final CourseServiceImpl store;
+    private final ReplicationLog log;
+    private final ServerSocket serverSocket;
+    private final String secret;
+    private final Set<Follower> followers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService threads = Executors.newCachedThreadPool(daemon("replication-leader"));
+    private volatile boolean closed;
+
+    /**
+     * Starts logging the store's changes and accepting followers on the loopback address.
+     *
+     * @param store the store taking the writes; must be a {@link CourseServiceImpl}
+     * @param port the port to accept followers on, or 0 for any free port
+     * @param logSize how many recent changes to keep for followers catching up
+     * @param secret the secret followers must hold
+     * @throws IOException if the port cannot be opened
+     * @throws IllegalArgumentException if the log size is not positive or the secret is empty
+     * @throws IllegalStateException if the store is not the indexed store, or archives courses
+     */
+    public ReplicationLeader(CourseService store, int port, int logSize, String secret) throws IOException {
+        this(store, InetAddress.getLoopbackAddress().getHostAddress(), port, logSize, secret);
+    }
+
+    /**
+     * Starts logging the store's changes and accepting followers.
+     *
+     * @param store the store taking the writes; must be a {@link CourseServiceImpl}
+     * @param bindAddress the address to accept followers on
+     * @param port the port to accept followers on, or 0 for any free port
+     * @param logSize how many recent changes to keep for followers catching up
+     * @param secret the secret followers must hold
+     * @throws IOException if the address cannot be resolved or the port cannot be opened
+     * @throws IllegalArgumentException if the log size is not positive or the secret is empty
+     * @throws IllegalStateException if the store is not the indexed store, or archives courses
+     */
+    @Autowired
+    public ReplicationLeader(CourseService store,
+                             @Value("${course.replication.bind-address:127.0.0.1}") String bindAddress,
+                             @Value("${course.replication.port:7400}") int port,
+                             @Value("${course.replication.log-size:100000}") int logSize,
+                             @Value("${course.replication.secret:}") String secret) throws IOException {
+        this.secret = ReplicationProtocol.requireSecret(secret);
+        if (!(store instanceof CourseServiceImpl indexed)) {
+            throw new IllegalStateException("Replication requires course.store=indexed, but the store is "
+                    + store.getClass().getSimpleName());
+        }
+        this.store = indexed;
+        this.log = indexed.startReplicationLog(logSize);
+        this.serverSocket = new ServerSocket();
+        // A restarted leader rebinds its port while connections of the previous one linger
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        threads.execute(this::accept);
+    }
+
+    /**
+     * Returns the port followers connect to.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the sequence number of the last logged change. A follower that has applied it
+     * reflects every write made so far.
+     */
+    public long getLastSequence() {
+        return log.lastSequence();
+    }
+
+    @Override
+    public ReplicationStatus getReplicationStatus() {
+        long lastSequence = log.lastSequence();
+        long now = System.currentTimeMillis();
+        List<ReplicationStatus.FollowerLag> lags = new ArrayList<>();
+        for (Follower follower : followers) {
+            long acknowledged = follower.acknowledged;
+            long behindSince = log.timestampAfter(acknowledged);
+            lags.add(new ReplicationStatus.FollowerLag(follower.address, Math.max(0, acknowledged),
+                    Math.max(0, lastSequence - Math.max(0, acknowledged)), behindSince < 0 ? 0 : Math.max(0, now - behindSince)));
+        }
+        return new ReplicationStatus(ReplicationStatus.Role.LEADER, true, lastSequence, lastSequence, 0, lags);
+    }
+
+    /**
+     * Stops accepting followers and disconnects the connected ones. The store keeps logging.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        for (Follower follower : followers) {
+            follower.close();
+        }
+        threads.shutdownNow();
+        try {
+            // The port is released once the accepting thread has returned
+            threads.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Follower follower = new Follower(socket);
+                followers.add(follower);
+                threads.execute(() -> stream(follower));
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Authenticates a follower, then sends it a snapshot if it needs one and the log as it grows,
+     * until either side disconnects.
+     */
+    private void stream(Follower follower) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(follower.socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(follower.socket.getOutputStream(), 64 * 1024));
+            byte[] challenge = ReplicationProtocol.challenge();
+            out.write(challenge);
+            out.flush();
+            follower.socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            if (in.readInt() != ReplicationProtocol.HELLO) {
+                return;
+            }
+            long logId = in.readLong();
+            long sequence = in.readLong();
+            byte[] answer = new byte[ReplicationProtocol.CHALLENGE_LENGTH];
+            in.readFully(answer);
+            if (!MessageDigest.isEqual(answer, ReplicationProtocol.authenticate(secret, challenge))) {
+                return;
+            }
+            follower.socket.setSoTimeout(0);
+            if (logId != log.id()) {
+                // State from before a restart, or none
+                sequence = ReplicationProtocol.NO_STATE;
+            }
+            follower.acknowledged = sequence;
+            threads.execute(() -> readAcknowledgements(follower, in));
+            while (!closed) {
+                List<byte[]> records = log.readAfter(sequence, BATCH_SIZE, HEARTBEAT_MILLIS);
+                if (records == null) {
+                    byte[] snapshot = store.replicationSnapshot();
+                    out.write(snapshot);
+                    sequence = ReplicationProtocol.sequenceOf(snapshot);
+                } else {
+                    for (byte[] record : records) {
+                        out.write(record);
+                    }
+                    if (!records.isEmpty()) {
+                        sequence = ReplicationProtocol.sequenceOf(records.get(records.size() - 1));
+                    }
+                }
+                out.writeByte(ReplicationProtocol.HEARTBEAT);
+                out.writeLong(log.lastSequence());
+                out.writeLong(log.timestampAfter(sequence));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The follower went away; it reconnects and resumes
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            follower.close();
+        }
+    }
+
+    private void readAcknowledgements(Follower follower, DataInputStream in) {
+        try {
+            while (!closed) {
+                follower.acknowledged = in.readLong();
+            }
+        } catch (IOException e) {
+            follower.close();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A connected follower.
+     */
+    private final class Follower {
+
+        final Socket socket;
+        final String address;
+        // Last sequence number the follower reported as applied, -1 before its first snapshot
+        volatile long acknowledged = ReplicationProtocol.NO_STATE;
+
+        Follower(Socket socket) {
+            this.socket = socket;
+            this.address = socket.getRemoteSocketAddress().toString();
+        }
+
+        void close() {
+            followers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.rca.demo_course.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The leader's ordered log of catalog changes, as encoded records numbered from 1. The most
+ * recent records are kept in a ring for followers to stream from; a follower that falls further
+ * behind than the ring reloads a snapshot instead.
+ *
+ * <p>A store appends its records under the changed course's lock, so the changes of one course
+ * are logged in the order they were made. Appends are serialized on the log, which puts all
+ * changes in one order that followers replay.
+ */
+final class ReplicationLog {
+
+    // Tells this log's sequence numbers from those of a log before a restart; never 0
+    private final long id = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    // Guarded by this; the record with sequence s is in slot s % capacity
+    private final byte[][] records;
+    private final long[] timestamps;
+    private long lastSequence;
+    private int waiting;
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity how many recent records to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    ReplicationLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Replication log size must be positive");
+        }
+        this.records = new byte[capacity][];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Appends a record, giving it the next sequence number and the current time.
+     *
+     * @param record a record encoded by {@link ReplicationProtocol}, stamped in place
+     * @return its sequence number
+     */
+    synchronized long append(byte[] record) {
+        long sequence = ++lastSequence;
+        long timestamp = System.currentTimeMillis();
+        ReplicationProtocol.stamp(record, sequence, timestamp);
+        int slot = (int) (sequence % records.length);
+        records[slot] = record;
+        timestamps[slot] = timestamp;
+        if (waiting > 0) {
+            notifyAll();
+        }
+        return sequence;
+    }
+
+    long id() {
+        return id;
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the records following a sequence number, waiting a while if there are none yet.
+     *
+     * @param sequence the last sequence number the reader has
+     * @param max the most records to return
+     * @param timeoutMillis how long to wait for a first record
+     * @return the records in order, empty if none arrived in time, or null if the records
+     *         following the sequence number are no longer kept or never were
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized List<byte[]> readAfter(long sequence, int max, long timeoutMillis) throws InterruptedException {
+        if (sequence == lastSequence && timeoutMillis > 0) {
+            waiting++;
+            try {
+                wait(timeoutMillis);
+            } finally {
+                waiting--;
+            }
+        }
+        if (!isKept(sequence)) {
+            return null;
+        }
+        int count = (int) Math.min(max, lastSequence - sequence);
+        List<byte[]> result = new ArrayList<>(count);
+        for (long next = sequence + 1; next <= sequence + count; next++) {
+            result.add(records[(int) (next % records.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns when the change following a sequence number was logged, which is since when a
+     * reader at that sequence number has been behind.
+     *
+     * @param sequence the last sequence number the reader has
+     * @return the time in epoch milliseconds, that of the oldest change kept if the following
+     *         one is no longer kept, or -1 if the reader is up to date
+     */
+    synchronized long timestampAfter(long sequence) {
+        if (sequence >= lastSequence) {
+            return -1L;
+        }
+        long next = Math.max(sequence + 1, Math.max(1, lastSequence - records.length + 1));
+        return timestamps[(int) (next % records.length)];
+    }
+
+    private boolean isKept(long sequence) {
+        return sequence >= 0 && sequence <= lastSequence && lastSequence - sequence <= records.length;
+    }
+}
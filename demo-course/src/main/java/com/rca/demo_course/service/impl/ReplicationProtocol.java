@@ -0,0 +1,321 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Wire format of leader-follower replication.
+ *
+ * <p>The leader opens a connection with a random challenge of {@link #CHALLENGE_LENGTH} bytes.
+ * The follower answers with {@link #HELLO}, the ID of the log its state came from, the last
+ * sequence number it applied, or 0 and -1 if it has no state, and the HMAC-SHA256 of the
+ * challenge keyed with the shared replication secret; see {@link #authenticate}. The leader
+ * drops a follower whose HMAC does not match before sending it anything else, so only holders
+ * of the secret receive the catalog. The secret itself never crosses the wire. The leader answers
+ * with a {@link #SNAPSHOT} if it cannot stream from there, as when it restarted with a new log, then with logged changes in sequence order, and a {@link #HEARTBEAT} after every batch
+ * and whenever it is idle. The follower acknowledges the sequence it has applied after every
+ * heartbeat.
+ *
+ * <p>Every logged change starts with its type, sequence number and the leader's timestamp in
+ * milliseconds; see {@link #stamp}. A snapshot may arrive again at any point of a stream and
+ * replaces everything the follower has.
+ */
+final class ReplicationProtocol {
+
+    static final int HELLO = 0x43525031;
+    static final int CHALLENGE_LENGTH = 32;
+    static final long NO_STATE = -1L;
+
+    // Leader to follower: SNAPSHOT, sequence, timestamp, log ID, courses and completions
+    static final byte SNAPSHOT = 1;
+    // Leader to follower: HEARTBEAT, last logged sequence, when the oldest change not sent yet was logged or -1
+    static final byte HEARTBEAT = 2;
+
+    // Logged changes; course records carry the course, enrollment records a course and a student
+    static final byte COURSE_CREATED = 10;
+    static final byte COURSE_UPDATED = 11;
+    static final byte COURSE_DELETED = 12;
+    static final byte COURSE_ACTIVATED = 13;
+    static final byte COURSE_DEACTIVATED = 14;
+    static final byte ENROLLED = 15;
+    static final byte UNENROLLED = 16;
+    static final byte COMPLETED = 17;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * Returns a new random challenge for a connecting follower.
+     */
+    static byte[] challenge() {
+        byte[] challenge = new byte[CHALLENGE_LENGTH];
+        RANDOM.nextBytes(challenge);
+        return challenge;
+    }
+
+    /**
+     * Computes a follower's answer to a challenge, which proves it holds the secret.
+     *
+     * @param secret the shared replication secret
+     * @param challenge the challenge the leader sent
+     * @return the HMAC-SHA256 of the challenge keyed with the secret
+     */
+    static byte[] authenticate(String secret, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            // Every Java platform provides HmacSHA256
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Checks a replication secret.
+     *
+     * @throws IllegalArgumentException if the secret is null or blank
+     */
+    static String requireSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Replication secret cannot be null or empty; set course.replication.secret");
+        }
+        return secret;
+    }
+
+    /**
+     * Encodes a change carrying a course. Its sequence number and timestamp are left for
+     * {@link #stamp}.
+     *
+     * @param type {@link #COURSE_CREATED} or {@link #COURSE_UPDATED}
+     * @param course the course as stored
+     * @param withStudents whether to include the enrolled students; without them the follower
+     *                     keeps the ones it has
+     */
+    static byte[] courseRecord(byte type, Course course, boolean withStudents) {
+        return encode(type, out -> writeCourse(out, course, withStudents));
+    }
+
+    /**
+     * Encodes a change of a course's status or existence.
+     *
+     * @param type {@link #COURSE_DELETED}, {@link #COURSE_ACTIVATED} or {@link #COURSE_DEACTIVATED}
+     */
+    static byte[] courseIdRecord(byte type, long courseId) {
+        return encode(type, out -> out.writeLong(courseId));
+    }
+
+    /**
+     * Encodes a change between a course and a student.
+     *
+     * @param type {@link #ENROLLED}, {@link #UNENROLLED} or {@link #COMPLETED}
+     */
+    static byte[] enrollmentRecord(byte type, long courseId, long studentId) {
+        return encode(type, out -> {
+            out.writeLong(courseId);
+            out.writeLong(studentId);
+        });
+    }
+
+    /**
+     * Encodes a snapshot of a whole store.
+     *
+     * @param sequence the last logged change the snapshot includes
+     * @param logId the ID of the log the sequence number belongs to
+     * @param courses the courses, in any order
+     * @param completions completed course IDs per student
+     */
+    static byte[] snapshot(long sequence, long timestamp, long logId, Iterable<? extends Course> courses, int courseCount,
+                           Map<Long, long[]> completions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(SNAPSHOT);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeLong(logId);
+            out.writeInt(courseCount);
+            for (Course course : courses) {
+                writeCourse(out, course, true);
+            }
+            out.writeInt(completions.size());
+            for (Map.Entry<Long, long[]> entry : completions.entrySet()) {
+                out.writeLong(entry.getKey());
+                writeLongs(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the sequence number from the header of a record or snapshot.
+     */
+    static long sequenceOf(byte[] message) {
+        long sequence = 0;
+        for (int i = 1; i <= 8; i++) {
+            sequence = (sequence << 8) | (message[i] & 0xFF);
+        }
+        return sequence;
+    }
+
+    /**
+     * Writes a record's sequence number and timestamp into its header.
+     */
+    static void stamp(byte[] record, long sequence, long timestamp) {
+        for (int i = 0; i < 8; i++) {
+            record[1 + i] = (byte) (sequence >>> (56 - 8 * i));
+            record[9 + i] = (byte) (timestamp >>> (56 - 8 * i));
+        }
+    }
+
+    static void writeCourse(DataOutput out, Course course, boolean withStudents) throws IOException {
+        out.writeLong(course.getId());
+        out.writeLong(course.getVersion());
+        out.writeBoolean(course.isActive());
+        writeString(out, course.getCourseCode());
+        writeString(out, course.getCourseName());
+        writeString(out, course.getDescription());
+        writeString(out, course.getInstructor());
+        out.writeInt(course.getCredits());
+        writeString(out, course.getDepartment());
+        writeDate(out, course.getStartDate());
+        writeDate(out, course.getEndDate());
+        out.writeInt(course.getMaxStudents());
+        List<Long> prerequisites = course.getPrerequisites();
+        out.writeInt(prerequisites != null ? prerequisites.size() : 0);
+        if (prerequisites != null) {
+            for (Long prerequisiteId : prerequisites) {
+                out.writeLong(prerequisiteId);
+            }
+        }
+        if (withStudents && course.enrollmentStorage() != null) {
+            writeLongs(out, course.enrollmentStorage().toArray());
+        } else {
+            out.writeInt(-1);
+        }
+    }
+
+    /**
+     * Reads a course written by {@link #writeCourse}. Its enrolled students are null if they
+     * were left out.
+     */
+    static Course readCourse(DataInput in) throws IOException {
+        Course course = new Course();
+        course.setId(in.readLong());
+        course.setVersion(in.readLong());
+        course.setActive(in.readBoolean());
+        course.setCourseCode(readString(in));
+        course.setCourseName(readString(in));
+        course.setDescription(readString(in));
+        course.setInstructor(readString(in));
+        course.setCredits(in.readInt());
+        course.setDepartment(readString(in));
+        course.setStartDate(readDate(in));
+        course.setEndDate(readDate(in));
+        course.setMaxStudents(in.readInt());
+        course.setPrerequisites(boxed(readLongs(in)));
+        long[] students = readLongs(in);
+        course.setEnrolledStudents(students != null ? boxed(students) : null);
+        return course;
+    }
+
+    static void writeLongs(DataOutput out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Reads values written by {@link #writeLongs}, or null where a negative count stands for none.
+     */
+    static long[] readLongs(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static byte[] encode(byte type, RecordWriter payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            // Sequence number and timestamp, stamped when the record is appended
+            out.writeLong(0L);
+            out.writeLong(0L);
+            payload.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date != null ? date.toEpochDay() : Long.MIN_VALUE);
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    private static List<Long> boxed(long[] values) {
+        if (values == null) {
+            return new ArrayList<>();
+        }
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,268 @@
+package com.rca.demo_course.service.impl;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.util.LongSet;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A course as held by the indexed store and handed to its callers.
+ *
+ * <p>The definition never changes once constructed: an update or a status change publishes a
+ * new instance, so a caller, or a catalog snapshot, keeps the version it was given. Only the
+ * enrolled students follow later enrollments, and only the store changes them, through
+ * {@link #students()} under the course's stripe lock. Every setter, and every change through
+ * {@link #getEnrolledStudents()} or {@link #enrollmentStorage()}, throws
+ * {@link UnsupportedOperationException}.
+ *
+ * <p>Off-heap students are read under the course's stripe lock, since a block freed by a write
+ * may already hold another course's students. {@link #getEnrolledStudents()} then returns a
+ * copy, so serializing or iterating it never reads the block. Sizes are read without the lock,
+ * as they live in the handle; a released set reads as empty.
+ */
+final class StoredCourse extends Course {
+
+    private static final String READ_ONLY = "Courses returned by the course service are read-only";
+
+    private final LongSet students;
+    private final Lock readLock;
+
+    /**
+     * Creates a stored version of a course.
+     *
+     * @param definition the course whose fields to copy, other than those given here
+     * @param id the course ID
+     * @param version the version of the definition
+     * @param active whether the course is active
+     * @param prerequisites the direct prerequisite IDs, not changed afterwards
+     * @param students the enrolled students, shared with other versions of the course
+     * @param readLock the lock guarding reads of the students, or null if they need none
+     */
+    StoredCourse(Course definition, long id, long version, boolean active, List<Long> prerequisites,
+                 LongSet students, Lock readLock) {
+        super.setId(id);
+        super.setCourseCode(definition.getCourseCode());
+        super.setCourseName(definition.getCourseName());
+        super.setDescription(definition.getDescription());
+        super.setInstructor(definition.getInstructor());
+        super.setCredits(definition.getCredits());
+        super.setDepartment(definition.getDepartment());
+        super.setStartDate(definition.getStartDate());
+        super.setEndDate(definition.getEndDate());
+        super.setMaxStudents(definition.getMaxStudents());
+        super.setPrerequisites(prerequisites);
+        super.setActive(active);
+        super.setVersion(version);
+        super.useEnrollmentStorage(new ReadOnlyLongSet(students, readLock));
+        this.students = students;
+        this.readLock = readLock;
+    }
+
+    /**
+     * Returns the next version of this course with the given status and the same students.
+     */
+    StoredCourse withActive(boolean active) {
+        return new StoredCourse(this, getId(), getVersion() + 1, active, getPrerequisites(), students, readLock);
+    }
+
+    /**
+     * Returns the set of enrolled students for the store to change. Callers hold the course's
+     * stripe lock.
+     */
+    LongSet students() {
+        return students;
+    }
+
+    /**
+     * Enrolls a student the store has checked. Callers hold the course's stripe lock.
+     *
+     * @throws IllegalStateException if the course is full
+     */
+    void addStudent(long studentId) {
+        if (!students.contains(studentId)) {
+            if (students.size() >= getMaxStudents()) {
+                throw new IllegalStateException("Course is full. Cannot enroll more students.");
+            }
+            students.add(studentId);
+        }
+    }
+
+    @Override
+    public List<Long> getEnrolledStudents() {
+        if (readLock == null) {
+            return super.getEnrolledStudents();
+        }
+        return Arrays.stream(enrollmentStorage().toArray()).boxed().toList();
+    }
+
+    @Override
+    public void setId(Long id) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCourseCode(String courseCode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCourseName(String courseName) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setInstructor(String instructor) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCredits(int credits) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setDepartment(String department) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStartDate(LocalDate startDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEndDate(LocalDate endDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setMaxStudents(int maxStudents) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEnrolledStudents(List<Long> enrolledStudents) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void useEnrollmentStorage(LongSet students) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setPrerequisites(List<Long> prerequisites) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void enrollStudent(Long studentId) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void unenrollStudent(Long studentId) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Read access to the enrolled students for callers of the store, under the read lock if any.
+     */
+    private static final class ReadOnlyLongSet implements LongSet {
+
+        private final LongSet students;
+        private final Lock lock;
+
+        ReadOnlyLongSet(LongSet students, Lock lock) {
+            this.students = students;
+            this.lock = lock;
+        }
+
+        @Override
+        public boolean add(long value) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public boolean remove(long value) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public long removeAt(int index) {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public boolean contains(long value) {
+            if (lock == null) {
+                return students.contains(value);
+            }
+            lock.lock();
+            try {
+                return students.contains(value);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long get(int index) {
+            if (lock == null) {
+                return students.get(index);
+            }
+            lock.lock();
+            try {
+                return students.get(index);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            return students.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return students.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException(READ_ONLY);
+        }
+
+        @Override
+        public long[] toArray() {
+            if (lock == null) {
+                return students.toArray();
+            }
+            lock.lock();
+            try {
+                return students.toArray();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
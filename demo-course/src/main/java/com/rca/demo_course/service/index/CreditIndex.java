@@ -0,0 +1,151 @@
+package com.rca.demo_course.service.index;
+
+import com.rca.demo_course.util.LongHashSet;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index of course IDs bucketed by credit value, with a parallel set of buckets
+ * holding only active courses. Credit range queries touch only the matching buckets.
+ */
+public class CreditIndex {
+
+    public static final int MIN_CREDITS = 1;
+    public static final int MAX_CREDITS = 6;
+
+    private final LongHashSet[] all = new LongHashSet[MAX_CREDITS + 1];
+    private final LongHashSet[] active = new LongHashSet[MAX_CREDITS + 1];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CreditIndex() {
+        for (int credits = MIN_CREDITS; credits <= MAX_CREDITS; credits++) {
+            all[credits] = new LongHashSet();
+            active[credits] = new LongHashSet();
+        }
+    }
+
+    /**
+     * Indexes a course, replacing any previous entry.
+     *
+     * @param id the course ID
+     * @param credits the course credits, between 1 and 6
+     * @param isActive whether the course is active
+     * @throws IllegalArgumentException if credits are out of range
+     */
+    public void put(long id, int credits, boolean isActive) {
+        if (credits < MIN_CREDITS || credits > MAX_CREDITS) {
+            throw new IllegalArgumentException("Credits must be between " + MIN_CREDITS + " and " + MAX_CREDITS);
+        }
+        lock.writeLock().lock();
+        try {
+            removeFromBuckets(id);
+            all[credits].add(id);
+            if (isActive) {
+                active[credits].add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the active flag of an indexed course. Unknown courses are ignored.
+     *
+     * @param id the course ID
+     * @param isActive whether the course is active
+     */
+    public void setActive(long id, boolean isActive) {
+        lock.writeLock().lock();
+        try {
+            for (int credits = MIN_CREDITS; credits <= MAX_CREDITS; credits++) {
+                if (all[credits].contains(id)) {
+                    if (isActive) {
+                        active[credits].add(id);
+                    } else {
+                        active[credits].remove(id);
+                    }
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index.
+     *
+     * @param id the course ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeFromBuckets(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of courses whose credits fall within a range.
+     *
+     * @param minCredits minimum credits, inclusive
+     * @param maxCredits maximum credits, inclusive
+     * @param activeOnly whether to restrict the result to active courses
+     * @return the matching course IDs, grouped by credit value
+     */
+    public long[] range(int minCredits, int maxCredits, boolean activeOnly) {
+        LongHashSet[] buckets = activeOnly ? active : all;
+        int from = Math.max(minCredits, MIN_CREDITS);
+        int to = Math.min(maxCredits, MAX_CREDITS);
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (int credits = from; credits <= to; credits++) {
+                total += buckets[credits].size();
+            }
+            long[] result = new long[total];
+            int offset = 0;
+            for (int credits = from; credits <= to; credits++) {
+                LongHashSet bucket = buckets[credits];
+                for (int i = 0; i < bucket.size(); i++) {
+                    result[offset++] = bucket.get(i);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts courses whose credits fall within a range.
+     *
+     * @param minCredits minimum credits, inclusive
+     * @param maxCredits maximum credits, inclusive
+     * @param activeOnly whether to count only active courses
+     * @return the number of matching courses
+     */
+    public int count(int minCredits, int maxCredits, boolean activeOnly) {
+        LongHashSet[] buckets = activeOnly ? active : all;
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (int credits = Math.max(minCredits, MIN_CREDITS); credits <= Math.min(maxCredits, MAX_CREDITS); credits++) {
+                total += buckets[credits].size();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeFromBuckets(long id) {
+        for (int credits = MIN_CREDITS; credits <= MAX_CREDITS; credits++) {
+            if (all[credits].remove(id)) {
+                active[credits].remove(id);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.rca.demo_course.service.index;
+
+import com.rca.demo_course.util.LongArrayList;
+import com.rca.demo_course.util.LongHashSet;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index over course start and end dates, keyed by epoch day.
+ * Start and end dates are kept in sorted maps for "starting after" / "ending before"
+ * queries; courses with both dates also go into an interval treap augmented with the
+ * maximum end day per subtree, which answers "running on" and "overlapping" queries
+ * in O(log n + k).
+ */
+public class DateIndex {
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final Map<Long, int[]> daysById = new HashMap<>();
+    private final NavigableMap<Integer, LongHashSet> byStart = new TreeMap<>();
+    private final NavigableMap<Integer, LongHashSet> byEnd = new TreeMap<>();
+    private Node root;
+    // Longest end - start span ever indexed; an upper bound used for overlap estimates
+    private int maxSpan;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes the dates of a course, replacing any previous entry.
+     *
+     * @param id the course ID
+     * @param startDate the start date, may be null
+     * @param endDate the end date, may be null
+     */
+    public void put(long id, LocalDate startDate, LocalDate endDate) {
+        int start = startDate != null ? (int) startDate.toEpochDay() : NONE;
+        int end = endDate != null ? (int) endDate.toEpochDay() : NONE;
+        lock.writeLock().lock();
+        try {
+            int[] previous = daysById.get(id);
+            if (previous != null) {
+                if (previous[0] == start && previous[1] == end) {
+                    return;
+                }
+                unlink(id, previous[0], previous[1]);
+            }
+            if (start == NONE && end == NONE) {
+                daysById.remove(id);
+                return;
+            }
+            daysById.put(id, new int[]{start, end});
+            link(id, start, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index.
+     *
+     * @param id the course ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int[] previous = daysById.remove(id);
+            if (previous != null) {
+                unlink(id, previous[0], previous[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns courses starting strictly after a date.
+     *
+     * @param date the date
+     * @return the matching course IDs in start date order
+     */
+    public long[] startingAfter(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return collect(byStart.tailMap((int) date.toEpochDay(), false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns courses ending strictly before a date.
+     *
+     * @param date the date
+     * @return the matching course IDs in end date order
+     */
+    public long[] endingBefore(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return collect(byEnd.headMap((int) date.toEpochDay(), false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns courses with both dates set whose [start, end] contains a date.
+     *
+     * @param date the date
+     * @return the matching course IDs in start date order
+     */
+    public long[] runningOn(LocalDate date) {
+        return overlapping(date, date);
+    }
+
+    /**
+     * Returns courses with both dates set whose [start, end] intersects [from, to].
+     *
+     * @param from the first day of the range, inclusive
+     * @param to the last day of the range, inclusive
+     * @return the matching course IDs in start date order
+     */
+    public long[] overlapping(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            LongArrayList result = new LongArrayList();
+            collectOverlapping(root, (int) from.toEpochDay(), (int) to.toEpochDay(), result);
+            return result.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates how many courses overlap [from, to], without resolving them.
+     * Counts courses starting within [from - longest span, to], an upper bound on the
+     * true count, and stops once the count reaches the cap.
+     *
+     * @param from the first day of the range, inclusive
+     * @param to the last day of the range, inclusive
+     * @param cap the count at which to stop
+     * @return the estimated number of overlapping courses, at most cap
+     */
+    public int estimateOverlapping(LocalDate from, LocalDate to, int cap) {
+        lock.readLock().lock();
+        try {
+            long lowest = from.toEpochDay() - maxSpan;
+            int fromKey = (int) Math.max(lowest, Integer.MIN_VALUE + 1L);
+            int estimate = 0;
+            for (LongHashSet ids : byStart.subMap(fromKey, true, (int) to.toEpochDay(), true).values()) {
+                estimate += ids.size();
+                if (estimate >= cap) {
+                    return cap;
+                }
+            }
+            return estimate;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void link(long id, int start, int end) {
+        if (start != NONE) {
+            byStart.computeIfAbsent(start, k -> new LongHashSet(2)).add(id);
+        }
+        if (end != NONE) {
+            byEnd.computeIfAbsent(end, k -> new LongHashSet(2)).add(id);
+        }
+        if (start != NONE && end != NONE) {
+            root = insert(root, new Node(id, start, end));
+            maxSpan = Math.max(maxSpan, end - start);
+        }
+    }
+
+    private void unlink(long id, int start, int end) {
+        if (start != NONE) {
+            removeFrom(byStart, start, id);
+        }
+        if (end != NONE) {
+            removeFrom(byEnd, end, id);
+        }
+        if (start != NONE && end != NONE) {
+            root = delete(root, start, id);
+        }
+    }
+
+    private static void removeFrom(NavigableMap<Integer, LongHashSet> map, int day, long id) {
+        LongHashSet ids = map.get(day);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            map.remove(day);
+        }
+    }
+
+    private static long[] collect(NavigableMap<Integer, LongHashSet> range) {
+        LongArrayList result = new LongArrayList();
+        for (LongHashSet ids : range.values()) {
+            for (int i = 0; i < ids.size(); i++) {
+                result.add(ids.get(i));
+            }
+        }
+        return result.toArray();
+    }
+
+    private static void collectOverlapping(Node node, int from, int to, LongArrayList result) {
+        while (node != null && node.maxEnd >= from) {
+            collectOverlapping(node.left, from, to, result);
+            // Everything to the right starts at or after this node
+            if (node.start > to) {
+                return;
+            }
+            if (node.end >= from) {
+                result.add(node.id);
+            }
+            node = node.right;
+        }
+    }
+
+    // Treap ordered by (start, id), heap-ordered by random priority
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, int start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, start, id);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, start, id);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static int compare(int start, long id, Node node) {
+        int cmp = Integer.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static final class Node {
+        private final long id;
+        private final int start;
+        private final int end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, int start, int end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            int max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.rca.demo_course.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over course descriptions with BM25 ranking.
+ * Text is split on non-alphanumeric characters, lowercased, stripped of stop words and
+ * reduced by a light suffix stemmer. Each indexed description gets an internal document
+ * number; postings store (document gap, term frequency) pairs as varints in a byte array,
+ * with a skip entry every {@value #SKIP_INTERVAL} postings. Updates add a new document and
+ * tombstone the old one; tombstones are compacted away once they outnumber live documents.
+ * Queries merge postings document-at-a-time with MaxScore pruning: once the bounded top-K
+ * heap is full, terms whose combined score upper bound cannot beat the K-th best score
+ * only skip ahead to candidates produced by the remaining terms.
+ */
+public class FullTextIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DEAD_DOCS_TO_COMPACT = 1_024;
+    private static final int SKIP_INTERVAL = 64;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "its", "of", "on", "or", "that", "the", "this", "to", "with");
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> docByCourse = new HashMap<>();
+
+    // Per internal document number; a course ID of -1 marks a deleted document
+    private long[] docCourseIds = new long[64];
+    private int[] docLengths = new int[64];
+    private int[][] docTermIds = new int[64][];
+    private int[][] docTermFreqs = new int[64][];
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes the text of a course, replacing any previously indexed text.
+     *
+     * @param courseId the course ID
+     * @param text the description, or null to only remove the course
+     */
+    public void put(long courseId, String text) {
+        List<String> tokens = analyze(text);
+        lock.writeLock().lock();
+        try {
+            removeDocument(courseId);
+            if (!tokens.isEmpty()) {
+                addDocument(courseId, tokens);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index.
+     *
+     * @param courseId the course ID
+     */
+    public void remove(long courseId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(courseId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best matching courses for a free-text query, by descending BM25 score.
+     *
+     * @param query the query text
+     * @param limit the maximum number of results
+     * @return course IDs of the top results, best first
+     */
+    public long[] search(String query, int limit) {
+        return searchScored(query, limit).getCourseIds();
+    }
+
+    /**
+     * Returns the best matching courses for a free-text query with their BM25 scores, for
+     * merging with the results of other indexes.
+     *
+     * @param query the query text
+     * @param limit the maximum number of results
+     * @return the top results, best first
+     */
+    public Hits searchScored(String query, int limit) {
+        List<String> queryTerms = analyze(query);
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return new Hits(new long[0], new float[0]);
+            }
+            float avgLength = (float) liveLength / liveDocs;
+            List<Cursor> cursorList = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Integer termId = termIds.get(term);
+                if (termId != null && postings.get(termId).liveDocs > 0) {
+                    cursorList.add(new Cursor(postings.get(termId), liveDocs, avgLength));
+                }
+            }
+            // Ascending upper bound; prefix sums give the best score reachable from the weakest terms
+            cursorList.sort((a, b) -> Float.compare(a.upperBound, b.upperBound));
+            Cursor[] cursors = cursorList.toArray(new Cursor[0]);
+            float[] boundPrefix = new float[cursors.length];
+            float sum = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                sum += cursors[i].upperBound;
+                boundPrefix[i] = sum;
+            }
+
+            TopK top = new TopK(limit);
+            int firstEssential = 0;
+            while (firstEssential < cursors.length) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < cursors.length; i++) {
+                    if (cursors[i].doc < doc) {
+                        doc = cursors[i].doc;
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                float score = 0;
+                for (int i = firstEssential; i < cursors.length; i++) {
+                    Cursor cursor = cursors[i];
+                    if (cursor.doc == doc) {
+                        score += cursor.score(norm);
+                        cursor.next();
+                    }
+                }
+                float threshold = top.threshold();
+                for (int i = firstEssential - 1; i >= 0 && score + boundPrefix[i] > threshold; i--) {
+                    Cursor cursor = cursors[i];
+                    cursor.advanceTo(doc);
+                    if (cursor.doc == doc) {
+                        score += cursor.score(norm);
+                    }
+                }
+                if (docCourseIds[doc] >= 0 && top.offer(doc, score)) {
+                    threshold = top.threshold();
+                    while (firstEssential < cursors.length && boundPrefix[firstEssential] <= threshold) {
+                        firstEssential++;
+                    }
+                }
+            }
+
+            float[] scores = new float[top.size];
+            int[] docs = top.drainBestFirst(scores);
+            long[] result = new long[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                result[i] = docCourseIds[docs[i]];
+            }
+            return new Hits(result, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into normalized index terms.
+     *
+     * @param text the text, may be null
+     * @return the terms in text order
+     */
+    static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    tokens.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Light suffix stripping so plural and common verb forms share a term
+    static String stem(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > 5 && token.endsWith("ing")) {
+            return undouble(token.substring(0, length - 3));
+        }
+        if (length > 4 && token.endsWith("ed")) {
+            return undouble(token.substring(0, length - 2));
+        }
+        if (length > 4 && token.endsWith("ly")) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    // "programm" -> "program", "runn" -> "run"; keeps ll/ss/zz as in "spelling"
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > 2) {
+            char last = stem.charAt(length - 1);
+            if (last == stem.charAt(length - 2) && Character.isLetter(last) && "aeiouslz".indexOf(last) < 0) {
+                return stem.substring(0, length - 1);
+            }
+        }
+        return stem;
+    }
+
+    private void addDocument(long courseId, List<String> tokens) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        int doc = docCount++;
+        ensureDocCapacity(docCount);
+        int[] ids = new int[frequencies.size()];
+        int[] freqs = new int[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            int termId = termIdFor(entry.getKey());
+            postings.get(termId).append(doc, entry.getValue(), tokens.size());
+            ids[i] = termId;
+            freqs[i] = entry.getValue();
+            i++;
+        }
+        docCourseIds[doc] = courseId;
+        docLengths[doc] = tokens.size();
+        docTermIds[doc] = ids;
+        docTermFreqs[doc] = freqs;
+        docByCourse.put(courseId, doc);
+        liveDocs++;
+        liveLength += tokens.size();
+    }
+
+    private void removeDocument(long courseId) {
+        Integer doc = docByCourse.remove(courseId);
+        if (doc == null) {
+            return;
+        }
+        for (int termId : docTermIds[doc]) {
+            postings.get(termId).liveDocs--;
+        }
+        docCourseIds[doc] = -1;
+        docTermIds[doc] = null;
+        docTermFreqs[doc] = null;
+        liveDocs--;
+        liveLength -= docLengths[doc];
+    }
+
+    private int termIdFor(String term) {
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            termId = terms.size();
+            termIds.put(term, termId);
+            terms.add(term);
+            postings.add(new Postings());
+        }
+        return termId;
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > docCourseIds.length) {
+            int size = Math.max(capacity, docCourseIds.length << 1);
+            docCourseIds = Arrays.copyOf(docCourseIds, size);
+            docLengths = Arrays.copyOf(docLengths, size);
+            docTermIds = Arrays.copyOf(docTermIds, size);
+            docTermFreqs = Arrays.copyOf(docTermFreqs, size);
+        }
+    }
+
+    // Rebuilds postings over live documents only, renumbering them densely
+    private void compactIfNeeded() {
+        int deadDocs = docCount - liveDocs;
+        if (deadDocs < MIN_DEAD_DOCS_TO_COMPACT || deadDocs <= liveDocs) {
+            return;
+        }
+        long[] oldCourseIds = docCourseIds;
+        int[] oldLengths = docLengths;
+        int[][] oldTermIds = docTermIds;
+        int[][] oldTermFreqs = docTermFreqs;
+        List<String> oldTerms = new ArrayList<>(terms);
+        int oldCount = docCount;
+
+        termIds.clear();
+        terms.clear();
+        postings.clear();
+        docByCourse.clear();
+        docCourseIds = new long[Math.max(64, liveDocs)];
+        docLengths = new int[docCourseIds.length];
+        docTermIds = new int[docCourseIds.length][];
+        docTermFreqs = new int[docCourseIds.length][];
+        docCount = 0;
+
+        for (int old = 0; old < oldCount; old++) {
+            if (oldCourseIds[old] < 0) {
+                continue;
+            }
+            int doc = docCount++;
+            int[] ids = oldTermIds[old];
+            int[] freqs = oldTermFreqs[old];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = termIdFor(oldTerms.get(ids[i]));
+                postings.get(ids[i]).append(doc, freqs[i], oldLengths[old]);
+            }
+            docCourseIds[doc] = oldCourseIds[old];
+            docLengths[doc] = oldLengths[old];
+            docTermIds[doc] = ids;
+            docTermFreqs[doc] = freqs;
+            docByCourse.put(oldCourseIds[old], doc);
+        }
+    }
+
+    /**
+     * Postings of one term: varint-encoded (gap from previous document, frequency) pairs
+     * in ascending document order, including tombstoned documents.
+     */
+    private static final class Postings {
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc;
+        private int liveDocs;
+        // Bounds over every appended posting, used for score upper bounds
+        private int maxFreq;
+        private int minDocLength = Integer.MAX_VALUE;
+        // Skip entry k: first document of block k, the document before it and the block's byte offset
+        private int[] skipDocs = new int[0];
+        private int[] skipBaseDocs = new int[0];
+        private int[] skipOffsets = new int[0];
+
+        private void append(int doc, int freq, int docLength) {
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length << 1, size + 10));
+            }
+            if (count % SKIP_INTERVAL == 0 && count > 0) {
+                int skips = count / SKIP_INTERVAL;
+                if (skips > skipDocs.length) {
+                    int length = Math.max(4, skipDocs.length << 1);
+                    skipDocs = Arrays.copyOf(skipDocs, length);
+                    skipBaseDocs = Arrays.copyOf(skipBaseDocs, length);
+                    skipOffsets = Arrays.copyOf(skipOffsets, length);
+                }
+                skipDocs[skips - 1] = doc;
+                skipBaseDocs[skips - 1] = lastDoc;
+                skipOffsets[skips - 1] = size;
+            }
+            count++;
+            maxFreq = Math.max(maxFreq, freq);
+            minDocLength = Math.min(minDocLength, docLength);
+            writeVarint(doc - lastDoc);
+            writeVarint(freq);
+            lastDoc = doc;
+            liveDocs++;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] data;
+        private final int size;
+        private final int[] skipDocs;
+        private final int[] skipBaseDocs;
+        private final int[] skipOffsets;
+        private final int skips;
+        private final float idf;
+        private final float upperBound;
+        private int position;
+        // Index of the current posting within the list
+        private int ordinal = -1;
+        private int doc;
+        private int freq;
+
+        private Cursor(Postings postings, int liveDocs, float avgLength) {
+            this.data = postings.data;
+            this.size = postings.size;
+            this.skipDocs = postings.skipDocs;
+            this.skipBaseDocs = postings.skipBaseDocs;
+            this.skipOffsets = postings.skipOffsets;
+            this.skips = (postings.count - 1) / SKIP_INTERVAL;
+            this.idf = (float) Math.log(1 + (liveDocs - postings.liveDocs + 0.5) / (postings.liveDocs + 0.5));
+            // Largest frequency in the shortest document bounds this term's contribution
+            float bestNorm = K1 * (1 - B + B * postings.minDocLength / avgLength);
+            this.upperBound = idf * postings.maxFreq * (K1 + 1) / (postings.maxFreq + bestNorm);
+            next();
+        }
+
+        private float score(float norm) {
+            return idf * freq * (K1 + 1) / (freq + norm);
+        }
+
+        // Moves to the first posting at or after target, jumping over whole blocks where possible
+        private void advanceTo(int target) {
+            if (doc >= target) {
+                return;
+            }
+            int block = Math.max(ordinal, 0) / SKIP_INTERVAL;
+            int next = block;
+            while (next < skips && skipDocs[next] <= target) {
+                next++;
+            }
+            if (next > block) {
+                position = skipOffsets[next - 1];
+                doc = skipBaseDocs[next - 1];
+                ordinal = next * SKIP_INTERVAL - 1;
+                next();
+            }
+            while (doc < target) {
+                next();
+            }
+        }
+
+        private void next() {
+            if (position >= size) {
+                doc = Integer.MAX_VALUE;
+                return;
+            }
+            doc += readVarint();
+            freq = readVarint();
+            ordinal++;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the K highest-scoring documents.
+     * Equal scores are ordered by document number, earlier documents ranking higher.
+     */
+    private static final class TopK {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private TopK(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        // Score a document must exceed to enter the heap
+        private float threshold() {
+            return size < docs.length ? 0 : scores[0];
+        }
+
+        private boolean offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+                return true;
+            }
+            if (score > scores[0] || (score == scores[0] && doc < docs[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+                return true;
+            }
+            return false;
+        }
+
+        private int[] drainBestFirst(float[] resultScores) {
+            int[] result = new int[size];
+            while (size > 0) {
+                result[size - 1] = docs[0];
+                resultScores[size - 1] = scores[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && worse(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && worse(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private boolean worse(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] > docs[b]);
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    /**
+     * Course IDs with their scores, best first.
+     */
+    public static final class Hits {
+
+        private final long[] courseIds;
+        private final float[] scores;
+
+        Hits(long[] courseIds, float[] scores) {
+            this.courseIds = courseIds;
+            this.scores = scores;
+        }
+
+        public long[] getCourseIds() {
+            return courseIds;
+        }
+
+        public float[] getScores() {
+            return scores;
+        }
+    }
+}
@@ -0,0 +1,773 @@
+package com.rca.demo_course.service.index;
+
+import com.rca.demo_course.util.LongHashSet;
+import com.rca.demo_course.util.LongIntHashMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Case-insensitive prefix completion over up to two keys per course (code and name),
+ * ranked by a per-course score such as current enrollment.
+ *
+ * <p>Keys are packed into a few immutable sorted segments, each one character array with
+ * parallel offset and slot arrays, so a completion is two binary searches per segment for
+ * the prefix range followed by a best-first walk of the segment's max segment tree over
+ * scores. Scores are updated in place with CAS and never block readers. New keys collect
+ * in a small sorted buffer that is packed into a segment once full, and segments of
+ * similar size are merged, so each key is rewritten a logarithmic number of times.
+ * Removed keys are marked dead and dropped by the next merge of their segment.
+ *
+ * <p>Results for recently completed prefixes are cached briefly, so cached rankings may lag
+ * score changes by at most the cache TTL; any key change invalidates the cache.
+ */
+public class PrefixIndex {
+
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMillis(250);
+
+    // Buffered keys that are packed into a new segment
+    private static final int PENDING_LIMIT = 4096;
+    // A segment absorbs its newer neighbour once that reaches this fraction of its size
+    private static final int MERGE_RATIO = 4;
+    private static final int MAX_CACHED_PREFIXES = 4096;
+    private static final int DEAD = -1;
+    private static final int MISSING = -1;
+
+    private final LongToIntFunction scoreLookup;
+    private final long cacheTtlNanos;
+
+    // Packed segments, oldest and largest first
+    private final List<Segment> segments = new ArrayList<>();
+
+    // Stable per-course slots: course ID, owning segment (null while buffered) and key positions
+    private final LongIntHashMap slotById = new LongIntHashMap(MISSING);
+    private long[] slotIds = new long[64];
+    private Segment[] slotSegments = new Segment[64];
+    private int[] slotPositions = new int[128];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int slotCount;
+
+    private final TreeMap<String, LongHashSet> pendingByKey = new TreeMap<>();
+    private final Map<Long, String[]> pendingKeysById = new HashMap<>();
+    private int pendingCount;
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, CachedCompletion> cache = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an index with the default cache TTL.
+     *
+     * @param scoreLookup current score of a course, used for ranking buffered keys and when packing them
+     */
+    public PrefixIndex(LongToIntFunction scoreLookup) {
+        this(scoreLookup, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * Creates an index.
+     *
+     * @param scoreLookup current score of a course, used for ranking buffered keys and when packing them
+     * @param cacheTtl how long completions are served from cache; zero disables caching
+     */
+    public PrefixIndex(LongToIntFunction scoreLookup, Duration cacheTtl) {
+        this.scoreLookup = scoreLookup;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+    }
+
+    /**
+     * Indexes the keys of a course, replacing any previously indexed keys.
+     *
+     * @param id the course ID
+     * @param first the first key, or null
+     * @param second the second key, or null
+     */
+    public void put(long id, String first, String second) {
+        String firstKey = normalize(first);
+        String secondKey = normalize(second);
+        if (firstKey != null && firstKey.equals(secondKey)) {
+            secondKey = null;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot != MISSING) {
+                unlink(id, slot);
+            }
+            if (firstKey == null && secondKey == null) {
+                if (slot != MISSING) {
+                    slotById.remove(id);
+                    releaseSlot(slot);
+                }
+            } else {
+                if (slot == MISSING) {
+                    slot = allocateSlot(id);
+                }
+                pendingKeysById.put(id, new String[] {firstKey, secondKey});
+                addPending(firstKey, id);
+                addPending(secondKey, id);
+                if (pendingCount >= PENDING_LIMIT) {
+                    flushPending();
+                }
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index.
+     *
+     * @param id the course ID
+     */
+    public void remove(long id) {
+        put(id, null, null);
+    }
+
+    /**
+     * Updates the ranking score of a course.
+     * Callers must serialize score updates per course so that the latest score is written last.
+     *
+     * @param id the course ID
+     * @param score the new score, zero or greater
+     */
+    public void updateScore(long id, int score) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == MISSING || slotSegments[slot] == null) {
+                // Buffered keys read the score when ranked
+                return;
+            }
+            Segment segment = slotSegments[slot];
+            segment.setScore(slotPositions[slot << 1], score);
+            int second = slotPositions[(slot << 1) + 1];
+            if (second != MISSING) {
+                segment.setScore(second, score);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the highest-scoring courses with a key starting with the prefix, ignoring case.
+     * Ties are broken by the matching key, then by course ID.
+     *
+     * @param prefix the prefix to complete
+     * @param limit the maximum number of courses to return
+     * @return matching course IDs, highest score first
+     */
+    public long[] complete(String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase();
+        String cacheKey = limit + ":" + lowerPrefix;
+        CachedCompletion cached = cache.get(cacheKey);
+        if (cached != null && cached.version == version.get() && System.nanoTime() - cached.expiresAt < 0) {
+            return cached.ids.clone();
+        }
+
+        long[] result;
+        long resultVersion;
+        lock.readLock().lock();
+        try {
+            resultVersion = version.get();
+            List<Candidate> candidates = new ArrayList<>();
+            for (Segment segment : segments) {
+                segment.collect(lowerPrefix, limit, slotIds, candidates);
+            }
+            collectPending(lowerPrefix, candidates);
+            result = topDistinct(candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (cacheTtlNanos > 0) {
+            if (cache.size() >= MAX_CACHED_PREFIXES) {
+                cache.clear();
+            }
+            cache.put(cacheKey, new CachedCompletion(result, resultVersion, System.nanoTime() + cacheTtlNanos));
+        }
+        return result.clone();
+    }
+
+    /**
+     * Returns the number of indexed keys.
+     *
+     * @return the key count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int size = pendingCount;
+            for (Segment segment : segments) {
+                size += segment.liveCount();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate heap footprint of the packed segments and per-course slots.
+     * Buffered keys are not included.
+     *
+     * @return size in bytes
+     */
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = slotById.footprintBytes() + slotIds.length * 8L + slotSegments.length * 4L
+                    + slotPositions.length * 4L + freeSlots.length * 4L;
+            for (Segment segment : segments) {
+                bytes += segment.footprintBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String key) {
+        return key != null && !key.isEmpty() ? key.toLowerCase() : null;
+    }
+
+    private int allocateSlot(long id) {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            slot = slotCount++;
+            if (slot == slotIds.length) {
+                slotIds = Arrays.copyOf(slotIds, slot << 1);
+                slotSegments = Arrays.copyOf(slotSegments, slot << 1);
+                slotPositions = Arrays.copyOf(slotPositions, slot << 2);
+            }
+        }
+        slotById.put(id, slot);
+        slotIds[slot] = id;
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount << 1);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private void addPending(String key, long id) {
+        if (key != null) {
+            pendingByKey.computeIfAbsent(key, k -> new LongHashSet()).add(id);
+            pendingCount++;
+        }
+    }
+
+    private void unlink(long id, int slot) {
+        String[] pendingKeys = pendingKeysById.remove(id);
+        if (pendingKeys != null) {
+            for (String key : pendingKeys) {
+                if (key == null) {
+                    continue;
+                }
+                LongHashSet keyIds = pendingByKey.get(key);
+                keyIds.remove(id);
+                if (keyIds.isEmpty()) {
+                    pendingByKey.remove(key);
+                }
+                pendingCount--;
+            }
+            return;
+        }
+
+        Segment segment = slotSegments[slot];
+        segment.markDead(slotPositions[slot << 1]);
+        int second = slotPositions[(slot << 1) + 1];
+        if (second != MISSING) {
+            segment.markDead(second);
+        }
+        slotSegments[slot] = null;
+        if (segment.deadCount * 2 > segment.size) {
+            int index = segments.indexOf(segment);
+            if (segment.liveCount() == 0) {
+                segments.remove(index);
+            } else {
+                segments.set(index, merge(segment, null));
+            }
+        }
+    }
+
+    /**
+     * Packs the buffered keys into a new segment, then merges segments of similar size.
+     */
+    private void flushPending() {
+        SegmentBuilder builder = new SegmentBuilder(pendingCount, pendingChars());
+        for (Map.Entry<String, LongHashSet> entry : pendingByKey.entrySet()) {
+            long[] keyIds = entry.getValue().toArray();
+            Arrays.sort(keyIds);
+            for (long id : keyIds) {
+                builder.add(entry.getKey(), slotById.get(id), scoreLookup.applyAsInt(id));
+            }
+        }
+        pendingByKey.clear();
+        pendingKeysById.clear();
+        pendingCount = 0;
+        segments.add(builder.build());
+
+        while (segments.size() >= 2) {
+            Segment newer = segments.get(segments.size() - 1);
+            Segment older = segments.get(segments.size() - 2);
+            if (older.liveCount() > newer.liveCount() * MERGE_RATIO) {
+                break;
+            }
+            segments.remove(segments.size() - 1);
+            segments.set(segments.size() - 1, merge(older, newer));
+        }
+    }
+
+    private int pendingChars() {
+        int chars = 0;
+        for (Map.Entry<String, LongHashSet> entry : pendingByKey.entrySet()) {
+            chars += entry.getKey().length() * entry.getValue().size();
+        }
+        return chars;
+    }
+
+    /**
+     * Merges the live keys of two segments in (key, course ID) order.
+     *
+     * @param older the first segment
+     * @param newer the second segment, or null to only drop dead keys from the first
+     */
+    private Segment merge(Segment older, Segment newer) {
+        int count = older.liveCount() + (newer != null ? newer.liveCount() : 0);
+        int chars = older.liveChars() + (newer != null ? newer.liveChars() : 0);
+        SegmentBuilder builder = new SegmentBuilder(count, chars);
+        int left = older.nextLive(0);
+        int right = newer != null ? newer.nextLive(0) : 0;
+        int rightSize = newer != null ? newer.size : 0;
+        while (left < older.size || right < rightSize) {
+            boolean takeLeft = right >= rightSize
+                    || (left < older.size && older.compareEntry(left, newer, right, slotIds) < 0);
+            if (takeLeft) {
+                builder.add(older, left);
+                left = older.nextLive(left + 1);
+            } else {
+                builder.add(newer, right);
+                right = newer.nextLive(right + 1);
+            }
+        }
+        return builder.build();
+    }
+
+    private void collectPending(String prefix, List<Candidate> candidates) {
+        for (Map.Entry<String, LongHashSet> entry : pendingByKey.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            LongHashSet keyIds = entry.getValue();
+            for (int i = 0; i < keyIds.size(); i++) {
+                long id = keyIds.get(i);
+                candidates.add(new Candidate(id, scoreLookup.applyAsInt(id), entry.getKey()));
+            }
+        }
+    }
+
+    private static long[] topDistinct(List<Candidate> candidates, int limit) {
+        candidates.sort(null);
+        LongHashSet seen = new LongHashSet();
+        for (Candidate candidate : candidates) {
+            if (seen.size() == limit) {
+                break;
+            }
+            seen.add(candidate.id);
+        }
+        return seen.toArray();
+    }
+
+    private static AtomicIntegerArray newTree(int leaves) {
+        AtomicIntegerArray tree = new AtomicIntegerArray(leaves << 1);
+        for (int i = 0; i < tree.length(); i++) {
+            tree.set(i, DEAD);
+        }
+        return tree;
+    }
+
+    /**
+     * Immutable sorted keys with mutable scores. Key i is {@code chars[offsets[i], offsets[i + 1])}
+     * and belongs to course slot {@code slots[i]}; its score is leaf i of a max segment tree.
+     */
+    private static final class Segment {
+
+        final char[] chars;
+        final int[] offsets;
+        final int[] slots;
+        final int size;
+        final int leafCount;
+        final AtomicIntegerArray tree;
+        int deadCount;
+
+        Segment(char[] chars, int[] offsets, int[] slots, int size, int leafCount, AtomicIntegerArray tree) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.slots = slots;
+            this.size = size;
+            this.leafCount = leafCount;
+            this.tree = tree;
+        }
+
+        int liveCount() {
+            return size - deadCount;
+        }
+
+        int liveChars() {
+            int total = 0;
+            for (int i = nextLive(0); i < size; i = nextLive(i + 1)) {
+                total += offsets[i + 1] - offsets[i];
+            }
+            return total;
+        }
+
+        int score(int position) {
+            return tree.get(leafCount + position);
+        }
+
+        int nextLive(int position) {
+            while (position < size && score(position) == DEAD) {
+                position++;
+            }
+            return position;
+        }
+
+        void markDead(int position) {
+            setScore(position, DEAD);
+            deadCount++;
+        }
+
+        /**
+         * Writes a leaf and recomputes its ancestors. Each ancestor is replaced by CAS against the
+         * value read before its children, so a concurrent update to a sibling either lands in the
+         * children read here or retries on top of the value written here.
+         */
+        void setScore(int position, int score) {
+            int node = leafCount + position;
+            tree.set(node, score);
+            node >>>= 1;
+            while (node > 0) {
+                int current = tree.get(node);
+                int max = Math.max(tree.get(node << 1), tree.get((node << 1) + 1));
+                if (current == max) {
+                    return;
+                }
+                if (tree.compareAndSet(node, current, max)) {
+                    node >>>= 1;
+                }
+            }
+        }
+
+        /**
+         * Adds up to {@code limit} distinct courses with a key starting with the prefix,
+         * visiting keys in descending score order.
+         */
+        void collect(String prefix, int limit, long[] slotIds, List<Candidate> candidates) {
+            int from = lowerBound(prefix);
+            int to = prefixEnd(prefix, from);
+            if (from >= to) {
+                return;
+            }
+
+            NodeHeap heap = new NodeHeap();
+            int left = from + leafCount;
+            int right = to + leafCount;
+            while (left < right) {
+                if ((left & 1) == 1) {
+                    push(heap, left++);
+                }
+                if ((right & 1) == 1) {
+                    push(heap, --right);
+                }
+                left >>>= 1;
+                right >>>= 1;
+            }
+
+            LongHashSet seen = new LongHashSet();
+            while (!heap.isEmpty() && seen.size() < limit) {
+                int node = heap.pop();
+                int score = tree.get(node);
+                if (score == DEAD) {
+                    continue;
+                }
+                if (node >= leafCount) {
+                    int position = node - leafCount;
+                    long id = slotIds[slots[position]];
+                    if (seen.add(id)) {
+                        candidates.add(new Candidate(id, score, keyAt(position)));
+                    }
+                } else {
+                    push(heap, node << 1);
+                    push(heap, (node << 1) + 1);
+                }
+            }
+        }
+
+        private void push(NodeHeap heap, int node) {
+            int score = tree.get(node);
+            if (score != DEAD) {
+                int leaf = node;
+                while (leaf < leafCount) {
+                    leaf <<= 1;
+                }
+                heap.push(node, score, leaf - leafCount);
+            }
+        }
+
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKey(mid, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int prefixEnd(String prefix, int from) {
+            int low = from;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startsWith(mid, prefix)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int compareKey(int position, String other) {
+            int start = offsets[position];
+            int length = offsets[position + 1] - start;
+            int common = Math.min(length, other.length());
+            for (int i = 0; i < common; i++) {
+                int diff = chars[start + i] - other.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - other.length();
+        }
+
+        int compareEntry(int position, Segment other, int otherPosition, long[] slotIds) {
+            int start = offsets[position];
+            int length = offsets[position + 1] - start;
+            int otherStart = other.offsets[otherPosition];
+            int otherLength = other.offsets[otherPosition + 1] - otherStart;
+            int common = Math.min(length, otherLength);
+            for (int i = 0; i < common; i++) {
+                int diff = chars[start + i] - other.chars[otherStart + i];
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            if (length != otherLength) {
+                return length - otherLength;
+            }
+            return Long.compare(slotIds[slots[position]], slotIds[other.slots[otherPosition]]);
+        }
+
+        boolean startsWith(int position, String prefix) {
+            int start = offsets[position];
+            if (offsets[position + 1] - start < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (chars[start + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String keyAt(int position) {
+            return new String(chars, offsets[position], offsets[position + 1] - offsets[position]);
+        }
+
+        long footprintBytes() {
+            return chars.length * 2L + offsets.length * 4L + slots.length * 4L + tree.length() * 4L;
+        }
+    }
+
+    /**
+     * Appends keys in sorted order and records each course's new segment and key positions.
+     */
+    private final class SegmentBuilder {
+
+        private final char[] chars;
+        private final int[] offsets;
+        private final int[] slots;
+        private final int[] scores;
+        private int count;
+        private int charCount;
+
+        SegmentBuilder(int capacity, int charCapacity) {
+            chars = new char[charCapacity];
+            offsets = new int[capacity + 1];
+            slots = new int[capacity];
+            scores = new int[capacity];
+        }
+
+        void add(String key, int slot, int score) {
+            key.getChars(0, key.length(), chars, charCount);
+            append(key.length(), slot, score);
+        }
+
+        void add(Segment source, int position) {
+            int start = source.offsets[position];
+            int length = source.offsets[position + 1] - start;
+            System.arraycopy(source.chars, start, chars, charCount, length);
+            append(length, source.slots[position], source.score(position));
+        }
+
+        private void append(int length, int slot, int score) {
+            charCount += length;
+            slots[count] = slot;
+            scores[count] = score;
+            offsets[++count] = charCount;
+        }
+
+        Segment build() {
+            int leaves = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+            AtomicIntegerArray tree = newTree(leaves);
+            for (int i = 0; i < count; i++) {
+                tree.set(leaves + i, scores[i]);
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                tree.set(node, Math.max(tree.get(node << 1), tree.get((node << 1) + 1)));
+            }
+            Segment segment = new Segment(chars, offsets, slots, count, leaves, tree);
+            for (int i = 0; i < count; i++) {
+                int slot = slots[i];
+                if (slotSegments[slot] != segment) {
+                    slotSegments[slot] = segment;
+                    slotPositions[slot << 1] = i;
+                    slotPositions[(slot << 1) + 1] = MISSING;
+                } else {
+                    slotPositions[(slot << 1) + 1] = i;
+                }
+            }
+            return segment;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+
+        final long id;
+        final int score;
+        final String key;
+
+        Candidate(long id, int score, String key) {
+            this.id = id;
+            this.score = score;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class CachedCompletion {
+
+        final long[] ids;
+        final long version;
+        final long expiresAt;
+
+        CachedCompletion(long[] ids, long version, long expiresAt) {
+            this.ids = ids;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Binary max-heap of segment tree nodes ordered by score, then by leftmost leaf, so leaves
+     * come out in ranking order and equal scores come out in key order.
+     */
+    private static final class NodeHeap {
+
+        private long[] priorities = new long[32];
+        private int[] nodes = new int[32];
+        private int size;
+
+        void push(int node, int score, int leftmostLeaf) {
+            if (size == nodes.length) {
+                priorities = Arrays.copyOf(priorities, size << 1);
+                nodes = Arrays.copyOf(nodes, size << 1);
+            }
+            long priority = ((long) score << 32) | (Integer.MAX_VALUE - leftmostLeaf);
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] >= priority) {
+                    break;
+                }
+                priorities[i] = priorities[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            priorities[i] = priority;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            long priority = priorities[--size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = (i << 1) + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && priorities[child + 1] > priorities[child]) {
+                    child++;
+                }
+                if (priorities[child] <= priority) {
+                    break;
+                }
+                priorities[i] = priorities[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            priorities[i] = priority;
+            nodes[i] = node;
+            return top;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
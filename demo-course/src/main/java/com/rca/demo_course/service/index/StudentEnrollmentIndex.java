@@ -0,0 +1,84 @@
+package com.rca.demo_course.service.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index from student ID to the IDs of the courses the student is enrolled in.
+ * Each student maps to an immutable sorted array that is replaced on every change, so
+ * lookups read it without locking. Changes to one student are serialized by the map, since
+ * enrollments of the same student into courses on different lock stripes may race.
+ */
+public class StudentEnrollmentIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, long[]> coursesByStudent = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a student is enrolled in a course. Recording an existing pair has no effect.
+     *
+     * @param studentId the student ID
+     * @param courseId the course ID
+     */
+    public void add(long studentId, long courseId) {
+        coursesByStudent.compute(studentId, (id, courseIds) -> {
+            if (courseIds == null) {
+                return new long[] {courseId};
+            }
+            int position = Arrays.binarySearch(courseIds, courseId);
+            if (position >= 0) {
+                return courseIds;
+            }
+            int insertAt = -position - 1;
+            long[] updated = new long[courseIds.length + 1];
+            System.arraycopy(courseIds, 0, updated, 0, insertAt);
+            updated[insertAt] = courseId;
+            System.arraycopy(courseIds, insertAt, updated, insertAt + 1, courseIds.length - insertAt);
+            return updated;
+        });
+    }
+
+    /**
+     * Removes a student's enrollment in a course. Unknown pairs are ignored.
+     *
+     * @param studentId the student ID
+     * @param courseId the course ID
+     */
+    public void remove(long studentId, long courseId) {
+        coursesByStudent.computeIfPresent(studentId, (id, courseIds) -> {
+            int position = Arrays.binarySearch(courseIds, courseId);
+            if (position < 0) {
+                return courseIds;
+            }
+            if (courseIds.length == 1) {
+                return null;
+            }
+            long[] updated = new long[courseIds.length - 1];
+            System.arraycopy(courseIds, 0, updated, 0, position);
+            System.arraycopy(courseIds, position + 1, updated, position, updated.length - position);
+            return updated;
+        });
+    }
+
+    /**
+     * Returns the courses a student is enrolled in.
+     *
+     * @param studentId the student ID
+     * @return the course IDs in ascending order, empty if none
+     */
+    public long[] coursesOf(long studentId) {
+        long[] courseIds = coursesByStudent.get(studentId);
+        return courseIds != null ? courseIds.clone() : EMPTY;
+    }
+
+    /**
+     * Returns the number of students with at least one enrollment.
+     *
+     * @return the number of indexed students
+     */
+    public int size() {
+        return coursesByStudent.size();
+    }
+}
@@ -0,0 +1,231 @@
+package com.rca.demo_course.service.index;
+
+import com.rca.demo_course.util.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring index over one string field of the course catalog.
+ * Distinct lowercased values are indexed by their character trigrams, and each value
+ * maps to the IDs of courses holding it, so repeated departments or instructors are
+ * lowercased and indexed only once. Queries intersect trigram postings to narrow the
+ * candidate values, then verify {@code contains} on the precomputed lowercase value.
+ */
+public class TrigramIndex {
+
+    private final Map<Long, String> valueById = new HashMap<>();
+    private final Map<String, LongHashSet> idsByValue = new HashMap<>();
+    private final Map<Long, Set<String>> valuesByTrigram = new HashMap<>();
+    // Number of course IDs whose value contains each trigram, used for selectivity estimates
+    private final Map<Long, Integer> idCountByTrigram = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes the value of a course, replacing any previously indexed value.
+     *
+     * @param id the course ID
+     * @param value the field value, or null to only remove the course
+     */
+    public void put(long id, String value) {
+        String lowerValue = value != null ? value.toLowerCase() : null;
+        lock.writeLock().lock();
+        try {
+            String previous = lowerValue != null ? valueById.put(id, lowerValue) : valueById.remove(id);
+            if (previous != null) {
+                if (previous.equals(lowerValue)) {
+                    return;
+                }
+                unlink(id, previous);
+            }
+            if (lowerValue != null) {
+                link(id, lowerValue);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index.
+     *
+     * @param id the course ID
+     */
+    public void remove(long id) {
+        put(id, null);
+    }
+
+    /**
+     * Finds courses whose value contains the query, ignoring case.
+     *
+     * @param query the substring to search for
+     * @return matching course IDs in ascending order
+     */
+    public long[] search(String query) {
+        String lowerQuery = query.toLowerCase();
+        lock.readLock().lock();
+        try {
+            List<LongHashSet> matches = new ArrayList<>();
+            int total = 0;
+            for (String value : candidates(lowerQuery)) {
+                if (value.contains(lowerQuery)) {
+                    LongHashSet ids = idsByValue.get(value);
+                    matches.add(ids);
+                    total += ids.size();
+                }
+            }
+            long[] result = new long[total];
+            int offset = 0;
+            for (LongHashSet ids : matches) {
+                for (int i = 0; i < ids.size(); i++) {
+                    result[offset++] = ids.get(i);
+                }
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates how many courses a search would return, without resolving it.
+     * The estimate is an upper bound: the smallest course count among the query's trigrams.
+     *
+     * @param query the substring to search for
+     * @return the estimated number of matching courses
+     */
+    public int estimate(String query) {
+        String lowerQuery = query.toLowerCase();
+        lock.readLock().lock();
+        try {
+            if (lowerQuery.length() < 3) {
+                return valueById.size();
+            }
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i + 3 <= lowerQuery.length(); i++) {
+                estimate = Math.min(estimate, idCountByTrigram.getOrDefault(trigram(lowerQuery, i), 0));
+            }
+            return estimate;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed courses.
+     *
+     * @return the course count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return valueById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct indexed values.
+     *
+     * @return the distinct value count
+     */
+    public int distinctValueCount() {
+        lock.readLock().lock();
+        try {
+            return idsByValue.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Values sharing every trigram of the query; all values when the query is shorter than a trigram
+    private Iterable<String> candidates(String lowerQuery) {
+        if (lowerQuery.length() < 3) {
+            return idsByValue.keySet();
+        }
+        Set<String> smallest = null;
+        List<Set<String>> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= lowerQuery.length(); i++) {
+            Set<String> posting = valuesByTrigram.get(trigram(lowerQuery, i));
+            if (posting == null) {
+                return List.of();
+            }
+            postings.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        for (String value : smallest) {
+            boolean inAll = true;
+            for (Set<String> posting : postings) {
+                if (posting != smallest && !posting.contains(value)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                candidates.add(value);
+            }
+        }
+        return candidates;
+    }
+
+    private void link(long id, String lowerValue) {
+        LongHashSet ids = idsByValue.get(lowerValue);
+        if (ids == null) {
+            ids = new LongHashSet(2);
+            idsByValue.put(lowerValue, ids);
+            for (int i = 0; i + 3 <= lowerValue.length(); i++) {
+                valuesByTrigram.computeIfAbsent(trigram(lowerValue, i), k -> new HashSet<>()).add(lowerValue);
+            }
+        }
+        if (ids.add(id)) {
+            adjustTrigramCounts(lowerValue, 1);
+        }
+    }
+
+    private void unlink(long id, String lowerValue) {
+        LongHashSet ids = idsByValue.get(lowerValue);
+        if (ids == null || !ids.remove(id)) {
+            return;
+        }
+        adjustTrigramCounts(lowerValue, -1);
+        if (!ids.isEmpty()) {
+            return;
+        }
+        idsByValue.remove(lowerValue);
+        for (int i = 0; i + 3 <= lowerValue.length(); i++) {
+            long key = trigram(lowerValue, i);
+            Set<String> posting = valuesByTrigram.get(key);
+            if (posting != null) {
+                posting.remove(lowerValue);
+                if (posting.isEmpty()) {
+                    valuesByTrigram.remove(key);
+                }
+            }
+        }
+    }
+
+    private void adjustTrigramCounts(String lowerValue, int delta) {
+        LongHashSet seen = new LongHashSet(lowerValue.length());
+        for (int i = 0; i + 3 <= lowerValue.length(); i++) {
+            long key = trigram(lowerValue, i);
+            if (seen.add(key)) {
+                idCountByTrigram.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private static long trigram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+}
@@ -0,0 +1,43 @@
+package com.rca.demo_course.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of primitive longs, used to collect index query results without boxing.
+ * Not thread-safe.
+ */
+public class LongArrayList {
+
+    private long[] values;
+    private int size;
+
+    public LongArrayList() {
+        this(16);
+    }
+
+    public LongArrayList(int initialCapacity) {
+        values = new long[Math.max(1, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
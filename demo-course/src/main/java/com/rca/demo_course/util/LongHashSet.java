@@ -0,0 +1,192 @@
+package com.rca.demo_course.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs.
+ * Values are kept densely packed in insertion order (until a removal swaps the last
+ * value into the freed position), so positional access is O(1) alongside O(1)
+ * add, contains and remove. Not thread-safe; callers guard mutations.
+ */
+public class LongHashSet implements LongSet {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // Dense storage of the set's values
+    private long[] values;
+    // Linear-probing table of value positions + 1 (0 marks an empty slot)
+    private int[] slots;
+    private int size;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        values = new long[capacity];
+        slots = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value to add
+     * @return true if the value was not already present
+     */
+    @Override
+    public boolean add(long value) {
+        if (slotOf(value) >= 0) {
+            return false;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        if ((size + 1) << 1 > slots.length) {
+            rehash(slots.length << 1);
+        }
+        values[size] = value;
+        insertSlot(value, size);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value the value to remove
+     * @return true if the value was present
+     */
+    @Override
+    public boolean remove(long value) {
+        int slot = slotOf(value);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slots[slot] - 1, slot);
+        return true;
+    }
+
+    /**
+     * Removes the value at a dense position. The last value is moved into its place.
+     *
+     * @param index the position, between 0 and size - 1
+     * @return the removed value
+     */
+    @Override
+    public long removeAt(int index) {
+        long value = get(index);
+        removeAt(index, slotOf(value));
+        return value;
+    }
+
+    @Override
+    public boolean contains(long value) {
+        return slotOf(value) >= 0;
+    }
+
+    /**
+     * Returns the value at a dense position.
+     *
+     * @param index the position, between 0 and size - 1
+     * @return the value stored at that position
+     */
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    @Override
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void removeAt(int index, int slot) {
+        deleteSlot(slot);
+        int last = size - 1;
+        if (index != last) {
+            long moved = values[last];
+            values[index] = moved;
+            slots[slotOf(moved)] = index + 1;
+        }
+        size--;
+    }
+
+    private int slotOf(long value) {
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        int entry;
+        while ((entry = slots[i]) != 0) {
+            if (values[entry - 1] == value) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertSlot(long value, int index) {
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = index + 1;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            int entry = slots[i];
+            if (entry == 0) {
+                break;
+            }
+            int home = mix(values[entry - 1]) & mask;
+            // Move the entry back if its home slot is not cyclically within (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = entry;
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        for (int index = 0; index < size; index++) {
+            insertSlot(values[index], index);
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity - 1)) << 2;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
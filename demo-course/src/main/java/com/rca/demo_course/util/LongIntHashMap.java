@@ -0,0 +1,153 @@
+package com.rca.demo_course.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ * Uses linear probing with backward-shift deletion. Not thread-safe; callers guard mutations.
+ */
+public class LongIntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private final int missingValue;
+
+    /**
+     * Creates a map returning the given value for absent keys.
+     *
+     * @param missingValue the value {@link #get} returns for absent keys
+     */
+    public LongIntHashMap(int missingValue) {
+        this(DEFAULT_CAPACITY, missingValue);
+    }
+
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        this.missingValue = missingValue;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value, or the missing value if the key was absent
+     */
+    public int put(long key, int value) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    public int get(long key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or the missing value if the key was absent
+     */
+    public int remove(long key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        int removed = values[slot];
+        int mask = keys.length - 1;
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            if (!used[i]) {
+                break;
+            }
+            int home = mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Returns the approximate heap footprint of the table arrays.
+     *
+     * @return size in bytes
+     */
+    public long footprintBytes() {
+        return keys.length * (8L + 4L + 1L);
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
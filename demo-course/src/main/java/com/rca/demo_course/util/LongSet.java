@@ -0,0 +1,50 @@
+package com.rca.demo_course.util;
+
+/**
+ * Set of primitive longs with positional access, as used for a course's enrolled students.
+ * Implementations are not thread-safe; callers guard mutations.
+ */
+public interface LongSet {
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value to add
+     * @return true if the value was not already present
+     */
+    boolean add(long value);
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value the value to remove
+     * @return true if the value was present
+     */
+    boolean remove(long value);
+
+    /**
+     * Removes the value at a position.
+     *
+     * @param index the position, between 0 and size - 1
+     * @return the removed value
+     */
+    long removeAt(int index);
+
+    boolean contains(long value);
+
+    /**
+     * Returns the value at a position. Positions are stable until the set changes.
+     *
+     * @param index the position, between 0 and size - 1
+     * @return the value stored at that position
+     */
+    long get(int index);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    long[] toArray();
+}
@@ -0,0 +1,160 @@
+package com.rca.demo_course.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Set of longs kept as a sorted array in a block of off-heap memory from an
+ * {@link OffHeapLongSetArena}. Lookups binary-search the block, and adds and removes shift the
+ * tail in place. Only when the block is full does the set move to a block of twice the size
+ * and free the old one. Positional access returns values in ascending order.
+ *
+ * <p>The on-heap part is this small handle. {@link #release()} returns the block to the arena;
+ * the set is then empty and takes a new block if it is used again. Not thread-safe; since a
+ * write may free the block a concurrent read is using, callers guard reads as well as writes.
+ */
+public final class OffHeapLongSet implements LongSet {
+
+    private final OffHeapLongSetArena arena;
+    // Slab and byte offset of the current block; buffer is null while the set holds no block
+    private ByteBuffer buffer;
+    private long handle;
+    private int base;
+    private int sizeClass = -1;
+    private int capacity;
+    private int size;
+
+    OffHeapLongSet(OffHeapLongSetArena arena) {
+        this.arena = arena;
+    }
+
+    @Override
+    public boolean add(long value) {
+        int index = search(value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        if (size == capacity) {
+            grow();
+        }
+        int position = base + insertAt * Long.BYTES;
+        if (insertAt < size) {
+            buffer.put(position + Long.BYTES, buffer, position, (size - insertAt) * Long.BYTES);
+        }
+        buffer.putLong(position, value);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(long value) {
+        int index = search(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public long removeAt(int index) {
+        long value = get(index);
+        int position = base + index * Long.BYTES;
+        if (index < size - 1) {
+            buffer.put(position, buffer, position + Long.BYTES, (size - 1 - index) * Long.BYTES);
+        }
+        size--;
+        return value;
+    }
+
+    @Override
+    public boolean contains(long value) {
+        return search(value) >= 0;
+    }
+
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return buffer.getLong(base + index * Long.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public long[] toArray() {
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = buffer.getLong(base + i * Long.BYTES);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the block to the arena and empties the set.
+     */
+    public void release() {
+        if (buffer != null) {
+            arena.free(handle, sizeClass);
+            buffer = null;
+            sizeClass = -1;
+            capacity = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * Binary search over the sorted block.
+     *
+     * @return the value's index, or {@code -(insertion point) - 1} if absent
+     */
+    private int search(long value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midValue = buffer.getLong(base + mid * Long.BYTES);
+            if (midValue < value) {
+                low = mid + 1;
+            } else if (midValue > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void grow() {
+        int newClass = sizeClass < 0 ? OffHeapLongSetArena.MIN_SIZE_CLASS : sizeClass + 1;
+        if (newClass >= OffHeapLongSetArena.SIZE_CLASSES) {
+            throw new IllegalStateException("Off-heap set cannot grow beyond " + capacity + " values");
+        }
+        long newHandle = arena.allocate(newClass);
+        ByteBuffer newBuffer = arena.slab(newHandle);
+        int newBase = OffHeapLongSetArena.offset(newHandle);
+        if (buffer != null) {
+            newBuffer.put(newBase, buffer, base, size * Long.BYTES);
+            arena.free(handle, sizeClass);
+        }
+        buffer = newBuffer;
+        handle = newHandle;
+        base = newBase;
+        sizeClass = newClass;
+        capacity = 1 << newClass;
+    }
+}
@@ -0,0 +1,169 @@
+package com.rca.demo_course.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Off-heap memory for {@link OffHeapLongSet}s, so large sets of longs add nothing to the Java
+ * heap that the garbage collector has to size, copy or scan.
+ *
+ * <p>Memory is reserved in direct {@link ByteBuffer} slabs and handed out in blocks whose size
+ * is a power of two longs. Freed blocks go to a free list per size, from which later requests
+ * of that size are served, so a churning workload reuses memory instead of reserving more.
+ * Slabs are never returned to the operating system. A block larger than a slab gets a slab of
+ * its own. Direct memory is bounded by {@code -XX:MaxDirectMemorySize}, which defaults to the
+ * maximum heap size.
+ *
+ * <p>Allocation and freeing are thread-safe. Each set must still be guarded by its owner.
+ */
+public class OffHeapLongSetArena {
+
+    /** Default slab size: 64 MiB. */
+    public static final int DEFAULT_SLAB_BYTES = 64 << 20;
+
+    // Smallest block: 1 << MIN_SIZE_CLASS longs
+    static final int MIN_SIZE_CLASS = 2;
+    // Largest block: 1 << (SIZE_CLASSES - 1) longs, i.e. 1 GiB
+    static final int SIZE_CLASSES = 28;
+
+    private final int slabBytes;
+    // Replaced, never modified, when a slab is added, so sets can read it without locking
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    // Bump pointer into the newest shared slab; -1 until one exists
+    private int sharedSlab = -1;
+    private int sharedOffset;
+    // Guarded by this
+    private final long[][] freeBlocks = new long[SIZE_CLASSES][];
+    private final int[] freeCounts = new int[SIZE_CLASSES];
+    private long reservedBytes;
+    private long allocatedBytes;
+
+    public OffHeapLongSetArena() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    /**
+     * Creates an arena.
+     *
+     * @param slabBytes bytes reserved per slab; at least the smallest block
+     * @throws IllegalArgumentException if slabBytes is too small
+     */
+    public OffHeapLongSetArena(int slabBytes) {
+        if (slabBytes < blockBytes(MIN_SIZE_CLASS)) {
+            throw new IllegalArgumentException("Slab size must be at least " + blockBytes(MIN_SIZE_CLASS) + " bytes");
+        }
+        this.slabBytes = slabBytes;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBlocks[i] = new long[4];
+        }
+    }
+
+    /**
+     * Creates an empty set. It takes memory from this arena on its first add.
+     *
+     * @return a new set
+     */
+    public OffHeapLongSet newSet() {
+        return new OffHeapLongSet(this);
+    }
+
+    /**
+     * Returns the direct memory reserved in slabs, including free blocks.
+     *
+     * @return reserved bytes
+     */
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * Returns the memory held by blocks of live sets.
+     *
+     * @return allocated bytes
+     */
+    public synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Allocates a block.
+     *
+     * @param sizeClass the block holds {@code 1 << sizeClass} longs
+     * @return the block's handle: slab index in the upper half, byte offset in the lower half
+     */
+    synchronized long allocate(int sizeClass) {
+        int bytes = blockBytes(sizeClass);
+        allocatedBytes += bytes;
+        if (freeCounts[sizeClass] > 0) {
+            return freeBlocks[sizeClass][--freeCounts[sizeClass]];
+        }
+        if (bytes > slabBytes) {
+            return handle(addSlab(bytes), 0);
+        }
+        if (sharedSlab < 0 || slabBytes - sharedOffset < bytes) {
+            retireSharedSlab();
+            sharedSlab = addSlab(slabBytes);
+            sharedOffset = 0;
+        }
+        long handle = handle(sharedSlab, sharedOffset);
+        sharedOffset += bytes;
+        return handle;
+    }
+
+    /**
+     * Returns a block to its free list.
+     *
+     * @param handle the block's handle
+     * @param sizeClass the size class it was allocated with
+     */
+    synchronized void free(long handle, int sizeClass) {
+        allocatedBytes -= blockBytes(sizeClass);
+        pushFree(handle, sizeClass);
+    }
+
+    ByteBuffer slab(long handle) {
+        return slabs[(int) (handle >>> 32)];
+    }
+
+    static int offset(long handle) {
+        return (int) handle;
+    }
+
+    static int blockBytes(int sizeClass) {
+        return Long.BYTES << sizeClass;
+    }
+
+    private static long handle(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private int addSlab(int bytes) {
+        ByteBuffer[] updated = Arrays.copyOf(slabs, slabs.length + 1);
+        updated[slabs.length] = ByteBuffer.allocateDirect(bytes);
+        slabs = updated;
+        reservedBytes += bytes;
+        return slabs.length - 1;
+    }
+
+    /**
+     * Hands the unused tail of the shared slab to the free lists, largest blocks first.
+     */
+    private void retireSharedSlab() {
+        if (sharedSlab < 0) {
+            return;
+        }
+        for (int sizeClass = SIZE_CLASSES - 1; sizeClass >= MIN_SIZE_CLASS; sizeClass--) {
+            while (slabBytes - sharedOffset >= blockBytes(sizeClass)) {
+                pushFree(handle(sharedSlab, sharedOffset), sizeClass);
+                sharedOffset += blockBytes(sizeClass);
+            }
+        }
+    }
+
+    private void pushFree(long handle, int sizeClass) {
+        if (freeCounts[sizeClass] == freeBlocks[sizeClass].length) {
+            freeBlocks[sizeClass] = Arrays.copyOf(freeBlocks[sizeClass], freeCounts[sizeClass] * 2);
+        }
+        freeBlocks[sizeClass][freeCounts[sizeClass]++] = handle;
+    }
+}
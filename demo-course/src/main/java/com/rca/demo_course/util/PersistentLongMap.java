@@ -0,0 +1,334 @@
+package com.rca.demo_course.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Immutable map from non-negative long keys to values, persistent through path copying.
+ * Keys are split into 5-bit digits, most significant first, and stored in a 32-way radix trie
+ * whose nodes only hold the children that exist (a bitmap marks which). An update copies the
+ * nodes on the path to its key and shares everything else with the previous version, so each
+ * version is a consistent snapshot that stays valid after later updates.
+ *
+ * <p>Values are visited in ascending key order. Every node counts the values below it, so
+ * positional access costs one step per level.
+ *
+ * @param <V> the value type
+ */
+public final class PersistentLongMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // Deepest level holding values; 13 levels of 5 bits cover the 63 bits of a non-negative long
+    private static final int MAX_SHIFT = 60;
+
+    private static final PersistentLongMap<?> EMPTY = new PersistentLongMap<>(null, 0);
+
+    private final Node root;
+    // Shift of the root's digit; the root covers keys below 1 << (shift + BITS)
+    private final int shift;
+
+    private PersistentLongMap(Node root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return root != null ? root.count : 0;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @param key the key
+     * @return the value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (root == null || key < 0 || !covers(shift, key)) {
+            return null;
+        }
+        Node node = root;
+        for (int level = shift; ; level -= BITS) {
+            int bit = 1 << digit(key, level);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (level == 0) {
+                return (V) child;
+            }
+            node = (Node) child;
+        }
+    }
+
+    /**
+     * Returns a version with the key mapped to the value.
+     *
+     * @param key the key; must not be negative
+     * @param value the value; must not be null
+     * @return the new version, or this one if the key already maps to the same value
+     * @throws IllegalArgumentException if key is negative or value is null
+     */
+    public PersistentLongMap<V> put(long key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key cannot be negative");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        Node top = root;
+        int topShift = shift;
+        if (top == null) {
+            topShift = shiftFor(key);
+        } else {
+            // Deepen the trie until the root covers the key; existing keys sit under digit 0
+            while (!covers(topShift, key)) {
+                topShift += BITS;
+                top = new Node(1, new Object[] {top}, top.count);
+            }
+        }
+        Node updated = put(top, topShift, key, value);
+        return updated == top && top == root ? this : new PersistentLongMap<>(updated, topShift);
+    }
+
+    /**
+     * Returns a version without the key.
+     *
+     * @param key the key
+     * @return the new version, or this one if the key is absent
+     */
+    public PersistentLongMap<V> remove(long key) {
+        if (root == null || key < 0 || !covers(shift, key)) {
+            return this;
+        }
+        Node updated = remove(root, shift, key);
+        if (updated == root) {
+            return this;
+        }
+        return updated == null ? empty() : new PersistentLongMap<>(updated, shift);
+    }
+
+    /**
+     * Returns the value at a position in ascending key order.
+     *
+     * @param index the position
+     * @return the value
+     * @throws IndexOutOfBoundsException if index is not below size
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node node = root;
+        for (int level = shift; ; level -= BITS) {
+            if (level == 0) {
+                return (V) node.slots[index];
+            }
+            for (Object slot : node.slots) {
+                Node child = (Node) slot;
+                if (index < child.count) {
+                    node = child;
+                    break;
+                }
+                index -= child.count;
+            }
+        }
+    }
+
+    /**
+     * Visits every value in ascending key order without allocating.
+     *
+     * @param action the action
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        if (root != null) {
+            forEach(root, shift, action);
+        }
+    }
+
+    /**
+     * Iterates the values in ascending key order.
+     *
+     * @return an iterator over this version
+     */
+    public Iterator<V> valueIterator() {
+        return new ValueIterator<>(root, shift);
+    }
+
+    private static boolean covers(int shift, long key) {
+        return shift >= MAX_SHIFT || (key >>> (shift + BITS)) == 0;
+    }
+
+    private static int shiftFor(long key) {
+        int shift = 0;
+        while (!covers(shift, key)) {
+            shift += BITS;
+        }
+        return shift;
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) (key >>> shift) & MASK;
+    }
+
+    private static Node put(Node node, int shift, long key, Object value) {
+        int bit = 1 << digit(key, shift);
+        if (node == null) {
+            Object child = shift == 0 ? value : put(null, shift - BITS, key, value);
+            return new Node(bit, new Object[] {child}, 1);
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        boolean present = (node.bitmap & bit) != 0;
+        if (shift == 0) {
+            if (present) {
+                if (node.slots[index] == value) {
+                    return node;
+                }
+                Object[] slots = node.slots.clone();
+                slots[index] = value;
+                return new Node(node.bitmap, slots, node.count);
+            }
+            return new Node(node.bitmap | bit, inserted(node.slots, index, value), node.count + 1);
+        }
+        if (present) {
+            Node child = (Node) node.slots[index];
+            Node updated = put(child, shift - BITS, key, value);
+            if (updated == child) {
+                return node;
+            }
+            Object[] slots = node.slots.clone();
+            slots[index] = updated;
+            return new Node(node.bitmap, slots, node.count + updated.count - child.count);
+        }
+        Node created = put(null, shift - BITS, key, value);
+        return new Node(node.bitmap | bit, inserted(node.slots, index, created), node.count + 1);
+    }
+
+    private static Node remove(Node node, int shift, long key) {
+        int bit = 1 << digit(key, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if (shift > 0) {
+            Node child = (Node) node.slots[index];
+            Node updated = remove(child, shift - BITS, key);
+            if (updated == child) {
+                return node;
+            }
+            if (updated != null) {
+                Object[] slots = node.slots.clone();
+                slots[index] = updated;
+                return new Node(node.bitmap, slots, node.count - 1);
+            }
+        }
+        if (node.bitmap == bit) {
+            return null;
+        }
+        return new Node(node.bitmap & ~bit, removed(node.slots, index), node.count - 1);
+    }
+
+    private static Object[] inserted(Object[] slots, int index, Object value) {
+        Object[] updated = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, updated, 0, index);
+        updated[index] = value;
+        System.arraycopy(slots, index, updated, index + 1, slots.length - index);
+        return updated;
+    }
+
+    private static Object[] removed(Object[] slots, int index) {
+        Object[] updated = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, updated, 0, index);
+        System.arraycopy(slots, index + 1, updated, index, updated.length - index);
+        return updated;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, int shift, Consumer<? super V> action) {
+        for (Object slot : node.slots) {
+            if (shift == 0) {
+                action.accept((V) slot);
+            } else {
+                forEach((Node) slot, shift - BITS, action);
+            }
+        }
+    }
+
+    private static final class Node {
+
+        // Bit i is set if digit i has a child; slots hold the children in digit order
+        final int bitmap;
+        final Object[] slots;
+        // Number of values below this node
+        final int count;
+
+        Node(int bitmap, Object[] slots, int count) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.count = count;
+        }
+    }
+
+    private static final class ValueIterator<V> implements Iterator<V> {
+
+        // Node and next slot per level, root first
+        private final Node[] nodes;
+        private final int[] positions;
+        private int depth;
+
+        ValueIterator(Node root, int shift) {
+            int levels = shift / BITS + 1;
+            nodes = new Node[levels];
+            positions = new int[levels];
+            if (root != null) {
+                nodes[0] = root;
+                descend();
+            } else {
+                depth = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (depth < 0) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) nodes[depth].slots[positions[depth]++];
+            // Climb past exhausted nodes, then walk down to the next leaf
+            while (depth >= 0 && positions[depth] == nodes[depth].slots.length) {
+                depth--;
+            }
+            if (depth >= 0) {
+                descend();
+            }
+            return value;
+        }
+
+        private void descend() {
+            while (depth < nodes.length - 1) {
+                Node child = (Node) nodes[depth].slots[positions[depth]++];
+                depth++;
+                nodes[depth] = child;
+                positions[depth] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.rca.demo_course.util;
+
+/**
+ * Immutable set of longs, persistent through path copying like {@link PersistentLongMap}.
+ * The trie only takes non-negative keys, so non-negative values are keyed by themselves and
+ * negative values by their complement in a second trie; together they cover every long.
+ */
+public final class PersistentLongSet {
+
+    private static final PersistentLongSet EMPTY =
+            new PersistentLongSet(PersistentLongMap.empty(), PersistentLongMap.empty());
+
+    private final PersistentLongMap<Long> nonNegative;
+    // Keyed by ~value, which is non-negative for every negative value
+    private final PersistentLongMap<Long> negative;
+
+    private PersistentLongSet(PersistentLongMap<Long> nonNegative, PersistentLongMap<Long> negative) {
+        this.nonNegative = nonNegative;
+        this.negative = negative;
+    }
+
+    public static PersistentLongSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a set holding the given values.
+     *
+     * @param values the values; duplicates are ignored
+     * @return the set
+     */
+    public static PersistentLongSet of(long... values) {
+        PersistentLongSet set = EMPTY;
+        for (long value : values) {
+            set = set.with(value);
+        }
+        return set;
+    }
+
+    public int size() {
+        return nonNegative.size() + negative.size();
+    }
+
+    public boolean isEmpty() {
+        return nonNegative.isEmpty() && negative.isEmpty();
+    }
+
+    public boolean contains(long value) {
+        return value >= 0 ? nonNegative.get(value) != null : negative.get(~value) != null;
+    }
+
+    /**
+     * Returns a version holding the value.
+     *
+     * @param value the value
+     * @return the new version, or this one if the value is already present
+     */
+    public PersistentLongSet with(long value) {
+        if (contains(value)) {
+            return this;
+        }
+        return value >= 0
+                ? new PersistentLongSet(nonNegative.put(value, value), negative)
+                : new PersistentLongSet(nonNegative, negative.put(~value, value));
+    }
+
+    /**
+     * Returns a version without the value.
+     *
+     * @param value the value
+     * @return the new version, or this one if the value is absent
+     */
+    public PersistentLongSet without(long value) {
+        if (!contains(value)) {
+            return this;
+        }
+        return value >= 0
+                ? new PersistentLongSet(nonNegative.remove(value), negative)
+                : new PersistentLongSet(nonNegative, negative.remove(~value));
+    }
+
+    /**
+     * Copies the values out in ascending order.
+     *
+     * @return the values
+     */
+    public long[] toArray() {
+        long[] values = new long[size()];
+        // Complements ascend as the negative values descend, so those fill the front from the back
+        int[] previous = {negative.size()};
+        negative.forEachValue(value -> values[--previous[0]] = value);
+        int[] next = {negative.size()};
+        nonNegative.forEachValue(value -> values[next[0]++] = value);
+        return values;
+    }
+}
@@ -0,0 +1,59 @@
+package com.rca.demo_course.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of strings as dense int codes, so a column of repetitive values stores
+ * one int per row and each distinct string once. Codes are assigned in first-seen order and
+ * never reused; values stay in the dictionary after the last row using them is gone.
+ * Not thread-safe; callers guard mutations.
+ */
+public class StringDictionary {
+
+    /** Code of a null value. */
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Returns the code of a value, assigning the next code to a value not seen before.
+     *
+     * @param value the value, may be null
+     * @return the code, or {@link #NULL_CODE} for null
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the value of a code.
+     *
+     * @param code a code returned by {@link #encode(String)}
+     * @return the value, or null for {@link #NULL_CODE}
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    /**
+     * Returns the number of distinct values, which is also the next code to be assigned.
+     *
+     * @return the number of codes
+     */
+    public int size() {
+        return values.size();
+    }
+}
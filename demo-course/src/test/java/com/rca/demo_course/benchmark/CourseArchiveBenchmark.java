@@ -0,0 +1,191 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.ArchivePolicy;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for archiving ended courses out of a catalog that is mostly history: heap held by
+ * the store and scan latency before and after archiving, the size of the segment files, the
+ * longest enrollment wait while archiving runs, and lookups of courses in memory against
+ * archived ones.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseArchiveBenchmark}.
+ */
+public class CourseArchiveBenchmark {
+
+    private static final int COURSES = 500_000;
+    // One course in this many is current; the rest ended in past years and are inactive
+    private static final int CURRENT_EVERY = 10;
+    private static final int STUDENTS_PER_COURSE = 5;
+    private static final int SCANS = 20;
+    private static final int LOOKUPS = 200_000;
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 1);
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%,d courses, 1 in %d current, %d available processors%n%n",
+                COURSES, CURRENT_EVERY, Runtime.getRuntime().availableProcessors());
+
+        Path directory = Files.createTempDirectory("course-archive-benchmark");
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        long empty = usedHeap();
+        CourseServiceImpl store = new CourseServiceImpl(false, null, clock,
+                new ArchivePolicy(directory, Duration.ofDays(365)));
+        fill(store);
+        long full = usedHeap();
+
+        CourseCriteria availableSpots = new CourseCriteria();
+        availableSpots.setAvailableSpotsOnly(true);
+        System.out.printf("before archiving: %,d courses in memory, %,d MB heap%n",
+                store.getTotalCourseCount(), (full - empty) >> 20);
+        double[] before = scans(store, availableSpots);
+
+        // Enrollments into current courses continue while archiving runs
+        AtomicBoolean archiving = new AtomicBoolean(true);
+        AtomicLong longestWrite = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(3);
+            long student = 1_000_000_000L;
+            while (archiving.get()) {
+                long id = 1 + (long) random.nextInt(COURSES / CURRENT_EVERY) * CURRENT_EVERY;
+                long begin = System.nanoTime();
+                store.enrollStudent(id, student);
+                store.unenrollStudent(id, student++);
+                longestWrite.accumulateAndGet(System.nanoTime() - begin, Math::max);
+            }
+        });
+        writer.start();
+        long start = System.nanoTime();
+        int archived = store.archiveEndedCourses();
+        long elapsed = System.nanoTime() - start;
+        archiving.set(false);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long after = usedHeap();
+        long segmentBytes;
+        try (Stream<Path> files = Files.walk(directory)) {
+            segmentBytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        System.out.printf("archived %,d courses in %,d ms, longest enrollment meanwhile %.1f ms%n",
+                archived, elapsed / 1_000_000, longestWrite.get() / 1e6);
+        System.out.printf("after archiving:  %,d courses in memory, %,d MB heap; segments %,d MB (%d bytes per course)%n%n",
+                store.getTotalCourseCount(), (after - empty) >> 20, segmentBytes >> 20, segmentBytes / archived);
+        double[] afterScans = scans(store, availableSpots);
+
+        String[] labels = {"getAllCourses, sum credits", "findCourses, available spots (scan)",
+                "findCoursesByDepartment", "getCoursesForStudent"};
+        System.out.printf("%-38s %10s %10s%n", "median of " + SCANS + " runs", "before", "after");
+        for (int i = 0; i < labels.length; i++) {
+            System.out.printf("%-38s %8.2f ms %7.2f ms%n", labels[i], before[i], afterScans[i]);
+        }
+        CourseCriteria everything = new CourseCriteria();
+        everything.setIncludeArchived(true);
+        start = System.nanoTime();
+        int all = store.findCourses(everything).size();
+        System.out.printf("%-38s %8s    %7.0f ms (%,d courses)%n%n", "findCourses including archived", "",
+                (System.nanoTime() - start) / 1e6, all);
+
+        System.out.printf("getCourseById, in memory: %,8.0f ns%n", lookups(store, 0));
+        System.out.printf("getCourseById, archived:  %,8.0f ns%n", lookups(store, 1));
+        store.close();
+        Files.deleteIfExists(directory);
+    }
+
+    private static double[] scans(CourseServiceImpl store, CourseCriteria criteria) {
+        IntSupplier[] scans = {
+                () -> store.getAllCourses().stream().mapToInt(Course::getCredits).sum(),
+                () -> store.findCourses(criteria).size(),
+                () -> store.findCoursesByDepartment("Department 7").size(),
+                () -> store.getCoursesForStudent(3L).size(),
+        };
+        double[] medians = new double[scans.length];
+        long checksum = 0;
+        for (int i = 0; i < scans.length; i++) {
+            double[] times = new double[SCANS];
+            for (int run = 0; run < SCANS; run++) {
+                long start = System.nanoTime();
+                checksum += scans[i].getAsInt();
+                times[run] = (System.nanoTime() - start) / 1e6;
+            }
+            Arrays.sort(times);
+            medians[i] = times[SCANS / 2];
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return medians;
+    }
+
+    /**
+     * Times lookups of current courses, or of ended ones.
+     */
+    private static double lookups(CourseServiceImpl store, int offset) {
+        Random random = new Random(11);
+        long checksum = 0;
+        long elapsed = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                long id = 1 + (long) random.nextInt(COURSES / CURRENT_EVERY) * CURRENT_EVERY + offset;
+                checksum += store.getCourseById(id).orElseThrow().getCredits();
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / LOOKUPS;
+    }
+
+    private static void fill(CourseServiceImpl store) {
+        Random random = new Random(42);
+        for (int i = 0; i < COURSES; i++) {
+            boolean current = i % CURRENT_EVERY == 0;
+            // new String(...) gives each course its own copies, as rows read from a database would
+            Course course = new Course("SEC" + i, "Section " + i, new String("Instructor " + random.nextInt(5_000)),
+                    1 + random.nextInt(6));
+            course.setDepartment(new String("Department " + random.nextInt(60)));
+            course.setDescription(new String("Section of course " + random.nextInt(5_000)));
+            course.setMaxStudents(40);
+            LocalDate start = current ? TODAY.minusDays(20) : TODAY.minusDays(120 + random.nextInt(3_650));
+            course.setStartDate(start);
+            course.setEndDate(start.plusDays(90));
+            long id = store.createCourse(course).getId();
+            for (int j = 0; j < STUDENTS_PER_COURSE; j++) {
+                long student = random.nextInt(200_000);
+                if (!course.isEnrolled(student)) {
+                    store.enrollStudent(id, student);
+                }
+            }
+            if (!current) {
+                store.deactivateCourse(id);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,104 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.service.index.PrefixIndex;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark for code and name autocomplete over 1M courses ranked by enrollment.
+ * Queries replay keystrokes: a random course is picked and each prefix of its code or name
+ * is completed, so short prefixes are both the most frequent and the broadest.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseAutocompleteBenchmark}.
+ */
+public class CourseAutocompleteBenchmark {
+
+    private static final int COURSES = 1_000_000;
+    private static final int LIMIT = 10;
+    private static final int KEYSTROKE_RUNS = 20_000;
+    private static final String[] DEPARTMENTS = {"CS", "MATH", "PHYS", "CHEM", "BIO", "HIST", "ECON", "PSY", "ART", "ENG"};
+    private static final String[] TOPICS = {"Introduction to", "Advanced", "Topics in", "Foundations of", "Seminar on", "Applied"};
+    private static final String[] SUBJECTS = {"Algorithms", "Databases", "Calculus", "Mechanics", "Genetics", "Ethics",
+            "Networks", "Statistics", "Optics", "Painting", "Markets", "Cognition"};
+
+    public static void main(String[] args) {
+        Random random = new Random(23);
+        String[] codes = new String[COURSES];
+        String[] names = new String[COURSES];
+        int[] enrollment = new int[COURSES];
+        for (int i = 0; i < COURSES; i++) {
+            codes[i] = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)] + i;
+            names[i] = TOPICS[random.nextInt(TOPICS.length)] + " " + SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + (i % 997);
+            enrollment[i] = random.nextInt(300);
+        }
+
+        for (Duration ttl : new Duration[]{Duration.ZERO, PrefixIndex.DEFAULT_CACHE_TTL}) {
+            PrefixIndex index = new PrefixIndex(id -> enrollment[(int) id], ttl);
+            long started = System.nanoTime();
+            for (int i = 0; i < COURSES; i++) {
+                index.put(i, codes[i], names[i]);
+            }
+            System.out.printf("cache ttl %d ms: indexed %d keys in %d ms, %.1f bytes/key%n",
+                    ttl.toMillis(), index.size(), (System.nanoTime() - started) / 1_000_000,
+                    (double) index.footprintBytes() / index.size());
+
+            long[] samples = replay(index, codes, names, enrollment, new Random(5));
+            Arrays.sort(samples);
+            System.out.printf("  %d completions: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n%n",
+                    samples.length, samples[samples.length / 2] / 1_000.0, samples[samples.length * 99 / 100] / 1_000.0,
+                    samples[samples.length * 999 / 1000] / 1_000.0, samples[samples.length - 1] / 1_000.0);
+        }
+
+        long[] baseline = new long[20];
+        Random random2 = new Random(5);
+        for (int i = 0; i < baseline.length; i++) {
+            String prefix = codes[random2.nextInt(COURSES)].substring(0, 2).toLowerCase();
+            long start = System.nanoTime();
+            scan(codes, names, enrollment, prefix);
+            baseline[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(baseline);
+        System.out.printf("linear scan baseline: p50 %.1f us%n", baseline[baseline.length / 2] / 1_000.0);
+    }
+
+    // Each run types a code or name one character at a time while enrollment keeps changing
+    private static long[] replay(PrefixIndex index, String[] codes, String[] names, int[] enrollment, Random random) {
+        long[] samples = new long[KEYSTROKE_RUNS * 6];
+        int count = 0;
+        int sink = 0;
+        for (int run = 0; run < KEYSTROKE_RUNS; run++) {
+            int course = random.nextInt(COURSES);
+            String key = random.nextBoolean() ? codes[course] : names[course];
+            for (int length = 1; length <= Math.min(6, key.length()); length++) {
+                String prefix = key.substring(0, length);
+                long start = System.nanoTime();
+                sink += index.complete(prefix, LIMIT).length;
+                long elapsed = System.nanoTime() - start;
+                if (run >= KEYSTROKE_RUNS / 10) {
+                    samples[count++] = elapsed;
+                }
+            }
+            int enrolled = random.nextInt(COURSES);
+            enrollment[enrolled]++;
+            index.updateScore(enrolled, enrollment[enrolled]);
+        }
+        if (sink == -1) {
+            System.out.println();
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private static int scan(String[] codes, String[] names, int[] enrollment, String prefix) {
+        int best = -1;
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i].toLowerCase().startsWith(prefix) || names[i].toLowerCase().startsWith(prefix)) {
+                if (best < 0 || enrollment[i] > enrollment[best]) {
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+}
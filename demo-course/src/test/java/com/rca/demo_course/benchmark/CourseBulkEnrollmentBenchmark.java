@@ -0,0 +1,107 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark for enrolling a 500-student cohort into a set of courses, comparing one
+ * {@code enrollStudent} call per pair with a single {@code enrollStudents} call, on a quiet
+ * service and while background threads keep enrolling into the same courses.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseBulkEnrollmentBenchmark}.
+ */
+public class CourseBulkEnrollmentBenchmark {
+
+    private static final int COHORT = 500;
+    private static final int COURSES = 6;
+    private static final int CATALOG = 10_000;
+    private static final int BACKGROUND_THREADS = 8;
+    private static final int ROUNDS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d students x %d courses, %d catalog courses, %d available processors%n%n",
+                COHORT, COURSES, CATALOG, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %-12s %14s%n", "load", "path", "us/cohort");
+        for (int background : new int[] {0, BACKGROUND_THREADS}) {
+            String load = background == 0 ? "quiet" : background + " writers";
+            System.out.printf("%-12s %-12s %,14.1f%n", load, "per-call", run(false, background));
+            System.out.printf("%-12s %-12s %,14.1f%n", load, "bulk", run(true, background));
+        }
+    }
+
+    private static double run(boolean bulk, int backgroundThreads) throws Exception {
+        CourseServiceImpl service = new CourseServiceImpl();
+        for (int i = 0; i < CATALOG; i++) {
+            Course course = new Course("CAT" + i, "Catalog course " + i, "Dr. Smith", 3);
+            course.setMaxStudents(COHORT + BACKGROUND_THREADS);
+            service.createCourse(course);
+        }
+
+        // Each round enrolls a cohort into fresh courses; writers churn one seat each in the current ones
+        AtomicReference<List<Long>> current = new AtomicReference<>(newCourses(service, 0));
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(backgroundThreads);
+        for (int t = 0; t < backgroundThreads; t++) {
+            long studentId = -1 - t;
+            int slot = t % COURSES;
+            Thread writer = new Thread(() -> {
+                while (!stop.get()) {
+                    Long courseId = current.get().get(slot);
+                    service.enrollStudent(courseId, studentId);
+                    service.unenrollStudent(courseId, studentId);
+                }
+                done.countDown();
+            });
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        long student = 0;
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS * 2; round++) {
+            List<Long> courseIds = newCourses(service, round + 1);
+            current.set(courseIds);
+            List<Long> cohort = new ArrayList<>(COHORT);
+            for (int i = 0; i < COHORT; i++) {
+                cohort.add(student++);
+            }
+            long start = System.nanoTime();
+            if (bulk) {
+                BulkEnrollmentResult result = service.enrollStudents(courseIds, cohort);
+                if (!result.isApplied()) {
+                    throw new IllegalStateException("Bulk enrollment was not applied");
+                }
+            } else {
+                for (Long courseId : courseIds) {
+                    for (Long studentId : cohort) {
+                        service.enrollStudent(courseId, studentId);
+                    }
+                }
+            }
+            // The first half of the rounds warms up
+            if (round >= ROUNDS) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        stop.set(true);
+        done.await();
+        return elapsed / 1e3 / ROUNDS;
+    }
+
+    private static List<Long> newCourses(CourseServiceImpl service, int round) {
+        List<Long> courseIds = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("COH" + round + "-" + i, "Cohort course " + i, "Dr. Smith", 3);
+            course.setMaxStudents(COHORT + BACKGROUND_THREADS);
+            courseIds.add(service.createCourse(course).getId());
+        }
+        return courseIds;
+    }
+}
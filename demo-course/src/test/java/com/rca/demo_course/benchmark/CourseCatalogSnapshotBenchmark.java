@@ -0,0 +1,110 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.util.PersistentLongMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Benchmark for full-catalog reads, comparing the former copy of every course into a new
+ * {@code ArrayList} with the published catalog snapshot, and the cost snapshots add to updates.
+ * Reports time and heap allocation per read.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseCatalogSnapshotBenchmark}.
+ */
+public class CourseCatalogSnapshotBenchmark {
+
+    private static final int COURSES = 100_000;
+    private static final int READS = 500;
+    private static final int UPDATES = 200_000;
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        // Replica of the former storage, read the way getAllCourses() used to
+        Map<Long, Course> copySource = new ConcurrentHashMap<>();
+        List<Long> courseIds = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            Course course = service.createCourse(newCourse("SNP" + i, 30));
+            copySource.put(course.getId(), course);
+            courseIds.add(course.getId());
+        }
+
+        System.out.printf("%,d courses, %d available processors%n%n",
+                COURSES, Runtime.getRuntime().availableProcessors());
+
+        long checksum = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            boolean report = warmup == 2;
+            checksum += measure(report, "ArrayList copy, iterated", unused -> {
+                long sum = 0;
+                for (Course course : new ArrayList<>(copySource.values())) {
+                    sum += course.getMaxStudents();
+                }
+                return sum;
+            });
+            checksum += measure(report, "snapshot, iterated", unused -> {
+                long sum = 0;
+                for (Course course : service.getAllCourses()) {
+                    sum += course.getMaxStudents();
+                }
+                return sum;
+            });
+            checksum += measure(report, "snapshot, forEach", unused -> {
+                long[] sum = new long[1];
+                service.getAllCourses().forEach(course -> sum[0] += course.getMaxStudents());
+                return sum[0];
+            });
+            checksum += measure(report, "snapshot, size only", unused -> service.getAllCourses().size());
+        }
+
+        PersistentLongMap<Course> versions = PersistentLongMap.empty();
+        for (Long id : courseIds) {
+            versions = versions.put(id, copySource.get(id));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Long id = courseIds.get(i % COURSES);
+            versions = versions.put(id, newCourse("SNP" + (i % COURSES), 30));
+        }
+        System.out.printf("%nsnapshot path copy alone:                    %,.0f ns%n",
+                (double) (System.nanoTime() - start) / UPDATES);
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Long id = courseIds.get(i % COURSES);
+            service.updateCourse(id, newCourse("SNP" + (i % COURSES), 30 + i % 5));
+        }
+        System.out.printf("updateCourse including snapshot publication: %,.0f ns (checksum %d)%n",
+                (double) (System.nanoTime() - start) / UPDATES, checksum);
+    }
+
+    private static long measure(boolean report, String label, ToLongFunction<Void> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            checksum += read.applyAsLong(null);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / READS;
+        double bytes = (double) (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / READS;
+        if (report) {
+            System.out.printf("%-26s %,10.1f us %,14.0f bytes allocated per read%n", label + ":", micros, bytes);
+        }
+        return checksum;
+    }
+
+    private static Course newCourse(String code, int maxStudents) {
+        Course course = new Course(code, "Snapshot course " + code, "Dr. Smith", 3);
+        course.setDepartment("Computer Science");
+        course.setMaxStudents(maxStudents);
+        return course;
+    }
+}
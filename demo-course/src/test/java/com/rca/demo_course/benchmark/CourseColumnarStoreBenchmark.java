@@ -0,0 +1,107 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.impl.ColumnarCourseService;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark for heap per course with a large catalog of historical sections, comparing
+ * CourseServiceImpl, a bare map of Course objects without indexes, and ColumnarCourseService.
+ * Department, instructor and description strings are created per course, as a database
+ * driver would. Also times lookups, which the columnar store pays for by materializing.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseColumnarStoreBenchmark}.
+ */
+public class CourseColumnarStoreBenchmark {
+
+    private static final int COURSES = 1_000_000;
+    private static final int DEPARTMENTS = 60;
+    private static final int INSTRUCTORS = 5_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%,d courses, %d departments, %,d instructors, %d available processors%n%n",
+                COURSES, DEPARTMENTS, INSTRUCTORS, Runtime.getRuntime().availableProcessors());
+
+        measure("Course objects in a map, no indexes", () -> {
+            Map<Long, Course> courses = new HashMap<>();
+            Random random = new Random(42);
+            for (long id = 1; id <= COURSES; id++) {
+                Course course = newCourse(random, id);
+                course.setId(id);
+                courses.put(id, course);
+            }
+            return courses;
+        });
+        measure("CourseServiceImpl", () -> populate(new CourseServiceImpl()));
+        CourseService columnar = (CourseService) measure("ColumnarCourseService", () -> populate(new ColumnarCourseService()));
+
+        System.out.println();
+        Random random = new Random(7);
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += columnar.getCourseById(1L + random.nextInt(COURSES)).orElseThrow().getCredits();
+            }
+            if (warmup == 1) {
+                System.out.printf("columnar getCourseById (materializes): %,8.0f ns%n",
+                        (double) (System.nanoTime() - start) / LOOKUPS);
+            }
+        }
+        long start = System.nanoTime();
+        checksum += columnar.findCoursesByDepartment("Department 7").size();
+        System.out.printf("columnar findCoursesByDepartment:      %,8.1f ms%n", (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        checksum += columnar.getDepartmentReport().size();
+        System.out.printf("columnar department report (scan):     %,8.1f ms (checksum %d)%n",
+                (System.nanoTime() - start) / 1e6, checksum);
+    }
+
+    private static Object populate(CourseService service) {
+        Random random = new Random(42);
+        for (long id = 1; id <= COURSES; id++) {
+            Course course = service.createCourse(newCourse(random, id));
+            if (id % 3 == 0) {
+                service.enrollStudent(course.getId(), id);
+            }
+        }
+        return service;
+    }
+
+    private static Object measure(String label, Supplier<Object> build) {
+        long before = usedHeap();
+        Object store = build.get();
+        long after = usedHeap();
+        System.out.printf("%-38s %,6d bytes per course%n", label + ":", (after - before) / COURSES);
+        return store;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Course newCourse(Random random, long id) {
+        // new String(...) gives each course its own copies, as rows read from a database would
+        Course course = new Course("SEC" + id, "Section " + id, new String("Instructor " + random.nextInt(INSTRUCTORS)),
+                1 + random.nextInt(6));
+        course.setDepartment(new String("Department " + random.nextInt(DEPARTMENTS)));
+        course.setDescription(new String("Historical section of course " + random.nextInt(5_000)));
+        course.setMaxStudents(20 + random.nextInt(200));
+        LocalDate start = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9_000));
+        course.setStartDate(start);
+        course.setEndDate(start.plusDays(90));
+        return course;
+    }
+}
@@ -0,0 +1,77 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark for date-based course queries over 1M courses, indexed versus a scan
+ * comparing LocalDates on every course.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseDateQueryBenchmark}.
+ */
+public class CourseDateQueryBenchmark {
+
+    private static final int COURSES = 1_000_000;
+    private static final LocalDate BASE = LocalDate.of(2000, 1, 1);
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        Random random = new Random(1);
+        // 25 years of sections lasting 1 to 120 days
+        for (int i = 0; i < COURSES; i++) {
+            LocalDate start = BASE.plusDays(random.nextInt(25 * 365));
+            Course course = new Course("C" + i, "Course " + i, "Instructor", 3);
+            course.setMaxStudents(50);
+            course.setStartDate(start);
+            course.setEndDate(start.plusDays(1 + random.nextInt(120)));
+            service.createCourse(course);
+        }
+        List<Course> all = service.getAllCourses();
+        LocalDate day = LocalDate.of(2012, 3, 15);
+        LocalDate weekEnd = day.plusDays(6);
+
+        System.out.printf("%-26s %12s %12s %10s%n", "query", "index us", "scan us", "results");
+        run("running on", () -> service.getCoursesRunningOn(day), all,
+                c -> !c.getStartDate().isAfter(day) && !c.getEndDate().isBefore(day));
+        run("overlapping one week", () -> service.getCoursesOverlapping(day, weekEnd), all,
+                c -> !c.getStartDate().isAfter(weekEnd) && !c.getEndDate().isBefore(day));
+        LocalDate late = LocalDate.of(2024, 11, 1);
+        run("starting after (late)", () -> service.getCoursesStartingAfter(late), all,
+                c -> c.getStartDate().isAfter(late));
+        LocalDate early = LocalDate.of(2000, 3, 1);
+        run("ending before (early)", () -> service.getCoursesEndingBefore(early), all,
+                c -> c.getEndDate().isBefore(early));
+    }
+
+    private static void run(String label, Supplier<List<Course>> indexed, List<Course> all, Predicate<Course> filter) {
+        double indexMicros = median(() -> indexed.get().size());
+        double scanMicros = median(() -> (int) all.stream().filter(filter).count());
+        System.out.printf("%-26s %12.1f %12.1f %10d%n", label, indexMicros, scanMicros, indexed.get().size());
+    }
+
+    private static double median(IntSupplier query) {
+        long[] samples = new long[25];
+        int sink = 0;
+        for (int i = 0; i < 5; i++) {
+            sink += query.getAsInt();
+        }
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            sink += query.getAsInt();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        if (sink == -1) {
+            System.out.println();
+        }
+        return samples[samples.length / 2] / 1_000.0;
+    }
+}
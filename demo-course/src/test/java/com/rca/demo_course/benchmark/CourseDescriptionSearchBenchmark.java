@@ -0,0 +1,73 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark for BM25 description search over 200k courses with synthetic descriptions
+ * drawn from a Zipf-like vocabulary, so some query terms are common and others rare.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseDescriptionSearchBenchmark}.
+ */
+public class CourseDescriptionSearchBenchmark {
+
+    private static final int COURSES = 200_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int TOP_K = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(17);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "term" + Integer.toString(i, 36);
+        }
+        CourseServiceImpl service = new CourseServiceImpl();
+        long started = System.nanoTime();
+        for (int i = 0; i < COURSES; i++) {
+            StringBuilder description = new StringBuilder();
+            int length = 30 + random.nextInt(60);
+            for (int w = 0; w < length; w++) {
+                description.append(words[zipf(random)]).append(' ');
+            }
+            Course course = new Course("C" + i, "Course " + i, "Instructor", 3);
+            course.setMaxStudents(50);
+            course.setDescription(description.toString());
+            service.createCourse(course);
+        }
+        System.out.printf("indexed %d descriptions in %d ms%n%n", COURSES, (System.nanoTime() - started) / 1_000_000);
+
+        System.out.printf("%-34s %10s %10s%n", "query", "p50 us", "p99 us");
+        run(service, "one rare term", words[15_000]);
+        run(service, "two mid terms", words[400] + " " + words[900]);
+        run(service, "common + rare", words[3] + " " + words[12_000]);
+        run(service, "three common terms", words[1] + " " + words[2] + " " + words[5]);
+    }
+
+    // Rank distribution with a heavy head: low indexes are far more frequent
+    private static int zipf(Random random) {
+        double u = random.nextDouble();
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, u)) - 1);
+    }
+
+    private static void run(CourseServiceImpl service, String label, String query) {
+        long[] samples = new long[200];
+        int sink = 0;
+        for (int i = 0; i < 50; i++) {
+            sink += service.searchCourses(query, TOP_K).size();
+        }
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            sink += service.searchCourses(query, TOP_K).size();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-34s %10.1f %10.1f%n", label,
+                samples[samples.length / 2] / 1_000.0, samples[samples.length * 99 / 100] / 1_000.0);
+        if (sink == -1) {
+            System.out.println();
+        }
+    }
+}
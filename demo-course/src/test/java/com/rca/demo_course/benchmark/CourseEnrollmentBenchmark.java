@@ -0,0 +1,89 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Micro-benchmark for Course enroll / isEnrolled / unenroll at several course sizes,
+ * comparing the primitive enrollment set against the former {@code ArrayList<Long>} storage.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseEnrollmentBenchmark}.
+ */
+public class CourseEnrollmentBenchmark {
+
+    private static final int[] SEATS = {10, 500, 50_000};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-10s %14s %14s %14s%n", "seats", "storage", "enroll ns/op", "lookup ns/op", "unenroll ns/op");
+        for (int seats : SEATS) {
+            report(seats, "set", measure(seats, false));
+            report(seats, "list", measure(seats, true));
+        }
+    }
+
+    private static void report(int seats, String storage, double[] nanosPerOp) {
+        System.out.printf("%-8d %-10s %14.1f %14.1f %14.1f%n", seats, storage, nanosPerOp[0], nanosPerOp[1], nanosPerOp[2]);
+    }
+
+    private static double[] measure(int seats, boolean listBaseline) {
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        // Keep the total work per round roughly constant across sizes, capped for the O(n) baseline
+        int repetitions = Math.max(1, 200_000 / seats);
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long enroll = 0;
+            long lookup = 0;
+            long unenroll = 0;
+            for (int r = 0; r < repetitions; r++) {
+                Course course = new Course("CS101", "Benchmark", "Dr. Smith", 3);
+                course.setMaxStudents(seats);
+                List<Long> baseline = new ArrayList<>();
+                if (!listBaseline) {
+                    course.setEnrolledStudents(new ArrayList<>());
+                }
+
+                long start = System.nanoTime();
+                for (long id = 0; id < seats; id++) {
+                    if (listBaseline) {
+                        if (!baseline.contains(id) && baseline.size() < seats) {
+                            baseline.add(id);
+                        }
+                    } else {
+                        course.enrollStudent(id);
+                    }
+                }
+                long afterEnroll = System.nanoTime();
+                for (long id = 0; id < seats; id++) {
+                    sink += (listBaseline ? baseline.contains(id * 2) : course.isEnrolled(id * 2)) ? 1 : 0;
+                }
+                long afterLookup = System.nanoTime();
+                for (long id = 0; id < seats; id++) {
+                    if (listBaseline) {
+                        baseline.remove(Long.valueOf(id));
+                    } else {
+                        course.unenrollStudent(id);
+                    }
+                }
+                long afterUnenroll = System.nanoTime();
+
+                enroll += afterEnroll - start;
+                lookup += afterLookup - afterEnroll;
+                unenroll += afterUnenroll - afterLookup;
+            }
+            if (round >= WARMUP_ROUNDS) {
+                double ops = (double) seats * repetitions;
+                best[0] = Math.min(best[0], enroll / ops);
+                best[1] = Math.min(best[1], lookup / ops);
+                best[2] = Math.min(best[2], unenroll / ops);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+}
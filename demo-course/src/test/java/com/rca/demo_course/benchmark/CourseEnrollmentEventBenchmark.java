@@ -0,0 +1,61 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.EnrollmentEvent;
+import com.rca.demo_course.service.EnrollmentEventFilter;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark for enrollment event streaming: enrollment throughput with 0, 1 and 16
+ * subscribers watching every course, and how many events coalescing saves each subscriber
+ * compared with one message per change.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseEnrollmentEventBenchmark}.
+ */
+public class CourseEnrollmentEventBenchmark {
+
+    private static final int COURSES = 1_000;
+    private static final int ENROLLMENTS = 2_000_000;
+    private static final Duration WINDOW = Duration.ofMillis(250);
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%,d enrollments into %,d courses, %d ms window, %d available processors%n%n",
+                ENROLLMENTS, COURSES, WINDOW.toMillis(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %16s %22s%n", "subscribers", "enrollments/s", "events/subscriber");
+        for (int subscribers : new int[] {0, 1, 16}) {
+            run(subscribers);
+        }
+    }
+
+    private static void run(int subscriberCount) throws Exception {
+        CourseServiceImpl service = new CourseServiceImpl();
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("EVT" + i, "Event course " + i, "Dr. Smith", 3);
+            course.setMaxStudents(Integer.MAX_VALUE);
+            course.setDepartment("Computer Science");
+            courseIds.add(service.createCourse(course).getId());
+        }
+        LongAdder delivered = new LongAdder();
+        for (int s = 0; s < subscriberCount; s++) {
+            service.subscribeToEnrollments(EnrollmentEventFilter.all(), WINDOW,
+                    (List<EnrollmentEvent> events) -> delivered.add(events.size()));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ENROLLMENTS; i++) {
+            service.enrollStudent(courseIds.get(i % COURSES), (long) i);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // Let the last window close
+        Thread.sleep(WINDOW.toMillis() * 2);
+
+        String events = subscriberCount == 0 ? "-" : String.format("%,d", delivered.sum() / subscriberCount);
+        System.out.printf("%-12d %,16.0f %22s%n", subscriberCount, ENROLLMENTS / seconds, events);
+    }
+}
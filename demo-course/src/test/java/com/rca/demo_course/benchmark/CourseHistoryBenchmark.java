@@ -0,0 +1,154 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.HistoryRetention;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Benchmark for the catalog history: the cost of an enrollment change with and without history,
+ * the heap retained by a month of simulated changes, and the latency of as-of lookups into
+ * recent and compacted periods. Simulated time advances by a fixed step per change, so a month
+ * passes in a few million changes.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseHistoryBenchmark}.
+ */
+public class CourseHistoryBenchmark {
+
+    private static final int COURSES = 10_000;
+    private static final int STUDENTS_PER_COURSE = 20;
+    private static final int STUDENTS = 200_000;
+    private static final int CHANGES = 3_000_000;
+    private static final Duration STEP = Duration.ofSeconds(1);
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) {
+        HistoryRetention retention = new HistoryRetention(Duration.ofMinutes(1), Duration.ofDays(1), Duration.ofHours(1));
+        System.out.printf("%,d courses x %d students, %,d changes one %s apart, %s, %d available processors%n%n",
+                COURSES, STUDENTS_PER_COURSE, CHANGES, STEP, retention, Runtime.getRuntime().availableProcessors());
+
+        for (int round = 0; round < 2; round++) {
+            for (boolean withHistory : new boolean[]{false, true}) {
+                SimulatedClock clock = new SimulatedClock(Instant.parse("2025-09-01T00:00:00Z"));
+                long before = usedHeap();
+                CourseServiceImpl service = new CourseServiceImpl(false, withHistory ? retention : null, clock);
+                fill(service);
+                long start = System.nanoTime();
+                churn(service, clock);
+                long elapsed = System.nanoTime() - start;
+                long retained = usedHeap() - before;
+                if (round == 1) {
+                    System.out.printf("%-15s %,8.0f ns per change, %,9d KB retained%n",
+                            withHistory ? "with history:" : "without history:", (double) elapsed / CHANGES, retained / 1024);
+                    if (withHistory) {
+                        lookups(service, clock);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void fill(CourseServiceImpl service) {
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("SEC" + i, "Section " + i, "Instructor " + (i % 500), 3);
+            course.setMaxStudents(STUDENTS_PER_COURSE * 4);
+            long id = service.createCourse(course).getId();
+            for (int j = 0; j < STUDENTS_PER_COURSE; j++) {
+                service.enrollStudent(id, (i * 7_919L + j * 10_007L) % STUDENTS);
+            }
+        }
+    }
+
+    /**
+     * Swaps a random student of a random course for another, so course sizes stay put.
+     */
+    private static void churn(CourseServiceImpl service, SimulatedClock clock) {
+        Random random = new Random(42);
+        for (int i = 0; i < CHANGES; i += 2) {
+            long id = 1 + random.nextInt(COURSES);
+            Course course = service.getCourseById(id).orElseThrow();
+            Long leaving = course.getEnrolledStudents().get(random.nextInt(course.getEnrolledStudents().size()));
+            service.unenrollStudent(id, leaving);
+            clock.advance(STEP);
+            long joining;
+            do {
+                joining = random.nextInt(STUDENTS);
+            } while (course.getEnrolledStudents().contains(joining));
+            service.enrollStudent(id, joining);
+            clock.advance(STEP);
+        }
+    }
+
+    private static void lookups(CourseServiceImpl service, SimulatedClock clock) {
+        Instant end = clock.instant();
+        Duration span = Duration.between(Instant.parse("2025-09-01T00:00:00Z"), end);
+        Random random = new Random(7);
+        long checksum = 0;
+        for (int round = 0; round < 3; round++) {
+            long recent = 0;
+            long compacted = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                long id = 1 + random.nextInt(COURSES);
+                Instant hoursAgo = end.minus(Duration.ofMinutes(random.nextInt(12 * 60)));
+                long start = System.nanoTime();
+                checksum += service.getCourseByIdAsOf(id, hoursAgo).orElseThrow().getEnrolledStudents().size();
+                recent += System.nanoTime() - start;
+
+                Instant daysAgo = end.minus(Duration.ofSeconds(span.getSeconds() / 2 + random.nextInt(86_400)));
+                start = System.nanoTime();
+                checksum += service.getCourseByIdAsOf(id, daysAgo).orElseThrow().getEnrolledStudents().size();
+                compacted += System.nanoTime() - start;
+            }
+            if (round == 2) {
+                System.out.printf("as-of lookup, recent period:    %,8.0f ns%n", (double) recent / LOOKUPS);
+                System.out.printf("as-of lookup, compacted period: %,8.0f ns%n", (double) compacted / LOOKUPS);
+            }
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Clock that moves only as changes are made.
+     */
+    private static final class SimulatedClock extends Clock {
+
+        private volatile Instant now;
+
+        SimulatedClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Throughput benchmark for a single hot course: 64 threads make 50,000 enrollment attempts
+ * for 2,000 seats, and again with 200,000 seats so most attempts succeed. Compares the locked
+ * path with hot mode's striped capacity tokens.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseHotEnrollmentBenchmark}.
+ */
+public class CourseHotEnrollmentBenchmark {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 50_000;
+    private static final int[] SEATS = {2_000, 200_000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 15;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d threads, %d attempts, %d available processors%n%n",
+                THREADS, ATTEMPTS, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-8s %16s %10s%n", "seats", "mode", "attempts/s", "sold");
+        for (int seats : SEATS) {
+            for (boolean hot : new boolean[]{false, true}) {
+                double[] rates = new double[MEASURED_ROUNDS];
+                int sold = 0;
+                for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                    CourseServiceImpl service = new CourseServiceImpl();
+                    Course course = new Course("HOT101", "Hot course", "Dr. Smith", 3);
+                    course.setMaxStudents(seats);
+                    Long courseId = service.createCourse(course).getId();
+                    service.setHotCourse(courseId, hot);
+                    long nanos = run(service, courseId);
+                    sold = service.getEnrollmentCount(courseId);
+                    if (round >= WARMUP_ROUNDS) {
+                        rates[round - WARMUP_ROUNDS] = ATTEMPTS / (nanos / 1e9);
+                    }
+                }
+                Arrays.sort(rates);
+                System.out.printf("%-8d %-8s %,16.0f %10d%n", seats, hot ? "hot" : "locked", rates[MEASURED_ROUNDS / 2], sold);
+            }
+        }
+    }
+
+    private static long run(CourseServiceImpl service, Long courseId) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        int perThread = ATTEMPTS / THREADS;
+        for (int t = 0; t < THREADS; t++) {
+            long firstStudent = (long) t * perThread;
+            Thread caller = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long studentId = firstStudent; studentId < firstStudent + perThread; studentId++) {
+                    try {
+                        service.enrollStudent(courseId, studentId);
+                    } catch (IllegalStateException ignored) {
+                        // full
+                    }
+                }
+                done.countDown();
+            });
+            caller.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+}
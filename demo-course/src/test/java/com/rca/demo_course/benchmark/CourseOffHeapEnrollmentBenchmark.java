@@ -0,0 +1,126 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for heap size and GC pauses with enrolled students kept on the heap or off it.
+ * Fills a large catalog, then churns enrollments while allocating short-lived garbage, and
+ * reports the live heap, direct memory and every collection's pause as reported by the JVM.
+ * Run once per mode, as each run measures the whole JVM.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseOffHeapEnrollmentBenchmark off-heap}.
+ */
+public class CourseOffHeapEnrollmentBenchmark {
+
+    private static final int COURSES = 100_000;
+    private static final int STUDENTS_PER_COURSE = 100;
+    private static final int STUDENTS = 1_000_000;
+    private static final int CHURN_OPERATIONS = 5_000_000;
+
+    private static final List<Long> pauses = new ArrayList<>();
+
+    public static void main(String[] args) {
+        boolean offHeap = args.length > 0 && args[0].equals("off-heap");
+        System.out.printf("%s enrollments: %,d courses x %d students, %d available processors%n%n",
+                offHeap ? "Off-heap" : "On-heap", COURSES, STUDENTS_PER_COURSE,
+                Runtime.getRuntime().availableProcessors());
+        listenForPauses();
+
+        long before = usedHeap();
+        CourseServiceImpl service = new CourseServiceImpl(offHeap);
+        Random random = new Random(42);
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("SEC" + i, "Section " + i, "Instructor " + (i % 5_000), 3);
+            course.setMaxStudents(STUDENTS_PER_COURSE * 2);
+            long id = service.createCourse(course).getId();
+            for (int j = 0; j < STUDENTS_PER_COURSE; j++) {
+                // Distinct students per course, spread over the whole student body
+                service.enrollStudent(id, (i * 7_919L + j * 10_007L) % STUDENTS);
+            }
+        }
+        long after = usedHeap();
+        System.out.printf("Live heap:     %,10d KB%n", (after - before) / 1024);
+        System.out.printf("Direct memory: %,10d KB%n%n", directMemory() / 1024);
+
+        synchronized (pauses) {
+            pauses.clear();
+        }
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < CHURN_OPERATIONS; i++) {
+            long courseId = 1L + random.nextInt(COURSES);
+            long studentId = random.nextInt(STUDENTS);
+            Course course = service.getCourseById(courseId).orElseThrow();
+            if (course.isEnrolled(studentId)) {
+                service.unenrollStudent(courseId, studentId);
+            } else if (!course.isFull()) {
+                service.enrollStudent(courseId, studentId);
+            }
+            // Request-scoped garbage, as a web request would leave behind
+            checksum += new byte[256].length + course.getFullCourseInfo().length();
+        }
+        double churnSeconds = (System.nanoTime() - start) / 1e9;
+        report("Churn (" + String.format("%,d", CHURN_OPERATIONS) + " ops, "
+                + String.format("%.1f", churnSeconds) + " s)");
+
+        System.gc();
+        report("Full collection (System.gc)");
+        System.out.println("checksum " + checksum);
+    }
+
+    private static void listenForPauses() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    synchronized (pauses) {
+                        pauses.add(info.getGcInfo().getDuration());
+                    }
+                }
+            }, null, null);
+        }
+    }
+
+    private static void report(String label) {
+        // Notifications arrive on another thread shortly after each collection
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (pauses) {
+            long total = pauses.stream().mapToLong(Long::longValue).sum();
+            long max = pauses.stream().mapToLong(Long::longValue).max().orElse(0);
+            System.out.printf("%-38s %4d collections, max %4d ms, mean %6.1f ms, total %,6d ms%n",
+                    label + ":", pauses.size(), max, pauses.isEmpty() ? 0.0 : (double) total / pauses.size(), total);
+            pauses.clear();
+        }
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,129 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.service.impl.PartitionedCourseService;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark for the partitioned store against the single store, from 1 to 16 threads: write
+ * throughput of threads creating courses and enrolling students, and the latency of full scans
+ * ({@code getCoursesByCreditRange} over all credits, {@code findCoursesByDepartment}) fanned out
+ * over a given number of query threads. Scaling is bounded by the available processors, which
+ * the benchmark prints.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CoursePartitionBenchmark}.
+ */
+public class CoursePartitionBenchmark {
+
+    private static final int PARTITIONS = 16;
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int COURSES_PER_WRITE_RUN = 64_000;
+    private static final int ENROLLMENTS_PER_COURSE = 8;
+    private static final int SCAN_COURSES = 200_000;
+    private static final int SCANS = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d partitions, %d available processors%n%n", PARTITIONS, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("Writes: creates + enrollments per second");
+        System.out.printf("%8s %14s %14s%n", "threads", "single", "partitioned");
+        for (int threads : THREADS) {
+            double single = 0;
+            double partitioned = 0;
+            for (int round = 0; round < 2; round++) {
+                single = writeThroughput(CourseServiceImpl::new, threads);
+                partitioned = writeThroughput(() -> new PartitionedCourseService(PARTITIONS), threads);
+            }
+            System.out.printf("%8d %,14.0f %,14.0f%n", threads, single, partitioned);
+        }
+
+        CourseServiceImpl single = new CourseServiceImpl();
+        fill(single);
+        System.out.printf("%nScans over %,d courses: ms per scan (credit range, department)%n", SCAN_COURSES);
+        System.out.printf("%8s %22s%n", "single", scanTimes(single));
+        single = null;
+        System.gc();
+        System.out.printf("%8s %22s%n", "threads", "partitioned");
+        for (int threads : THREADS) {
+            PartitionedCourseService partitioned = new PartitionedCourseService(PARTITIONS, threads, false, null, Clock.systemUTC());
+            fill(partitioned);
+            System.out.printf("%8d %22s%n", threads, scanTimes(partitioned));
+            partitioned = null;
+            System.gc();
+        }
+    }
+
+    private static double writeThroughput(Supplier<CourseService> factory, int threads) throws InterruptedException {
+        CourseService service = factory.get();
+        int perThread = COURSES_PER_WRITE_RUN / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    Course course = newCourse(worker * perThread + i);
+                    Long id = service.createCourse(course).getId();
+                    for (long s = 0; s < ENROLLMENTS_PER_COURSE; s++) {
+                        service.enrollStudent(id, worker * 1_000_000L + i * ENROLLMENTS_PER_COURSE + s);
+                    }
+                }
+            });
+            thread.start();
+            workers.add(thread);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return perThread * threads * (1 + ENROLLMENTS_PER_COURSE) / seconds;
+    }
+
+    private static void fill(CourseService service) {
+        for (int i = 0; i < SCAN_COURSES; i++) {
+            service.createCourse(newCourse(i));
+        }
+    }
+
+    private static String scanTimes(CourseService service) {
+        System.gc();
+        long checksum = 0;
+        double range = 0;
+        double department = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < SCANS; i++) {
+                checksum += service.getCoursesByCreditRange(1, 6).size();
+            }
+            range = (System.nanoTime() - start) / 1e6 / SCANS;
+            start = System.nanoTime();
+            for (int i = 0; i < SCANS; i++) {
+                checksum += service.findCoursesByDepartment("Department 1").size();
+            }
+            department = (System.nanoTime() - start) / 1e6 / SCANS;
+        }
+        return String.format("%,9.1f %,9.1f (%d)", range, department, checksum % 10);
+    }
+
+    private static Course newCourse(int i) {
+        Course course = new Course("SEC" + i, "Section " + i, "Instructor " + (i % 5_000), 1 + i % 6);
+        course.setDepartment("Department " + (i % 40));
+        course.setMaxStudents(ENROLLMENTS_PER_COURSE * 2);
+        return course;
+    }
+}
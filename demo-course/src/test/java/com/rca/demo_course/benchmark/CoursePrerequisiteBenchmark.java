@@ -0,0 +1,124 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Benchmark for prerequisite checks on a layered curriculum, comparing the precomputed closure
+ * bitsets with a traversal of the prerequisite edges on every check, as enrollment did without
+ * them. Also times the closure repair after changing an introductory course, which reaches most
+ * of the catalog.
+ * Not a unit test; run the main method, e.g.
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CoursePrerequisiteBenchmark}.
+ */
+public class CoursePrerequisiteBenchmark {
+
+    private static final int LAYERS = 12;
+    private static final int COURSES_PER_LAYER = 500;
+    private static final int PREREQUISITES_PER_COURSE = 3;
+    private static final int STUDENTS = 1_000;
+    private static final int CHECKS = 200_000;
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        Random random = new Random(42);
+        List<List<Course>> layers = new ArrayList<>();
+        for (int layer = 0; layer < LAYERS; layer++) {
+            List<Course> courses = new ArrayList<>();
+            for (int i = 0; i < COURSES_PER_LAYER; i++) {
+                Course course = new Course("L" + layer + "-" + i, "Course " + i, "Instructor", 3);
+                course.setMaxStudents(STUDENTS);
+                if (layer > 0) {
+                    List<Long> prerequisites = new ArrayList<>();
+                    for (int p = 0; p < PREREQUISITES_PER_COURSE; p++) {
+                        prerequisites.add(layers.get(layer - 1).get(random.nextInt(COURSES_PER_LAYER)).getId());
+                    }
+                    course.setPrerequisites(prerequisites);
+                }
+                courses.add(service.createCourse(course));
+            }
+            layers.add(courses);
+        }
+
+        // Each student has completed most of the first half of the curriculum
+        List<Set<Long>> completed = new ArrayList<>();
+        for (long student = 0; student < STUDENTS; student++) {
+            Set<Long> done = new HashSet<>();
+            for (int layer = 0; layer < LAYERS / 2; layer++) {
+                for (Course course : layers.get(layer)) {
+                    if (random.nextInt(10) > 0) {
+                        service.recordCompletion(course.getId(), student);
+                        done.add(course.getId());
+                    }
+                }
+            }
+            completed.add(done);
+        }
+        System.out.printf("%,d courses in %d layers, %d prerequisites each, %,d students, %d available processors%n%n",
+                LAYERS * COURSES_PER_LAYER, LAYERS, PREREQUISITES_PER_COURSE, STUDENTS,
+                Runtime.getRuntime().availableProcessors());
+
+        long checksum = 0;
+        for (int round = 0; round < 3; round++) {
+            Random picks = new Random(round);
+            long start = System.nanoTime();
+            for (int i = 0; i < CHECKS; i++) {
+                Course course = layers.get(picks.nextInt(LAYERS)).get(picks.nextInt(COURSES_PER_LAYER));
+                checksum += service.isEligible(course.getId(), (long) picks.nextInt(STUDENTS)) ? 1 : 0;
+            }
+            long bitsets = System.nanoTime() - start;
+
+            picks = new Random(round);
+            start = System.nanoTime();
+            for (int i = 0; i < CHECKS; i++) {
+                Course course = layers.get(picks.nextInt(LAYERS)).get(picks.nextInt(COURSES_PER_LAYER));
+                checksum += traverse(service, course.getId(), completed.get(picks.nextInt(STUDENTS))) ? 1 : 0;
+            }
+            long traversal = System.nanoTime() - start;
+            if (round == 2) {
+                System.out.printf("closure bitset check: %,10.0f ns%n", (double) bitsets / CHECKS);
+                System.out.printf("graph traversal:      %,10.0f ns%n", (double) traversal / CHECKS);
+            }
+        }
+
+        for (int round = 0; round < 5; round++) {
+            Course intro = layers.get(0).get(round);
+            Course update = new Course(intro.getCourseCode(), intro.getCourseName(), intro.getInstructor(), 3);
+            update.setMaxStudents(STUDENTS);
+            update.setPrerequisites(round % 2 == 0 ? List.of(layers.get(0).get(COURSES_PER_LAYER - 1).getId()) : List.of());
+            long start = System.nanoTime();
+            service.updateCourse(intro.getId(), update);
+            System.out.printf("update of an introductory course, closures repaired: %,8.2f ms%n",
+                    (System.nanoTime() - start) / 1e6);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Checks eligibility by walking the prerequisite edges, the cost every enrollment would pay.
+     */
+    private static boolean traverse(CourseServiceImpl service, Long courseId, Set<Long> completed) {
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(courseId);
+        while (!pending.isEmpty()) {
+            for (Long prerequisite : service.getCourseById(pending.pop()).orElseThrow().getPrerequisites()) {
+                if (visited.add(prerequisite)) {
+                    if (!completed.contains(prerequisite)) {
+                        return false;
+                    }
+                    pending.push(prerequisite);
+                }
+            }
+        }
+        return true;
+    }
+}
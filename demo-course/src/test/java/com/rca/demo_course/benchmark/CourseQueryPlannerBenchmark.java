@@ -0,0 +1,99 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.CourseCriteria;
+import com.rca.demo_course.service.QueryPlan;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Benchmark for planned multi-criteria queries over 500k courses, compared with a full scan
+ * verifying the same criteria on every course. Prints the plan chosen for each query.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseQueryPlannerBenchmark}.
+ */
+public class CourseQueryPlannerBenchmark {
+
+    private static final int COURSES = 500_000;
+    private static final String[] DEPARTMENTS = {
+            "Computer Science", "Mathematics", "Physics", "Chemistry", "Biology", "History",
+            "Economics", "Philosophy", "Linguistics", "Mechanical Engineering"
+    };
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        Random random = new Random(9);
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("C" + i, "Course " + i, "Instructor " + random.nextInt(20_000), 1 + random.nextInt(6));
+            course.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+            course.setMaxStudents(2);
+            LocalDate start = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(25 * 365));
+            course.setStartDate(start);
+            course.setEndDate(start.plusDays(30 + random.nextInt(90)));
+            Course created = service.createCourse(course);
+            if (random.nextInt(5) == 0) {
+                service.deactivateCourse(created.getId());
+            }
+            if (random.nextInt(3) == 0) {
+                service.enrollStudent(created.getId(), 1L);
+                service.enrollStudent(created.getId(), 2L);
+            }
+        }
+        List<Course> all = service.getAllCourses();
+
+        CourseCriteria byInstructor = new CourseCriteria();
+        byInstructor.setInstructor("Instructor 1234");
+        byInstructor.setDepartment("ics");
+        byInstructor.setActive(true);
+
+        CourseCriteria byDate = new CourseCriteria();
+        byDate.setDateFrom(LocalDate.of(2010, 9, 1));
+        byDate.setDateTo(LocalDate.of(2010, 9, 7));
+        byDate.setMinCredits(3);
+        byDate.setAvailableSpotsOnly(true);
+
+        CourseCriteria byCredits = new CourseCriteria();
+        byCredits.setMinCredits(6);
+        byCredits.setMaxCredits(6);
+        byCredits.setDepartment("Linguistics");
+        byCredits.setActive(true);
+        byCredits.setAvailableSpotsOnly(true);
+
+        run("instructor + department + active", service, byInstructor, all);
+        run("one week + credits + open", service, byDate, all);
+        run("credits + department + open", service, byCredits, all);
+    }
+
+    private static void run(String label, CourseServiceImpl service, CourseCriteria criteria, List<Course> all) {
+        QueryPlan plan = service.explainQuery(criteria);
+        double plannedMicros = median(() -> service.findCourses(criteria).size());
+        double scanMicros = median(() -> (int) all.stream().filter(criteria::matches).count());
+        System.out.println("== " + label);
+        System.out.println(plan.explain());
+        System.out.printf("planned %.1f us, full scan %.1f us, %d results%n%n",
+                plannedMicros, scanMicros, service.findCourses(criteria).size());
+    }
+
+    private static double median(IntSupplier query) {
+        long[] samples = new long[25];
+        int sink = 0;
+        for (int i = 0; i < 5; i++) {
+            sink += query.getAsInt();
+        }
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            sink += query.getAsInt();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        if (sink == -1) {
+            System.out.println();
+        }
+        return samples[samples.length / 2] / 1_000.0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.ReplicationStatus;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.service.impl.FollowerCourseService;
+import com.rca.demo_course.service.impl.ReplicationLeader;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark for leader-follower replication on localhost: the cost of an enrollment change with
+ * the replication log against without, the time for followers to join a populated leader from a
+ * snapshot and the longest a write waits meanwhile, and the lag of two followers while the leader
+ * takes a steady stream of enrollment changes, sampled from their replication status.
+ * Not a unit test; run the main method with a large heap, e.g.
+ * {@code java -Xmx4g -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseReplicationBenchmark}.
+ */
+public class CourseReplicationBenchmark {
+
+    private static final int COURSES = 100_000;
+    private static final int STUDENTS_PER_COURSE = 10;
+    private static final int CHANGES = 2_000_000;
+    private static final int FOLLOWERS = 2;
+    private static final String SECRET = "replication-benchmark-secret";
+    private static final int CHANGES_PER_SECOND = 100_000;
+    private static final Duration LOAD = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%,d courses x %d students, %d available processors%n%n",
+                COURSES, STUDENTS_PER_COURSE, Runtime.getRuntime().availableProcessors());
+
+        for (int round = 0; round < 2; round++) {
+            for (boolean replicated : new boolean[]{false, true}) {
+                CourseServiceImpl store = new CourseServiceImpl();
+                fill(store);
+                ReplicationLeader leader = replicated ? new ReplicationLeader(store, 0, 100_000, SECRET) : null;
+                Random random = new Random(42);
+                long start = System.nanoTime();
+                for (int i = 0; i < CHANGES; i += 2) {
+                    change(store, random);
+                }
+                long elapsed = System.nanoTime() - start;
+                if (round == 1) {
+                    System.out.printf("%-16s %,6.0f ns per change%n",
+                            replicated ? "with log:" : "without log:", (double) elapsed / CHANGES);
+                }
+                if (leader != null) {
+                    leader.close();
+                }
+            }
+        }
+
+        CourseServiceImpl store = new CourseServiceImpl();
+        fill(store);
+        ReplicationLeader leader = new ReplicationLeader(store, 0, 100_000, SECRET);
+        FollowerCourseService[] followers = new FollowerCourseService[FOLLOWERS];
+        // Writes continue while followers join; snapshots hold them only while the store is copied
+        AtomicBoolean joining = new AtomicBoolean(true);
+        AtomicLong longestWrite = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(3);
+            while (joining.get()) {
+                long begin = System.nanoTime();
+                change(store, random);
+                longestWrite.accumulateAndGet(System.nanoTime() - begin, Math::max);
+            }
+        });
+        writer.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers[i] = new FollowerCourseService("localhost", leader.getPort(), SECRET);
+        }
+        for (FollowerCourseService follower : followers) {
+            if (!follower.awaitSequence(leader.getLastSequence(), Duration.ofMinutes(1))) {
+                throw new IllegalStateException("Follower did not catch up");
+            }
+        }
+        long joined = System.nanoTime() - start;
+        joining.set(false);
+        writer.join();
+        for (FollowerCourseService follower : followers) {
+            follower.awaitSequence(leader.getLastSequence(), Duration.ofMinutes(1));
+        }
+        System.out.printf("%n%d followers joined from a snapshot under writes in %,d ms; longest write meanwhile %,d ms%n",
+                FOLLOWERS, joined / 1_000_000, longestWrite.get() / 1_000_000);
+
+        long[] lags = load(store, leader, followers);
+        Arrays.sort(lags);
+        System.out.printf("lag at %,d changes per second: p50 %d ms, p99 %d ms, max %d ms over %d samples%n",
+                CHANGES_PER_SECOND, lags[lags.length / 2], lags[lags.length * 99 / 100], lags[lags.length - 1], lags.length);
+        for (FollowerCourseService follower : followers) {
+            follower.awaitSequence(leader.getLastSequence(), Duration.ofMinutes(1));
+            System.out.println(follower.getReplicationStatus());
+        }
+        System.out.println(leader.getReplicationStatus());
+        for (FollowerCourseService follower : followers) {
+            follower.close();
+        }
+        leader.close();
+    }
+
+    /**
+     * Makes enrollment changes at a fixed rate while sampling the followers' lag every 10 ms.
+     */
+    private static long[] load(CourseServiceImpl store, ReplicationLeader leader, FollowerCourseService[] followers)
+            throws InterruptedException {
+        int samples = (int) (LOAD.toMillis() / 10) * followers.length;
+        long[] lags = new long[samples];
+        int sampled = 0;
+        Random random = new Random(7);
+        long begin = System.nanoTime();
+        long nextSample = begin;
+        long made = 0;
+        while (sampled < samples) {
+            long now = System.nanoTime();
+            long due = (now - begin) * CHANGES_PER_SECOND / 1_000_000_000L;
+            while (made < due) {
+                change(store, random);
+                made += 2;
+            }
+            if (now >= nextSample) {
+                for (FollowerCourseService follower : followers) {
+                    ReplicationStatus status = follower.getReplicationStatus();
+                    lags[sampled++] = status.getLagMillis();
+                }
+                nextSample += 10_000_000L;
+            } else {
+                Thread.sleep(1);
+            }
+        }
+        return lags;
+    }
+
+    private static void fill(CourseServiceImpl store) {
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("SEC" + i, "Section " + i, "Instructor " + (i % 500), 3);
+            course.setDepartment("Department " + (i % 40));
+            course.setMaxStudents(STUDENTS_PER_COURSE * 4);
+            long id = store.createCourse(course).getId();
+            for (int j = 0; j < STUDENTS_PER_COURSE; j++) {
+                store.enrollStudent(id, i * 1_000L + j);
+            }
+        }
+    }
+
+    /**
+     * Swaps a random student of a random course for another, so course sizes stay put.
+     */
+    private static void change(CourseServiceImpl store, Random random) {
+        long id = 1 + random.nextInt(COURSES);
+        Course course = store.getCourseById(id).orElseThrow();
+        Long leaving = course.getEnrolledStudents().get(random.nextInt(course.getEnrolledStudents().size()));
+        store.unenrollStudent(id, leaving);
+        long joining;
+        do {
+            joining = id * 1_000L + random.nextInt(1_000);
+        } while (course.isEnrolled(joining));
+        store.enrollStudent(id, joining);
+    }
+}
@@ -0,0 +1,86 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark for per-department enrollment reports over a large catalog, comparing
+ * aggregation over {@code getAllCourses()} with the incrementally maintained totals, and
+ * the cost the totals add to enrollment.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseReportBenchmark}.
+ */
+public class CourseReportBenchmark {
+
+    private static final int COURSES = 200_000;
+    private static final int DEPARTMENTS = 50;
+    private static final int INSTRUCTORS = 2_000;
+    private static final int ENROLLMENTS = 2_000_000;
+    private static final int REPORTS = 200;
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        Random random = new Random(42);
+        List<Long> courseIds = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("RPT" + i, "Report course " + i, "Instructor " + random.nextInt(INSTRUCTORS),
+                    1 + random.nextInt(6));
+            course.setDepartment("Department " + random.nextInt(DEPARTMENTS));
+            course.setMaxStudents(100);
+            courseIds.add(service.createCourse(course).getId());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ENROLLMENTS; i++) {
+            service.enrollStudent(courseIds.get(i % COURSES), (long) i);
+        }
+        double enrollNanos = (double) (System.nanoTime() - start) / ENROLLMENTS;
+
+        System.out.printf("%,d courses, %d departments, %,d enrollments, %d available processors%n%n",
+                COURSES, DEPARTMENTS, ENROLLMENTS, Runtime.getRuntime().availableProcessors());
+        System.out.printf("enrollment with maintained totals: %,.0f ns%n", enrollNanos);
+
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            start = System.nanoTime();
+            for (int i = 0; i < REPORTS; i++) {
+                checksum += scanReport(service).size();
+            }
+            double scanMicros = (System.nanoTime() - start) / 1e3 / REPORTS;
+            start = System.nanoTime();
+            for (int i = 0; i < REPORTS * 100; i++) {
+                checksum += service.getDepartmentReport().size();
+            }
+            double maintainedMicros = (System.nanoTime() - start) / 1e3 / (REPORTS * 100);
+            if (warmup == 1) {
+                System.out.printf("department report via getAllCourses(): %,12.1f us%n", scanMicros);
+                System.out.printf("department report, maintained:         %,12.1f us%n", maintainedMicros);
+            }
+        }
+        start = System.nanoTime();
+        List<String> mismatches = service.verifyEnrollmentAggregates();
+        System.out.printf("consistency check: %d mismatches in %,.1f ms (checksum %d)%n",
+                mismatches.size(), (System.nanoTime() - start) / 1e6, checksum);
+    }
+
+    private static List<EnrollmentReport> scanReport(CourseServiceImpl service) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Course course : service.getAllCourses()) {
+            long[] group = totals.computeIfAbsent(course.getDepartment(), key -> new long[4]);
+            group[0]++;
+            group[1] += course.getCurrentEnrollment();
+            group[2] += course.getMaxStudents();
+            group[3] += (long) course.getCurrentEnrollment() * course.getCredits();
+        }
+        List<EnrollmentReport> reports = new ArrayList<>();
+        totals.forEach((department, group) ->
+                reports.add(new EnrollmentReport(department, group[0], group[1], group[2], group[3])));
+        return reports;
+    }
+}
@@ -0,0 +1,74 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark for indexed code / instructor / department search over a large catalog,
+ * compared with the former lowercase-and-contains scan over every course.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseSearchBenchmark}.
+ */
+public class CourseSearchBenchmark {
+
+    private static final int COURSES = 500_000;
+    private static final String[] DEPARTMENTS = {
+            "Computer Science", "Mathematics", "Physics", "Chemistry", "Biology", "History",
+            "Economics", "Philosophy", "Linguistics", "Mechanical Engineering"
+    };
+
+    public static void main(String[] args) {
+        CourseServiceImpl service = new CourseServiceImpl();
+        for (int i = 0; i < COURSES; i++) {
+            String department = DEPARTMENTS[i % DEPARTMENTS.length];
+            Course course = new Course(department.substring(0, 3).toUpperCase(Locale.ROOT) + i,
+                    "Course " + i, "Instructor " + (i % 5_000), 1 + i % 6);
+            course.setDepartment(department);
+            course.setMaxStudents(100);
+            service.createCourse(course);
+        }
+        List<Course> all = service.getAllCourses();
+
+        System.out.printf("%-32s %12s %12s %10s%n", "query", "index us", "scan us", "results");
+        run("code 'PHY12345'", () -> service.findCoursesByCode("PHY12345"), "PHY12345", all, Course::getCourseCode);
+        run("code '4999'", () -> service.findCoursesByCode("4999"), "4999", all, Course::getCourseCode);
+        run("instructor 'instructor 4321'", () -> service.findCoursesByInstructor("instructor 4321"),
+                "instructor 4321", all, Course::getInstructor);
+        run("department 'linguistics'", () -> service.findCoursesByDepartment("linguistics"),
+                "linguistics", all, Course::getDepartment);
+    }
+
+    private static void run(String label, Supplier<List<Course>> indexed, String query,
+                            List<Course> all, Function<Course, String> field) {
+        double indexMicros = median(() -> indexed.get().size());
+        double scanMicros = median(() -> (int) all.stream()
+                .filter(c -> field.apply(c) != null && field.apply(c).toLowerCase().contains(query.toLowerCase()))
+                .count());
+        System.out.printf("%-32s %12.1f %12.1f %10d%n", label, indexMicros, scanMicros, indexed.get().size());
+    }
+
+    private static double median(IntSupplier query) {
+        long[] samples = new long[25];
+        int sink = 0;
+        for (int i = 0; i < 5; i++) {
+            sink += query.getAsInt();
+        }
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            sink += query.getAsInt();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        if (sink == -1) {
+            System.out.println();
+        }
+        return samples[samples.length / 2] / 1_000.0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for enrollment into a few hot courses from 64 threads, comparing
+ * lock-based {@code enrollStudent} with surge-mode {@code enrollStudentAsync}, either waiting
+ * on every future or keeping a window of requests in flight per caller.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseSurgeEnrollmentBenchmark}.
+ */
+public class CourseSurgeEnrollmentBenchmark {
+
+    private static final int THREADS = 64;
+    private static final int HOT_COURSES = 4;
+    private static final int WINDOW = 32;
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 3_000;
+
+    private enum Mode { LOCKED, SURGE_WAIT_EACH, SURGE_WINDOWED }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d threads, %d hot courses, %d available processors%n%n",
+                THREADS, HOT_COURSES, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-18s %16s%n", "mode", "enrollments/s");
+        for (Mode mode : Mode.values()) {
+            System.out.printf("%-18s %,16.0f%n", mode.name().toLowerCase(), run(mode));
+        }
+    }
+
+    private static double run(Mode mode) throws Exception {
+        CourseServiceImpl service = new CourseServiceImpl();
+        long[] courseIds = new long[HOT_COURSES];
+        for (int i = 0; i < HOT_COURSES; i++) {
+            Course course = new Course("HOT" + i, "Hot course " + i, "Dr. Smith", 3);
+            course.setMaxStudents(Integer.MAX_VALUE);
+            courseIds[i] = service.createCourse(course).getId();
+        }
+        service.setSurgeMode(mode != Mode.LOCKED);
+
+        LongAdder completed = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long firstStudent = (long) t << 32;
+            Long courseId = courseIds[t % HOT_COURSES];
+            Thread caller = new Thread(() -> {
+                long studentId = firstStudent;
+                List<CompletableFuture<Boolean>> window = new ArrayList<>(WINDOW);
+                while (!stop.get()) {
+                    switch (mode) {
+                        case LOCKED -> service.enrollStudent(courseId, studentId++);
+                        case SURGE_WAIT_EACH -> service.enrollStudentAsync(courseId, studentId++).join();
+                        case SURGE_WINDOWED -> {
+                            for (int i = 0; i < WINDOW; i++) {
+                                window.add(service.enrollStudentAsync(courseId, studentId++));
+                            }
+                            CompletableFuture.allOf(window.toArray(new CompletableFuture[0])).join();
+                            completed.add(WINDOW - 1);
+                            window.clear();
+                        }
+                    }
+                    completed.increment();
+                }
+                done.countDown();
+            });
+            caller.setDaemon(true);
+            caller.start();
+        }
+
+        Thread.sleep(WARMUP_MILLIS);
+        long before = completed.sum();
+        long start = System.nanoTime();
+        Thread.sleep(MEASURE_MILLIS);
+        long after = completed.sum();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stop.set(true);
+        done.await();
+        return (after - before) / seconds;
+    }
+}
@@ -0,0 +1,104 @@
+package com.rca.demo_course.benchmark;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mixed read/update benchmark comparing versioned updates, where readers never block and a
+ * stale writer retries, with a baseline that serializes every read and update on one monitor.
+ * Updates are read-modify-write cycles that raise a course's capacity by one.
+ * Not a unit test; run the main method from the IDE or with
+ * {@code java -cp demo-course/target/classes:demo-course/target/test-classes com.rca.demo_course.benchmark.CourseVersionedUpdateBenchmark}.
+ */
+public class CourseVersionedUpdateBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int COURSES = 1_000;
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 3_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d threads, %,d courses, %d available processors%n%n",
+                THREADS, COURSES, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-13s %16s %12s%n", "reads", "mode", "ops/s", "conflicts");
+        for (int readPercent : new int[] {95, 80, 50}) {
+            for (boolean synchronizedBaseline : new boolean[] {true, false}) {
+                run(readPercent, synchronizedBaseline);
+            }
+        }
+    }
+
+    private static void run(int readPercent, boolean synchronizedBaseline) throws Exception {
+        CourseServiceImpl service = new CourseServiceImpl();
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course("VER" + i, "Versioned course " + i, "Dr. Smith", 3);
+            course.setMaxStudents(100);
+            service.createCourse(course);
+        }
+        Object monitor = new Object();
+        LongAdder operations = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    long id = 1 + random.nextInt(COURSES);
+                    boolean read = random.nextInt(100) < readPercent;
+                    if (synchronizedBaseline) {
+                        synchronized (monitor) {
+                            Course current = service.getCourseById(id).orElseThrow();
+                            if (!read) {
+                                service.updateCourse(id, raised(current, 0));
+                            }
+                        }
+                    } else if (read) {
+                        service.getCourseById(id).orElseThrow();
+                    } else {
+                        while (true) {
+                            Course current = service.getCourseById(id).orElseThrow();
+                            try {
+                                service.updateCourse(id, raised(current, current.getVersion()));
+                                break;
+                            } catch (ConcurrentModificationException e) {
+                                conflicts.increment();
+                            }
+                        }
+                    }
+                    operations.increment();
+                }
+                done.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        Thread.sleep(WARMUP_MILLIS);
+        long before = operations.sum();
+        long conflictsBefore = conflicts.sum();
+        long start = System.nanoTime();
+        Thread.sleep(MEASURE_MILLIS);
+        long after = operations.sum();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long measuredConflicts = conflicts.sum() - conflictsBefore;
+        stop.set(true);
+        done.await();
+        System.out.printf("%-8s %-13s %,16.0f %,12d%n", readPercent + "%",
+                synchronizedBaseline ? "synchronized" : "versioned", (after - before) / seconds, measuredConflicts);
+    }
+
+    private static Course raised(Course current, long version) {
+        Course update = new Course(current.getCourseCode(), current.getCourseName(), current.getInstructor(),
+                current.getCredits());
+        update.setMaxStudents(current.getMaxStudents() + 1);
+        update.setVersion(version);
+        return update;
+    }
+}
@@ -0,0 +1,344 @@
+package com.rca.demo_course.controller;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.BulkEnrollmentResult;
+import com.rca.demo_course.service.CourseInUseException;
+import com.rca.demo_course.service.CourseService;
+import com.rca.demo_course.service.EnrollmentReport;
+import com.rca.demo_course.service.EnrollmentSubscription;
+import com.rca.demo_course.service.HistoryNotEnabledException;
+import com.rca.demo_course.service.ReplicationMember;
+import com.rca.demo_course.service.ReplicationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for CourseController.
+ * Tests versioned updates, catalog history, bulk enrollment, student course lookups, reports, the
+ * enrollment event stream and replication status.
+ */
+@WebMvcTest(CourseController.class)
+public class CourseControllerTest {
+
+    private static final String BULK_REQUEST = "{\"courseIds\":[1,2],\"studentIds\":[10]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CourseService courseService;
+
+    @MockitoBean
+    private ReplicationMember replicationMember;
+
+    @Test
+    @DisplayName("Should return 200 with outcomes when the bulk enrollment is applied")
+    void testBulkEnrollmentApplied() throws Exception {
+        // Given
+        BulkEnrollmentResult result = new BulkEnrollmentResult(true, List.of(
+                new BulkEnrollmentResult.Outcome(1L, 10L, BulkEnrollmentResult.Status.ENROLLED),
+                new BulkEnrollmentResult.Outcome(2L, 10L, BulkEnrollmentResult.Status.ALREADY_ENROLLED)));
+        when(courseService.enrollStudents(List.of(1L, 2L), List.of(10L))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/courses/enrollments/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BULK_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true))
+                .andExpect(jsonPath("$.enrolledCount").value(1))
+                .andExpect(jsonPath("$.outcomes[1].status").value("ALREADY_ENROLLED"));
+    }
+
+    @Test
+    @DisplayName("Should return 409 with outcomes when the bulk enrollment is rejected")
+    void testBulkEnrollmentRejected() throws Exception {
+        // Given
+        BulkEnrollmentResult result = new BulkEnrollmentResult(false, List.of(
+                new BulkEnrollmentResult.Outcome(1L, 10L, BulkEnrollmentResult.Status.NOT_APPLIED),
+                new BulkEnrollmentResult.Outcome(2L, 10L, BulkEnrollmentResult.Status.COURSE_FULL)));
+        when(courseService.enrollStudents(List.of(1L, 2L), List.of(10L))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/courses/enrollments/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BULK_REQUEST))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.failureCount").value(1))
+                .andExpect(jsonPath("$.outcomes[1].status").value("COURSE_FULL"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an invalid bulk enrollment")
+    void testBulkEnrollmentInvalid() throws Exception {
+        // Given
+        when(courseService.enrollStudents(null, List.of(10L)))
+                .thenThrow(new IllegalArgumentException("Course IDs cannot be null or empty"));
+
+        // When & Then
+        mockMvc.perform(post("/api/courses/enrollments/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"studentIds\":[10]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Course IDs cannot be null or empty"));
+    }
+
+    @Test
+    @DisplayName("Should list the courses of a student")
+    void testGetCoursesForStudent() throws Exception {
+        // Given
+        Course course = new Course("CS101", "Introduction to Programming", "Dr. Smith", 3);
+        course.setId(1L);
+        when(courseService.getCoursesForStudent(10L)).thenReturn(List.of(course));
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/students/10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].courseCode").value("CS101"));
+    }
+
+    @Test
+    @DisplayName("Should open an enrollment event stream for the requested filter")
+    void testStreamEnrollments() throws Exception {
+        // Given
+        when(courseService.subscribeToEnrollments(any(), any(), any())).thenReturn(mock(EnrollmentSubscription.class));
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/enrollments/stream")
+                .param("department", "Computer Science")
+                .param("windowMs", "500"))
+                .andExpect(request().asyncStarted());
+        verify(courseService).subscribeToEnrollments(any(), eq(Duration.ofMillis(500)), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive coalescing window")
+    void testStreamEnrollmentsInvalidWindow() throws Exception {
+        mockMvc.perform(get("/api/courses/enrollments/stream").param("windowMs", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should report totals per department and their consistency")
+    void testDepartmentReport() throws Exception {
+        // Given
+        when(courseService.getDepartmentReport())
+                .thenReturn(List.of(new EnrollmentReport("Computer Science", 2, 15, 60, 45)));
+        when(courseService.verifyEnrollmentAggregates()).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/reports/departments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].group").value("Computer Science"))
+                .andExpect(jsonPath("$[0].enrolled").value(15))
+                .andExpect(jsonPath("$[0].fillRate").value(0.25));
+        mockMvc.perform(get("/api/courses/reports/consistency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(true));
+    }
+
+    @Test
+    @DisplayName("Should update a course and return its new version")
+    void testUpdateCourse() throws Exception {
+        // Given
+        Course updated = new Course("CS101", "Introduction to Programming", "Dr. Smith", 3);
+        updated.setId(1L);
+        updated.setVersion(3L);
+        when(courseService.updateCourse(eq(1L), any(Course.class))).thenReturn(updated);
+
+        // When & Then
+        mockMvc.perform(put("/api/courses/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseCode\":\"CS101\",\"courseName\":\"Introduction to Programming\","
+                        + "\"instructor\":\"Dr. Smith\",\"credits\":3,\"maxStudents\":30,\"version\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    @DisplayName("Should keep the current status when the update body leaves it out")
+    void testUpdateCourseKeepsStatus() throws Exception {
+        // Given
+        Course current = new Course("CS101", "Introduction to Programming", "Dr. Smith", 3);
+        current.setId(1L);
+        current.setVersion(2L);
+        when(courseService.getCourseById(1L)).thenReturn(Optional.of(current));
+        when(courseService.updateCourse(eq(1L), any(Course.class))).thenReturn(current);
+
+        // When
+        mockMvc.perform(put("/api/courses/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseCode\":\"CS101\",\"courseName\":\"Programming I\","
+                        + "\"instructor\":\"Dr. Smith\",\"credits\":3,\"maxStudents\":30,\"version\":2}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/courses/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseCode\":\"CS101\",\"courseName\":\"Programming I\","
+                        + "\"instructor\":\"Dr. Smith\",\"credits\":3,\"maxStudents\":30,\"version\":2,"
+                        + "\"active\":false}"))
+                .andExpect(status().isOk());
+
+        // Then
+        ArgumentCaptor<Course> updates = ArgumentCaptor.forClass(Course.class);
+        verify(courseService, times(2)).updateCourse(eq(1L), updates.capture());
+        assertTrue(updates.getAllValues().get(0).isActive());
+        assertFalse(updates.getAllValues().get(1).isActive());
+    }
+
+    @Test
+    @DisplayName("Should return 409 with the current course on a version conflict")
+    void testUpdateCourseConflict() throws Exception {
+        // Given
+        Course current = new Course("CS101", "Introduction to Programming", "Dr. Smith", 3);
+        current.setId(1L);
+        current.setVersion(3L);
+        when(courseService.updateCourse(eq(1L), any(Course.class)))
+                .thenThrow(new ConcurrentModificationException("Course with ID 1 was modified concurrently"));
+        when(courseService.getCourseById(1L)).thenReturn(Optional.of(current));
+
+        // When & Then
+        mockMvc.perform(put("/api/courses/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseCode\":\"CS101\",\"courseName\":\"Introduction to Programming\","
+                        + "\"instructor\":\"Dr. Smith\",\"credits\":3,\"maxStudents\":30,\"version\":2}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.version").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return the catalog as of an instant")
+    void testGetCatalogAsOf() throws Exception {
+        // Given
+        Course course = new Course("CS101", "Introduction to Programming", "Dr. Smith", 3);
+        course.setId(1L);
+        course.setEnrolledStudents(List.of(10L));
+        when(courseService.getAllCoursesAsOf(Instant.parse("2025-09-01T00:00:00Z"))).thenReturn(List.of(course));
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/history").param("asOf", "2025-09-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].courseCode").value("CS101"))
+                .andExpect(jsonPath("$[0].enrolledStudents[0]").value(10));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for a course that did not exist at the instant")
+    void testGetCourseAsOfNotFound() throws Exception {
+        // Given
+        when(courseService.getCourseByIdAsOf(1L, Instant.parse("2025-09-01T00:00:00Z"))).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/1/history").param("asOf", "2025-09-01T00:00:00Z"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should delete a course")
+    void testDeleteCourse() throws Exception {
+        // Given
+        when(courseService.deleteCourse(1L)).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(delete("/api/courses/1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/courses/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should return 409 when deleting a course other courses require")
+    void testDeleteRequiredCourse() throws Exception {
+        // Given
+        when(courseService.deleteCourse(1L)).thenThrow(new CourseInUseException(1L));
+
+        // When & Then
+        mockMvc.perform(delete("/api/courses/1"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Course with ID 1 is a prerequisite of other courses"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an instant older than the retained history")
+    void testHistoryPastRetention() throws Exception {
+        // Given
+        when(courseService.getAllCoursesAsOf(any(Instant.class)))
+                .thenThrow(new IllegalArgumentException("Instant is older than the retained catalog history"));
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/history").param("asOf", "2020-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Instant is older than the retained catalog history"));
+    }
+
+    @Test
+    @DisplayName("Should return 501 when catalog history is not enabled")
+    void testHistoryNotEnabled() throws Exception {
+        // Given
+        when(courseService.getCoursesForStudentAsOf(eq(10L), any(Instant.class)))
+                .thenThrow(new HistoryNotEnabledException());
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/students/10/history").param("asOf", "2025-09-01T00:00:00Z"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.error").value("Catalog history is not enabled"));
+    }
+
+    @Test
+    @DisplayName("Should return 501 when writing to a read-only follower")
+    void testUpdateOnFollower() throws Exception {
+        // Given
+        when(courseService.updateCourse(eq(1L), any(Course.class)))
+                .thenThrow(new UnsupportedOperationException("Course store is a read-only follower"));
+
+        // When & Then
+        mockMvc.perform(put("/api/courses/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseCode\":\"CS101\",\"courseName\":\"Introduction to Programming\","
+                        + "\"instructor\":\"Dr. Smith\",\"credits\":3,\"maxStudents\":30}"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.error").value("Course store is a read-only follower"));
+    }
+
+    @Test
+    @DisplayName("Should return the replication role and lag")
+    void testReplicationStatus() throws Exception {
+        // Given
+        when(replicationMember.getReplicationStatus()).thenReturn(
+                new ReplicationStatus(ReplicationStatus.Role.FOLLOWER, true, 10L, 7L, 120L, List.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/courses/replication"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("FOLLOWER"))
+                .andExpect(jsonPath("$.recordsBehind").value(3))
+                .andExpect(jsonPath("$.lagMillis").value(120));
+    }
+}
@@ -0,0 +1,107 @@
+package com.rca.demo_course.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Course enrollment handling.
+ */
+@DisplayName("Course Enrollment Tests")
+public class CourseTest {
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        course = new Course("CS101", "Introduction to Computer Science", "Dr. Smith", 3);
+        course.setMaxStudents(3);
+        course.setEnrolledStudents(new ArrayList<>());
+    }
+
+    @Test
+    @DisplayName("Should enroll up to capacity and reject more")
+    void shouldEnrollUpToCapacity() {
+        course.enrollStudent(1L);
+        course.enrollStudent(2L);
+        course.enrollStudent(2L);
+        course.enrollStudent(3L);
+
+        assertEquals(3, course.getCurrentEnrollment());
+        assertTrue(course.isFull());
+        assertThrows(IllegalStateException.class, () -> course.enrollStudent(4L));
+    }
+
+    @Test
+    @DisplayName("Should unenroll and report membership")
+    void shouldUnenroll() {
+        course.enrollStudent(1L);
+        course.enrollStudent(2L);
+
+        course.unenrollStudent(1L);
+
+        assertFalse(course.isEnrolled(1L));
+        assertTrue(course.isEnrolled(2L));
+        assertFalse(course.isEnrolled(null));
+        assertEquals(List.of(2L), course.getEnrolledStudents());
+    }
+
+    @Test
+    @DisplayName("List view should reflect and update enrollment")
+    void listViewShouldBeLive() {
+        List<Long> view = course.getEnrolledStudents();
+
+        view.add(7L);
+        course.enrollStudent(8L);
+
+        assertEquals(Arrays.asList(7L, 8L), view);
+        assertTrue(view.contains(8L));
+
+        assertTrue(view.remove(Long.valueOf(7L)));
+        assertFalse(course.isEnrolled(7L));
+    }
+
+    @Test
+    @DisplayName("Iterator removal should visit every student once")
+    void iteratorRemovalShouldVisitEveryStudent() {
+        course.setMaxStudents(10);
+        for (long id = 1; id <= 5; id++) {
+            course.enrollStudent(id);
+        }
+
+        List<Long> visited = new ArrayList<>();
+        Iterator<Long> iterator = course.getEnrolledStudents().iterator();
+        while (iterator.hasNext()) {
+            Long id = iterator.next();
+            visited.add(id);
+            if (id % 2 == 1) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(5, visited.size());
+        assertEquals(2, course.getCurrentEnrollment());
+        assertTrue(course.isEnrolled(2L));
+        assertTrue(course.isEnrolled(4L));
+    }
+
+    @Test
+    @DisplayName("Course without enrollment list should ignore enrollments")
+    void courseWithoutListShouldIgnoreEnrollments() {
+        Course bare = new Course("CS102", "Data Structures", "Dr. Jones", 3);
+        bare.setMaxStudents(10);
+
+        bare.enrollStudent(1L);
+
+        assertNull(bare.getEnrolledStudents());
+        assertEquals(0, bare.getCurrentEnrollment());
+        assertFalse(bare.isEnrolled(1L));
+    }
+}
@@ -0,0 +1,455 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.ColumnarCourseService;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ColumnarCourseService.
+ * Queries are checked against CourseServiceImpl on the same data.
+ */
+@DisplayName("Columnar Course Service Tests")
+public class ColumnarCourseServiceTest {
+
+    private ColumnarCourseService courseService;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new ColumnarCourseService();
+    }
+
+    private Course newCourse(String code, String instructor, String department, int credits) {
+        Course course = new Course(code, "Course " + code, instructor, credits);
+        course.setDepartment(department);
+        course.setMaxStudents(30);
+        return course;
+    }
+
+    private Course createCourse(String code, String instructor, String department, int credits) {
+        return courseService.createCourse(newCourse(code, instructor, department, credits));
+    }
+
+    private static List<Long> ids(List<Course> courses) {
+        return courses.stream().map(Course::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should round-trip every field through the columns")
+    void shouldRoundTripFields() {
+        // Given
+        Course course = newCourse("CS101", "Dr. Smith", "Computer Science", 4);
+        course.setDescription("Intro to programming");
+        course.setStartDate(LocalDate.of(2025, 9, 1));
+        course.setEndDate(LocalDate.of(2025, 12, 15));
+        course.setEnrolledStudents(List.of(7L, 8L));
+
+        // When
+        Course created = courseService.createCourse(course);
+        Course read = courseService.getCourseById(created.getId()).orElseThrow();
+
+        // Then
+        assertEquals(Long.valueOf(1L), read.getId());
+        assertEquals("CS101", read.getCourseCode());
+        assertEquals("Course CS101", read.getCourseName());
+        assertEquals("Intro to programming", read.getDescription());
+        assertEquals("Dr. Smith", read.getInstructor());
+        assertEquals("Computer Science", read.getDepartment());
+        assertEquals(4, read.getCredits());
+        assertEquals(30, read.getMaxStudents());
+        assertEquals(LocalDate.of(2025, 9, 1), read.getStartDate());
+        assertEquals(LocalDate.of(2025, 12, 15), read.getEndDate());
+        assertTrue(read.isActive());
+        assertEquals(1L, read.getVersion());
+        assertEquals(2, read.getCurrentEnrollment());
+        assertTrue(read.isEnrolled(8L));
+    }
+
+    @Test
+    @DisplayName("Should return detached copies that callers cannot corrupt")
+    void shouldReturnDetachedCopies() {
+        // Given
+        Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+
+        // When
+        Course read = courseService.getCourseById(course.getId()).orElseThrow();
+        read.setCourseCode("HACKED");
+        read.enrollStudent(99L);
+        courseService.enrollStudent(course.getId(), 1L);
+
+        // Then
+        Course reread = courseService.getCourseById(course.getId()).orElseThrow();
+        assertEquals("CS101", reread.getCourseCode());
+        assertFalse(reread.isEnrolled(99L));
+        assertEquals(1, reread.getCurrentEnrollment());
+        assertEquals(0, course.getCurrentEnrollment());
+    }
+
+    @Test
+    @DisplayName("Should keep ID order and lookups across deletes and compaction")
+    void shouldKeepOrderAcrossDeletes() {
+        // Given
+        for (int i = 0; i < 5_000; i++) {
+            createCourse("C" + i, "Instructor " + i % 7, "Dept " + i % 3, 3);
+        }
+
+        // When: delete enough rows to compact the columns
+        for (long id = 1; id <= 5_000; id++) {
+            if (id % 4 != 0) {
+                assertTrue(courseService.deleteCourse(id));
+            }
+        }
+        assertFalse(courseService.deleteCourse(1L));
+        Course added = createCourse("NEW", "Dr. New", "Dept 0", 2);
+
+        // Then
+        List<Long> ids = ids(courseService.getAllCourses());
+        assertEquals(1_251, ids.size());
+        assertEquals(Long.valueOf(4L), ids.get(0));
+        assertEquals(added.getId(), ids.get(ids.size() - 1));
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1));
+        }
+        assertEquals("C3999", courseService.getCourseById(4_000L).orElseThrow().getCourseCode());
+        assertTrue(courseService.getCourseById(4_001L).isEmpty());
+        assertEquals(1_251, courseService.getTotalCourseCount());
+    }
+
+    @Test
+    @DisplayName("Should update with version checks and keep enrollments")
+    void shouldUpdateWithVersionChecks() {
+        // Given
+        Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+        courseService.enrollStudent(course.getId(), 1L);
+        Course update = newCourse("CS102", "Dr. Jones", "Math", 4);
+        update.setVersion(1L);
+
+        // When
+        Course updated = courseService.updateCourse(course.getId(), update);
+
+        // Then
+        assertEquals(2L, updated.getVersion());
+        assertEquals("Dr. Jones", updated.getInstructor());
+        assertTrue(updated.isEnrolled(1L));
+        assertTrue(courseService.findCoursesByInstructor("smith").isEmpty());
+        assertEquals(List.of(course.getId()), ids(courseService.findCoursesByDepartment("mat")));
+        Course stale = newCourse("CS103", "Dr. Smith", "CS", 3);
+        stale.setVersion(1L);
+        assertThrows(ConcurrentModificationException.class, () -> courseService.updateCourse(course.getId(), stale));
+        assertThrows(NoSuchElementException.class, () -> courseService.updateCourse(99L, stale));
+    }
+
+    @Test
+    @DisplayName("Should enforce enrollment rules")
+    void shouldEnforceEnrollmentRules() {
+        // Given
+        Course course = newCourse("CS101", "Dr. Smith", "CS", 3);
+        course.setMaxStudents(1);
+        Long id = courseService.createCourse(course).getId();
+
+        // When
+        courseService.enrollStudent(id, 1L);
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(id, 1L));
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(id, 2L));
+        assertThrows(NoSuchElementException.class, () -> courseService.enrollStudent(99L, 2L));
+        assertThrows(IllegalStateException.class, () -> courseService.unenrollStudent(id, 2L));
+        assertEquals(List.of(id), ids(courseService.getCoursesForStudent(1L)));
+        assertTrue(courseService.unenrollStudent(id, 1L));
+        assertEquals(0, courseService.getEnrollmentCount(id));
+        assertTrue(courseService.getCoursesForStudent(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should enroll all or nothing in bulk")
+    void shouldEnrollAllOrNothingInBulk() {
+        // Given
+        Course small = newCourse("CS101", "Dr. Smith", "CS", 3);
+        small.setMaxStudents(1);
+        Long smallId = courseService.createCourse(small).getId();
+        Long largeId = createCourse("CS102", "Dr. Smith", "CS", 3).getId();
+
+        // When
+        BulkEnrollmentResult rejected = courseService.enrollStudents(List.of(largeId, smallId), List.of(1L, 2L));
+        BulkEnrollmentResult applied = courseService.enrollStudents(List.of(largeId), List.of(1L, 2L));
+
+        // Then
+        assertFalse(rejected.isApplied());
+        assertEquals(2, rejected.getFailureCount());
+        assertTrue(applied.isApplied());
+        assertEquals(2, applied.getEnrolledCount());
+        assertEquals(0, courseService.getEnrollmentCount(smallId));
+        assertEquals(2, courseService.getEnrollmentCount(largeId));
+    }
+
+    @Test
+    @DisplayName("Should answer queries and reports like CourseServiceImpl")
+    void shouldMatchIndexedService() {
+        // Given
+        CourseServiceImpl indexed = new CourseServiceImpl();
+        String[] departments = {"Computer Science", "Mathematics", "Physics", "History"};
+        Random random = new Random(5);
+        for (int i = 0; i < 2_000; i++) {
+            Course course = newCourse("C" + i, "Instructor " + (i % 150), departments[i % departments.length],
+                    1 + random.nextInt(6));
+            course.setMaxStudents(1 + random.nextInt(3));
+            if (random.nextInt(5) > 0) {
+                LocalDate start = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+                course.setStartDate(start);
+                course.setEndDate(start.plusDays(random.nextInt(90)));
+            }
+            Course copy = newCourse(course.getCourseCode(), course.getInstructor(), course.getDepartment(),
+                    course.getCredits());
+            copy.setMaxStudents(course.getMaxStudents());
+            copy.setStartDate(course.getStartDate());
+            copy.setEndDate(course.getEndDate());
+            Long id = courseService.createCourse(course).getId();
+            assertEquals(id, indexed.createCourse(copy).getId());
+            if (random.nextInt(4) == 0) {
+                courseService.deactivateCourse(id);
+                indexed.deactivateCourse(id);
+            }
+            int students = random.nextInt(course.getMaxStudents() + 1);
+            for (long student = 0; student < students; student++) {
+                courseService.enrollStudent(id, student);
+                indexed.enrollStudent(id, student);
+            }
+            if (random.nextInt(10) == 0) {
+                courseService.deleteCourse(id);
+                indexed.deleteCourse(id);
+            }
+        }
+
+        // When / Then
+        for (int i = 0; i < 200; i++) {
+            CourseCriteria criteria = new CourseCriteria();
+            if (random.nextBoolean()) {
+                criteria.setDepartment(departments[random.nextInt(departments.length)].substring(0, 4).toLowerCase());
+            }
+            if (random.nextBoolean()) {
+                criteria.setInstructor("Instructor " + random.nextInt(20));
+            }
+            if (random.nextBoolean()) {
+                criteria.setMinCredits(1 + random.nextInt(3));
+                criteria.setMaxCredits(3 + random.nextInt(4));
+            }
+            if (random.nextBoolean()) {
+                LocalDate from = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+                criteria.setDateFrom(from);
+                criteria.setDateTo(from.plusDays(random.nextInt(30)));
+            }
+            if (random.nextBoolean()) {
+                criteria.setActive(random.nextBoolean());
+            }
+            criteria.setAvailableSpotsOnly(random.nextBoolean());
+            assertEquals(sortedIds(indexed.findCourses(criteria)), ids(courseService.findCourses(criteria)),
+                    criteria.toString());
+        }
+        assertEquals(ids(indexed.getAllCourses()), ids(courseService.getAllCourses()));
+        assertEquals(sortedIds(indexed.getCoursesWithAvailableSpots()), ids(courseService.getCoursesWithAvailableSpots()));
+        assertEquals(sortedIds(indexed.getActiveCoursesByCreditRange(2, 4)),
+                ids(courseService.getActiveCoursesByCreditRange(2, 4)));
+        assertEquals(sortedIds(indexed.findCoursesByCode("c12")), ids(courseService.findCoursesByCode("c12")));
+        assertEquals(sortedIds(indexed.getCoursesForStudent(1L)), ids(courseService.getCoursesForStudent(1L)));
+        assertEquals(indexed.getDepartmentReport(), courseService.getDepartmentReport());
+        assertEquals(indexed.getInstructorReport(), courseService.getInstructorReport());
+    }
+
+    @Test
+    @DisplayName("Should search descriptions like CourseServiceImpl")
+    void shouldSearchDescriptions() {
+        // Given
+        CourseServiceImpl indexed = new CourseServiceImpl();
+        String[] descriptions = {"Introduction to programming", "Advanced programming languages",
+                "Introduction to linear algebra", "History of programming", null};
+        for (int i = 0; i < 20; i++) {
+            Course course = newCourse("C" + i, "Dr. Smith", "CS", 3);
+            course.setDescription(descriptions[i % descriptions.length]);
+            Course copy = newCourse("C" + i, "Dr. Smith", "CS", 3);
+            copy.setDescription(course.getDescription());
+            courseService.createCourse(course);
+            indexed.createCourse(copy);
+        }
+
+        // When
+        for (CourseService service : List.of(courseService, indexed)) {
+            Course update = newCourse("C0", "Dr. Smith", "CS", 3);
+            update.setDescription("Linear algebra for programmers");
+            service.updateCourse(1L, update);
+        }
+        courseService.deleteCourse(2L);
+        indexed.deleteCourse(2L);
+
+        // Then
+        for (String query : List.of("programming", "introduction algebra", "history", "linear")) {
+            assertEquals(ids(indexed.searchCourses(query, 5)), ids(courseService.searchCourses(query, 5)), query);
+        }
+        assertEquals(List.of(), courseService.searchCourses("chemistry", 5));
+    }
+
+    @Test
+    @DisplayName("Should queue enrollments in surge mode and stop its writers on close")
+    void shouldApplySurgeEnrollments() throws Exception {
+        // Given
+        Course course = newCourse("CS101", "Dr. Smith", "CS", 3);
+        course.setMaxStudents(2);
+        Long id = courseService.createCourse(course).getId();
+        courseService.setSurgeMode(true);
+
+        // When
+        CompletableFuture<Boolean> first = courseService.enrollStudentAsync(id, 1L);
+        CompletableFuture<Boolean> second = courseService.enrollStudentAsync(id, 2L);
+        CompletableFuture<Boolean> third = courseService.enrollStudentAsync(id, 3L);
+        courseService.close();
+
+        // Then
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(second.get(10, TimeUnit.SECONDS));
+        ExecutionException full = assertThrows(ExecutionException.class, () -> third.get(10, TimeUnit.SECONDS));
+        assertTrue(full.getCause() instanceof IllegalStateException);
+        assertFalse(courseService.isSurgeMode());
+        assertEquals(List.of(1L, 2L), courseService.getCourseById(id).orElseThrow().getEnrolledStudents());
+        assertTrue(courseService.explainQuery(new CourseCriteria()).isFullScan());
+    }
+
+    @Test
+    @DisplayName("Should hand out hot course seats up to capacity")
+    void shouldClaimHotCourseSeats() throws Exception {
+        // Given
+        Course course = newCourse("CS101", "Dr. Smith", "CS", 3);
+        course.setMaxStudents(50);
+        Long id = courseService.createCourse(course).getId();
+        Course neighbour = newCourse("CS102", "Dr. Smith", "CS", 3);
+        neighbour.setMaxStudents(200);
+        Long other = courseService.createCourse(neighbour).getId();
+        courseService.setHotCourse(id, true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // When
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long student = 0; student < 200; student++) {
+            long studentId = student;
+            results.add(pool.submit(() -> {
+                courseService.enrollStudent(other, studentId);
+                try {
+                    return courseService.enrollStudent(id, studentId);
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        int enrolled = 0;
+        for (Future<Boolean> result : results) {
+            enrolled += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(50, enrolled);
+        assertTrue(courseService.isHotCourse(id));
+        assertEquals(50, courseService.getEnrollmentCount(id));
+        assertEquals(200, courseService.getEnrollmentCount(other));
+        Long seated = courseService.getCourseById(id).orElseThrow().getEnrolledStudents().get(0);
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(id, seated));
+        assertTrue(courseService.unenrollStudent(id, seated));
+        assertTrue(courseService.enrollStudent(id, 1_000L));
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(id, 1_001L));
+        courseService.setHotCourse(id, false);
+        assertFalse(courseService.isHotCourse(id));
+        assertEquals(50, courseService.getEnrollmentCount(id));
+        assertThrows(NoSuchElementException.class, () -> courseService.setHotCourse(99L, true));
+    }
+
+    @Test
+    @DisplayName("Should keep prerequisites in a column and check them like CourseServiceImpl")
+    void shouldCheckPrerequisites() {
+        // Given
+        Long intro = createCourse("CS101", "Dr. Smith", "CS", 3).getId();
+        Course data = newCourse("CS201", "Dr. Smith", "CS", 3);
+        data.setPrerequisites(List.of(intro, intro));
+        Long dataId = courseService.createCourse(data).getId();
+        Course algorithms = newCourse("CS301", "Dr. Smith", "CS", 3);
+        algorithms.setPrerequisites(List.of(dataId));
+        Long algorithmsId = courseService.createCourse(algorithms).getId();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(dataId, 1L));
+        courseService.recordCompletion(intro, 1L);
+        courseService.enrollStudent(dataId, 1L);
+        BulkEnrollmentResult bulk = courseService.enrollStudents(List.of(algorithmsId), List.of(1L));
+        Course rename = newCourse("CS201", "Dr. Jones", "CS", 3);
+        courseService.updateCourse(dataId, rename);
+
+        // Then
+        assertFalse(bulk.isApplied());
+        assertEquals(BulkEnrollmentResult.Status.PREREQUISITES_NOT_MET, bulk.getOutcomes().get(0).getStatus());
+        assertEquals(List.of(intro), courseService.getCourseById(dataId).orElseThrow().getPrerequisites());
+        assertEquals(List.of(), courseService.getCourseById(intro).orElseThrow().getPrerequisites());
+        assertEquals(List.of(intro, dataId), ids(courseService.getAllPrerequisites(algorithmsId)));
+        assertFalse(courseService.isEligible(algorithmsId, 1L));
+        Course cycle = newCourse("CS101", "Dr. Smith", "CS", 3);
+        cycle.setPrerequisites(List.of(algorithmsId));
+        assertThrows(IllegalArgumentException.class, () -> courseService.updateCourse(intro, cycle));
+        Course missing = newCourse("CS401", "Dr. Smith", "CS", 3);
+        missing.setPrerequisites(List.of(99L));
+        assertThrows(IllegalArgumentException.class, () -> courseService.createCourse(missing));
+        assertThrows(CourseInUseException.class, () -> courseService.deleteCourse(intro));
+        assertThrows(NoSuchElementException.class, () -> courseService.recordCompletion(99L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should record catalog history when enabled and reject as-of queries otherwise")
+    void shouldRecordHistory() {
+        // Given
+        Instant now = Instant.parse("2025-09-01T08:00:00Z");
+        courseService = new ColumnarCourseService(
+                new HistoryRetention(Duration.ofMinutes(1), Duration.ofDays(7), Duration.ofDays(1)),
+                Clock.fixed(now, ZoneOffset.UTC));
+        Long kept = createCourse("CS101", "Dr. Smith", "CS", 3).getId();
+        Long dropped = createCourse("CS102", "Dr. Smith", "CS", 3).getId();
+
+        // When
+        courseService.enrollStudent(kept, 1L);
+        courseService.enrollStudent(kept, 2L);
+        courseService.unenrollStudent(kept, 2L);
+        courseService.enrollStudents(List.of(kept, dropped), List.of(3L));
+        courseService.deactivateCourse(kept);
+        courseService.deleteCourse(dropped);
+
+        // Then
+        Course asOf = courseService.getCourseByIdAsOf(kept, now).orElseThrow();
+        assertFalse(asOf.isActive());
+        assertEquals(List.of(1L, 3L), asOf.getEnrolledStudents().stream().sorted().toList());
+        assertEquals(List.of(kept), ids(courseService.getAllCoursesAsOf(now)));
+        assertEquals(List.of(kept), ids(courseService.getCoursesForStudentAsOf(3L, now)));
+        assertEquals(List.of(), courseService.getAllCoursesAsOf(now.minus(Duration.ofDays(1))));
+        assertThrows(HistoryNotEnabledException.class,
+                () -> new ColumnarCourseService().getAllCoursesAsOf(now));
+    }
+
+    private static List<Long> sortedIds(List<Course> courses) {
+        return courses.stream().map(Course::getId).sorted().toList();
+    }
+}
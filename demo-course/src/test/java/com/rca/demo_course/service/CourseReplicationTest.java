@@ -0,0 +1,292 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.ColumnarCourseService;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.service.impl.FollowerCourseService;
+import com.rca.demo_course.service.impl.PartitionedCourseService;
+import com.rca.demo_course.service.impl.ReplicationLeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for leader-follower replication between instances on localhost.
+ * Followers are checked against the leader's store after catching up.
+ */
+@DisplayName("Course Replication Tests")
+public class CourseReplicationTest {
+
+    private static final Duration CATCH_UP = Duration.ofSeconds(20);
+    private static final String SECRET = "replication-test-secret";
+
+    private final List<AutoCloseable> instances = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable instance : instances) {
+            instance.close();
+        }
+    }
+
+    private ReplicationLeader leader(CourseServiceImpl store, int port, int logSize) throws IOException {
+        ReplicationLeader leader = new ReplicationLeader(store, port, logSize, SECRET);
+        instances.add(leader);
+        return leader;
+    }
+
+    private FollowerCourseService follower(ReplicationLeader leader) {
+        FollowerCourseService follower = new FollowerCourseService("localhost", leader.getPort(), SECRET);
+        instances.add(follower);
+        return follower;
+    }
+
+    private static Course newCourse(String code, int maxStudents) {
+        Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+        course.setDepartment("Computer Science");
+        course.setMaxStudents(maxStudents);
+        return course;
+    }
+
+    /**
+     * Describes every course with its version, status, prerequisites and students.
+     */
+    private static List<String> contents(CourseService service) {
+        return service.getAllCourses().stream()
+                .map(course -> course.getId() + " " + course.getCourseCode() + " v" + course.getVersion()
+                        + " " + course.isActive() + " " + course.getMaxStudents() + " " + course.getPrerequisites()
+                        + " " + course.getEnrolledStudents().stream().sorted().toList())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should catch up from a snapshot on join, then apply every later change")
+    void shouldCatchUpAndFollow() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        Course intro = store.createCourse(newCourse("CS101", 30));
+        Course advanced = store.createCourse(newCourse("CS201", 30));
+        Course later = store.createCourse(newCourse("CS099", 30));
+        // A prerequisite with a higher ID than the course requiring it
+        Course update = newCourse("CS101", 25);
+        update.setPrerequisites(List.of(later.getId()));
+        store.updateCourse(intro.getId(), update);
+        store.recordCompletion(later.getId(), 7L);
+        store.enrollStudent(intro.getId(), 7L);
+        store.enrollStudent(advanced.getId(), 8L);
+        store.deactivateCourse(advanced.getId());
+        ReplicationLeader leader = leader(store, 0, 1000);
+        FollowerCourseService follower = follower(leader);
+
+        // When
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+
+        // Then
+        assertEquals(contents(store), contents(follower));
+        assertTrue(follower.isEligible(intro.getId(), 7L));
+        assertFalse(follower.isEligible(intro.getId(), 8L));
+
+        // When
+        Course extra = store.createCourse(newCourse("CS301", 2));
+        store.enrollStudent(extra.getId(), 1L);
+        store.enrollStudent(extra.getId(), 2L);
+        store.unenrollStudent(advanced.getId(), 8L);
+        store.activateCourse(advanced.getId());
+        store.recordCompletion(intro.getId(), 8L);
+        store.deleteCourse(advanced.getId());
+        Course replaced = newCourse("CS301", 5);
+        replaced.setEnrolledStudents(List.of(3L));
+        store.updateCourse(extra.getId(), replaced);
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+
+        // Then
+        assertEquals(contents(store), contents(follower));
+        assertEquals(store.getDepartmentReport(), follower.getDepartmentReport());
+        assertEquals(List.of(extra.getId()), follower.getCoursesForStudent(3L).stream().map(Course::getId).toList());
+        assertEquals(List.of(), follower.verifyEnrollmentAggregates());
+    }
+
+    @Test
+    @DisplayName("Should serve reads on several followers and reject writes there")
+    void shouldRejectWritesOnFollowers() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        ReplicationLeader leader = leader(store, 0, 1000);
+        FollowerCourseService first = follower(leader);
+        FollowerCourseService second = follower(leader);
+        Course course = store.createCourse(newCourse("CS101", 30));
+
+        // When
+        assertTrue(first.awaitSequence(leader.getLastSequence(), CATCH_UP));
+        assertTrue(second.awaitSequence(leader.getLastSequence(), CATCH_UP));
+
+        // Then
+        assertEquals("CS101", first.getCourseById(course.getId()).orElseThrow().getCourseCode());
+        assertEquals(contents(store), contents(second));
+        assertThrows(UnsupportedOperationException.class, () -> first.createCourse(newCourse("CS102", 30)));
+        assertThrows(UnsupportedOperationException.class, () -> first.enrollStudent(course.getId(), 1L));
+        assertThrows(UnsupportedOperationException.class, () -> second.updateCourse(course.getId(), newCourse("CS101", 5)));
+        assertThrows(UnsupportedOperationException.class, () -> second.setHotCourse(course.getId(), true));
+        assertEquals(0, store.getEnrollmentCount(course.getId()));
+    }
+
+    @Test
+    @DisplayName("Should converge under concurrent writes even when falling behind a short log")
+    void shouldConvergeUnderConcurrentWrites() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        for (int i = 0; i < 20; i++) {
+            store.createCourse(newCourse("CS" + i, 10));
+        }
+        ReplicationLeader leader = leader(store, 0, 16);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            writers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 2_000; i++) {
+                    long courseId = 1 + random.nextInt(20);
+                    long studentId = seed * 100 + random.nextInt(30);
+                    try {
+                        if (!store.getCourseById(courseId).orElseThrow().isEnrolled(studentId)) {
+                            store.enrollStudent(courseId, studentId);
+                        } else {
+                            store.unenrollStudent(courseId, studentId);
+                        }
+                    } catch (IllegalStateException e) {
+                        // Course full
+                    }
+                }
+            }));
+        }
+
+        // When
+        writers.forEach(Thread::start);
+        FollowerCourseService follower = follower(leader);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+
+        // Then
+        assertEquals(contents(store), contents(follower));
+        assertEquals(List.of(), follower.verifyEnrollmentAggregates());
+    }
+
+    @Test
+    @DisplayName("Should reload a snapshot from a restarted leader")
+    void shouldReloadFromRestartedLeader() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        store.createCourse(newCourse("CS101", 30));
+        ReplicationLeader leader = leader(store, 0, 1000);
+        int port = leader.getPort();
+        FollowerCourseService follower = follower(leader);
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+
+        // When
+        leader.close();
+        CourseServiceImpl restarted = new CourseServiceImpl();
+        restarted.createCourse(newCourse("MA101", 30));
+        restarted.createCourse(newCourse("MA102", 30));
+        leader(restarted, port, 1000);
+        long deadline = System.nanoTime() + CATCH_UP.toNanos();
+        while (!contents(restarted).equals(contents(follower)) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Then
+        assertEquals(contents(restarted), contents(follower));
+    }
+
+    @Test
+    @DisplayName("Should report lag on the leader and on followers")
+    void shouldReportLag() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        ReplicationLeader leader = leader(store, 0, 1000);
+        FollowerCourseService follower = follower(leader);
+        Course course = store.createCourse(newCourse("CS101", 30));
+        store.enrollStudent(course.getId(), 1L);
+
+        // When
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+        ReplicationStatus leaderStatus = leader.getReplicationStatus();
+        long deadline = System.nanoTime() + CATCH_UP.toNanos();
+        while (leaderStatus.getFollowers().isEmpty() || leaderStatus.getFollowers().get(0).getRecordsBehind() > 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(20);
+            leaderStatus = leader.getReplicationStatus();
+        }
+        ReplicationStatus followerStatus = follower.getReplicationStatus();
+
+        // Then
+        assertEquals(ReplicationStatus.Role.LEADER, leaderStatus.getRole());
+        assertEquals(2, leaderStatus.getLeaderSequence());
+        assertEquals(1, leaderStatus.getFollowers().size());
+        assertEquals(2, leaderStatus.getFollowers().get(0).getAcknowledgedSequence());
+        assertEquals(0, leaderStatus.getFollowers().get(0).getLagMillis());
+        assertEquals(ReplicationStatus.Role.FOLLOWER, followerStatus.getRole());
+        assertTrue(followerStatus.isConnected());
+        assertEquals(2, followerStatus.getAppliedSequence());
+        assertEquals(0, followerStatus.getRecordsBehind());
+
+        // When
+        follower.close();
+        store.enrollStudent(course.getId(), 2L);
+        Thread.sleep(50);
+
+        // Then
+        assertEquals(3, leader.getReplicationStatus().getLeaderSequence());
+        assertEquals(2, follower.getReplicationStatus().getAppliedSequence());
+    }
+
+    @Test
+    @DisplayName("Should send nothing to a follower that does not hold the secret")
+    void shouldRejectUnauthenticatedFollowers() throws Exception {
+        // Given
+        CourseServiceImpl store = new CourseServiceImpl();
+        store.createCourse(newCourse("CS101", 30));
+        ReplicationLeader leader = leader(store, 0, 1000);
+
+        // When
+        FollowerCourseService intruder = new FollowerCourseService("localhost", leader.getPort(), "wrong-secret");
+        instances.add(intruder);
+        FollowerCourseService follower = follower(leader);
+
+        // Then
+        assertTrue(follower.awaitSequence(leader.getLastSequence(), CATCH_UP));
+        assertEquals(contents(store), contents(follower));
+        assertFalse(intruder.awaitSequence(leader.getLastSequence(), Duration.ofSeconds(1)));
+        assertTrue(intruder.getAllCourses().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ReplicationLeader(store, 0, 1000, " "));
+        assertThrows(IllegalArgumentException.class, () -> new FollowerCourseService("localhost", 7400, null));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid leader address")
+    void shouldRejectInvalidLeaderAddress() {
+        assertThrows(IllegalArgumentException.class, () -> new FollowerCourseService("", 7400, SECRET));
+        assertThrows(IllegalArgumentException.class, () -> new FollowerCourseService("localhost", 0, SECRET));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReplicationLeader(new CourseServiceImpl(), 0, 0, SECRET));
+    }
+
+    @Test
+    @DisplayName("Should refuse to lead from a store other than the indexed one")
+    void shouldRejectOtherStores() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new ReplicationLeader(new ColumnarCourseService(), 0, 1000, SECRET));
+        assertTrue(e.getMessage().contains("course.store=indexed"));
+        assertThrows(IllegalStateException.class,
+                () -> new ReplicationLeader(new PartitionedCourseService(2), 0, 1000, SECRET));
+    }
+}
@@ -0,0 +1,529 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded stress tests for CourseServiceImpl.
+ * Verifies IDs stay unique and maxStudents is never exceeded under contention.
+ */
+@DisplayName("Course Service Concurrency Tests")
+public class CourseServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private CourseServiceImpl courseService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new CourseServiceImpl();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    private Course newCourse(String code, int maxStudents) {
+        Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+        course.setMaxStudents(maxStudents);
+        course.setDepartment("Computer Science");
+        return course;
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Concurrent creates should issue unique IDs and lose no courses")
+    void concurrentCreatesShouldIssueUniqueIds() throws Exception {
+        // Given
+        int perThread = 500;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(courseService.createCourse(newCourse("CS" + thread + "-" + i, 30)).getId());
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(THREADS * perThread, ids.size());
+        assertEquals(THREADS * perThread, courseService.getTotalCourseCount());
+    }
+
+    @Test
+    @DisplayName("Contended enrollments should never exceed maxStudents")
+    void contendedEnrollmentsShouldNeverExceedCapacity() throws Exception {
+        // Given
+        int maxStudents = 50;
+        int attemptsPerThread = 200;
+        Course course = courseService.createCourse(newCourse("CS101", maxStudents));
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long base = (long) t * attemptsPerThread;
+            tasks.add(() -> {
+                for (long studentId = base; studentId < base + attemptsPerThread; studentId++) {
+                    try {
+                        courseService.enrollStudent(course.getId(), studentId);
+                        successes.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(maxStudents, successes.get());
+        assertEquals(THREADS * attemptsPerThread - maxStudents, rejections.get());
+        assertEquals(maxStudents, courseService.getEnrollmentCount(course.getId()));
+        assertEquals(maxStudents, new HashSet<>(course.getEnrolledStudents()).size());
+    }
+
+    @Test
+    @DisplayName("Same student racing into one course should be enrolled once")
+    void sameStudentRacingShouldEnrollOnce() throws Exception {
+        // Given
+        Course course = courseService.createCourse(newCourse("CS102", 10));
+        AtomicInteger successes = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                try {
+                    courseService.enrollStudent(course.getId(), 42L);
+                    successes.incrementAndGet();
+                } catch (IllegalStateException ignored) {
+                    // already enrolled
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(1, successes.get());
+        assertEquals(1, courseService.getEnrollmentCount(course.getId()));
+    }
+
+    @Test
+    @DisplayName("Mixed enroll/unenroll across many courses should keep every course within capacity")
+    void mixedEnrollUnenrollShouldRespectCapacity() throws Exception {
+        // Given
+        int courseCount = 32;
+        int maxStudents = 20;
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < courseCount; i++) {
+            courseIds.add(courseService.createCourse(newCourse("CS2" + i, maxStudents)).getId());
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    Long courseId = courseIds.get((thread * 7 + i) % courseCount);
+                    long studentId = (thread * 31L + i) % 64;
+                    try {
+                        if (i % 3 == 0) {
+                            courseService.unenrollStudent(courseId, studentId);
+                        } else {
+                            courseService.enrollStudent(courseId, studentId);
+                        }
+                    } catch (IllegalStateException ignored) {
+                        // full, already enrolled or not enrolled
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        for (Long courseId : courseIds) {
+            Course course = courseService.getCourseById(courseId).orElseThrow();
+            assertTrue(course.getCurrentEnrollment() <= maxStudents);
+            assertEquals(course.getCurrentEnrollment(), new HashSet<>(course.getEnrolledStudents()).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Surge-mode enrollments should never exceed maxStudents and complete every future")
+    void surgeEnrollmentsShouldNeverExceedCapacity() throws Exception {
+        // Given
+        int maxStudents = 50;
+        int attemptsPerThread = 200;
+        Course course = courseService.createCourse(newCourse("CS103", maxStudents));
+        courseService.setSurgeMode(true);
+        List<CompletableFuture<Boolean>> results = Collections.synchronizedList(new ArrayList<>());
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long base = (long) t * attemptsPerThread;
+            tasks.add(() -> {
+                for (long studentId = base; studentId < base + attemptsPerThread; studentId++) {
+                    results.add(courseService.enrollStudentAsync(course.getId(), studentId));
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+        int successes = 0;
+        int rejections = 0;
+        for (CompletableFuture<Boolean> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                successes++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                rejections++;
+            }
+        }
+
+        // Then
+        assertEquals(maxStudents, successes);
+        assertEquals(THREADS * attemptsPerThread - maxStudents, rejections);
+        assertEquals(maxStudents, courseService.getEnrollmentCount(course.getId()));
+        assertEquals(maxStudents, new HashSet<>(course.getEnrolledStudents()).size());
+    }
+
+    @Test
+    @DisplayName("Hot course should sell exactly its capacity under a flood of attempts")
+    void hotCourseShouldSellExactlyItsCapacity() throws Exception {
+        // Given
+        int maxStudents = 2_000;
+        int attemptsPerThread = 50_000 / THREADS;
+        Course course = courseService.createCourse(newCourse("CS104", maxStudents));
+        courseService.setHotCourse(course.getId(), true);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long base = (long) t * attemptsPerThread;
+            tasks.add(() -> {
+                for (long studentId = base; studentId < base + attemptsPerThread; studentId++) {
+                    try {
+                        courseService.enrollStudent(course.getId(), studentId);
+                        successes.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(maxStudents, successes.get());
+        assertEquals(THREADS * attemptsPerThread - maxStudents, rejections.get());
+        assertEquals(maxStudents, courseService.getEnrollmentCount(course.getId()));
+        assertEquals(maxStudents, new HashSet<>(course.getEnrolledStudents()).size());
+    }
+
+    @Test
+    @DisplayName("Hot course should stay within capacity across unenrollments and leaving hot mode")
+    void hotCourseShouldStayWithinCapacityWhenSeatsChurn() throws Exception {
+        // Given
+        int maxStudents = 40;
+        Course course = courseService.createCourse(newCourse("CS105", maxStudents));
+        courseService.setHotCourse(course.getId(), true);
+        Set<Long> enrolled = ConcurrentHashMap.newKeySet();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 3_000; i++) {
+                    long studentId = thread * 100_000L + i % 25;
+                    try {
+                        if (i % 4 == 3) {
+                            courseService.unenrollStudent(course.getId(), studentId);
+                            enrolled.remove(studentId);
+                        } else {
+                            courseService.enrollStudent(course.getId(), studentId);
+                            enrolled.add(studentId);
+                        }
+                    } catch (IllegalStateException ignored) {
+                        // full, already enrolled or not enrolled
+                    }
+                    if (thread == 0 && i == 1_500) {
+                        courseService.setHotCourse(course.getId(), false);
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertFalse(courseService.isHotCourse(course.getId()));
+        assertTrue(course.getCurrentEnrollment() <= maxStudents);
+        assertEquals(enrolled, new HashSet<>(course.getEnrolledStudents()));
+    }
+
+    @Test
+    @DisplayName("Overlapping bulk enrollments should apply all or nothing without deadlocking")
+    void overlappingBulkEnrollmentsShouldBeAllOrNothing() throws Exception {
+        // Given
+        int maxStudents = 60;
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            courseIds.add(courseService.createCourse(newCourse("CS2" + i, maxStudents)).getId());
+        }
+        List<BulkEnrollmentResult> results = Collections.synchronizedList(new ArrayList<>());
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 20; i++) {
+                    // Each request has its own students and takes the courses in a different order
+                    List<Long> requestCourses = new ArrayList<>(courseIds);
+                    Collections.rotate(requestCourses, thread + i);
+                    requestCourses = requestCourses.subList(0, 1 + (thread + i) % 4);
+                    if (thread % 2 == 1) {
+                        Collections.reverse(requestCourses);
+                    }
+                    long base = (thread * 100L + i) * 10;
+                    results.add(courseService.enrollStudents(requestCourses, List.of(base, base + 1, base + 2)));
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        int applied = 0;
+        for (BulkEnrollmentResult result : results) {
+            for (BulkEnrollmentResult.Outcome outcome : result.getOutcomes()) {
+                Course course = courseService.getCourseById(outcome.getCourseId()).orElseThrow();
+                assertEquals(result.isApplied(), course.isEnrolled(outcome.getStudentId()));
+            }
+            applied += result.isApplied() ? 1 : 0;
+        }
+        assertTrue(applied > 0);
+        for (Long courseId : courseIds) {
+            assertTrue(courseService.getEnrollmentCount(courseId) <= maxStudents);
+        }
+    }
+
+    @Test
+    @DisplayName("Student index should match the courses after concurrent enrollment churn")
+    void studentIndexShouldMatchCoursesAfterChurn() throws Exception {
+        // Given
+        int students = 50;
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            courseIds.add(courseService.createCourse(newCourse("CS3" + i, students)).getId());
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long courseId = courseIds.get(t);
+            tasks.add(() -> {
+                // Every thread works on its own course but on the same students as all others
+                for (int i = 0; i < 5_000; i++) {
+                    long studentId = (i * 7L) % students;
+                    try {
+                        if (i % 3 == 2) {
+                            courseService.unenrollStudent(courseId, studentId);
+                        } else {
+                            courseService.enrollStudent(courseId, studentId);
+                        }
+                    } catch (IllegalStateException ignored) {
+                        // already enrolled or not enrolled
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        for (long studentId = 0; studentId < students; studentId++) {
+            List<Long> expected = new ArrayList<>();
+            for (Long courseId : courseIds) {
+                if (courseService.getCourseById(courseId).orElseThrow().isEnrolled(studentId)) {
+                    expected.add(courseId);
+                }
+            }
+            List<Long> actual = courseService.getCoursesForStudent(studentId).stream().map(Course::getId).toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    @DisplayName("Department and instructor totals should stay consistent under concurrent changes")
+    void aggregatesShouldStayConsistentUnderChurn() throws Exception {
+        // Given
+        List<Long> courseIds = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            courseIds.add(courseService.createCourse(newCourse("CS4" + i, 25)).getId());
+        }
+        List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS - 1; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    Long courseId = courseIds.get((thread + i) % 20);
+                    long studentId = i % 40;
+                    try {
+                        switch (i % 10) {
+                            case 0 -> courseIds.add(courseService.createCourse(newCourse("N" + thread + "-" + i, 5)).getId());
+                            case 1 -> courseService.updateCourse(courseId, newCourse("CS4" + i % 7, 20 + i % 10));
+                            case 2, 3, 4 -> courseService.unenrollStudent(courseId, studentId);
+                            default -> courseService.enrollStudent(courseId, studentId);
+                        }
+                    } catch (IllegalStateException ignored) {
+                        // full, already enrolled or not enrolled
+                    }
+                }
+            });
+        }
+        // The check holds every lock, so it must see consistent totals even mid-run
+        tasks.add(() -> {
+            for (int i = 0; i < 50; i++) {
+                mismatches.addAll(courseService.verifyEnrollmentAggregates());
+            }
+        });
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(List.of(), mismatches);
+        assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        long enrolled = courseService.getAllCourses().stream().mapToLong(Course::getCurrentEnrollment).sum();
+        assertEquals(enrolled, courseService.getDepartmentReport().get(0).getEnrolled());
+    }
+
+    @Test
+    @DisplayName("Versioned read-modify-write updates should lose no update and no enrollment")
+    void versionedUpdatesShouldLoseNothing() throws Exception {
+        // Given
+        int incrementsPerThread = 200;
+        Course course = courseService.createCourse(newCourse("CS501", 1_000));
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    courseService.enrollStudent(course.getId(), thread * 1_000L + i);
+                    while (true) {
+                        Course current = courseService.getCourseById(course.getId()).orElseThrow();
+                        Course update = newCourse("CS501", current.getMaxStudents() + 1);
+                        update.setVersion(current.getVersion());
+                        try {
+                            courseService.updateCourse(course.getId(), update);
+                            break;
+                        } catch (ConcurrentModificationException e) {
+                            // another thread updated first; re-read and retry
+                        }
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        Course current = courseService.getCourseById(course.getId()).orElseThrow();
+        assertEquals(1_000 + THREADS * incrementsPerThread, current.getMaxStudents());
+        assertEquals(1 + THREADS * incrementsPerThread, current.getVersion());
+        assertEquals(THREADS * incrementsPerThread, current.getCurrentEnrollment());
+    }
+
+    @Test
+    @DisplayName("Catalog readers should never see a half-applied update")
+    void catalogReadersShouldSeeConsistentSnapshots() throws Exception {
+        // Given: writers update and create courses while readers walk whole views
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < 128; i++) {
+            courseIds.add(courseService.createCourse(newCourse("CS6" + i, 30)).getId());
+        }
+        AtomicInteger views = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 300; i++) {
+                    if (thread % 2 == 0) {
+                        int index = (thread * 300 + i) % courseIds.size();
+                        courseService.updateCourse(courseIds.get(index), newCourse("CS6" + index, 30 + i));
+                        courseService.createCourse(newCourse("N" + thread + "-" + i, 5));
+                    } else {
+                        List<Course> view = courseService.getAllCourses();
+                        long previousId = 0;
+                        int count = 0;
+                        for (Course course : view) {
+                            // Each ID appears once, as a complete version that was current when the view was taken
+                            assertTrue(course.getId() > previousId);
+                            assertTrue(course.getVersion() >= 1);
+                            previousId = course.getId();
+                            count++;
+                        }
+                        assertEquals(view.size(), count);
+                        assertTrue(view.size() >= 128);
+                        assertEquals(view.size(), view.stream().count());
+                        views.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        assertEquals(THREADS / 2 * 300, views.get());
+        assertEquals(128 + THREADS / 2 * 300, courseService.getAllCourses().size());
+    }
+}
@@ -0,0 +1,2122 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.service.impl.ReplicationLeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the index-backed queries of CourseServiceImpl.
+ * Each query is checked to stay consistent across create, update, delete and status changes.
+ */
+@DisplayName("Course Service Implementation Tests")
+public class CourseServiceImplTest {
+
+    private CourseServiceImpl courseService;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new CourseServiceImpl();
+    }
+
+    private Course createCourse(String code, String instructor, String department, int credits) {
+        return createCourse(code, instructor, department, credits, 30);
+    }
+
+    private Course createCourse(String code, String instructor, String department, int credits, int maxStudents) {
+        Course course = new Course(code, "Course " + code, instructor, credits);
+        course.setDepartment(department);
+        course.setMaxStudents(maxStudents);
+        return courseService.createCourse(course);
+    }
+
+    private static List<String> codes(List<Course> courses) {
+        return courses.stream().map(Course::getCourseCode).sorted().toList();
+    }
+
+    @Nested
+    @DisplayName("Search Tests")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Search should follow course updates and deletes")
+        void searchShouldFollowUpdatesAndDeletes() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            Course cs102 = createCourse("CS102", "Dr. Smith", "Computer Science", 4);
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Jones", 3);
+            update.setDepartment("Mathematics");
+            update.setMaxStudents(30);
+            courseService.updateCourse(cs101.getId(), update);
+            courseService.deleteCourse(cs102.getId());
+
+            // Then
+            assertTrue(courseService.findCoursesByInstructor("smith").isEmpty());
+            assertEquals(List.of("CS101"), codes(courseService.findCoursesByInstructor("JONES")));
+            assertEquals(List.of("CS101"), codes(courseService.findCoursesByDepartment("math")));
+            assertEquals(List.of("CS101"), codes(courseService.findCoursesByCode("cs1")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Credit Range Tests")
+    class CreditRangeTests {
+
+        @Test
+        @DisplayName("Credit range should follow credit updates")
+        void creditRangeShouldFollowUpdates() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            createCourse("CS102", "Dr. Smith", "Computer Science", 5);
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Smith", 6);
+            update.setMaxStudents(30);
+            update.setActive(true);
+            courseService.updateCourse(course.getId(), update);
+
+            // Then
+            assertTrue(courseService.getCoursesByCreditRange(1, 3).isEmpty());
+            assertEquals(List.of("CS101", "CS102"), codes(courseService.getCoursesByCreditRange(5, 6)));
+        }
+
+        @Test
+        @DisplayName("Active credit range should exclude deactivated courses")
+        void activeCreditRangeShouldExcludeDeactivated() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            createCourse("CS102", "Dr. Smith", "Computer Science", 3);
+            createCourse("CS103", "Dr. Smith", "Computer Science", 4);
+
+            // When
+            courseService.deactivateCourse(cs101.getId());
+
+            // Then
+            assertEquals(List.of("CS102"), codes(courseService.getActiveCoursesByCreditRange(1, 3)));
+            assertEquals(List.of("CS102", "CS103"), codes(courseService.getActiveCourses()));
+            assertEquals(3, courseService.getCoursesByCreditRange(1, 6).size());
+
+            courseService.activateCourse(cs101.getId());
+            assertEquals(List.of("CS101", "CS102"), codes(courseService.getActiveCoursesByCreditRange(3, 3)));
+        }
+
+        @Test
+        @DisplayName("Active credit range should reject invalid ranges")
+        void activeCreditRangeShouldRejectInvalidRange() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.getActiveCoursesByCreditRange(4, 2));
+            assertThrows(IllegalArgumentException.class, () -> courseService.getActiveCoursesByCreditRange(-1, 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Date Query Tests")
+    class DateQueryTests {
+
+        private Course createScheduled(String code, LocalDate start, LocalDate end) {
+            Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+            course.setMaxStudents(30);
+            course.setStartDate(start);
+            course.setEndDate(end);
+            return courseService.createCourse(course);
+        }
+
+        @Test
+        @DisplayName("Should find running and overlapping courses")
+        void shouldFindRunningAndOverlappingCourses() {
+            // Given
+            createScheduled("CS101", LocalDate.of(2025, 1, 10), LocalDate.of(2025, 5, 1));
+            createScheduled("CS102", LocalDate.of(2025, 6, 1), LocalDate.of(2025, 9, 1));
+            createScheduled("CS103", LocalDate.of(2025, 2, 1), null);
+
+            // When & Then
+            assertEquals(List.of("CS101"), codes(courseService.getCoursesRunningOn(LocalDate.of(2025, 3, 1))));
+            assertEquals(List.of("CS101", "CS102"),
+                    codes(courseService.getCoursesOverlapping(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 6, 1))));
+            assertEquals(List.of("CS102", "CS103"), codes(courseService.getCoursesStartingAfter(LocalDate.of(2025, 1, 10))));
+            assertEquals(List.of("CS101"), codes(courseService.getCoursesEndingBefore(LocalDate.of(2025, 6, 1))));
+        }
+
+        @Test
+        @DisplayName("Should follow date changes on update and delete")
+        void shouldFollowUpdatesAndDeletes() {
+            // Given
+            Course cs101 = createScheduled("CS101", LocalDate.of(2025, 1, 10), LocalDate.of(2025, 5, 1));
+            Course cs102 = createScheduled("CS102", LocalDate.of(2025, 1, 10), LocalDate.of(2025, 5, 1));
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            update.setStartDate(LocalDate.of(2025, 9, 1));
+            update.setEndDate(LocalDate.of(2025, 12, 15));
+            courseService.updateCourse(cs101.getId(), update);
+            courseService.deleteCourse(cs102.getId());
+
+            // Then
+            assertTrue(courseService.getCoursesRunningOn(LocalDate.of(2025, 3, 1)).isEmpty());
+            assertEquals(List.of("CS101"), codes(courseService.getCoursesRunningOn(LocalDate.of(2025, 10, 1))));
+        }
+
+        @Test
+        @DisplayName("Should reject invalid date arguments")
+        void shouldRejectInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.getCoursesRunningOn(null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.getCoursesOverlapping(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.getCoursesOverlapping(null, LocalDate.of(2025, 1, 1)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Availability Tests")
+    class AvailabilityTests {
+
+        private Course createWithCapacity(String code, int maxStudents) {
+            Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+            course.setMaxStudents(maxStudents);
+            return courseService.createCourse(course);
+        }
+
+        @Test
+        @DisplayName("Should track courses filling up and reopening")
+        void shouldTrackFillingAndReopening() {
+            // Given
+            Course small = createWithCapacity("CS101", 1);
+            createWithCapacity("CS102", 10);
+
+            // When
+            courseService.enrollStudent(small.getId(), 1L);
+
+            // Then
+            assertEquals(List.of("CS102"), codes(courseService.getCoursesWithAvailableSpots()));
+
+            courseService.unenrollStudent(small.getId(), 1L);
+            assertEquals(List.of("CS101", "CS102"), codes(courseService.getCoursesWithAvailableSpots()));
+        }
+
+        @Test
+        @DisplayName("Should track activation, capacity updates and deletes")
+        void shouldTrackStatusAndUpdates() {
+            // Given
+            Course cs101 = createWithCapacity("CS101", 2);
+            Course cs102 = createWithCapacity("CS102", 2);
+            Course cs103 = createWithCapacity("CS103", 2);
+            courseService.enrollStudent(cs103.getId(), 1L);
+
+            // When
+            courseService.deactivateCourse(cs101.getId());
+            courseService.deleteCourse(cs102.getId());
+            Course update = new Course("CS103", "Course CS103", "Dr. Smith", 3);
+            update.setMaxStudents(1);
+            update.setActive(true);
+            courseService.updateCourse(cs103.getId(), update);
+
+            // Then
+            assertTrue(courseService.getCoursesWithAvailableSpots().isEmpty());
+
+            courseService.activateCourse(cs101.getId());
+            assertEquals(List.of("CS101"), codes(courseService.getCoursesWithAvailableSpots()));
+        }
+
+        @Test
+        @DisplayName("Stream should let callers stop after the first N open courses")
+        void streamShouldSupportEarlyTermination() {
+            // Given
+            for (int i = 0; i < 50; i++) {
+                createWithCapacity("CS" + (100 + i), 5);
+            }
+
+            // When
+            List<Course> firstTen = courseService.streamCoursesWithAvailableSpots().limit(10).toList();
+
+            // Then
+            assertEquals(10, firstTen.size());
+            assertTrue(firstTen.stream().allMatch(course -> course.isActive() && !course.isFull()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Planner Tests")
+    class QueryPlannerTests {
+
+        private final String[] departments = {"Computer Science", "Mathematics", "Physics", "History"};
+
+        @BeforeEach
+        void populate() {
+            Random random = new Random(3);
+            for (int i = 0; i < 2_000; i++) {
+                Course course = new Course("C" + i, "Course " + i, "Instructor " + (i % 200), 1 + random.nextInt(6));
+                course.setDepartment(departments[i % departments.length]);
+                course.setMaxStudents(1 + random.nextInt(3));
+                LocalDate start = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+                course.setStartDate(start);
+                course.setEndDate(start.plusDays(random.nextInt(90)));
+                Course created = courseService.createCourse(course);
+                if (random.nextInt(4) == 0) {
+                    courseService.deactivateCourse(created.getId());
+                }
+                if (random.nextBoolean()) {
+                    courseService.enrollStudent(created.getId(), 1L);
+                }
+            }
+        }
+
+        private List<Long> ids(List<Course> courses) {
+            return courses.stream().map(Course::getId).sorted().toList();
+        }
+
+        private List<Long> scan(CourseCriteria criteria) {
+            return ids(courseService.getAllCourses().stream().filter(criteria::matches).toList());
+        }
+
+        @Test
+        @DisplayName("Should drive from the most selective index")
+        void shouldDriveFromMostSelectiveIndex() {
+            // Given
+            CourseCriteria criteria = new CourseCriteria();
+            criteria.setDepartment("physics");
+            criteria.setInstructor("Instructor 42");
+            criteria.setMinCredits(2);
+
+            // When
+            QueryPlan plan = courseService.explainQuery(criteria);
+
+            // Then
+            assertEquals("instructor index", plan.getDriver());
+            assertTrue(plan.getEstimates().containsKey("department index"));
+            assertTrue(plan.explain().startsWith("Drive: instructor index"));
+            assertEquals(scan(criteria), ids(courseService.findCourses(criteria)));
+        }
+
+        @Test
+        @DisplayName("Should fall back to a full scan for unselective criteria")
+        void shouldFallBackToFullScan() {
+            CourseCriteria none = new CourseCriteria();
+            CourseCriteria wide = new CourseCriteria();
+            wide.setMinCredits(1);
+            wide.setMaxCredits(6);
+
+            assertTrue(courseService.explainQuery(none).isFullScan());
+            assertTrue(courseService.explainQuery(wide).isFullScan());
+            assertEquals(2_000, courseService.findCourses(none).size());
+        }
+
+        @Test
+        @DisplayName("Should return the same courses as a full scan for combined criteria")
+        void shouldMatchFullScan() {
+            Random random = new Random(5);
+            for (int q = 0; q < 100; q++) {
+                CourseCriteria criteria = new CourseCriteria();
+                if (random.nextBoolean()) {
+                    criteria.setDepartment(departments[random.nextInt(departments.length)].substring(0, 4));
+                }
+                if (random.nextInt(3) == 0) {
+                    criteria.setInstructor("instructor " + random.nextInt(200));
+                }
+                if (random.nextBoolean()) {
+                    int min = 1 + random.nextInt(6);
+                    criteria.setMinCredits(min);
+                    criteria.setMaxCredits(min + random.nextInt(2));
+                }
+                if (random.nextBoolean()) {
+                    LocalDate from = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(400));
+                    criteria.setDateFrom(from);
+                    criteria.setDateTo(from.plusDays(random.nextInt(10)));
+                }
+                if (random.nextBoolean()) {
+                    criteria.setActive(random.nextInt(4) != 0);
+                }
+                criteria.setAvailableSpotsOnly(random.nextBoolean());
+
+                assertEquals(scan(criteria), ids(courseService.findCourses(criteria)), criteria.toString());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject null or inconsistent criteria")
+        void shouldRejectInvalidCriteria() {
+            CourseCriteria inverted = new CourseCriteria();
+            inverted.setMinCredits(4);
+            inverted.setMaxCredits(2);
+
+            assertThrows(IllegalArgumentException.class, () -> courseService.findCourses(null));
+            assertThrows(IllegalArgumentException.class, () -> courseService.findCourses(inverted));
+            assertThrows(IllegalArgumentException.class, () -> courseService.explainQuery(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Description Search Tests")
+    class DescriptionSearchTests {
+
+        private Course createDescribed(String code, String description) {
+            Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+            course.setMaxStudents(30);
+            course.setDescription(description);
+            return courseService.createCourse(course);
+        }
+
+        @Test
+        @DisplayName("Should return the most relevant courses first")
+        void shouldReturnMostRelevantFirst() {
+            // Given
+            createDescribed("CS101", "An introduction to programming in Java.");
+            createDescribed("CS201", "Advanced Java programming: concurrency, generics and streams.");
+            createDescribed("HIS101", "World history from antiquity to today.");
+
+            // When
+            List<Course> result = courseService.searchCourses("java concurrency", 10);
+
+            // Then
+            assertEquals(List.of("CS201", "CS101"), result.stream().map(Course::getCourseCode).toList());
+        }
+
+        @Test
+        @DisplayName("Should follow description updates and deletes")
+        void shouldFollowUpdatesAndDeletes() {
+            // Given
+            Course cs101 = createDescribed("CS101", "Compilers and interpreters");
+            Course cs102 = createDescribed("CS102", "Compilers for functional languages");
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            update.setDescription("Computer graphics");
+            courseService.updateCourse(cs101.getId(), update);
+            courseService.deleteCourse(cs102.getId());
+
+            // Then
+            assertTrue(courseService.searchCourses("compiler", 10).isEmpty());
+            assertEquals(List.of("CS101"), codes(courseService.searchCourses("graphics", 10)));
+        }
+
+        @Test
+        @DisplayName("Should reject empty queries and non-positive limits")
+        void shouldRejectInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.searchCourses(" ", 10));
+            assertThrows(IllegalArgumentException.class, () -> courseService.searchCourses(null, 10));
+            assertThrows(IllegalArgumentException.class, () -> courseService.searchCourses("java", 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Autocomplete Tests")
+    class AutocompleteTests {
+
+        private void enroll(Course course, int students) {
+            for (long student = 1; student <= students; student++) {
+                courseService.enrollStudent(course.getId(), student);
+            }
+        }
+
+        @Test
+        @DisplayName("Should complete codes and names ranked by enrollment")
+        void shouldRankByEnrollment() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course cs201 = createCourse("CS201", "Dr. Jones", "CS", 3);
+            createCourse("MATH101", "Dr. Brown", "Math", 4);
+            enroll(cs101, 2);
+            enroll(cs201, 5);
+
+            // When
+            List<Course> byCode = courseService.autocompleteCourses("cs", 10);
+            List<Course> byName = courseService.autocompleteCourses("Course MA", 10);
+
+            // Then
+            assertEquals(List.of("CS201", "CS101"), byCode.stream().map(Course::getCourseCode).toList());
+            assertEquals(List.of("MATH101"), codes(byName));
+        }
+
+        @Test
+        @DisplayName("Should follow code updates and deletes")
+        void shouldFollowUpdatesAndDeletes() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course cs102 = createCourse("CS102", "Dr. Smith", "CS", 3);
+            assertEquals(2, courseService.autocompleteCourses("cs1", 10).size());
+
+            // When
+            Course update = new Course("EE101", "Signals", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            courseService.updateCourse(cs101.getId(), update);
+            courseService.deleteCourse(cs102.getId());
+
+            // Then
+            assertTrue(courseService.autocompleteCourses("cs1", 10).isEmpty());
+            assertEquals(List.of("EE101"), codes(courseService.autocompleteCourses("sig", 10)));
+        }
+
+        @Test
+        @DisplayName("Should reject empty prefixes and non-positive limits")
+        void shouldRejectInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.autocompleteCourses("", 10));
+            assertThrows(IllegalArgumentException.class, () -> courseService.autocompleteCourses(null, 10));
+            assertThrows(IllegalArgumentException.class, () -> courseService.autocompleteCourses("cs", 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Surge Enrollment Tests")
+    class SurgeEnrollmentTests {
+
+        @Test
+        @DisplayName("Should enroll immediately when surge mode is off")
+        void shouldEnrollImmediatelyOutsideSurgeMode() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+
+            // When
+            CompletableFuture<Boolean> result = courseService.enrollStudentAsync(course.getId(), 1L);
+
+            // Then
+            assertFalse(courseService.isSurgeMode());
+            assertTrue(result.isDone());
+            assertTrue(result.get());
+            assertTrue(course.isEnrolled(1L));
+        }
+
+        @Test
+        @DisplayName("Should queue enrollments in surge mode and apply them in order")
+        void shouldApplyQueuedEnrollmentsInOrder() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3, 2);
+            courseService.setSurgeMode(true);
+
+            // When
+            CompletableFuture<Boolean> first = courseService.enrollStudentAsync(course.getId(), 1L);
+            CompletableFuture<Boolean> second = courseService.enrollStudentAsync(course.getId(), 2L);
+            CompletableFuture<Boolean> third = courseService.enrollStudentAsync(course.getId(), 3L);
+
+            // Then
+            assertTrue(first.get(10, TimeUnit.SECONDS));
+            assertTrue(second.get(10, TimeUnit.SECONDS));
+            ExecutionException full = assertThrows(ExecutionException.class, () -> third.get(10, TimeUnit.SECONDS));
+            assertTrue(full.getCause() instanceof IllegalStateException);
+            assertEquals(2, courseService.getEnrollmentCount(course.getId()));
+            assertFalse(courseService.getCoursesWithAvailableSpots().contains(course));
+        }
+
+        @Test
+        @DisplayName("Should fail queued enrollments for unknown courses and duplicates")
+        void shouldFailInvalidQueuedEnrollments() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.setSurgeMode(true);
+
+            // When
+            CompletableFuture<Boolean> missing = courseService.enrollStudentAsync(999L, 1L);
+            CompletableFuture<Boolean> enrolled = courseService.enrollStudentAsync(course.getId(), 1L);
+            CompletableFuture<Boolean> duplicate = courseService.enrollStudentAsync(course.getId(), 1L);
+
+            // Then
+            ExecutionException notFound = assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+            assertTrue(notFound.getCause() instanceof NoSuchElementException);
+            assertDoesNotThrow(() -> enrolled.get(10, TimeUnit.SECONDS));
+            ExecutionException twice = assertThrows(ExecutionException.class, () -> duplicate.get(10, TimeUnit.SECONDS));
+            assertTrue(twice.getCause() instanceof IllegalStateException);
+        }
+
+        @Test
+        @DisplayName("Should apply queued enrollments and stop the writers when surge mode ends")
+        void shouldStopWritersWhenSurgeModeEnds() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            long writersBefore = surgeWriters();
+            courseService.setSurgeMode(true);
+            List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+            for (long student = 1; student <= 20; student++) {
+                queued.add(courseService.enrollStudentAsync(course.getId(), student));
+            }
+
+            // When
+            courseService.setSurgeMode(false);
+            CompletableFuture<Boolean> direct = courseService.enrollStudentAsync(course.getId(), 21L);
+
+            // Then
+            for (CompletableFuture<Boolean> result : queued) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+            assertFalse(courseService.isSurgeMode());
+            assertTrue(direct.isDone());
+            assertEquals(21, courseService.getEnrollmentCount(course.getId()));
+            awaitSurgeWriters(writersBefore);
+
+            courseService.setSurgeMode(true);
+            courseService.close();
+            assertFalse(courseService.isSurgeMode());
+            awaitSurgeWriters(writersBefore);
+        }
+
+        private long surgeWriters() {
+            return Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith("enrollment-surge-writer-"))
+                    .count();
+        }
+
+        private void awaitSurgeWriters(long expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (surgeWriters() != expected && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(expected, surgeWriters());
+        }
+
+        @Test
+        @DisplayName("Should reject null IDs without queuing")
+        void shouldRejectNullIds() {
+            courseService.setSurgeMode(true);
+
+            assertThrows(IllegalArgumentException.class, () -> courseService.enrollStudentAsync(null, 1L));
+            assertThrows(IllegalArgumentException.class, () -> courseService.enrollStudentAsync(1L, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hot Course Tests")
+    class HotCourseTests {
+
+        @Test
+        @DisplayName("Should claim seats up to capacity and reject duplicates")
+        void shouldClaimSeatsUpToCapacity() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3, 3);
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.setHotCourse(course.getId(), true);
+
+            // When
+            courseService.enrollStudent(course.getId(), 2L);
+            courseService.enrollStudent(course.getId(), 3L);
+
+            // Then
+            assertTrue(courseService.isHotCourse(course.getId()));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(course.getId(), 4L));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(course.getId(), 1L));
+            assertEquals(3, courseService.getEnrollmentCount(course.getId()));
+            assertFalse(courseService.getCoursesWithAvailableSpots().contains(course));
+        }
+
+        @Test
+        @DisplayName("Should hand a seat freed by unenrollment to the next student")
+        void shouldReuseFreedSeats() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3, 1);
+            courseService.setHotCourse(course.getId(), true);
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // When
+            courseService.unenrollStudent(course.getId(), 1L);
+            courseService.enrollStudent(course.getId(), 2L);
+
+            // Then
+            assertFalse(course.isEnrolled(1L));
+            assertTrue(course.isEnrolled(2L));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(course.getId(), 3L));
+        }
+
+        @Test
+        @DisplayName("Should end hot mode when the course is updated or hot mode is switched off")
+        void shouldEndHotMode() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.setHotCourse(course.getId(), true);
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Smith", 3);
+            update.setMaxStudents(1);
+            Course updated = courseService.updateCourse(course.getId(), update);
+
+            // Then
+            assertFalse(courseService.isHotCourse(course.getId()));
+            assertTrue(updated.isEnrolled(1L));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(course.getId(), 2L));
+
+            courseService.setHotCourse(course.getId(), true);
+            courseService.setHotCourse(course.getId(), false);
+            assertFalse(courseService.isHotCourse(course.getId()));
+        }
+
+        @Test
+        @DisplayName("Should apply a claim before returning while another course holds the lock stripe")
+        void shouldApplyClaimWhileStripeIsBusy() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.setHotCourse(course.getId(), true);
+            // Stripes are private; the probe finds a course sharing this one's and holds its lock
+            Method lockFor = CourseServiceImpl.class.getDeclaredMethod("lockFor", Long.class);
+            lockFor.setAccessible(true);
+            ReentrantLock stripe = (ReentrantLock) lockFor.invoke(courseService, course.getId());
+            Course neighbour;
+            int n = 0;
+            do {
+                neighbour = createCourse("MATH" + n++, "Dr. Jones", "Math", 3);
+            } while (lockFor.invoke(courseService, neighbour.getId()) != stripe);
+            CountDownLatch held = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread holder = new Thread(() -> {
+                stripe.lock();
+                try {
+                    held.countDown();
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    stripe.unlock();
+                }
+            });
+            holder.start();
+            held.await();
+
+            // When
+            CompletableFuture<Boolean> enrolled = CompletableFuture.supplyAsync(
+                    () -> courseService.enrollStudent(course.getId(), 1L));
+
+            // Then
+            assertThrows(TimeoutException.class, () -> enrolled.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            holder.join();
+            assertTrue(enrolled.get(5, TimeUnit.SECONDS));
+            assertTrue(courseService.getCourseById(course.getId()).orElseThrow().isEnrolled(1L));
+            assertEquals(1, courseService.getEnrollmentCount(course.getId()));
+            assertEquals(List.of(course.getId()),
+                    courseService.getCoursesForStudent(1L).stream().map(Course::getId).toList());
+            assertEquals(0, courseService.getEnrollmentCount(neighbour.getId()));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown courses")
+        void shouldRejectUnknownCourses() {
+            assertThrows(NoSuchElementException.class, () -> courseService.setHotCourse(999L, true));
+            assertThrows(IllegalArgumentException.class, () -> courseService.setHotCourse(null, true));
+            assertFalse(courseService.isHotCourse(999L));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Enrollment Tests")
+    class BulkEnrollmentTests {
+
+        private List<BulkEnrollmentResult.Status> statuses(BulkEnrollmentResult result) {
+            return result.getOutcomes().stream().map(BulkEnrollmentResult.Outcome::getStatus).toList();
+        }
+
+        @Test
+        @DisplayName("Should enroll every student in every course")
+        void shouldEnrollCohort() {
+            // Given
+            Course first = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course second = createCourse("CS102", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(second.getId(), 2L);
+
+            // When
+            BulkEnrollmentResult result = courseService.enrollStudents(
+                    List.of(first.getId(), second.getId()), List.of(1L, 2L, 2L));
+
+            // Then
+            assertTrue(result.isApplied());
+            assertEquals(3, result.getEnrolledCount());
+            assertEquals(List.of(BulkEnrollmentResult.Status.ENROLLED, BulkEnrollmentResult.Status.ENROLLED,
+                    BulkEnrollmentResult.Status.ENROLLED, BulkEnrollmentResult.Status.ALREADY_ENROLLED),
+                    statuses(result));
+            assertEquals(2, courseService.getEnrollmentCount(first.getId()));
+            assertEquals(2, courseService.getEnrollmentCount(second.getId()));
+        }
+
+        @Test
+        @DisplayName("Should enroll nobody if one course lacks seats for the cohort")
+        void shouldRejectWhenCourseIsFull() {
+            // Given
+            Course open = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course small = createCourse("CS102", "Dr. Smith", "CS", 3, 2);
+            courseService.enrollStudent(small.getId(), 1L);
+
+            // When
+            BulkEnrollmentResult result = courseService.enrollStudents(
+                    List.of(open.getId(), small.getId()), List.of(1L, 2L, 3L));
+
+            // Then
+            assertFalse(result.isApplied());
+            assertEquals(0, result.getEnrolledCount());
+            assertEquals(2, result.getFailureCount());
+            assertEquals(List.of(BulkEnrollmentResult.Status.NOT_APPLIED, BulkEnrollmentResult.Status.NOT_APPLIED,
+                    BulkEnrollmentResult.Status.NOT_APPLIED, BulkEnrollmentResult.Status.ALREADY_ENROLLED,
+                    BulkEnrollmentResult.Status.COURSE_FULL, BulkEnrollmentResult.Status.COURSE_FULL),
+                    statuses(result));
+            assertEquals(0, courseService.getEnrollmentCount(open.getId()));
+            assertEquals(1, courseService.getEnrollmentCount(small.getId()));
+            assertTrue(courseService.getCoursesWithAvailableSpots().contains(small));
+        }
+
+        @Test
+        @DisplayName("Should enroll nobody if a course does not exist")
+        void shouldRejectUnknownCourse() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+
+            // When
+            BulkEnrollmentResult result = courseService.enrollStudents(List.of(course.getId(), 999L), List.of(1L));
+
+            // Then
+            assertFalse(result.isApplied());
+            assertEquals(List.of(BulkEnrollmentResult.Status.NOT_APPLIED, BulkEnrollmentResult.Status.COURSE_NOT_FOUND),
+                    statuses(result));
+            assertFalse(course.isEnrolled(1L));
+        }
+
+        @Test
+        @DisplayName("Should settle hot course claims and keep the course hot")
+        void shouldKeepHotCourseHot() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3, 3);
+            courseService.setHotCourse(course.getId(), true);
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // When
+            BulkEnrollmentResult result = courseService.enrollStudents(List.of(course.getId()), List.of(2L, 3L));
+
+            // Then
+            assertTrue(result.isApplied());
+            assertTrue(courseService.isHotCourse(course.getId()));
+            assertEquals(3, courseService.getEnrollmentCount(course.getId()));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(course.getId(), 4L));
+        }
+
+        @Test
+        @DisplayName("Should reject missing or null IDs")
+        void shouldRejectInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.enrollStudents(null, List.of(1L)));
+            assertThrows(IllegalArgumentException.class, () -> courseService.enrollStudents(List.of(1L), List.of()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.enrollStudents(Arrays.asList(1L, null), List.of(1L)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Student Courses Tests")
+    class StudentCoursesTests {
+
+        private List<Long> courseIds(Long studentId) {
+            return courseService.getCoursesForStudent(studentId).stream().map(Course::getId).toList();
+        }
+
+        @Test
+        @DisplayName("Should follow enrollments and unenrollments")
+        void shouldFollowEnrollments() {
+            // Given
+            Course first = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course second = createCourse("CS102", "Dr. Smith", "CS", 3);
+
+            // When
+            courseService.enrollStudent(first.getId(), 1L);
+            courseService.enrollStudent(second.getId(), 1L);
+            courseService.enrollStudent(second.getId(), 2L);
+            courseService.unenrollStudent(second.getId(), 2L);
+
+            // Then
+            assertEquals(List.of(first.getId(), second.getId()), courseIds(1L));
+            assertEquals(List.of(), courseIds(2L));
+        }
+
+        @Test
+        @DisplayName("Should drop deleted courses and follow replaced enrollments")
+        void shouldFollowDeletesAndUpdates() {
+            // Given
+            Course first = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course second = createCourse("CS102", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(first.getId(), 1L);
+            courseService.enrollStudent(second.getId(), 1L);
+            courseService.enrollStudent(second.getId(), 2L);
+
+            // When
+            courseService.deleteCourse(first.getId());
+            Course update = new Course("CS102", "Course CS102", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            update.setEnrolledStudents(List.of(2L, 3L));
+            courseService.updateCourse(second.getId(), update);
+
+            // Then
+            assertEquals(List.of(), courseIds(1L));
+            assertEquals(List.of(second.getId()), courseIds(2L));
+            assertEquals(List.of(second.getId()), courseIds(3L));
+        }
+
+        @Test
+        @DisplayName("Should include bulk, surge and hot course enrollments")
+        void shouldIncludeEveryEnrollmentPath() throws Exception {
+            // Given
+            Course bulk = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course surge = createCourse("CS102", "Dr. Smith", "CS", 3);
+            Course hot = createCourse("CS103", "Dr. Smith", "CS", 3);
+            courseService.setHotCourse(hot.getId(), true);
+
+            // When
+            courseService.enrollStudents(List.of(bulk.getId()), List.of(1L));
+            courseService.setSurgeMode(true);
+            courseService.enrollStudentAsync(surge.getId(), 1L).get(5, TimeUnit.SECONDS);
+            courseService.setSurgeMode(false);
+            courseService.enrollStudent(hot.getId(), 1L);
+
+            // Then
+            assertEquals(List.of(bulk.getId(), surge.getId(), hot.getId()), courseIds(1L));
+        }
+
+        @Test
+        @DisplayName("Should reject a null student ID")
+        void shouldRejectNullStudent() {
+            assertThrows(IllegalArgumentException.class, () -> courseService.getCoursesForStudent(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Enrollment Event Tests")
+    class EnrollmentEventTests {
+
+        private final Duration window = Duration.ofMillis(100);
+
+        private EnrollmentEventListener collectingInto(BlockingQueue<List<EnrollmentEvent>> batches) {
+            return batches::add;
+        }
+
+        @Test
+        @DisplayName("Should coalesce rapid changes of a course into its latest state")
+        void shouldCoalesceRapidChanges() throws Exception {
+            // Given
+            Course first = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course second = createCourse("CS102", "Dr. Smith", "CS", 3);
+            BlockingQueue<List<EnrollmentEvent>> batches = new LinkedBlockingQueue<>();
+            courseService.subscribeToEnrollments(EnrollmentEventFilter.all(), window, collectingInto(batches));
+
+            // When
+            for (long studentId = 1; studentId <= 5; studentId++) {
+                courseService.enrollStudent(first.getId(), studentId);
+            }
+            courseService.enrollStudent(second.getId(), 9L);
+            courseService.unenrollStudent(first.getId(), 2L);
+
+            // Then
+            List<EnrollmentEvent> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            assertEquals(2, batch.size());
+            EnrollmentEvent firstEvent = batch.get(0);
+            assertEquals(first.getId(), firstEvent.getCourseId());
+            assertEquals(EnrollmentEvent.Type.UNENROLLED, firstEvent.getType());
+            assertEquals(Long.valueOf(2L), firstEvent.getStudentId());
+            assertEquals(4, firstEvent.getEnrollment());
+            assertEquals(30, firstEvent.getMaxStudents());
+            assertEquals(6, firstEvent.getChanges());
+            assertEquals(second.getId(), batch.get(1).getCourseId());
+            assertEquals(1, batch.get(1).getChanges());
+        }
+
+        @Test
+        @DisplayName("Should deliver only events matching the subscriber's courses or departments")
+        void shouldFilterByCourseOrDepartment() throws Exception {
+            // Given
+            Course math = createCourse("MATH101", "Dr. Jones", "Mathematics", 3);
+            Course physics = createCourse("PHY101", "Dr. Jones", "Physics", 3);
+            Course chemistry = createCourse("CHEM101", "Dr. Jones", "Chemistry", 3);
+            BlockingQueue<List<EnrollmentEvent>> batches = new LinkedBlockingQueue<>();
+            courseService.subscribeToEnrollments(
+                    new EnrollmentEventFilter(List.of(physics.getId()), List.of("mathematics")),
+                    window, collectingInto(batches));
+
+            // When
+            courseService.enrollStudent(chemistry.getId(), 1L);
+            courseService.enrollStudent(math.getId(), 1L);
+            courseService.enrollStudent(physics.getId(), 1L);
+
+            // Then
+            List<EnrollmentEvent> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            assertEquals(List.of(math.getId(), physics.getId()),
+                    batch.stream().map(EnrollmentEvent::getCourseId).toList());
+        }
+
+        @Test
+        @DisplayName("Should publish capacity changes")
+        void shouldPublishCapacityChanges() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            BlockingQueue<List<EnrollmentEvent>> batches = new LinkedBlockingQueue<>();
+            courseService.subscribeToEnrollments(EnrollmentEventFilter.all(), window, collectingInto(batches));
+
+            // When
+            Course update = new Course("CS101", "Course CS101", "Dr. Smith", 3);
+            update.setMaxStudents(45);
+            courseService.updateCourse(course.getId(), update);
+
+            // Then
+            List<EnrollmentEvent> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            assertEquals(EnrollmentEvent.Type.CAPACITY_CHANGED, batch.get(0).getType());
+            assertNull(batch.get(0).getStudentId());
+            assertEquals(45, batch.get(0).getMaxStudents());
+        }
+
+        @Test
+        @DisplayName("Should drop a subscriber that falls too far behind")
+        void shouldDropSlowSubscriber() throws Exception {
+            // Given
+            List<Long> courseIds = new ArrayList<>();
+            for (int i = 0; i <= 4096; i++) {
+                courseIds.add(createCourse("BULK" + i, "Dr. Smith", "CS", 3).getId());
+            }
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch dropped = new CountDownLatch(1);
+            EnrollmentSubscription subscription = courseService.subscribeToEnrollments(
+                    EnrollmentEventFilter.all(), window, new EnrollmentEventListener() {
+                        @Override
+                        public void onEvents(List<EnrollmentEvent> events) {
+                            blocked.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+
+                        @Override
+                        public void onDropped() {
+                            dropped.countDown();
+                        }
+                    });
+            courseService.enrollStudent(courseIds.get(0), 1L);
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            // When
+            for (Long courseId : courseIds) {
+                courseService.enrollStudent(courseId, 2L);
+            }
+
+            // Then
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+            assertFalse(subscription.isActive());
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Should stop delivering after cancel or a failing listener")
+        void shouldStopAfterCancelOrFailure() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            BlockingQueue<List<EnrollmentEvent>> batches = new LinkedBlockingQueue<>();
+            EnrollmentSubscription cancelled =
+                    courseService.subscribeToEnrollments(EnrollmentEventFilter.all(), window, collectingInto(batches));
+            EnrollmentSubscription failing = courseService.subscribeToEnrollments(
+                    EnrollmentEventFilter.all(), window, events -> {
+                        throw new IllegalStateException("client disconnected");
+                    });
+
+            // When
+            cancelled.cancel();
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // Then
+            assertNull(batches.poll(300, TimeUnit.MILLISECONDS));
+            assertFalse(cancelled.isActive());
+            assertFalse(failing.isActive());
+        }
+
+        @Test
+        @DisplayName("Should reject invalid subscriptions")
+        void shouldRejectInvalidSubscriptions() {
+            EnrollmentEventListener listener = events -> { };
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.subscribeToEnrollments(null, window, listener));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.subscribeToEnrollments(EnrollmentEventFilter.all(), Duration.ZERO, listener));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.subscribeToEnrollments(EnrollmentEventFilter.all(), window, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Enrollment Report Tests")
+    class EnrollmentReportTests {
+
+        @Test
+        @DisplayName("Should total enrollment, capacity and credit hours per department and instructor")
+        void shouldTotalPerGroup() {
+            // Given
+            Course algorithms = createCourse("CS201", "Dr. Smith", "Computer Science", 4);
+            Course databases = createCourse("CS301", "Dr. Jones", "Computer Science", 3);
+            Course calculus = createCourse("MATH101", "Dr. Smith", "Mathematics", 5);
+
+            // When
+            courseService.enrollStudent(algorithms.getId(), 1L);
+            courseService.enrollStudent(algorithms.getId(), 2L);
+            courseService.enrollStudents(List.of(databases.getId(), calculus.getId()), List.of(1L, 3L, 4L));
+            courseService.unenrollStudent(calculus.getId(), 4L);
+
+            // Then
+            assertEquals(List.of(
+                    new EnrollmentReport("Computer Science", 2, 5, 60, 17),
+                    new EnrollmentReport("Mathematics", 1, 2, 30, 10)),
+                    courseService.getDepartmentReport());
+            assertEquals(List.of(
+                    new EnrollmentReport("Dr. Jones", 1, 3, 30, 9),
+                    new EnrollmentReport("Dr. Smith", 2, 4, 60, 18)),
+                    courseService.getInstructorReport());
+            assertEquals(5.0 / 60, courseService.getDepartmentReport().get(0).getFillRate(), 1e-9);
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        }
+
+        @Test
+        @DisplayName("Should move totals when a course is updated or deleted")
+        void shouldFollowUpdatesAndDeletes() {
+            // Given
+            Course course = createCourse("CS201", "Dr. Smith", "Computer Science", 4);
+            Course other = createCourse("CS301", "Dr. Jones", "Computer Science", 3);
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.enrollStudent(other.getId(), 1L);
+
+            // When
+            Course update = new Course("CS201", "Course CS201", "Dr. Jones", 2);
+            update.setDepartment("Mathematics");
+            update.setMaxStudents(10);
+            courseService.updateCourse(course.getId(), update);
+            courseService.deleteCourse(other.getId());
+
+            // Then
+            assertEquals(List.of(new EnrollmentReport("Mathematics", 1, 1, 10, 2)),
+                    courseService.getDepartmentReport());
+            assertEquals(List.of(new EnrollmentReport("Dr. Jones", 1, 1, 10, 2)),
+                    courseService.getInstructorReport());
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        }
+
+        @Test
+        @DisplayName("Should count hot course seats once their claims are applied")
+        void shouldCountHotCourseSeats() {
+            // Given
+            Course course = createCourse("CS201", "Dr. Smith", "Computer Science", 4);
+            courseService.setHotCourse(course.getId(), true);
+
+            // When
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.enrollStudent(course.getId(), 2L);
+            courseService.setHotCourse(course.getId(), false);
+
+            // Then
+            assertEquals(2, courseService.getDepartmentReport().get(0).getEnrolled());
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        }
+    }
+
+    @Nested
+    @DisplayName("Versioned Update Tests")
+    class VersionedUpdateTests {
+
+        private Course edit(Course current, int maxStudents) {
+            Course update = new Course(current.getCourseCode(), current.getCourseName(), current.getInstructor(),
+                    current.getCredits());
+            update.setMaxStudents(maxStudents);
+            update.setVersion(current.getVersion());
+            return update;
+        }
+
+        @Test
+        @DisplayName("Should raise the version on every update but not on enrollment")
+        void shouldRaiseVersionOnUpdate() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            assertEquals(1L, course.getVersion());
+
+            // When
+            courseService.enrollStudent(course.getId(), 1L);
+            Course updated = courseService.updateCourse(course.getId(), edit(course, 40));
+
+            // Then
+            assertEquals(2L, updated.getVersion());
+            assertSame(updated, courseService.getCourseById(course.getId()).orElseThrow());
+            assertTrue(updated.isEnrolled(1L));
+        }
+
+        @Test
+        @DisplayName("Should reject an update based on a stale version")
+        void shouldRejectStaleUpdate() {
+            // Given
+            Course original = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course staleRead = edit(original, 30);
+            courseService.updateCourse(original.getId(), edit(original, 40));
+
+            // When
+            ConcurrentModificationException conflict = assertThrows(ConcurrentModificationException.class,
+                    () -> courseService.updateCourse(original.getId(), edit(staleRead, 50)));
+
+            // Then
+            assertTrue(conflict.getMessage().contains("expected version 1 but was 2"));
+            Course current = courseService.getCourseById(original.getId()).orElseThrow();
+            assertEquals(40, current.getMaxStudents());
+            assertEquals(2L, current.getVersion());
+        }
+
+        @Test
+        @DisplayName("Should reject an update based on the version before a status change")
+        void shouldRejectStaleUpdateAfterStatusChange() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course staleRead = edit(course, 40);
+            staleRead.setActive(true);
+
+            // When
+            courseService.deactivateCourse(course.getId());
+
+            // Then
+            assertThrows(ConcurrentModificationException.class,
+                    () -> courseService.updateCourse(course.getId(), staleRead));
+            Course current = courseService.getCourseById(course.getId()).orElseThrow();
+            assertFalse(current.isActive());
+            assertEquals(2L, current.getVersion());
+            courseService.activateCourse(course.getId());
+            assertEquals(3L, courseService.getCourseById(course.getId()).orElseThrow().getVersion());
+        }
+
+        @Test
+        @DisplayName("Should replace any version when none is given")
+        void shouldUpdateUnconditionallyWithoutVersion() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.updateCourse(course.getId(), edit(course, 40));
+
+            // When
+            Course update = edit(course, 50);
+            update.setVersion(0L);
+            Course updated = courseService.updateCourse(course.getId(), update);
+
+            // Then
+            assertEquals(50, updated.getMaxStudents());
+            assertEquals(3L, updated.getVersion());
+        }
+    }
+
+    @Nested
+    @DisplayName("Catalog Snapshot Tests")
+    class CatalogSnapshotTests {
+
+        @Test
+        @DisplayName("Should return an unmodifiable list in ID order")
+        void shouldReturnUnmodifiableListInIdOrder() {
+            // Given
+            createCourse("CS101", "Dr. Smith", "CS", 3);
+            createCourse("MATH101", "Dr. Jones", "Math", 4);
+            createCourse("PHYS101", "Dr. Brown", "Physics", 3);
+
+            // When
+            List<Course> all = courseService.getAllCourses();
+
+            // Then
+            assertEquals(List.of("CS101", "MATH101", "PHYS101"), codes(all));
+            assertEquals("MATH101", all.get(1).getCourseCode());
+            assertThrows(UnsupportedOperationException.class, () -> all.remove(0));
+            assertThrows(UnsupportedOperationException.class, () -> all.add(all.get(0)));
+            assertThrows(UnsupportedOperationException.class, all::clear);
+        }
+
+        @Test
+        @DisplayName("Should keep a returned view unchanged by later creates, updates and deletes")
+        void shouldKeepReturnedViewUnchanged() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "CS", 3);
+            Course math101 = createCourse("MATH101", "Dr. Jones", "Math", 4);
+            List<Course> before = courseService.getAllCourses();
+
+            // When
+            Course update = new Course("CS102", "Data Structures", "Dr. Smith", 3);
+            update.setMaxStudents(40);
+            Course updated = courseService.updateCourse(cs101.getId(), update);
+            courseService.deleteCourse(math101.getId());
+            createCourse("PHYS101", "Dr. Brown", "Physics", 3);
+            List<Course> after = courseService.getAllCourses();
+
+            // Then
+            assertEquals(List.of("CS101", "MATH101"), codes(before));
+            assertSame(cs101, before.get(0));
+            assertEquals(List.of("CS102", "PHYS101"), codes(after));
+            assertSame(updated, after.get(0));
+        }
+
+        @Test
+        @DisplayName("Should keep a returned view unchanged by later status changes")
+        void shouldKeepReturnedViewUnchangedByStatusChanges() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            List<Course> before = courseService.getAllCourses();
+
+            // When
+            courseService.deactivateCourse(course.getId());
+            List<Course> after = courseService.getAllCourses();
+
+            // Then
+            assertTrue(before.get(0).isActive());
+            assertEquals(1L, before.get(0).getVersion());
+            assertFalse(after.get(0).isActive());
+            assertEquals(2L, after.get(0).getVersion());
+            assertTrue(course.isActive());
+        }
+
+        @Test
+        @DisplayName("Should hand out courses that cannot be changed outside the service")
+        void shouldRejectChangesToReturnedCourses() {
+            // Given
+            Course input = new Course("CS101", "Course CS101", "Dr. Smith", 3);
+            input.setMaxStudents(30);
+            Course course = courseService.createCourse(input);
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // When
+            input.setMaxStudents(1);
+            input.enrollStudent(2L);
+
+            // Then
+            assertNotSame(input, course);
+            assertEquals(30, course.getMaxStudents());
+            assertEquals(List.of(1L), course.getEnrolledStudents());
+            assertThrows(UnsupportedOperationException.class, () -> course.setMaxStudents(1));
+            assertThrows(UnsupportedOperationException.class, () -> course.setActive(false));
+            assertThrows(UnsupportedOperationException.class, () -> course.enrollStudent(3L));
+            assertThrows(UnsupportedOperationException.class, () -> course.getEnrolledStudents().add(3L));
+            assertThrows(UnsupportedOperationException.class, () -> course.getEnrolledStudents().remove(0));
+            assertEquals(1, courseService.getEnrollmentCount(course.getId()));
+        }
+
+        @Test
+        @DisplayName("Should return the same view while nothing changes")
+        void shouldReturnSameViewWithoutChanges() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            List<Course> first = courseService.getAllCourses();
+
+            // When
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.deleteCourse(999L);
+
+            // Then
+            assertSame(first, courseService.getAllCourses());
+            assertEquals(1, first.get(0).getCurrentEnrollment());
+        }
+    }
+
+    @Nested
+    @DisplayName("Off-Heap Enrollment Tests")
+    class OffHeapEnrollmentTests {
+
+        @BeforeEach
+        void setUp() {
+            courseService = new CourseServiceImpl(true);
+        }
+
+        @Test
+        @DisplayName("Should enroll and unenroll students kept off the heap")
+        void shouldEnrollAndUnenrollOffHeap() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+
+            // When
+            courseService.enrollStudent(course.getId(), 30L);
+            courseService.enrollStudent(course.getId(), 10L);
+            courseService.enrollStudent(course.getId(), 20L);
+            courseService.unenrollStudent(course.getId(), 20L);
+
+            // Then
+            Course stored = courseService.getCourseById(course.getId()).orElseThrow();
+            assertEquals(List.of(10L, 30L), stored.getEnrolledStudents());
+            assertTrue(stored.isEnrolled(30L));
+            assertEquals(List.of(course.getId()), courseService.getCoursesForStudent(10L).stream().map(Course::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Should keep enrollment across updates and accept a replacement list")
+        void shouldKeepEnrollmentAcrossUpdates() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.enrollStudent(course.getId(), 2L);
+
+            // When
+            Course rename = new Course("CS102", "Data Structures", "Dr. Smith", 3);
+            rename.setMaxStudents(30);
+            Course renamed = courseService.updateCourse(course.getId(), rename);
+            List<Long> keptByRename = List.copyOf(renamed.getEnrolledStudents());
+            Course replace = new Course("CS102", "Data Structures", "Dr. Smith", 3);
+            replace.setMaxStudents(30);
+            replace.setEnrolledStudents(new ArrayList<>(List.of(7L, 3L)));
+            Course replaced = courseService.updateCourse(course.getId(), replace);
+
+            // Then
+            assertEquals(List.of(1L, 2L), keptByRename);
+            assertEquals(List.of(3L, 7L), replaced.getEnrolledStudents());
+            assertTrue(courseService.getCoursesForStudent(1L).isEmpty());
+            assertEquals(1, courseService.getCoursesForStudent(7L).size());
+            courseService.enrollStudent(course.getId(), 5L);
+            assertEquals(List.of(3L, 5L, 7L), courseService.getCourseById(course.getId()).orElseThrow().getEnrolledStudents());
+        }
+
+        @Test
+        @DisplayName("Should release a deleted course's enrollment")
+        void shouldReleaseDeletedCourseEnrollment() {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(course.getId(), 1L);
+
+            // When
+            courseService.deleteCourse(course.getId());
+
+            // Then
+            assertEquals(0, course.getCurrentEnrollment());
+            assertTrue(courseService.getCoursesForStudent(1L).isEmpty());
+            Course next = createCourse("CS201", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(next.getId(), 2L);
+            assertEquals(List.of(2L), courseService.getCourseById(next.getId()).orElseThrow().getEnrolledStudents());
+        }
+
+        @Test
+        @DisplayName("Should copy enrollments under the course lock and never read a reused block")
+        void shouldReadEnrollmentsUnderCourseLock() throws Exception {
+            // Given
+            Course course = createCourse("CS101", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(course.getId(), 1L);
+            courseService.enrollStudent(course.getId(), 2L);
+            List<Course> before = courseService.getAllCourses();
+            List<Long> copied = before.get(0).getEnrolledStudents();
+            Method lockFor = CourseServiceImpl.class.getDeclaredMethod("lockFor", Long.class);
+            lockFor.setAccessible(true);
+            ReentrantLock stripe = (ReentrantLock) lockFor.invoke(courseService, course.getId());
+
+            // When
+            courseService.enrollStudent(course.getId(), 3L);
+            stripe.lock();
+            CompletableFuture<List<Long>> read;
+            try {
+                read = CompletableFuture.supplyAsync(() -> before.get(0).getEnrolledStudents());
+                assertThrows(TimeoutException.class, () -> read.get(100, TimeUnit.MILLISECONDS));
+            } finally {
+                stripe.unlock();
+            }
+
+            // Then
+            assertEquals(List.of(1L, 2L), copied);
+            assertEquals(List.of(1L, 2L, 3L), read.get(5, TimeUnit.SECONDS));
+            courseService.deleteCourse(course.getId());
+            Course next = createCourse("CS201", "Dr. Smith", "CS", 3);
+            courseService.enrollStudent(next.getId(), 9L);
+            assertEquals(List.of(), before.get(0).getEnrolledStudents());
+            assertFalse(before.get(0).isEnrolled(9L));
+        }
+    }
+
+    @Nested
+    @DisplayName("Prerequisite Tests")
+    class PrerequisiteTests {
+
+        private Course createCourseRequiring(String code, Course... prerequisites) {
+            Course course = new Course(code, "Course " + code, "Dr. Smith", 3);
+            course.setMaxStudents(30);
+            course.setPrerequisites(Arrays.stream(prerequisites).map(Course::getId).toList());
+            return courseService.createCourse(course);
+        }
+
+        private Course requiring(Course course, Course... prerequisites) {
+            Course update = new Course(course.getCourseCode(), course.getCourseName(), course.getInstructor(), 3);
+            update.setMaxStudents(30);
+            update.setPrerequisites(Arrays.stream(prerequisites).map(Course::getId).toList());
+            return courseService.updateCourse(course.getId(), update);
+        }
+
+        @Test
+        @DisplayName("Should require every transitive prerequisite before enrolling")
+        void shouldRequireTransitivePrerequisites() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+            Course cs301 = createCourseRequiring("CS301", cs201);
+
+            // When
+            courseService.recordCompletion(cs201.getId(), 1L);
+
+            // Then
+            assertFalse(courseService.isEligible(cs301.getId(), 1L));
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> courseService.enrollStudent(cs301.getId(), 1L));
+            assertEquals("Student has not completed the prerequisites of this course", e.getMessage());
+            courseService.recordCompletion(cs101.getId(), 1L);
+            assertTrue(courseService.isEligible(cs301.getId(), 1L));
+            assertTrue(courseService.enrollStudent(cs301.getId(), 1L));
+            assertTrue(courseService.isEligible(cs101.getId(), 2L));
+            assertEquals(List.of(cs101.getId(), cs201.getId()),
+                    courseService.getAllPrerequisites(cs301.getId()).stream().map(Course::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Should reject unknown prerequisites and cycles without changing the graph")
+        void shouldRejectUnknownPrerequisitesAndCycles() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+            Course unknown = new Course("X", "X", "X", 3);
+            unknown.setId(999L);
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class, () -> createCourseRequiring("CS999", unknown));
+            assertThrows(IllegalArgumentException.class, () -> requiring(cs101, cs201));
+            assertThrows(IllegalArgumentException.class, () -> requiring(cs101, cs101));
+            assertEquals(List.of(), courseService.getCourseById(cs101.getId()).orElseThrow().getPrerequisites());
+            assertEquals(1L, courseService.getCourseById(cs101.getId()).orElseThrow().getVersion());
+            assertFalse(courseService.isEligible(cs201.getId(), 1L));
+        }
+
+        @Test
+        @DisplayName("Should repair dependent closures when prerequisites change")
+        void shouldRepairDependentClosures() {
+            // Given
+            Course math101 = createCourseRequiring("MATH101");
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+            Course cs301 = createCourseRequiring("CS301", cs201);
+            courseService.recordCompletion(cs101.getId(), 1L);
+            courseService.recordCompletion(cs201.getId(), 1L);
+            assertTrue(courseService.isEligible(cs301.getId(), 1L));
+
+            // When
+            requiring(cs201, cs101, math101);
+
+            // Then
+            assertFalse(courseService.isEligible(cs301.getId(), 1L));
+            courseService.recordCompletion(math101.getId(), 1L);
+            assertTrue(courseService.isEligible(cs301.getId(), 1L));
+            requiring(cs201);
+            assertFalse(courseService.isEligible(cs301.getId(), 2L));
+            courseService.recordCompletion(cs201.getId(), 2L);
+            assertTrue(courseService.isEligible(cs301.getId(), 2L));
+        }
+
+        @Test
+        @DisplayName("Should count courses completed before they became prerequisites")
+        void shouldCountEarlierCompletions() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            courseService.recordCompletion(cs101.getId(), 1L);
+
+            // When
+            Course cs201 = createCourseRequiring("CS201", cs101);
+
+            // Then
+            assertTrue(courseService.isEligible(cs201.getId(), 1L));
+            assertFalse(courseService.isEligible(cs201.getId(), 2L));
+        }
+
+        @Test
+        @DisplayName("Should keep prerequisites on updates that carry none")
+        void shouldKeepPrerequisitesOnUpdate() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+
+            // When
+            Course update = new Course("CS202", "Renamed", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            Course updated = courseService.updateCourse(cs201.getId(), update);
+
+            // Then
+            assertEquals(List.of(cs101.getId()), updated.getPrerequisites());
+            assertFalse(courseService.isEligible(cs201.getId(), 1L));
+        }
+
+        @Test
+        @DisplayName("Should refuse to delete a course other courses require")
+        void shouldRefuseToDeleteRequiredCourse() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+
+            // When / Then
+            assertThrows(CourseInUseException.class, () -> courseService.deleteCourse(cs101.getId()));
+            assertTrue(courseService.getCourseById(cs101.getId()).isPresent());
+            assertTrue(courseService.deleteCourse(cs201.getId()));
+            assertTrue(courseService.deleteCourse(cs101.getId()));
+        }
+
+        @Test
+        @DisplayName("Should not count completions of a deleted prerequisite towards the course reusing its bit")
+        void shouldNotCountCompletionsOfFreedBits() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+            courseService.recordCompletion(cs101.getId(), 1L);
+            assertTrue(courseService.isEligible(cs201.getId(), 1L));
+            courseService.deleteCourse(cs201.getId());
+            courseService.deleteCourse(cs101.getId());
+
+            // When
+            Course math101 = createCourseRequiring("MATH101");
+            Course math201 = createCourseRequiring("MATH201", math101);
+
+            // Then
+            assertFalse(courseService.isEligible(math201.getId(), 1L));
+            courseService.recordCompletion(math101.getId(), 1L);
+            assertTrue(courseService.isEligible(math201.getId(), 1L));
+            requiring(math201);
+            Course math301 = createCourseRequiring("MATH301", math201);
+            assertFalse(courseService.isEligible(math301.getId(), 1L));
+        }
+
+        @Test
+        @DisplayName("Should fail a bulk enrollment for students missing prerequisites")
+        void shouldFailBulkEnrollmentWithoutPrerequisites() {
+            // Given
+            Course cs101 = createCourseRequiring("CS101");
+            Course cs201 = createCourseRequiring("CS201", cs101);
+            courseService.recordCompletion(cs101.getId(), 1L);
+
+            // When
+            BulkEnrollmentResult result = courseService.enrollStudents(List.of(cs201.getId()), List.of(1L, 2L));
+
+            // Then
+            assertFalse(result.isApplied());
+            assertEquals(List.of(BulkEnrollmentResult.Status.NOT_APPLIED, BulkEnrollmentResult.Status.PREREQUISITES_NOT_MET),
+                    result.getOutcomes().stream().map(BulkEnrollmentResult.Outcome::getStatus).toList());
+            assertEquals(0, courseService.getEnrollmentCount(cs201.getId()));
+        }
+
+        @Test
+        @DisplayName("Should match a graph traversal under random prerequisite changes")
+        void shouldMatchTraversalUnderRandomChanges() {
+            // Given
+            Random random = new Random(42);
+            List<Course> catalog = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                catalog.add(createCourseRequiring("C" + i));
+            }
+            List<Set<Long>> completed = new ArrayList<>();
+            for (long student = 0; student < 10; student++) {
+                completed.add(new HashSet<>());
+                for (Course course : catalog) {
+                    if (random.nextInt(3) > 0) {
+                        courseService.recordCompletion(course.getId(), student);
+                        completed.get((int) student).add(course.getId());
+                    }
+                }
+            }
+
+            for (int round = 0; round < 300; round++) {
+                // When
+                Course course = catalog.get(random.nextInt(catalog.size()));
+                Course[] prerequisites = random.ints(random.nextInt(4), 0, catalog.size())
+                        .mapToObj(catalog::get).toArray(Course[]::new);
+                try {
+                    requiring(courseService.getCourseById(course.getId()).orElseThrow(), prerequisites);
+                } catch (IllegalArgumentException cycle) {
+                    // Rejected edges leave the graph as it was
+                }
+
+                // Then
+                for (Course target : catalog) {
+                    Set<Long> required = new HashSet<>();
+                    Deque<Long> pending = new ArrayDeque<>(List.of(target.getId()));
+                    while (!pending.isEmpty()) {
+                        for (Long prerequisite : courseService.getCourseById(pending.pop()).orElseThrow().getPrerequisites()) {
+                            if (required.add(prerequisite)) {
+                                pending.push(prerequisite);
+                            }
+                        }
+                    }
+                    assertFalse(required.contains(target.getId()));
+                    for (int student = 0; student < completed.size(); student++) {
+                        assertEquals(completed.get(student).containsAll(required),
+                                courseService.isEligible(target.getId(), (long) student));
+                    }
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Catalog History Tests")
+    class CatalogHistoryTests {
+
+        private final Instant start = Instant.parse("2025-09-01T08:00:00Z");
+        private final ManualClock clock = new ManualClock(start);
+
+        @BeforeEach
+        void setUp() {
+            courseService = new CourseServiceImpl(false,
+                    new HistoryRetention(Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofHours(1)), clock);
+        }
+
+        private List<Long> studentsAsOf(Long courseId, Instant asOf) {
+            return courseService.getCourseByIdAsOf(courseId, asOf).orElseThrow().getEnrolledStudents();
+        }
+
+        @Test
+        @DisplayName("Should answer with the catalog and enrollment of a past instant")
+        void shouldAnswerAsOfPastInstants() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            courseService.enrollStudent(cs101.getId(), 1L);
+            clock.advance(Duration.ofMinutes(2));
+            courseService.enrollStudent(cs101.getId(), 2L);
+            Course update = new Course("CS101", "Programming I", "Dr. Smith", 3);
+            update.setMaxStudents(30);
+            courseService.updateCourse(cs101.getId(), update);
+            clock.advance(Duration.ofMinutes(2));
+            courseService.deleteCourse(cs101.getId());
+
+            // When / Then
+            assertEquals("Course CS101", courseService.getCourseByIdAsOf(cs101.getId(), start.plusSeconds(30))
+                    .orElseThrow().getCourseName());
+            assertEquals(List.of(1L), studentsAsOf(cs101.getId(), start.plusSeconds(30)));
+            assertEquals("Programming I", courseService.getCourseByIdAsOf(cs101.getId(), start.plusSeconds(150))
+                    .orElseThrow().getCourseName());
+            assertEquals(List.of(1L, 2L), studentsAsOf(cs101.getId(), start.plusSeconds(150)));
+            assertTrue(courseService.getCourseByIdAsOf(cs101.getId(), start.plusSeconds(270)).isEmpty());
+            assertTrue(courseService.getAllCoursesAsOf(start.minusSeconds(60)).isEmpty());
+            assertEquals(1, courseService.getAllCoursesAsOf(start.plusSeconds(150)).size());
+        }
+
+        @Test
+        @DisplayName("Should answer with the state at the end of the period containing the instant")
+        void shouldAnswerWithEndOfPeriod() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            clock.advance(Duration.ofSeconds(20));
+            courseService.enrollStudent(cs101.getId(), 1L);
+            clock.advance(Duration.ofSeconds(20));
+            courseService.enrollStudent(cs101.getId(), 2L);
+
+            // When / Then
+            assertEquals(List.of(1L, 2L), studentsAsOf(cs101.getId(), start));
+        }
+
+        @Test
+        @DisplayName("Should compact versions older than the delay into one per compacted period")
+        void shouldCompactOldVersions() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            for (long student = 1; student <= 3; student++) {
+                clock.advance(Duration.ofMinutes(1));
+                courseService.enrollStudent(cs101.getId(), student);
+            }
+            assertEquals(List.of(), studentsAsOf(cs101.getId(), start));
+            assertEquals(List.of(1L), studentsAsOf(cs101.getId(), start.plusSeconds(60)));
+
+            // When
+            clock.advance(Duration.ofHours(2));
+            courseService.enrollStudent(cs101.getId(), 4L);
+
+            // Then
+            assertEquals(List.of(1L, 2L, 3L), studentsAsOf(cs101.getId(), start));
+            assertEquals(List.of(1L, 2L, 3L), studentsAsOf(cs101.getId(), start.plusSeconds(60)));
+            assertEquals(List.of(1L, 2L, 3L, 4L), studentsAsOf(cs101.getId(), clock.instant()));
+        }
+
+        @Test
+        @DisplayName("Should drop versions past the retention period and reject instants before it")
+        void shouldDropVersionsPastRetention() {
+            // Given
+            courseService = new CourseServiceImpl(false, new HistoryRetention(Duration.ofMinutes(1),
+                    Duration.ofMinutes(10), Duration.ofHours(1), Duration.ofDays(1)), clock);
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            courseService.enrollStudent(cs101.getId(), 1L);
+            clock.advance(Duration.ofDays(2));
+            courseService.enrollStudent(cs101.getId(), 2L);
+
+            // When
+            clock.advance(Duration.ofDays(2));
+            courseService.enrollStudent(cs101.getId(), 3L);
+
+            // Then
+            assertThrows(IllegalArgumentException.class, () -> courseService.getAllCoursesAsOf(start));
+            assertThrows(IllegalArgumentException.class,
+                    () -> courseService.getCoursesForStudentAsOf(1L, clock.instant().minus(Duration.ofDays(2))));
+            assertEquals(List.of(1L, 2L), studentsAsOf(cs101.getId(), clock.instant().minus(Duration.ofDays(1))));
+            assertEquals(List.of(1L, 2L, 3L), studentsAsOf(cs101.getId(), clock.instant()));
+            assertThrows(IllegalArgumentException.class, () -> new HistoryRetention(Duration.ofMinutes(1),
+                    Duration.ofMinutes(10), Duration.ofHours(1), Duration.ofMinutes(5)));
+        }
+
+        @Test
+        @DisplayName("Should filter the catalog of a past instant")
+        void shouldFilterPastCatalog() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            Course math101 = createCourse("MATH101", "Dr. Jones", "Mathematics", 4);
+            courseService.enrollStudent(cs101.getId(), 1L);
+            courseService.enrollStudent(math101.getId(), 1L);
+            clock.advance(Duration.ofMinutes(5));
+            courseService.unenrollStudent(math101.getId(), 1L);
+            courseService.deactivateCourse(cs101.getId());
+            CourseCriteria active = new CourseCriteria();
+            active.setActive(true);
+
+            // When / Then
+            assertEquals(List.of("CS101", "MATH101"), codes(courseService.findCoursesAsOf(active, start)));
+            assertEquals(List.of("MATH101"), codes(courseService.findCoursesAsOf(active, clock.instant())));
+            assertEquals(List.of("CS101", "MATH101"), codes(courseService.getCoursesForStudentAsOf(1L, start)));
+            assertEquals(List.of("CS101"), codes(courseService.getCoursesForStudentAsOf(1L, clock.instant())));
+        }
+
+        @Test
+        @DisplayName("Should return copies that do not change the history")
+        void shouldReturnDetachedCopies() {
+            // Given
+            Course cs101 = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            Course past = courseService.getCourseByIdAsOf(cs101.getId(), start).orElseThrow();
+
+            // When
+            past.setCourseName("Changed");
+            past.getEnrolledStudents().add(99L);
+
+            // Then
+            Course again = courseService.getCourseByIdAsOf(cs101.getId(), start).orElseThrow();
+            assertEquals("Course CS101", again.getCourseName());
+            assertEquals(List.of(), again.getEnrolledStudents());
+        }
+
+        @Test
+        @DisplayName("Should reject as-of queries when history is not enabled")
+        void shouldRejectWhenDisabled() {
+            // Given
+            courseService = new CourseServiceImpl();
+
+            // When / Then
+            assertThrows(HistoryNotEnabledException.class, () -> courseService.getAllCoursesAsOf(start));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new HistoryRetention(Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofSeconds(90)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Course Archive Tests")
+    class CourseArchiveTests {
+
+        private final ManualClock clock = new ManualClock(Instant.parse("2025-09-01T08:00:00Z"));
+        private Path directory;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            directory = Files.createTempDirectory("course-archive-test");
+            courseService = new CourseServiceImpl(false, null, clock, new ArchivePolicy(directory, Duration.ofDays(1)));
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+            courseService.close();
+            Files.deleteIfExists(directory);
+        }
+
+        /**
+         * Creates a course that ran from January to May 2025, deactivated unless still active, and
+         * returns its current version.
+         */
+        private Course createEnded(String code, String instructor, boolean active) {
+            Course course = new Course(code, "Course " + code, instructor, 3);
+            course.setDepartment("History");
+            course.setMaxStudents(30);
+            course.setStartDate(LocalDate.of(2025, 1, 6));
+            course.setEndDate(LocalDate.of(2025, 5, 30));
+            Course created = courseService.createCourse(course);
+            if (!active) {
+                courseService.deactivateCourse(created.getId());
+            }
+            return courseService.getCourseById(created.getId()).orElseThrow();
+        }
+
+        @Test
+        @DisplayName("Should move ended, inactive courses out of memory and still find them by ID")
+        void shouldArchiveEndedInactiveCourses() {
+            // Given
+            Course ended = createEnded("HIST101", "Dr. Brown", false);
+            courseService.enrollStudent(ended.getId(), 1L);
+            courseService.enrollStudent(ended.getId(), 2L);
+            createEnded("HIST102", "Dr. Brown", true);
+            Course running = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+            courseService.deactivateCourse(running.getId());
+
+            // When
+            int archived = courseService.archiveEndedCourses();
+
+            // Then
+            assertEquals(1, archived);
+            assertEquals(2, courseService.getTotalCourseCount());
+            assertEquals(1, courseService.getArchivedCourseCount());
+            Course found = courseService.getCourseById(ended.getId()).orElseThrow();
+            assertEquals("HIST101", found.getCourseCode());
+            assertEquals(LocalDate.of(2025, 5, 30), found.getEndDate());
+            assertFalse(found.isActive());
+            assertEquals(ended.getVersion(), found.getVersion());
+            assertEquals(List.of(1L, 2L), found.getEnrolledStudents());
+            assertEquals(2, courseService.getEnrollmentCount(ended.getId()));
+            assertEquals(List.of("CS101", "HIST102"), codes(courseService.getAllCourses()));
+            assertEquals(List.of("HIST102"), codes(courseService.findCoursesByCode("HIST")));
+            assertEquals(List.of(), courseService.getCoursesForStudent(1L));
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+            assertEquals(0, courseService.archiveEndedCourses());
+        }
+
+        @Test
+        @DisplayName("Should include archived courses in criteria queries only when asked")
+        void shouldIncludeArchivedOnRequest() {
+            // Given
+            createEnded("HIST101", "Dr. Brown", false);
+            createEnded("HIST102", "Dr. Green", false);
+            createEnded("HIST103", "Dr. Brown", true);
+            courseService.archiveEndedCourses();
+            CourseCriteria criteria = new CourseCriteria();
+            criteria.setInstructor("brown");
+
+            // When / Then
+            assertEquals(List.of("HIST103"), codes(courseService.findCourses(criteria)));
+            criteria.setIncludeArchived(true);
+            assertEquals(List.of("HIST101", "HIST103"), codes(courseService.findCourses(criteria)));
+            criteria.setActive(false);
+            assertEquals(List.of("HIST101"), codes(courseService.findCourses(criteria)));
+        }
+
+        @Test
+        @DisplayName("Should take an archived course back into memory when it changes")
+        void shouldRestoreOnChange() {
+            // Given
+            Course reopened = createEnded("HIST101", "Dr. Brown", false);
+            Course enrolled = createEnded("HIST102", "Dr. Brown", false);
+            Course updated = createEnded("HIST103", "Dr. Brown", false);
+            Course deleted = createEnded("HIST104", "Dr. Brown", false);
+            courseService.enrollStudent(enrolled.getId(), 1L);
+            assertEquals(4, courseService.archiveEndedCourses());
+
+            // When
+            courseService.activateCourse(reopened.getId());
+            courseService.enrollStudent(enrolled.getId(), 2L);
+            Course update = new Course("HIST103", "Renamed", "Dr. Brown", 3);
+            update.setMaxStudents(30);
+            update.setVersion(courseService.getCourseById(updated.getId()).orElseThrow().getVersion());
+            Course result = courseService.updateCourse(updated.getId(), update);
+            boolean removed = courseService.deleteCourse(deleted.getId());
+
+            // Then
+            assertTrue(removed);
+            assertTrue(courseService.getCourseById(deleted.getId()).isEmpty());
+            assertEquals(updated.getVersion() + 1, result.getVersion());
+            assertEquals(0, courseService.getArchivedCourseCount());
+            assertEquals(List.of("HIST101", "HIST102", "HIST103"), codes(courseService.getAllCourses()));
+            // The update carries its own status
+            assertEquals(List.of("HIST101", "HIST103"), codes(courseService.getActiveCourses()));
+            assertEquals(List.of("HIST102"), codes(courseService.getCoursesForStudent(1L)));
+            assertEquals(List.of(1L, 2L), courseService.getCourseById(enrolled.getId()).orElseThrow().getEnrolledStudents());
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        }
+
+        @Test
+        @DisplayName("Should record completions and check prerequisites against archived courses")
+        void shouldKeepArchivedPrerequisites() {
+            // Given
+            Course intro = createEnded("HIST101", "Dr. Brown", false);
+            Course advanced = createCourse("HIST201", "Dr. Brown", "History", 3);
+            Course update = new Course("HIST201", "Course HIST201", "Dr. Brown", 3);
+            update.setMaxStudents(30);
+            update.setPrerequisites(List.of(intro.getId()));
+            courseService.updateCourse(advanced.getId(), update);
+            courseService.archiveEndedCourses();
+
+            // When
+            courseService.recordCompletion(intro.getId(), 7L);
+
+            // Then
+            assertEquals(1, courseService.getArchivedCourseCount());
+            assertTrue(courseService.isEligible(advanced.getId(), 7L));
+            assertFalse(courseService.isEligible(advanced.getId(), 8L));
+            assertEquals(List.of("HIST101"), codes(courseService.getAllPrerequisites(advanced.getId())));
+            assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(advanced.getId(), 8L));
+            assertTrue(courseService.enrollStudent(advanced.getId(), 7L));
+        }
+
+        @Test
+        @DisplayName("Should read the latest copy of a course archived more than once, across many blocks")
+        void shouldReadLatestCopy() {
+            // Given
+            List<Course> ended = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                ended.add(createEnded("HIST" + i, "Dr. Brown", false));
+            }
+            courseService.archiveEndedCourses();
+            Course again = ended.get(150);
+            courseService.enrollStudent(again.getId(), 3L);
+            courseService.activateCourse(again.getId());
+            courseService.deactivateCourse(again.getId());
+
+            // When
+            int archived = courseService.archiveEndedCourses();
+
+            // Then
+            assertEquals(1, archived);
+            assertEquals(300, courseService.getArchivedCourseCount());
+            assertEquals(0, courseService.getTotalCourseCount());
+            for (Course course : ended) {
+                assertEquals(course.getCourseCode(), courseService.getCourseById(course.getId()).orElseThrow().getCourseCode());
+            }
+            assertEquals(List.of(3L), courseService.getCourseById(again.getId()).orElseThrow().getEnrolledStudents());
+            CourseCriteria all = new CourseCriteria();
+            all.setIncludeArchived(true);
+            assertEquals(300, courseService.findCourses(all).size());
+        }
+
+        @Test
+        @DisplayName("Should keep enrollments consistent while courses are archived and taken back concurrently")
+        void shouldArchiveUnderConcurrentEnrollment() throws Exception {
+            // Given
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ids.add(createEnded("HIST" + i, "Dr. Brown", false).getId());
+            }
+            AtomicInteger enrolled = new AtomicInteger();
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                writers.add(new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 500; i++) {
+                        try {
+                            courseService.enrollStudent(ids.get(random.nextInt(ids.size())), seed * 1_000 + i);
+                            enrolled.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // Course full
+                        }
+                    }
+                }));
+            }
+
+            // When
+            writers.forEach(Thread::start);
+            for (int i = 0; i < 20; i++) {
+                courseService.archiveEndedCourses();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            // Then
+            assertEquals(100, courseService.getTotalCourseCount() + courseService.getArchivedCourseCount());
+            int total = 0;
+            for (Long id : ids) {
+                total += courseService.getEnrollmentCount(id);
+            }
+            assertEquals(enrolled.get(), total);
+            assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+        }
+
+        @Test
+        @DisplayName("Should delete the archive on close and reject archiving when not enabled")
+        void shouldDeleteArchiveOnClose() throws IOException {
+            // Given
+            createEnded("HIST101", "Dr. Brown", false);
+            courseService.archiveEndedCourses();
+
+            // When
+            courseService.close();
+
+            // Then
+            try (var files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+            assertThrows(IllegalStateException.class, () -> new ReplicationLeader(courseService, 0, 10, "secret"));
+            assertThrows(IllegalStateException.class, () -> new CourseServiceImpl().archiveEndedCourses());
+            assertThrows(IllegalArgumentException.class, () -> new ArchivePolicy(directory, Duration.ZERO));
+        }
+
+        @Test
+        @DisplayName("Should count failed scheduled runs and keep their courses in memory")
+        void shouldCountFailedArchiveRuns() throws IOException, InterruptedException {
+            // Given
+            courseService.close();
+            courseService = new CourseServiceImpl(false, null, clock, new ArchivePolicy(directory, Duration.ofMillis(20)));
+            try (var files = Files.list(directory)) {
+                for (Path archiveDirectory : files.toList()) {
+                    Files.delete(archiveDirectory);
+                }
+            }
+            Course ended = createEnded("HIST101", "Dr. Brown", false);
+
+            // When
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (courseService.getArchiveFailureCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Then
+            assertTrue(courseService.getArchiveFailureCount() >= 2);
+            assertEquals(1, courseService.getTotalCourseCount());
+            assertEquals(0, courseService.getArchivedCourseCount());
+            assertTrue(courseService.getCourseById(ended.getId()).isPresent());
+        }
+    }
+
+    /**
+     * Clock that only moves when told to.
+     */
+    private static final class ManualClock extends Clock {
+
+        private Instant now;
+
+        ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
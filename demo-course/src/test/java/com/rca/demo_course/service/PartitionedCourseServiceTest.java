@@ -0,0 +1,276 @@
+package com.rca.demo_course.service;
+
+import com.rca.demo_course.domain.Course;
+import com.rca.demo_course.service.impl.CourseServiceImpl;
+import com.rca.demo_course.service.impl.PartitionedCourseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PartitionedCourseService.
+ * Fanned-out queries are checked against CourseServiceImpl on the same data.
+ */
+@DisplayName("Partitioned Course Service Tests")
+public class PartitionedCourseServiceTest {
+
+    private PartitionedCourseService courseService;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new PartitionedCourseService(4, 4, false, null, Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        courseService.close();
+    }
+
+    private static Course newCourse(String code, String instructor, String department, int credits) {
+        Course course = new Course(code, "Course " + code, instructor, credits);
+        course.setDepartment(department);
+        course.setMaxStudents(30);
+        return course;
+    }
+
+    private Course createCourse(String code, String instructor, String department, int credits) {
+        return courseService.createCourse(newCourse(code, instructor, department, credits));
+    }
+
+    private static List<Long> ids(List<Course> courses) {
+        return courses.stream().map(Course::getId).toList();
+    }
+
+    private static List<Long> sortedIds(List<Course> courses) {
+        return courses.stream().map(Course::getId).sorted().toList();
+    }
+
+    @Test
+    @DisplayName("Should spread courses over the partitions and find each by ID")
+    void shouldRouteById() {
+        // Given
+        List<Course> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(createCourse("CS" + i, "Dr. Smith", "Computer Science", 3));
+        }
+
+        // When / Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids(created));
+        for (Course course : created) {
+            assertSame(course, courseService.getCourseById(course.getId()).orElseThrow());
+        }
+        assertEquals(ids(created), ids(courseService.getAllCourses()));
+        assertEquals(10, courseService.getTotalCourseCount());
+        assertTrue(courseService.getCourseById(11L).isEmpty());
+
+        assertTrue(courseService.deleteCourse(6L));
+        assertTrue(courseService.getCourseById(6L).isEmpty());
+        assertEquals(9, courseService.getAllCourses().size());
+    }
+
+    @Test
+    @DisplayName("Should answer list queries like a single store")
+    void shouldMatchSingleStore() {
+        // Given
+        CourseServiceImpl reference = new CourseServiceImpl();
+        Random random = new Random(42);
+        String[] departments = {"Mathematics", "Physics", "Computer Science", "History"};
+        for (int i = 0; i < 200; i++) {
+            Course course = newCourse("C" + i, "Instructor " + random.nextInt(10),
+                    departments[random.nextInt(departments.length)], 1 + random.nextInt(6));
+            course.setMaxStudents(1 + random.nextInt(5));
+            Long id = courseService.createCourse(course).getId();
+            Course copy = newCourse(course.getCourseCode(), course.getInstructor(), course.getDepartment(), course.getCredits());
+            copy.setMaxStudents(course.getMaxStudents());
+            assertEquals(id, reference.createCourse(copy).getId());
+        }
+        for (int i = 0; i < 400; i++) {
+            Long courseId = 1L + random.nextInt(200);
+            Long studentId = (long) random.nextInt(50);
+            if (reference.getCourseById(courseId).orElseThrow().isEnrolled(studentId)
+                    || reference.getCourseById(courseId).orElseThrow().isFull()) {
+                continue;
+            }
+            courseService.enrollStudent(courseId, studentId);
+            reference.enrollStudent(courseId, studentId);
+        }
+        for (long id = 1; id <= 200; id += 7) {
+            courseService.deactivateCourse(id);
+            reference.deactivateCourse(id);
+        }
+        CourseCriteria criteria = new CourseCriteria();
+        criteria.setDepartment("physics");
+        criteria.setMinCredits(2);
+        criteria.setActive(true);
+
+        // When / Then
+        assertEquals(ids(reference.getAllCourses()), ids(courseService.getAllCourses()));
+        assertEquals(ids(reference.findCoursesByDepartment("math")), ids(courseService.findCoursesByDepartment("math")));
+        assertEquals(ids(reference.findCoursesByInstructor("instructor 3")),
+                ids(courseService.findCoursesByInstructor("instructor 3")));
+        assertEquals(ids(reference.findCoursesByCode("C1")), ids(courseService.findCoursesByCode("C1")));
+        assertEquals(sortedIds(reference.getCoursesByCreditRange(2, 4)), sortedIds(courseService.getCoursesByCreditRange(2, 4)));
+        assertEquals(sortedIds(reference.getActiveCoursesByCreditRange(1, 3)),
+                sortedIds(courseService.getActiveCoursesByCreditRange(1, 3)));
+        assertEquals(sortedIds(reference.getActiveCourses()), sortedIds(courseService.getActiveCourses()));
+        assertEquals(sortedIds(reference.getCoursesWithAvailableSpots()), sortedIds(courseService.getCoursesWithAvailableSpots()));
+        assertEquals(sortedIds(reference.findCourses(criteria)), sortedIds(courseService.findCourses(criteria)));
+        assertEquals(reference.explainQuery(criteria).getTotalCourses(), courseService.explainQuery(criteria).getTotalCourses());
+        for (long studentId = 0; studentId < 50; studentId++) {
+            assertEquals(ids(reference.getCoursesForStudent(studentId)), ids(courseService.getCoursesForStudent(studentId)));
+        }
+        assertEquals(reference.getDepartmentReport(), courseService.getDepartmentReport());
+        assertEquals(reference.getInstructorReport(), courseService.getInstructorReport());
+        assertEquals(List.of(), courseService.verifyEnrollmentAggregates());
+    }
+
+    @Test
+    @DisplayName("Should enroll across partitions all or nothing")
+    void shouldEnrollAcrossPartitionsAtomically() {
+        // Given
+        Course first = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+        Course second = createCourse("CS102", "Dr. Smith", "Computer Science", 3);
+        Course third = courseService.createCourse(newCourse("CS103", "Dr. Smith", "Computer Science", 3));
+        Course small = newCourse("CS104", "Dr. Smith", "Computer Science", 3);
+        small.setMaxStudents(1);
+        Course tiny = courseService.createCourse(small);
+        courseService.enrollStudent(tiny.getId(), 9L);
+
+        // When
+        BulkEnrollmentResult rejected = courseService.enrollStudents(
+                List.of(second.getId(), tiny.getId(), first.getId()), List.of(1L, 2L));
+        BulkEnrollmentResult applied = courseService.enrollStudents(
+                List.of(second.getId(), third.getId(), first.getId()), List.of(1L, 2L));
+
+        // Then
+        assertFalse(rejected.isApplied());
+        assertEquals(List.of(second.getId(), second.getId(), tiny.getId(), tiny.getId(), first.getId(), first.getId()),
+                rejected.getOutcomes().stream().map(BulkEnrollmentResult.Outcome::getCourseId).toList());
+        assertEquals(BulkEnrollmentResult.Status.NOT_APPLIED, rejected.getOutcomes().get(0).getStatus());
+        assertEquals(BulkEnrollmentResult.Status.COURSE_FULL, rejected.getOutcomes().get(2).getStatus());
+        assertTrue(applied.isApplied());
+        assertEquals(6, applied.getEnrolledCount());
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), ids(courseService.getCoursesForStudent(2L)));
+    }
+
+    @Test
+    @DisplayName("Should check prerequisites that live in other partitions")
+    void shouldCheckPrerequisitesAcrossPartitions() {
+        // Given
+        Course intro = createCourse("CS101", "Dr. Smith", "Computer Science", 3);
+        Course advanced = newCourse("CS201", "Dr. Smith", "Computer Science", 3);
+        advanced.setPrerequisites(List.of(intro.getId()));
+        advanced = courseService.createCourse(advanced);
+        Long advancedId = advanced.getId();
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> courseService.enrollStudent(advancedId, 1L));
+        courseService.recordCompletion(intro.getId(), 1L);
+        assertTrue(courseService.enrollStudent(advancedId, 1L));
+        assertEquals(List.of(intro.getId()), ids(courseService.getAllPrerequisites(advancedId)));
+        assertThrows(CourseInUseException.class, () -> courseService.deleteCourse(intro.getId()));
+        assertThrows(NoSuchElementException.class, () -> courseService.getAllPrerequisites(99L));
+    }
+
+    @Test
+    @DisplayName("Should rank description matches from all partitions together")
+    void shouldMergeSearchResultsByScore() {
+        // Given
+        for (int i = 0; i < 12; i++) {
+            Course course = newCourse("CS" + i, "Dr. Smith", "Computer Science", 3);
+            course.setDescription(i == 7 ? "Compilers: parsing, parsing and more parsing" : "Introduction to topic " + i);
+            courseService.createCourse(course);
+        }
+        Course other = newCourse("CS99", "Dr. Smith", "Computer Science", 3);
+        other.setDescription("A little parsing");
+        courseService.createCourse(other);
+
+        // When
+        List<Course> results = courseService.searchCourses("parsing", 5);
+
+        // Then
+        assertEquals(List.of("CS7", "CS99"), results.stream().map(Course::getCourseCode).toList());
+        assertEquals(1, courseService.searchCourses("parsing", 1).size());
+    }
+
+    @Test
+    @DisplayName("Should deliver events from every partition to one listener")
+    void shouldSubscribeToAllPartitions() throws InterruptedException {
+        // Given
+        Set<Long> courseIds = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            courseIds.add(createCourse("CS" + i, "Dr. Smith", "Computer Science", 3).getId());
+        }
+        BlockingQueue<EnrollmentEvent> events = new LinkedBlockingQueue<>();
+        EnrollmentSubscription subscription = courseService.subscribeToEnrollments(
+                EnrollmentEventFilter.all(), Duration.ofMillis(20), events::addAll);
+
+        // When
+        for (Long courseId : courseIds) {
+            courseService.enrollStudent(courseId, 1L);
+        }
+
+        // Then
+        Set<Long> seen = new HashSet<>();
+        while (seen.size() < courseIds.size()) {
+            EnrollmentEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            seen.add(event.getCourseId());
+        }
+        assertEquals(courseIds, seen);
+        assertTrue(subscription.isActive());
+        subscription.cancel();
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    @DisplayName("Should apply queued surge enrollments in every partition when closed")
+    void shouldDrainSurgeModeOnClose() throws Exception {
+        // Given
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            courseIds.add(createCourse("CS" + i, "Dr. Smith", "CS", 3).getId());
+        }
+        courseService.setSurgeMode(true);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (Long courseId : courseIds) {
+            results.add(courseService.enrollStudentAsync(courseId, 1L));
+        }
+
+        // When
+        courseService.close();
+
+        // Then
+        assertFalse(courseService.isSurgeMode());
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        for (Long courseId : courseIds) {
+            assertEquals(1, courseService.getEnrollmentCount(courseId));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid partition count")
+    void shouldRejectInvalidPartitionCount() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedCourseService(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PartitionedCourseService(2, -1, false, null, Clock.systemUTC()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CreditIndex.
+ */
+@DisplayName("Credit Index Tests")
+public class CreditIndexTest {
+
+    private CreditIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CreditIndex();
+        index.put(1L, 1, true);
+        index.put(2L, 3, true);
+        index.put(3L, 3, false);
+        index.put(4L, 6, true);
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Should return courses within the credit range")
+    void shouldReturnCoursesWithinRange() {
+        assertArrayEquals(new long[]{2L, 3L}, sorted(index.range(2, 5, false)));
+        assertArrayEquals(new long[]{1L, 2L, 3L, 4L}, sorted(index.range(0, 10, false)));
+        assertArrayEquals(new long[0], index.range(4, 5, false));
+    }
+
+    @Test
+    @DisplayName("Should restrict to active courses when requested")
+    void shouldRestrictToActiveCourses() {
+        assertArrayEquals(new long[]{2L}, index.range(3, 3, true));
+        assertArrayEquals(new long[]{1L, 2L, 4L}, sorted(index.range(1, 6, true)));
+    }
+
+    @Test
+    @DisplayName("Should move courses between buckets on update")
+    void shouldMoveCoursesOnUpdate() {
+        index.put(2L, 5, false);
+
+        assertArrayEquals(new long[]{3L}, index.range(3, 3, false));
+        assertArrayEquals(new long[]{2L}, index.range(5, 5, false));
+        assertArrayEquals(new long[0], index.range(5, 5, true));
+    }
+
+    @Test
+    @DisplayName("Should toggle active flag and remove courses")
+    void shouldToggleActiveAndRemove() {
+        index.setActive(3L, true);
+        index.setActive(4L, false);
+        index.remove(1L);
+        index.setActive(99L, true);
+
+        assertArrayEquals(new long[]{2L, 3L}, sorted(index.range(1, 6, true)));
+        assertArrayEquals(new long[]{2L, 3L, 4L}, sorted(index.range(1, 6, false)));
+    }
+
+    @Test
+    @DisplayName("Should reject credits outside the valid range")
+    void shouldRejectInvalidCredits() {
+        assertThrows(IllegalArgumentException.class, () -> index.put(5L, 0, true));
+        assertThrows(IllegalArgumentException.class, () -> index.put(5L, 7, true));
+    }
+}
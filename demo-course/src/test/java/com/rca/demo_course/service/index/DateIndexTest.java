@@ -0,0 +1,101 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DateIndex.
+ */
+@DisplayName("Date Index Tests")
+public class DateIndexTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    private DateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DateIndex();
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Should answer start and end comparisons strictly")
+    void shouldAnswerStartAndEndQueries() {
+        index.put(1L, BASE, BASE.plusDays(10));
+        index.put(2L, BASE.plusDays(5), null);
+        index.put(3L, null, BASE.plusDays(3));
+
+        assertArrayEquals(new long[]{2L}, index.startingAfter(BASE));
+        assertArrayEquals(new long[]{1L, 2L}, sorted(index.startingAfter(BASE.minusDays(1))));
+        assertArrayEquals(new long[]{3L}, index.endingBefore(BASE.plusDays(10)));
+        assertArrayEquals(new long[]{1L, 3L}, sorted(index.endingBefore(BASE.plusDays(11))));
+    }
+
+    @Test
+    @DisplayName("Should find courses running on a date including boundaries")
+    void shouldFindRunningCourses() {
+        index.put(1L, BASE, BASE.plusDays(10));
+        index.put(2L, BASE.plusDays(10), BASE.plusDays(20));
+        index.put(3L, BASE.plusDays(5), null);
+
+        assertArrayEquals(new long[]{1L, 2L}, sorted(index.runningOn(BASE.plusDays(10))));
+        assertArrayEquals(new long[]{1L}, index.runningOn(BASE));
+        assertArrayEquals(new long[0], index.runningOn(BASE.plusDays(21)));
+    }
+
+    @Test
+    @DisplayName("Should follow updates and removals")
+    void shouldFollowUpdatesAndRemovals() {
+        index.put(1L, BASE, BASE.plusDays(10));
+        index.put(2L, BASE, BASE.plusDays(10));
+
+        index.put(1L, BASE.plusDays(30), BASE.plusDays(40));
+        index.remove(2L);
+
+        assertArrayEquals(new long[0], index.runningOn(BASE.plusDays(5)));
+        assertArrayEquals(new long[]{1L}, index.overlapping(BASE.plusDays(35), BASE.plusDays(50)));
+        assertArrayEquals(new long[]{1L}, index.startingAfter(BASE));
+    }
+
+    @Test
+    @DisplayName("Should agree with a linear scan on random intervals")
+    void shouldAgreeWithLinearScan() {
+        Random random = new Random(11);
+        Map<Long, int[]> intervals = new HashMap<>();
+        for (long id = 0; id < 3_000; id++) {
+            int start = random.nextInt(1_000);
+            int end = start + random.nextInt(120);
+            intervals.put(id, new int[]{start, end});
+            index.put(id, BASE.plusDays(start), BASE.plusDays(end));
+        }
+        for (long id = 0; id < 3_000; id += 4) {
+            intervals.remove(id);
+            index.remove(id);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            int from = random.nextInt(1_100) - 50;
+            int to = from + random.nextInt(60);
+            long[] expected = intervals.entrySet().stream()
+                    .filter(e -> e.getValue()[0] <= to && e.getValue()[1] >= from)
+                    .mapToLong(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(expected, sorted(index.overlapping(BASE.plusDays(from), BASE.plusDays(to))));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FullTextIndex.
+ */
+@DisplayName("Full-Text Index Tests")
+public class FullTextIndexTest {
+
+    private FullTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FullTextIndex();
+    }
+
+    @Test
+    @DisplayName("Should normalize case, stop words and simple suffixes")
+    void shouldNormalizeTokens() {
+        assertEquals(List.of("introduction", "algorithm", "data", "structure"),
+                FullTextIndex.analyze("Introduction to Algorithms and Data-Structures"));
+        assertEquals("study", FullTextIndex.stem("studies"));
+        assertEquals("program", FullTextIndex.stem("programming"));
+        assertEquals("class", FullTextIndex.stem("class"));
+        assertEquals("analysis", FullTextIndex.stem("analysis"));
+    }
+
+    @Test
+    @DisplayName("Should rank documents by BM25 relevance")
+    void shouldRankByRelevance() {
+        index.put(1L, "Databases: relational databases, SQL and database design.");
+        index.put(2L, "Operating systems with a short unit on databases.");
+        index.put(3L, "Modern poetry and literature.");
+
+        long[] result = index.search("database design", 10);
+
+        assertArrayEquals(new long[]{1L, 2L}, result);
+    }
+
+    @Test
+    @DisplayName("Rare terms should outweigh common terms")
+    void rareTermsShouldOutweighCommonTerms() {
+        for (long id = 1; id <= 20; id++) {
+            index.put(id, "Introductory course covering fundamentals");
+        }
+        index.put(21L, "Introductory course on cryptography");
+
+        long[] result = index.search("course cryptography", 3);
+
+        assertEquals(3, result.length);
+        assertEquals(21L, result[0]);
+    }
+
+    @Test
+    @DisplayName("Should follow updates and removals")
+    void shouldFollowUpdatesAndRemovals() {
+        index.put(1L, "Machine learning");
+        index.put(2L, "Machine shop safety");
+
+        index.put(1L, "Organic chemistry");
+        index.remove(2L);
+
+        assertArrayEquals(new long[0], index.search("machine", 5));
+        assertArrayEquals(new long[]{1L}, index.search("chemistry", 5));
+        assertArrayEquals(new long[0], index.search("the and of", 5));
+    }
+
+    @Test
+    @DisplayName("Compaction after many updates should not change results")
+    void compactionShouldPreserveResults() {
+        FullTextIndex fresh = new FullTextIndex();
+        Random random = new Random(21);
+        String[] words = {"algebra", "biology", "chemistry", "design", "ethics", "finance", "geometry", "history"};
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1_500; id++) {
+                StringBuilder text = new StringBuilder();
+                for (int w = 0; w < 6; w++) {
+                    text.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                index.put(id, text.toString());
+                if (round == 4) {
+                    fresh.put(id, text.toString());
+                }
+            }
+        }
+
+        for (String word : words) {
+            assertArrayEquals(fresh.search(word + " history", 25), index.search(word + " history", 25));
+        }
+    }
+
+    @Test
+    @DisplayName("Pruned top-K should match exhaustive BM25 scoring")
+    void prunedTopKShouldMatchExhaustiveScoring() {
+        Random random = new Random(4);
+        Map<Long, List<String>> documents = new HashMap<>();
+        for (long id = 0; id < 3_000; id++) {
+            StringBuilder text = new StringBuilder();
+            int length = 5 + random.nextInt(40);
+            for (int w = 0; w < length; w++) {
+                // Skewed vocabulary: low word numbers are much more common
+                text.append("word").append((int) Math.pow(400, random.nextDouble())).append(' ');
+            }
+            index.put(id, text.toString());
+            documents.put(id, FullTextIndex.analyze(text.toString()));
+        }
+
+        for (int q = 0; q < 50; q++) {
+            String query = "word" + random.nextInt(5) + " word" + (int) Math.pow(400, random.nextDouble());
+            long[] expected = exhaustiveTopK(documents, FullTextIndex.analyze(query), 10);
+            assertArrayEquals(expected, index.search(query, 10), query);
+        }
+    }
+
+    private static long[] exhaustiveTopK(Map<Long, List<String>> documents, List<String> query, int k) {
+        float avgLength = (float) documents.values().stream().mapToLong(List::size).sum() / documents.size();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (List<String> tokens : documents.values()) {
+            for (String term : new LinkedHashSet<>(tokens)) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+        Map<Long, Float> scores = new HashMap<>();
+        for (Map.Entry<Long, List<String>> document : documents.entrySet()) {
+            float score = 0;
+            boolean matched = false;
+            for (String term : new LinkedHashSet<>(query)) {
+                int tf = (int) document.getValue().stream().filter(term::equals).count();
+                if (tf == 0) {
+                    continue;
+                }
+                matched = true;
+                int df = documentFrequency.get(term);
+                float idf = (float) Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+                float norm = 1.2f * (1 - 0.75f + 0.75f * document.getValue().size() / avgLength);
+                score += idf * tf * (1.2f + 1) / (tf + norm);
+            }
+            if (matched) {
+                scores.put(document.getKey(), score);
+            }
+        }
+        return scores.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> scores.get(id)).reversed().thenComparing(id -> id))
+                .limit(k)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,146 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PrefixIndex.
+ */
+@DisplayName("Prefix Index Tests")
+public class PrefixIndexTest {
+
+    private final Map<Long, Integer> scores = new HashMap<>();
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex(id -> scores.getOrDefault(id, 0), Duration.ZERO);
+        put(1L, "CS101", "Introduction to Programming", 5);
+        put(2L, "CS201", "Data Structures", 20);
+        put(3L, "MATH101", "Calculus I", 10);
+        put(4L, "CS301", "Compilers", 20);
+    }
+
+    private void put(long id, String code, String name, int score) {
+        scores.put(id, score);
+        index.put(id, code, name);
+        index.updateScore(id, score);
+    }
+
+    @Test
+    @DisplayName("Should complete codes and names ranked by score")
+    void shouldCompleteByScore() {
+        assertArrayEquals(new long[]{2L, 4L, 1L}, index.complete("cs", 10));
+        assertArrayEquals(new long[]{4L, 2L}, index.complete("C", 2));
+        assertArrayEquals(new long[]{1L}, index.complete("intro", 10));
+        assertArrayEquals(new long[0], index.complete("physics", 10));
+    }
+
+    @Test
+    @DisplayName("Should return a course once when both keys match")
+    void shouldDeduplicateCourses() {
+        put(5L, "DATA100", "Data Literacy", 1);
+
+        assertArrayEquals(new long[]{2L, 5L}, index.complete("data", 10));
+    }
+
+    @Test
+    @DisplayName("Should follow score updates, replacements and removals")
+    void shouldFollowUpdates() {
+        index.updateScore(1L, 50);
+        index.put(4L, "EE301", "Signals");
+        index.remove(2L);
+
+        assertArrayEquals(new long[]{1L}, index.complete("cs", 10));
+        assertArrayEquals(new long[]{4L}, index.complete("sig", 10));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    @DisplayName("Should serve cached completions until the index changes")
+    void shouldServeCachedCompletionsUntilIndexChanges() {
+        PrefixIndex cached = new PrefixIndex(id -> scores.getOrDefault(id, 0), Duration.ofMinutes(1));
+        cached.put(11L, "CS101", "Programming");
+        cached.put(12L, "CS102", "Systems");
+        assertArrayEquals(new long[]{11L, 12L}, cached.complete("cs", 10));
+
+        scores.put(12L, 7);
+        cached.updateScore(12L, 7);
+        assertArrayEquals(new long[]{11L, 12L}, cached.complete("cs", 10));
+
+        cached.put(13L, "CS103", "Networks");
+        assertArrayEquals(new long[]{12L, 11L, 13L}, cached.complete("cs", 10));
+    }
+
+    @Test
+    @DisplayName("Should match a brute-force ranking across merges")
+    void shouldMatchBruteForceAcrossMerges() {
+        Random random = new Random(7);
+        Map<Long, String[]> keys = new HashMap<>();
+        String[] departments = {"cs", "math", "phys", "chem", "bio", "hist"};
+
+        for (int i = 0; i < 30_000; i++) {
+            long id = random.nextInt(6_000);
+            int action = random.nextInt(10);
+            if (action < 5) {
+                String code = departments[random.nextInt(departments.length)] + random.nextInt(1_000);
+                String name = departments[random.nextInt(departments.length)] + " topic " + random.nextInt(50);
+                keys.put(id, new String[]{code, name});
+                scores.put(id, random.nextInt(40));
+                index.put(id, code, name);
+            } else if (action < 6) {
+                keys.remove(id);
+                index.remove(id);
+            } else if (keys.containsKey(id)) {
+                int score = random.nextInt(40);
+                scores.put(id, score);
+                index.updateScore(id, score);
+            }
+
+            if (i % 500 == 0) {
+                String prefix = departments[random.nextInt(departments.length)].substring(0, 1 + random.nextInt(2));
+                int limit = 1 + random.nextInt(20);
+                assertArrayEquals(bruteForce(keys, prefix, limit), index.complete(prefix, limit), prefix);
+            }
+        }
+        for (String department : departments) {
+            assertArrayEquals(bruteForce(keys, department + "1", 15), index.complete(department + "1", 15));
+        }
+    }
+
+    private long[] bruteForce(Map<Long, String[]> keys, String prefix, int limit) {
+        List<Object[]> matches = new ArrayList<>();
+        keys.forEach((id, pair) -> {
+            for (String key : pair) {
+                String lower = key.toLowerCase();
+                if (lower.startsWith(prefix)) {
+                    matches.add(new Object[]{id, scores.getOrDefault(id, 0), lower});
+                }
+            }
+        });
+        matches.sort(Comparator.<Object[]>comparingInt(m -> -(Integer) m[1])
+                .thenComparing(m -> (String) m[2])
+                .thenComparingLong(m -> (Long) m[0]));
+        Set<Long> result = new LinkedHashSet<>();
+        for (Object[] match : matches) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add((Long) match[0]);
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,64 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StudentEnrollmentIndex.
+ */
+@DisplayName("Student Enrollment Index Tests")
+public class StudentEnrollmentIndexTest {
+
+    private StudentEnrollmentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StudentEnrollmentIndex();
+        index.add(10L, 3L);
+        index.add(10L, 1L);
+        index.add(10L, 2L);
+        index.add(20L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should return a student's courses in ascending order")
+    void shouldReturnCoursesInOrder() {
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.coursesOf(10L));
+        assertArrayEquals(new long[]{2L}, index.coursesOf(20L));
+        assertArrayEquals(new long[0], index.coursesOf(30L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should ignore duplicate enrollments and unknown removals")
+    void shouldIgnoreDuplicatesAndUnknownRemovals() {
+        index.add(10L, 2L);
+        index.remove(10L, 4L);
+        index.remove(30L, 1L);
+
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.coursesOf(10L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should drop students whose last enrollment is removed")
+    void shouldDropStudentsWithoutCourses() {
+        index.remove(10L, 2L);
+        index.remove(20L, 2L);
+
+        assertArrayEquals(new long[]{1L, 3L}, index.coursesOf(10L));
+        assertArrayEquals(new long[0], index.coursesOf(20L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should not expose internal state")
+    void shouldReturnCopies() {
+        index.coursesOf(10L)[0] = 99L;
+
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.coursesOf(10L));
+    }
+}
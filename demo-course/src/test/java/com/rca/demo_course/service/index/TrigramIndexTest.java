@@ -0,0 +1,107 @@
+package com.rca.demo_course.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrigramIndex.
+ */
+@DisplayName("Trigram Index Tests")
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+    }
+
+    @Test
+    @DisplayName("Should find values containing the query ignoring case")
+    void shouldFindSubstringsIgnoringCase() {
+        index.put(1L, "Computer Science");
+        index.put(2L, "Mathematics");
+        index.put(3L, "computer engineering");
+
+        assertArrayEquals(new long[]{1L, 3L}, index.search("COMPUTER"));
+        assertArrayEquals(new long[]{2L}, index.search("them"));
+        assertArrayEquals(new long[0], index.search("biology"));
+    }
+
+    @Test
+    @DisplayName("Should handle queries shorter than a trigram")
+    void shouldHandleShortQueries() {
+        index.put(1L, "CS101");
+        index.put(2L, "MATH201");
+
+        assertArrayEquals(new long[]{1L}, index.search("cs"));
+        assertArrayEquals(new long[]{1L, 2L}, index.search("1"));
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals")
+    void shouldReflectUpdatesAndRemovals() {
+        index.put(1L, "Dr. Smith");
+        index.put(2L, "Dr. Smith");
+
+        index.put(1L, "Dr. Jones");
+        index.remove(2L);
+
+        assertArrayEquals(new long[0], index.search("smith"));
+        assertArrayEquals(new long[]{1L}, index.search("jones"));
+        assertEquals(1, index.distinctValueCount());
+    }
+
+    @Test
+    @DisplayName("Should share one entry across courses with the same value")
+    void shouldShareDistinctValues() {
+        for (long id = 1; id <= 100; id++) {
+            index.put(id, id % 2 == 0 ? "Physics" : "PHYSICS");
+        }
+
+        assertEquals(1, index.distinctValueCount());
+        assertEquals(100, index.search("phys").length);
+    }
+
+    @Test
+    @DisplayName("Should agree with a linear contains scan on random data")
+    void shouldAgreeWithLinearScan() {
+        Random random = new Random(7);
+        Map<Long, String> values = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            String value = randomWord(random, 3 + random.nextInt(8));
+            values.put(id, value);
+            index.put(id, value);
+        }
+        for (long id = 0; id < 2_000; id += 3) {
+            index.remove(id);
+            values.remove(id);
+        }
+
+        for (int q = 0; q < 300; q++) {
+            String query = randomWord(random, 1 + random.nextInt(4));
+            long[] expected = values.entrySet().stream()
+                    .filter(e -> e.getValue().toLowerCase().contains(query.toLowerCase()))
+                    .mapToLong(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(expected, index.search(query));
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(6));
+            sb.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.rca.demo_course.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LongHashSet.
+ */
+@DisplayName("LongHashSet Tests")
+public class LongHashSetTest {
+
+    private LongHashSet set;
+
+    @BeforeEach
+    void setUp() {
+        set = new LongHashSet();
+    }
+
+    @Test
+    @DisplayName("Should add, find and remove values")
+    void shouldAddFindAndRemove() {
+        assertTrue(set.add(1L));
+        assertTrue(set.add(2L));
+        assertFalse(set.add(1L));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(1L));
+        assertFalse(set.contains(3L));
+
+        assertTrue(set.remove(1L));
+        assertFalse(set.remove(1L));
+        assertEquals(1, set.size());
+        assertEquals(2L, set.get(0));
+    }
+
+    @Test
+    @DisplayName("Should keep insertion order and move last value into removed position")
+    void shouldKeepDenseOrder() {
+        set.add(10L);
+        set.add(20L);
+        set.add(30L);
+
+        set.remove(10L);
+
+        assertArrayEquals(new long[]{30L, 20L}, set.toArray());
+    }
+
+    @Test
+    @DisplayName("Should throw when index is out of range")
+    void shouldThrowWhenIndexOutOfRange() {
+        set.add(5L);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.removeAt(-1));
+    }
+
+    @Test
+    @DisplayName("Should match java.util.HashSet under random operations")
+    void shouldMatchHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(5_000) - 2_500L;
+            switch (random.nextInt(3)) {
+                case 0, 1 -> assertEquals(expected.add(value), set.add(value));
+                default -> assertEquals(expected.remove(value), set.remove(value));
+            }
+            if (i % 10_000 == 0) {
+                assertEquals(expected.size(), set.size());
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long value = -2_500L; value < 2_500L; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        long[] values = set.toArray();
+        assertEquals(expected.size(), Arrays.stream(values).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Clear should empty the set and allow reuse")
+    void clearShouldEmptySet() {
+        for (long i = 0; i < 100; i++) {
+            set.add(i);
+        }
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5L));
+        assertTrue(set.add(5L));
+        assertEquals(1, set.size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.rca.demo_course.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LongIntHashMap.
+ */
+@DisplayName("LongIntHashMap Tests")
+public class LongIntHashMapTest {
+
+    private LongIntHashMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new LongIntHashMap(-1);
+    }
+
+    @Test
+    @DisplayName("Should put, get and remove entries")
+    void shouldPutGetAndRemove() {
+        assertEquals(-1, map.put(1L, 10));
+        assertEquals(10, map.put(1L, 11));
+        map.put(2L, 20);
+
+        assertEquals(11, map.get(1L));
+        assertEquals(-1, map.get(3L));
+        assertTrue(map.containsKey(2L));
+        assertEquals(2, map.size());
+
+        assertEquals(11, map.remove(1L));
+        assertEquals(-1, map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("Should match java.util.HashMap under random operations")
+    void shouldMatchHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 2_500L;
+            if (random.nextInt(3) < 2) {
+                int value = random.nextInt(1_000);
+                assertEquals((int) expected.getOrDefault(key, -1), map.put(key, value));
+                expected.put(key, value);
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : -1, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = -2_500L; key < 2_500L; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+        }
+    }
+}
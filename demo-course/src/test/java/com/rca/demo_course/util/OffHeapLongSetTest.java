@@ -0,0 +1,119 @@
+package com.rca.demo_course.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapLongSet and its arena.
+ */
+@DisplayName("OffHeapLongSet Tests")
+public class OffHeapLongSetTest {
+
+    private OffHeapLongSetArena arena;
+
+    @BeforeEach
+    void setUp() {
+        arena = new OffHeapLongSetArena(4096);
+    }
+
+    @Test
+    @DisplayName("Should add, remove and keep values sorted")
+    void shouldAddRemoveAndKeepSorted() {
+        OffHeapLongSet set = arena.newSet();
+
+        assertTrue(set.add(30L));
+        assertTrue(set.add(10L));
+        assertTrue(set.add(20L));
+        assertFalse(set.add(10L));
+
+        assertArrayEquals(new long[] {10L, 20L, 30L}, set.toArray());
+        assertEquals(20L, set.get(1));
+        assertTrue(set.contains(30L));
+        assertTrue(set.remove(20L));
+        assertFalse(set.remove(20L));
+        assertEquals(30L, set.removeAt(1));
+        assertEquals(1, set.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+    }
+
+    @Test
+    @DisplayName("Should match java.util.TreeSet under random operations")
+    void shouldMatchTreeSetUnderRandomOperations() {
+        Random random = new Random(42);
+        List<OffHeapLongSet> sets = new ArrayList<>();
+        List<TreeSet<Long>> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sets.add(arena.newSet());
+            expected.add(new TreeSet<>());
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            int which = random.nextInt(sets.size());
+            long value = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) < 2) {
+                assertEquals(expected.get(which).add(value), sets.get(which).add(value));
+            } else {
+                assertEquals(expected.get(which).remove(value), sets.get(which).remove(value));
+            }
+        }
+
+        for (int i = 0; i < sets.size(); i++) {
+            long[] values = expected.get(i).stream().mapToLong(Long::longValue).toArray();
+            assertArrayEquals(values, sets.get(i).toArray());
+            assertEquals(values.length, sets.get(i).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return released blocks to the arena for reuse")
+    void shouldReuseReleasedBlocks() {
+        OffHeapLongSet first = arena.newSet();
+        for (long i = 0; i < 100; i++) {
+            first.add(i);
+        }
+        long reserved = arena.reservedBytes();
+        assertEquals(128 * Long.BYTES, arena.allocatedBytes());
+
+        first.release();
+        OffHeapLongSet second = arena.newSet();
+        for (long i = 0; i < 100; i++) {
+            second.add(i);
+        }
+
+        assertTrue(first.isEmpty());
+        assertEquals(reserved, arena.reservedBytes());
+        assertEquals(128 * Long.BYTES, arena.allocatedBytes());
+        assertTrue(first.add(5L));
+        assertTrue(first.contains(5L));
+        assertEquals(100, second.size());
+    }
+
+    @Test
+    @DisplayName("Should give blocks larger than a slab their own slab")
+    void shouldAllocateOversizedBlocks() {
+        OffHeapLongSet set = arena.newSet();
+
+        for (long i = 10_000; i > 0; i--) {
+            set.add(i);
+        }
+
+        assertEquals(10_000, set.size());
+        assertEquals(1L, set.get(0));
+        assertEquals(10_000L, set.get(9_999));
+        assertEquals(16_384 * Long.BYTES, arena.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("Should reject a slab smaller than the smallest block")
+    void shouldRejectTinySlab() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapLongSetArena(8));
+    }
+}
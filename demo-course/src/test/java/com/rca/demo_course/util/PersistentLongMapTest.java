@@ -0,0 +1,124 @@
+package com.rca.demo_course.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PersistentLongMap.
+ */
+@DisplayName("PersistentLongMap Tests")
+public class PersistentLongMapTest {
+
+    @Test
+    @DisplayName("Should put, get and remove without changing earlier versions")
+    void shouldKeepEarlierVersionsUnchanged() {
+        PersistentLongMap<String> empty = PersistentLongMap.empty();
+        PersistentLongMap<String> one = empty.put(1L, "a");
+        PersistentLongMap<String> two = one.put(40L, "b");
+        PersistentLongMap<String> replaced = two.put(1L, "c");
+        PersistentLongMap<String> removed = replaced.remove(40L);
+
+        assertTrue(empty.isEmpty());
+        assertEquals("a", one.get(1L));
+        assertNull(one.get(40L));
+        assertEquals(2, two.size());
+        assertEquals("a", two.get(1L));
+        assertEquals("c", replaced.get(1L));
+        assertEquals("b", replaced.get(40L));
+        assertEquals(1, removed.size());
+        assertNull(removed.get(40L));
+        assertTrue(removed.remove(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the same version for no-op changes")
+    void shouldReturnSameVersionForNoOps() {
+        PersistentLongMap<String> map = PersistentLongMap.<String>empty().put(7L, "a");
+
+        assertSame(map, map.put(7L, "a"));
+        assertSame(map, map.remove(8L));
+        assertSame(map, map.remove(1L << 40));
+        assertSame(map, map.remove(-1L));
+    }
+
+    @Test
+    @DisplayName("Should handle keys across the whole non-negative range")
+    void shouldHandleLargeKeys() {
+        PersistentLongMap<String> map = PersistentLongMap.<String>empty()
+                .put(Long.MAX_VALUE, "max")
+                .put(0L, "zero")
+                .put(1L << 35, "mid");
+
+        assertEquals("max", map.get(Long.MAX_VALUE));
+        assertEquals("zero", map.get(0L));
+        assertEquals("mid", map.get(1L << 35));
+        assertEquals(List.of("zero", "mid", "max"), values(map));
+        assertEquals("max", map.valueAt(2));
+    }
+
+    @Test
+    @DisplayName("Should reject negative keys and null values")
+    void shouldRejectInvalidArguments() {
+        PersistentLongMap<String> map = PersistentLongMap.empty();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1L, "a"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.valueAt(0));
+        assertThrows(NoSuchElementException.class, () -> map.valueIterator().next());
+    }
+
+    @Test
+    @DisplayName("Should match java.util.TreeMap under random operations")
+    void shouldMatchTreeMapUnderRandomOperations() {
+        Random random = new Random(42);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        PersistentLongMap<Integer> map = PersistentLongMap.empty();
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(4) == 0 ? random.nextLong() & Long.MAX_VALUE : random.nextInt(5_000);
+            if (random.nextInt(3) < 2) {
+                int value = random.nextInt(1_000);
+                expected.put(key, value);
+                map = map.put(key, value);
+            } else {
+                expected.remove(key);
+                map = map.remove(key);
+            }
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        assertEquals(expected.size(), map.size());
+        List<Integer> iterated = new ArrayList<>();
+        map.valueIterator().forEachRemaining(iterated::add);
+        assertEquals(new ArrayList<>(expected.values()), iterated);
+        assertEquals(iterated, values(map));
+        int position = 0;
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.valueAt(position++));
+        }
+    }
+
+    @Test
+    @DisplayName("Should iterate an empty map")
+    void shouldIterateEmptyMap() {
+        Iterator<String> iterator = PersistentLongMap.<String>empty().valueIterator();
+
+        assertFalse(iterator.hasNext());
+    }
+
+    private static <V> List<V> values(PersistentLongMap<V> map) {
+        List<V> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rca.demo_course.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PersistentLongSet.
+ */
+@DisplayName("PersistentLongSet Tests")
+public class PersistentLongSetTest {
+
+    @Test
+    @DisplayName("Should add and remove without changing earlier versions")
+    void shouldKeepEarlierVersionsUnchanged() {
+        PersistentLongSet empty = PersistentLongSet.empty();
+        PersistentLongSet one = empty.with(7L);
+        PersistentLongSet two = one.with(-3L);
+        PersistentLongSet removed = two.without(7L);
+
+        assertTrue(empty.isEmpty());
+        assertTrue(one.contains(7L));
+        assertFalse(one.contains(-3L));
+        assertEquals(2, two.size());
+        assertArrayEquals(new long[]{-3L, 7L}, two.toArray());
+        assertArrayEquals(new long[]{-3L}, removed.toArray());
+        assertSame(two, two.with(7L));
+        assertSame(two, two.without(8L));
+    }
+
+    @Test
+    @DisplayName("Should order negative, zero and extreme values")
+    void shouldOrderAllValues() {
+        PersistentLongSet set = PersistentLongSet.of(0L, Long.MAX_VALUE, -1L, Long.MIN_VALUE, 5L, -5L, 5L);
+
+        assertEquals(6, set.size());
+        assertArrayEquals(new long[]{Long.MIN_VALUE, -5L, -1L, 0L, 5L, Long.MAX_VALUE}, set.toArray());
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertFalse(set.without(Long.MIN_VALUE).contains(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should agree with a TreeSet under random changes, keeping every version")
+    void shouldAgreeWithTreeSet() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        PersistentLongSet set = PersistentLongSet.empty();
+        List<PersistentLongSet> versions = new ArrayList<>();
+        List<long[]> snapshots = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            long value = random.nextInt(400) - 200L;
+            if (random.nextInt(3) == 0) {
+                expected.remove(value);
+                set = set.without(value);
+            } else {
+                expected.add(value);
+                set = set.with(value);
+            }
+            assertEquals(expected.contains(value), set.contains(value));
+            if (i % 500 == 0) {
+                versions.add(set);
+                snapshots.add(expected.stream().mapToLong(Long::longValue).toArray());
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.toArray());
+        for (int i = 0; i < versions.size(); i++) {
+            assertArrayEquals(snapshots.get(i), versions.get(i).toArray());
+        }
+    }
+}